@@ -0,0 +1,60 @@
+package net.meisen.general.genmisc.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks-jar. The runner accepts the same arguments as
+ * the default JMH main-class (e.g. a regular expression selecting the
+ * benchmarks to run, {@code -f}, {@code -wi}, {@code -i}, {@code -rf json}),
+ * but always adds the {@code GCProfiler}, so that the allocation rate is
+ * reported next to the throughput of each benchmark.
+ *
+ * @author pmeisen
+ *
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * Runs the selected benchmarks, or shows the help or one of the lists
+	 * (i.e. {@code -h}, {@code -l}, {@code -lp}, {@code -lprof} and
+	 * {@code -lrf}) like the default JMH main-class does.
+	 *
+	 * @param args
+	 *            the JMH command-line arguments
+	 *
+	 * @throws CommandLineOptionException
+	 *             if the arguments cannot be parsed
+	 * @throws RunnerException
+	 *             if the benchmarks fail
+	 * @throws IOException
+	 *             if the help cannot be written
+	 */
+	public static void main(final String[] args)
+			throws CommandLineOptionException, RunnerException, IOException {
+		final CommandLineOptions cmdOptions = new CommandLineOptions(args);
+
+		if (cmdOptions.shouldHelp()) {
+			cmdOptions.showHelp();
+		} else if (cmdOptions.shouldList()) {
+			new Runner(cmdOptions).list();
+		} else if (cmdOptions.shouldListWithParams()) {
+			new Runner(cmdOptions).listWithParams(cmdOptions);
+		} else if (cmdOptions.shouldListProfilers()) {
+			cmdOptions.listProfilers();
+		} else if (cmdOptions.shouldListResultFormats()) {
+			cmdOptions.listResultFormats();
+		} else {
+			final Options options = new OptionsBuilder().parent(cmdOptions)
+					.addProfiler(GCProfiler.class).build();
+			new Runner(options).run();
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package net.meisen.general.genmisc.benchmarks.raster;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import net.meisen.general.genmisc.raster.definition.RasterBucket;
+import net.meisen.general.genmisc.raster.definition.impl.date.DateGranularity;
+import net.meisen.general.genmisc.raster.definition.impl.date.DateRasterLogic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the bucket calculations of the {@code DateRasterLogic} for each
+ * {@code DateGranularity}.
+ *
+ * @author pmeisen
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateRasterLogicBenchmark {
+	private static final int DATA_SIZE = 1 << 10;
+
+	/**
+	 * The {@code DateGranularity} of the logic.
+	 */
+	@Param({ "MINUTES", "DAYS", "WEEKS", "MONTHS" })
+	public DateGranularity granularity;
+
+	private DateRasterLogic logic;
+	private Date[] dates;
+	private RasterBucket[] buckets;
+	private int pos;
+
+	/**
+	 * Creates the logic and the values to calculate the buckets for.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		logic = RasterFixtures.createLogic(granularity, 15);
+
+		dates = new Date[DATA_SIZE];
+		buckets = new RasterBucket[DATA_SIZE];
+		final long base = 1390176000000l;
+		for (int i = 0; i < DATA_SIZE; i++) {
+			dates[i] = new Date(base + i * 7919l * 60000l);
+			buckets[i] = logic.getBucket(dates[i]);
+		}
+	}
+
+	private int next() {
+		pos = (pos + 1) & (DATA_SIZE - 1);
+		return pos;
+	}
+
+	/**
+	 * @return the bucket of a value
+	 */
+	@Benchmark
+	public RasterBucket getBucket() {
+		return logic.getBucket(dates[next()]);
+	}
+
+	/**
+	 * @return the absolute start of the bucket of a value
+	 */
+	@Benchmark
+	public Date getAbsoluteBucketStart() {
+		return logic.getAbsoluteBucketStart(dates[next()]);
+	}
+
+	/**
+	 * @return the absolute end of the bucket of a value
+	 */
+	@Benchmark
+	public Date getAbsoluteBucketEnd() {
+		return logic.getAbsoluteBucketEnd(dates[next()]);
+	}
+
+	/**
+	 * @return the value increased by the bucket size
+	 */
+	@Benchmark
+	public Date increaseAbsoluteValueByBucketSize() {
+		return logic.increaseAbsoluteValueByBucketSize(dates[next()]);
+	}
+
+	/**
+	 * @return the start of a bucket
+	 */
+	@Benchmark
+	public Date getBucketStart() {
+		return logic.getBucketStart(buckets[next()]);
+	}
+
+	/**
+	 * @return the end of a bucket
+	 */
+	@Benchmark
+	public Date getBucketEnd() {
+		return logic.getBucketEnd(buckets[next()]);
+	}
+}
@@ -0,0 +1,211 @@
+package net.meisen.general.genmisc.benchmarks.raster;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+
+import net.meisen.general.genmisc.raster.configuration.impl.BaseRasterConfiguration;
+import net.meisen.general.genmisc.raster.data.IModelData;
+import net.meisen.general.genmisc.raster.data.impl.BaseModelData;
+import net.meisen.general.genmisc.raster.definition.IRaster;
+import net.meisen.general.genmisc.raster.definition.RasterModelEntryType;
+import net.meisen.general.genmisc.raster.definition.impl.BaseRaster;
+import net.meisen.general.genmisc.raster.definition.impl.BaseRasterModel;
+import net.meisen.general.genmisc.raster.definition.impl.BaseRasterModelEntry;
+import net.meisen.general.genmisc.raster.definition.impl.date.DateGranularity;
+import net.meisen.general.genmisc.raster.definition.impl.date.DateRasterGranularity;
+import net.meisen.general.genmisc.raster.definition.impl.date.DateRasterLogic;
+import net.meisen.general.genmisc.raster.function.impl.BucketLabel;
+import net.meisen.general.genmisc.raster.function.impl.Count;
+import net.meisen.general.genmisc.raster.function.impl.Group;
+import net.meisen.general.genmisc.raster.function.impl.IntervalSum;
+import net.meisen.general.genmisc.raster.function.impl.Value;
+
+/**
+ * Fixtures shared by the raster benchmarks, i.e. the <code>Raster</code>,
+ * <code>RasterModel</code> and <code>ModelData</code> used to measure.
+ *
+ * @author pmeisen
+ *
+ */
+public class RasterFixtures {
+
+	/**
+	 * The name of the <code>RasterModel</code> created
+	 */
+	public static final String MODELNAME = "MODEL";
+	/**
+	 * The name of the interval-start data-field in the <code>ModelData</code>
+	 */
+	public static final String MD_INT_START = "INT_START";
+	/**
+	 * The name of the interval-end data-field in the <code>ModelData</code>
+	 */
+	public static final String MD_INT_END = "INT_END";
+	/**
+	 * The name of the first group data-field in the <code>ModelData</code>
+	 */
+	public static final String MD_GROUP1 = "GROUP1";
+	/**
+	 * The name of the second group data-field in the <code>ModelData</code>
+	 */
+	public static final String MD_GROUP2 = "GROUP2";
+	/**
+	 * The name of the <code>Group</code> label entry of the
+	 * <code>RasterModel</code>
+	 */
+	public static final String MRD_GROUP = "GROUP";
+	/**
+	 * The name of the <code>BucketLabel</code> entry of the
+	 * <code>RasterModel</code>
+	 */
+	public static final String MRD_LABEL = "LABEL";
+
+	/**
+	 * Creates a <code>RasterLogic</code> for the specified
+	 * <code>granularity</code>.
+	 *
+	 * @param granularity
+	 *            the <code>DateGranularity</code> to be used
+	 * @param bucketSize
+	 *            the size of the buckets
+	 *
+	 * @return the created <code>RasterLogic</code>
+	 */
+	public static DateRasterLogic createLogic(
+			final DateGranularity granularity, final int bucketSize) {
+		return new DateRasterLogic(new DateRasterGranularity(granularity,
+				bucketSize));
+	}
+
+	/**
+	 * Creates a <code>RasterModel</code> counting and summing up the added
+	 * intervals. If <code>grouped</code> the model defines two
+	 * <code>GROUP</code> entries and a <code>Group</code> label.
+	 *
+	 * @param grouped
+	 *            <code>true</code> if the <code>RasterModel</code> should group
+	 *            the data, otherwise <code>false</code>
+	 *
+	 * @return the created <code>RasterModel</code>
+	 */
+	public static BaseRasterModel createModel(final boolean grouped) {
+		final BaseRasterModel model = new BaseRasterModel(
+				new BaseRasterModelEntry("START",
+						RasterModelEntryType.INTERVALSTART, new Value(),
+						MD_INT_START), new BaseRasterModelEntry("END",
+						RasterModelEntryType.INTERVALEND, new Value(),
+						MD_INT_END));
+
+		if (grouped) {
+			model.addEntry(new BaseRasterModelEntry("GROUPER1",
+					RasterModelEntryType.GROUP, new Value(), MD_GROUP1));
+			model.addEntry(new BaseRasterModelEntry("GROUPER2",
+					RasterModelEntryType.GROUP, new Value(), MD_GROUP2));
+			model.addEntry(new BaseRasterModelEntry(MRD_GROUP,
+					RasterModelEntryType.VALUE, new Group(),
+					"[GROUPER1] of [GROUPER2]"));
+		}
+		model.addEntry(new BaseRasterModelEntry("COUNT",
+				RasterModelEntryType.VALUE, new Count()));
+		model.addEntry(new BaseRasterModelEntry("SUM",
+				RasterModelEntryType.VALUE, new IntervalSum()));
+		model.addEntry(new BaseRasterModelEntry(MRD_LABEL,
+				RasterModelEntryType.VALUE, new BucketLabel(),
+				"%1$tH:%1$tM - %2$tH:%2$tM"));
+
+		return model;
+	}
+
+	/**
+	 * Creates a <code>RasterConfiguration</code> with one
+	 * <code>RasterModel</code> named {@link #MODELNAME}.
+	 *
+	 * @param granularity
+	 *            the <code>DateGranularity</code> to be used
+	 * @param bucketSize
+	 *            the size of the buckets
+	 * @param grouped
+	 *            <code>true</code> if the <code>RasterModel</code> should group
+	 *            the data, otherwise <code>false</code>
+	 *
+	 * @return the created <code>RasterConfiguration</code>
+	 */
+	public static BaseRasterConfiguration<Date> createConfiguration(
+			final DateGranularity granularity, final int bucketSize,
+			final boolean grouped) {
+		final BaseRasterConfiguration<Date> configuration = new BaseRasterConfiguration<Date>(
+				createLogic(granularity, bucketSize));
+		configuration.setLocale(Locale.US);
+		configuration.addModel(MODELNAME, createModel(grouped));
+
+		return configuration;
+	}
+
+	/**
+	 * Creates a <code>Raster</code> with one <code>RasterModel</code> named
+	 * {@link #MODELNAME}.
+	 *
+	 * @param granularity
+	 *            the <code>DateGranularity</code> to be used
+	 * @param bucketSize
+	 *            the size of the buckets
+	 * @param grouped
+	 *            <code>true</code> if the <code>RasterModel</code> should group
+	 *            the data, otherwise <code>false</code>
+	 *
+	 * @return the created <code>Raster</code>
+	 */
+	public static IRaster<Date> createRaster(
+			final DateGranularity granularity, final int bucketSize,
+			final boolean grouped) {
+		return new BaseRaster<Date>(createConfiguration(granularity,
+				bucketSize, grouped));
+	}
+
+	/**
+	 * Creates <code>amount</code> random <code>ModelData</code> instances. The
+	 * intervals start within one day and last up to
+	 * <code>maxDurationInMinutes</code>. The group values are picked out of
+	 * <code>groups</code> different values.
+	 *
+	 * @param amount
+	 *            the amount of <code>ModelData</code> to be created
+	 * @param groups
+	 *            the amount of different groups, i.e. the cardinality of the
+	 *            group values
+	 * @param maxDurationInMinutes
+	 *            the maximal duration of an interval
+	 * @param seed
+	 *            the seed used for the random values
+	 *
+	 * @return the created <code>ModelData</code>
+	 */
+	public static IModelData[] createModelData(final int amount,
+			final int groups, final int maxDurationInMinutes, final long seed) {
+		final Random random = new Random(seed);
+
+		final Calendar cal = Calendar.getInstance();
+		cal.clear();
+		cal.set(2014, Calendar.JANUARY, 20);
+		final long base = cal.getTimeInMillis();
+
+		final IModelData[] data = new IModelData[amount];
+		for (int i = 0; i < amount; i++) {
+			final long start = base + random.nextInt(24 * 60) * 60000l;
+			final long end = start + (1 + random.nextInt(maxDurationInMinutes))
+					* 60000l;
+			final int group = random.nextInt(Math.max(1, groups));
+
+			final BaseModelData md = new BaseModelData();
+			md.setValue(MD_INT_START, new Date(start));
+			md.setValue(MD_INT_END, new Date(end));
+			md.setValue(MD_GROUP1, "Group " + (group % 10));
+			md.setValue(MD_GROUP2, "Subgroup " + (group / 10));
+			data[i] = md;
+		}
+
+		return data;
+	}
+}
@@ -0,0 +1,90 @@
+package net.meisen.general.genmisc.benchmarks.raster;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import net.meisen.general.genmisc.raster.data.IModelData;
+import net.meisen.general.genmisc.raster.definition.IRaster;
+import net.meisen.general.genmisc.raster.definition.impl.date.DateGranularity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the ingest of <code>ModelData</code> into a <code>Raster</code>,
+ * i.e. {@link IRaster#addModelData(IModelData)}, with and without groups.
+ *
+ * @author pmeisen
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RasterIngestBenchmark {
+	private static final int DATA_SIZE = 1 << 14;
+
+	/**
+	 * The amount of different groups of the added data, {@code 0} creates a
+	 * <code>RasterModel</code> without any groups.
+	 */
+	@Param({ "0", "10", "1000" })
+	public int groups;
+
+	/**
+	 * The size of the buckets (in minutes).
+	 */
+	@Param({ "1", "30" })
+	public int bucketSize;
+
+	/**
+	 * The maximal duration of an interval (in minutes).
+	 */
+	@Param({ "60" })
+	public int maxDuration;
+
+	private IModelData[] data;
+	private IRaster<Date> raster;
+	private int pos;
+
+	/**
+	 * Creates the data to be added.
+	 */
+	@Setup(Level.Trial)
+	public void createData() {
+		data = RasterFixtures.createModelData(DATA_SIZE, groups, maxDuration,
+				4711l);
+	}
+
+	/**
+	 * Creates an empty <code>Raster</code> for each iteration, so that the
+	 * amount of groups does not grow over the iterations.
+	 */
+	@Setup(Level.Iteration)
+	public void createRaster() {
+		raster = RasterFixtures.createRaster(DateGranularity.MINUTES,
+				bucketSize, groups > 0);
+		pos = 0;
+	}
+
+	/**
+	 * Adds one record to the <code>Raster</code>.
+	 */
+	@Benchmark
+	public void addModelData() {
+		raster.addModelData(data[pos]);
+		pos = (pos + 1) & (DATA_SIZE - 1);
+	}
+}
@@ -0,0 +1,118 @@
+package net.meisen.general.genmisc.benchmarks.raster;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import net.meisen.general.genmisc.raster.configuration.IRasterConfiguration;
+import net.meisen.general.genmisc.raster.data.IModelData;
+import net.meisen.general.genmisc.raster.data.IRasterModelData;
+import net.meisen.general.genmisc.raster.definition.IRaster;
+import net.meisen.general.genmisc.raster.definition.IRasterModelEntry;
+import net.meisen.general.genmisc.raster.definition.impl.date.DateGranularity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the formatting done by the <code>Group</code> and
+ * <code>BucketLabel</code> functions and the reading of a filled
+ * <code>Raster</code> using {@link IRaster#getAll()}.
+ *
+ * @author pmeisen
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RasterReadBenchmark {
+	private static final int DATA_SIZE = 1 << 12;
+
+	/**
+	 * The amount of different groups within the <code>Raster</code>.
+	 */
+	@Param({ "1", "100" })
+	public int groups;
+
+	private IRasterConfiguration<Date> configuration;
+	private IRasterModelEntry groupEntry;
+	private IRasterModelEntry labelEntry;
+
+	private IModelData[] data;
+	private IRaster<Date> raster;
+	private int pos;
+
+	/**
+	 * Creates the <code>Raster</code> and fills it with data.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		raster = RasterFixtures.createRaster(DateGranularity.MINUTES, 30,
+				true);
+		configuration = raster.getConfiguration();
+
+		groupEntry = configuration.getModel(RasterFixtures.MODELNAME)
+				.getEntry(RasterFixtures.MRD_GROUP);
+		labelEntry = configuration.getModel(RasterFixtures.MODELNAME)
+				.getEntry(RasterFixtures.MRD_LABEL);
+
+		data = RasterFixtures.createModelData(DATA_SIZE, groups, 60, 4711l);
+		for (final IModelData md : data) {
+			raster.addModelData(md);
+		}
+	}
+
+	private IModelData next() {
+		pos = (pos + 1) & (DATA_SIZE - 1);
+		return data[pos];
+	}
+
+	/**
+	 * @return the label created by the <code>Group</code> function
+	 */
+	@Benchmark
+	public Object groupLabel() {
+		return groupEntry.execute(RasterFixtures.MODELNAME, configuration,
+				next());
+	}
+
+	/**
+	 * @return the label created by the <code>BucketLabel</code> function
+	 */
+	@Benchmark
+	public Object bucketLabel() {
+		final IModelData md = next();
+		return labelEntry.execute(RasterFixtures.MODELNAME, configuration,
+				md.getValue(RasterFixtures.MD_INT_START),
+				md.getValue(RasterFixtures.MD_INT_END));
+	}
+
+	/**
+	 * Reads all the data of the <code>Raster</code>.
+	 *
+	 * @param bh
+	 *            the {@code Blackhole} to consume the values
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void getAll(final Blackhole bh) {
+		final Collection<IRasterModelData> all = raster.getAll();
+		for (final IRasterModelData rmd : all) {
+			bh.consume(rmd.getValue("COUNT"));
+		}
+	}
+}
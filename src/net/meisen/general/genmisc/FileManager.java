@@ -54,6 +54,25 @@ public class FileManager {
 		return file;
 	}
 
+	/**
+	 * Removes a single file created with this <code>FileManager</code>, the
+	 * file is not tracked anymore afterwards.
+	 * 
+	 * @param file
+	 *            the file to be removed
+	 * 
+	 * @return <code>true</code> if the file was removed, otherwise
+	 *         <code>false</code>
+	 */
+	public boolean deleteFile(final File file) {
+		if (file.delete() || Files.deleteDir(file)) {
+			createdFiles.remove(file);
+			return true;
+		} else {
+			return false;
+		}
+	}
+
 	/**
 	 * Removes all the files created with this <code>FileManager</code>
 	 */
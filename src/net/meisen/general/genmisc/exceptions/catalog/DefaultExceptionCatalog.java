@@ -1,15 +1,14 @@
 package net.meisen.general.genmisc.exceptions.catalog;
 
+import net.meisen.general.genmisc.types.DetectedEncoding;
 import net.meisen.general.genmisc.types.Files;
 import net.meisen.general.genmisc.types.Streams;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Properties;
@@ -91,13 +90,11 @@ public class DefaultExceptionCatalog extends HashMap<Integer, String> implements
         final Properties properties = new Properties();
 
         try {
-            // we have to read the stream multiple tymes so get it into a
-            // byte-array
-            final byte[] bytes = Streams.copyStreamToByteArray(stream);
+            // detect the encoding, the stream is positioned at its start
+            final DetectedEncoding detected = Streams.detectEncoding(stream, null);
 
             // load the properties
-            final String encoding = Streams.guessEncoding(new ByteArrayInputStream(bytes), null);
-            properties.load(new InputStreamReader(new ByteArrayInputStream(bytes), encoding));
+            properties.load(detected.getReader());
 
             // add the properties with the encoding we determined
             addEntries(properties);
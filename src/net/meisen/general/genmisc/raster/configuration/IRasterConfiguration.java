@@ -2,6 +2,7 @@ package net.meisen.general.genmisc.raster.configuration;
 
 import java.util.Collection;
 import java.util.Locale;
+import java.util.TimeZone;
 
 import net.meisen.general.genmisc.raster.definition.IRasterGranularity;
 import net.meisen.general.genmisc.raster.definition.IRasterLogic;
@@ -76,4 +77,14 @@ public interface IRasterConfiguration<T> {
 	 *         <code>null</code>
 	 */
 	public Locale getLocale();
+
+	/**
+	 * This method is used to determine the <code>TimeZone</code> the buckets
+	 * of the <code>Raster</code> are calculated in. This method should never
+	 * return <code>null</code>, the returned instance must not be modified.
+	 * 
+	 * @return the <code>TimeZone</code> to be used, should never return
+	 *         <code>null</code>
+	 */
+	public TimeZone getTimeZone();
 }
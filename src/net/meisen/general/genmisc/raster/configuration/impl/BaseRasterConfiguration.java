@@ -8,11 +8,13 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.TimeZone;
 
 import net.meisen.general.genmisc.raster.configuration.IRasterConfiguration;
 import net.meisen.general.genmisc.raster.definition.IRasterGranularity;
 import net.meisen.general.genmisc.raster.definition.IRasterLogic;
 import net.meisen.general.genmisc.raster.definition.IRasterModel;
+import net.meisen.general.genmisc.raster.definition.IZonedRasterLogic;
 import net.meisen.general.genmisc.raster.definition.Events.Event;
 import net.meisen.general.genmisc.raster.definition.Events.RasterConfigurationEvents;
 import net.meisen.general.genmisc.types.Locales;
@@ -38,13 +40,19 @@ public class BaseRasterConfiguration<T> extends Observable implements
 	 */
 	protected final IRasterGranularity<T> granularity;
 	/**
-	 * the <code>RasterLogic</code> to be used
+	 * the <code>RasterLogic</code> to be used, an {@link IZonedRasterLogic} is
+	 * replaced by the one of the <code>TimeZone</code> of the configuration
 	 */
-	protected final IRasterLogic<T> logic;
+	protected IRasterLogic<T> logic;
 	/**
 	 * The {@link Locale} setting for this <code>Raster</code>
 	 */
 	protected Locale locale = Locale.getDefault();
+	/**
+	 * The {@link TimeZone} the buckets of the <code>Raster</code> are
+	 * calculated in, the instance is never modified
+	 */
+	protected TimeZone timeZone = TimeZone.getDefault();
 
 	/**
 	 * The <code>Granularity</code> used for the <code>Raster</code>
@@ -54,6 +62,26 @@ public class BaseRasterConfiguration<T> extends Observable implements
 	 *            cannot be <code>null</code>
 	 */
 	public BaseRasterConfiguration(final IRasterLogic<T> logic) {
+		this(logic, null);
+	}
+
+	/**
+	 * The <code>Granularity</code> used for the <code>Raster</code>, whereby
+	 * the buckets are calculated within the specified <code>TimeZone</code>.
+	 * 
+	 * @param logic
+	 *            the <code>RasterGranularity</code> of the <code>Raster</code>,
+	 *            cannot be <code>null</code>
+	 * @param timeZone
+	 *            the <code>TimeZone</code> to be used, <code>null</code> to
+	 *            use the <code>TimeZone</code> of an
+	 *            {@link IZonedRasterLogic} or otherwise the default
+	 *            <code>TimeZone</code>
+	 * 
+	 * @see #setTimeZone(TimeZone)
+	 */
+	public BaseRasterConfiguration(final IRasterLogic<T> logic,
+			final TimeZone timeZone) {
 
 		if (logic == null) {
 			throw new IllegalArgumentException("The RasterLogic cannot be null");
@@ -61,6 +89,12 @@ public class BaseRasterConfiguration<T> extends Observable implements
 
 		this.granularity = logic.getGranularity();
 		this.logic = logic;
+
+		if (timeZone == null && logic instanceof IZonedRasterLogic) {
+			setTimeZone(((IZonedRasterLogic<T>) logic).getTimeZone());
+		} else {
+			setTimeZone(timeZone);
+		}
 	}
 
 	/**
@@ -156,6 +190,49 @@ public class BaseRasterConfiguration<T> extends Observable implements
 		return locale;
 	}
 
+	/**
+	 * Sets the <code>TimeZone</code> the buckets are calculated in, if
+	 * <code>null</code> is passed, the default <code>TimeZone</code> will be
+	 * used. An {@link IZonedRasterLogic} (e.g.
+	 * <code>ZonedDateRasterLogic</code>) is replaced by the logic of the
+	 * <code>TimeZone</code> (see {@link IZonedRasterLogic#withTimeZone}),
+	 * other <code>RasterLogic</code> implementations use the default
+	 * <code>TimeZone</code>. The <code>TimeZone</code> should be set before
+	 * any data is added to a <code>Raster</code> of the configuration.
+	 * 
+	 * @param timeZone
+	 *            the <code>TimeZone</code> to be used
+	 * 
+	 * @see TimeZone#getDefault()
+	 */
+	public void setTimeZone(final TimeZone timeZone) {
+
+		if (timeZone == null) {
+			this.timeZone = TimeZone.getDefault();
+		} else {
+			this.timeZone = (TimeZone) timeZone.clone();
+		}
+
+		// use the logic of the TimeZone
+		if (logic instanceof IZonedRasterLogic) {
+			logic = ((IZonedRasterLogic<T>) logic).withTimeZone(this.timeZone);
+		}
+
+		// notify
+		setChanged();
+		notifyObservers(new Event(RasterConfigurationEvents.TIMEZONECHANGED,
+				this.timeZone));
+	}
+
+	/**
+	 * Gets the <code>TimeZone</code> the buckets are calculated in. The
+	 * returned instance must not be modified.
+	 */
+	@Override
+	public TimeZone getTimeZone() {
+		return timeZone;
+	}
+
 	@Override
 	public IRasterLogic<T> getLogic() {
 		return logic;
@@ -3,6 +3,9 @@ package net.meisen.general.genmisc.raster.data;
 import java.util.Collection;
 
 import net.meisen.general.genmisc.raster.definition.RasterBucket;
+import net.meisen.general.genmisc.raster.function.IsInvertible;
+import net.meisen.general.genmisc.raster.metrics.IRasterMetrics;
+import net.meisen.general.genmisc.raster.tracking.IRasterDirtyTracker;
 
 
 /**
@@ -53,6 +56,31 @@ public interface IRasterModelDataCollection<T> {
 	 */
 	public boolean addModelData(final IModelData modelData);
 
+	/**
+	 * Removes previously added <code>ModelData</code> from the
+	 * <code>RasterModelDataCollection</code>, i.e. the contribution of the
+	 * <code>ModelData</code> is removed from the buckets covered by its
+	 * interval. The <code>ModelData</code> must be equal (concerning the
+	 * values used by the <code>RasterModel</code>) to the added one.
+	 * 
+	 * @param modelData
+	 *            the <code>ModelData</code> to be removed
+	 * @return <code>true</code> if the data was removed, otherwise
+	 *         <code>false</code> (i.e. condition of <code>RasterModel</code>
+	 *         not fullfilled, start or end is <code>null</code>, or the
+	 *         added <code>ModelData</code> is tracked and no equal
+	 *         <code>ModelData</code> was added, see
+	 *         {@link #setDirtyTracker(IRasterDirtyTracker)})
+	 * 
+	 * @throws IllegalStateException
+	 *             if the <code>RasterModel</code> uses a none invertible
+	 *             aggregatable <code>RasterFunction</code>
+	 * 
+	 * @see IsInvertible
+	 */
+	public boolean removeModelData(final IModelData modelData)
+			throws IllegalStateException;
+
 	/**
 	 * The amount of <code>ModelData</code> added so far. If more than
 	 * <code>Integer.MAX_VALUE</code> data is added, the method will return
@@ -64,4 +92,25 @@ public interface IRasterModelDataCollection<T> {
 	 * @see Integer#MAX_VALUE
 	 */
 	public int volume();
+
+	/**
+	 * Sets the <code>RasterMetrics</code> to be informed about the
+	 * <code>ModelData</code> added to the <code>RasterModelDataCollection</code>.
+	 * 
+	 * @param metrics
+	 *            the <code>RasterMetrics</code> to be used, <code>null</code>
+	 *            to disable the collection
+	 */
+	public void setMetrics(final IRasterMetrics metrics);
+
+	/**
+	 * Sets the <code>RasterDirtyTracker</code> to be informed about the
+	 * <code>RasterBuckets</code> modified within the
+	 * <code>RasterModelDataCollection</code>.
+	 * 
+	 * @param dirtyTracker
+	 *            the <code>RasterDirtyTracker</code> to be used,
+	 *            <code>null</code> to disable the tracking
+	 */
+	public void setDirtyTracker(final IRasterDirtyTracker dirtyTracker);
 }
@@ -1,7 +1,13 @@
 package net.meisen.general.genmisc.raster.data;
 
+import java.io.File;
 import java.util.Collection;
 
+import net.meisen.general.genmisc.FileManager;
+import net.meisen.general.genmisc.raster.function.IsInvertible;
+import net.meisen.general.genmisc.raster.metrics.IRasterMetrics;
+import net.meisen.general.genmisc.raster.tracking.IRasterDirtyTracker;
+
 /**
  * A <code>RasterModelGroupCollection</code> is used to
  * 
@@ -29,6 +35,31 @@ public interface IRasterModelGroupCollection<T> {
 	 */
 	public Collection<? extends IRasterModelData> getAll();
 
+	/**
+	 * Removes previously added <code>ModelData</code> from the
+	 * <code>RasterModelGroupCollection</code>, i.e. the contribution of the
+	 * <code>ModelData</code> is removed from the buckets covered by its
+	 * interval. The <code>ModelData</code> must be equal (concerning the
+	 * values used by the <code>RasterModel</code>) to the added one.
+	 * 
+	 * @param modelData
+	 *            the <code>ModelData</code> to be removed
+	 * @return <code>true</code> if the data was removed, otherwise
+	 *         <code>false</code> (i.e. condition of <code>RasterModel</code>
+	 *         not fullfilled, start or end is <code>null</code>, or the
+	 *         added <code>ModelData</code> is tracked and no equal
+	 *         <code>ModelData</code> was added, see
+	 *         {@link #setDirtyTracker(IRasterDirtyTracker)})
+	 * 
+	 * @throws IllegalStateException
+	 *             if the <code>RasterModel</code> uses a none invertible
+	 *             aggregatable <code>RasterFunction</code>
+	 * 
+	 * @see IsInvertible
+	 */
+	public boolean removeModelData(final IModelData modelData)
+			throws IllegalStateException;
+
 	/**
 	 * The amount of <code>ModelData</code> added so far. If more than
 	 * <code>Integer.MAX_VALUE</code> data is added, the method will return
@@ -45,4 +76,43 @@ public interface IRasterModelGroupCollection<T> {
 	 * Resets all currently calculated information
 	 */
 	void reset();
+
+	/**
+	 * Sets the <code>RasterMetrics</code> to be informed about the
+	 * <code>ModelData</code> added to the
+	 * <code>RasterModelGroupCollection</code>.
+	 * 
+	 * @param metrics
+	 *            the <code>RasterMetrics</code> to be used, <code>null</code>
+	 *            to disable the collection
+	 */
+	public void setMetrics(final IRasterMetrics metrics);
+
+	/**
+	 * Limits the amount of groups kept in memory. If more groups are created,
+	 * the least recently used groups are written to files within the
+	 * <code>spillDirectory</code> and read again when needed.
+	 * 
+	 * @param maxResidentGroups
+	 *            the maximal amount of groups kept in memory, a value smaller
+	 *            than <code>1</code> disables the spilling
+	 * @param fileManager
+	 *            the <code>FileManager</code> used to create and remove the
+	 *            files
+	 * @param spillDirectory
+	 *            the directory to write the files to
+	 */
+	public void setSpilling(final int maxResidentGroups,
+			final FileManager fileManager, final File spillDirectory);
+
+	/**
+	 * Sets the <code>RasterDirtyTracker</code> to be informed about the
+	 * <code>RasterBuckets</code> modified within the
+	 * <code>RasterModelGroupCollection</code>.
+	 * 
+	 * @param dirtyTracker
+	 *            the <code>RasterDirtyTracker</code> to be used,
+	 *            <code>null</code> to disable the tracking
+	 */
+	public void setDirtyTracker(final IRasterDirtyTracker dirtyTracker);
 }
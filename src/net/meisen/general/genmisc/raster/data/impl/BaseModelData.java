@@ -68,6 +68,22 @@ public class BaseModelData implements IModelData {
 		return val;
 	}
 
+	@Override
+	public boolean equals(final Object obj) {
+		if (obj == this) {
+			return true;
+		} else if (obj != null && obj.getClass().equals(getClass())) {
+			return values.equals(((BaseModelData) obj).values);
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return values.hashCode();
+	}
+
 	@Override
 	public String toString() {
 		return values.toString();
@@ -1,9 +1,15 @@
 package net.meisen.general.genmisc.raster.data.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.TreeMap;
@@ -19,7 +25,13 @@ import net.meisen.general.genmisc.raster.definition.IRasterModel;
 import net.meisen.general.genmisc.raster.definition.IRasterModelEntry;
 import net.meisen.general.genmisc.raster.definition.RasterBucket;
 import net.meisen.general.genmisc.raster.definition.RasterModelEntryType;
+import net.meisen.general.genmisc.raster.metrics.IRasterMetrics;
+import net.meisen.general.genmisc.raster.tracking.IRasterDirtyTracker;
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+import net.meisen.general.genmisc.resources.WrappedOutputStreamWriter;
 import net.meisen.general.genmisc.types.Classes;
+import net.meisen.general.genmisc.types.Streams;
 
 /**
  * Implementation of the <code>RasterModelDataCollection</code>
@@ -60,6 +72,42 @@ public class BaseRasterModelDataCollection<T> implements
 	 * the amount of <code>ModelData</code> added so far
 	 */
 	protected int addedModelData = 0;
+	/**
+	 * The <code>ModelData</code> added while a <code>RasterDirtyTracker</code>
+	 * is set, <code>null</code> if the added <code>ModelData</code> is not
+	 * tracked
+	 */
+	protected AddedRecords addedRecords = null;
+	/**
+	 * The <code>RasterMetrics</code> to be informed, <code>null</code> if no
+	 * information should be collected
+	 */
+	protected IRasterMetrics metrics = null;
+	/**
+	 * The <code>RasterDirtyTracker</code> informed about the modified
+	 * <code>RasterBuckets</code>, <code>null</code> if nothing is tracked
+	 */
+	protected IRasterDirtyTracker dirtyTracker = null;
+
+	/**
+	 * The <code>ModelData</code> added to a
+	 * <code>RasterModelDataCollection</code>, i.e. the amount of each record
+	 * added. The records are compared using <code>equals</code>, i.e. records
+	 * equal to an added one can be removed.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	protected static class AddedRecords {
+		/**
+		 * The amount of each added record
+		 */
+		protected final Map<IModelData, Integer> counts = new HashMap<IModelData, Integer>();
+		/**
+		 * The amount of all the tracked records
+		 */
+		protected int tracked = 0;
+	}
 
 	/**
 	 * Creates a <code>RasterModelDataCollection</code> which collects all the
@@ -165,6 +213,9 @@ public class BaseRasterModelDataCollection<T> implements
 
 		// set the amount of data to 0
 		addedModelData = 0;
+		if (addedRecords != null) {
+			addedRecords = new AddedRecords();
+		}
 	}
 
 	/**
@@ -270,10 +321,74 @@ public class BaseRasterModelDataCollection<T> implements
 
 	@Override
 	public boolean addModelData(final IModelData modelData) {
+		return apply(modelData, false);
+	}
+
+	@Override
+	public boolean removeModelData(final IModelData modelData)
+			throws IllegalStateException {
+		if (addedModelData == 0) {
+			return false;
+		}
+
+		// make sure that all the values can be reverted
+		checkInvertible(model, modelId);
+
+		return apply(modelData, true);
+	}
+
+	/**
+	 * Checks if all the aggregatable <code>RasterModelEntries</code> of the
+	 * specified <code>RasterModel</code> are invertible, i.e. if
+	 * <code>ModelData</code> can be removed from the model.
+	 * 
+	 * @param model
+	 *            the <code>RasterModel</code> to be checked
+	 * @param modelId
+	 *            the identifier of the <code>RasterModel</code>
+	 * 
+	 * @throws IllegalStateException
+	 *             if the <code>RasterModel</code> uses a none invertible
+	 *             aggregatable <code>RasterFunction</code>
+	 */
+	public static void checkInvertible(final IRasterModel model,
+			final String modelId) throws IllegalStateException {
+		for (final IRasterModelEntry entry : model
+				.getEntries(RasterModelEntryType.VALUE)) {
+			if (entry.isAggregatable() && !entry.isInvertible()) {
+				throw new IllegalStateException("The RasterModelEntry '"
+						+ entry.getName() + "' of the RasterModel '" + modelId
+						+ "' is not invertible, ModelData cannot be removed.");
+			}
+		}
+	}
+
+	/**
+	 * Applies the <code>modelData</code> to all the
+	 * <code>RasterModelData</code> of the buckets covered by the interval of
+	 * the <code>modelData</code>.
+	 * 
+	 * @param modelData
+	 *            the <code>ModelData</code> to be applied
+	 * @param revert
+	 *            <code>true</code> if the contribution of the
+	 *            <code>modelData</code> should be removed, <code>false</code>
+	 *            if it should be added
+	 * 
+	 * @return <code>true</code> if the <code>modelData</code> was applied,
+	 *         otherwise <code>false</code> (i.e. if the <code>modelData</code>
+	 *         should be removed, but all the added <code>ModelData</code> is
+	 *         tracked and none of it is equal to the <code>modelData</code>)
+	 */
+	protected boolean apply(final IModelData modelData, final boolean revert) {
+		final boolean collect = metrics != null && !revert;
 
 		// check if the model has to use this data
 		if (!model.getCondition().checkCondition(modelData)
 				|| modelData == null) {
+			if (collect) {
+				metrics.rejectedByCondition(modelId);
+			}
 			return false;
 		}
 
@@ -293,6 +408,14 @@ public class BaseRasterModelDataCollection<T> implements
 
 		// make sure we have an interval defined
 		if (start == null || end == null) {
+			if (collect) {
+				metrics.rejectedByInterval(modelId);
+			}
+			return false;
+		}
+
+		// only tracked ModelData can be removed, if all the data is tracked
+		if (addedRecords != null && !track(modelData, revert)) {
 			return false;
 		}
 
@@ -314,6 +437,11 @@ public class BaseRasterModelDataCollection<T> implements
 		T bucketValue = start;
 		T endValue;
 
+		// the timings are only taken if someone is interested
+		final boolean measure = collect;
+		final long walkStart = measure ? System.nanoTime() : 0l;
+		long functionNanos = 0l;
+
 		while (logic.compare(bucketValue, end) < 0) {
 
 			// check if its the first iteration or in between
@@ -334,21 +462,77 @@ public class BaseRasterModelDataCollection<T> implements
 					.get(bucketPosition);
 
 			// apply the entries to their RasterModelData instance
+			final long functionStart = measure ? System.nanoTime() : 0l;
 			for (final IRasterModelEntry entry : model
 					.getEntries(RasterModelEntryType.VALUE)) {
 
 				// execute each function
-				if (entry.isAggregatable()) {
+				if (!entry.isAggregatable()) {
+					continue;
+				} else if (revert) {
+					entry.revert(modelId, configuration, modelData,
+							rasterModelData, bucketValue, endValue);
+				} else {
 					entry.execute(modelId, configuration, modelData,
 							rasterModelData, bucketValue, endValue);
 				}
 			}
+			if (measure) {
+				functionNanos += System.nanoTime() - functionStart;
+			}
+			if (dirtyTracker != null) {
+				dirtyTracker.markDirty(modelId, bucketPosition);
+			}
 
 			bucketValue = endValue;
 			i++;
 		}
 
-		addedModelData++;
+		if (measure) {
+			metrics.accepted(modelId, i, System.nanoTime() - walkStart,
+					functionNanos);
+		}
+
+		if (revert) {
+			addedModelData--;
+		} else {
+			addedModelData++;
+		}
+		return true;
+	}
+
+	/**
+	 * Tracks the adding or removal of the <code>modelData</code>.
+	 * 
+	 * @param modelData
+	 *            the <code>ModelData</code> added or removed
+	 * @param revert
+	 *            <code>true</code> if the <code>modelData</code> is removed
+	 * 
+	 * @return <code>false</code> if the <code>modelData</code> cannot be
+	 *         removed, because it was not added while tracking and all the
+	 *         added <code>ModelData</code> was tracked, otherwise
+	 *         <code>true</code>
+	 */
+	protected boolean track(final IModelData modelData, final boolean revert) {
+		final Integer count = addedRecords.counts.get(modelData);
+
+		if (!revert) {
+			addedRecords.counts.put(modelData, count == null ? 1 : count + 1);
+			addedRecords.tracked++;
+		} else if (count != null) {
+			if (count == 1) {
+				addedRecords.counts.remove(modelData);
+			} else {
+				addedRecords.counts.put(modelData, count - 1);
+			}
+			addedRecords.tracked--;
+		} else if (addedModelData <= addedRecords.tracked) {
+
+			// all the data is known, i.e. the data was never added
+			return false;
+		}
+
 		return true;
 	}
 
@@ -356,4 +540,166 @@ public class BaseRasterModelDataCollection<T> implements
 	public int volume() {
 		return addedModelData;
 	}
+
+	@Override
+	public void setMetrics(final IRasterMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	@Override
+	public void setDirtyTracker(final IRasterDirtyTracker dirtyTracker) {
+		this.dirtyTracker = dirtyTracker;
+
+		// the records are only tracked if the modifications are tracked
+		if (dirtyTracker == null) {
+			addedRecords = null;
+		} else if (addedRecords == null) {
+			addedRecords = new AddedRecords();
+		}
+	}
+
+	/**
+	 * Writes the current state of the <code>RasterModelDataCollection</code>
+	 * to the specified <code>out</code>, i.e. the stream is wrapped and
+	 * written using {@link #write(IByteBufferWriter)}. The state can be
+	 * restored using {@link #read(IByteBufferReader)}.
+	 * 
+	 * @param out
+	 *            the <code>OutputStream</code> to write to, the stream is not
+	 *            closed
+	 * 
+	 * @throws IOException
+	 *             if the stream cannot be written
+	 * @throws IllegalStateException
+	 *             if a value cannot be represented as bytes
+	 */
+	public void write(final OutputStream out) throws IOException,
+			IllegalStateException {
+		final WrappedOutputStreamWriter writer = new WrappedOutputStreamWriter(
+				out);
+
+		try {
+			write(writer);
+			writer.flush();
+		} catch (final IllegalStateException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Writes the current state of the <code>RasterModelDataCollection</code>
+	 * to the specified <code>writer</code>, using the compact
+	 * byte-representation of
+	 * {@link Streams#writeNextObject(IByteBufferWriter, Object, boolean)}. The
+	 * state can be restored using {@link #read(IByteBufferReader)}. The
+	 * tracked <code>ModelData</code> (see {@link #addedRecords}) is not
+	 * written.
+	 * 
+	 * @param writer
+	 *            the <code>ByteBufferWriter</code> to write to, the writer is
+	 *            neither flushed nor closed
+	 * 
+	 * @throws IllegalStateException
+	 *             if a value cannot be represented as bytes or if the writer
+	 *             fails
+	 */
+	public void write(final IByteBufferWriter writer)
+			throws IllegalStateException {
+
+		// write the names of the values once
+		final List<String> names = new ArrayList<String>(model.getNames());
+		writeObject(writer, addedModelData);
+		writeObject(writer, names.size());
+		for (final String name : names) {
+			writeObject(writer, name);
+		}
+
+		// write the values of each bucket
+		writeObject(writer, dataCollection.size());
+		for (final Entry<RasterBucket, IRasterModelData> e : dataCollection
+				.entrySet()) {
+			final IRasterModelData data = e.getValue();
+
+			writeObject(writer, e.getKey().getBucketNumber());
+			for (final String name : names) {
+				writeObject(writer, data.getValue(name));
+			}
+		}
+	}
+
+	/**
+	 * Writes a single value to the <code>writer</code>.
+	 * 
+	 * @param writer
+	 *            the <code>ByteBufferWriter</code> to write to
+	 * @param value
+	 *            the value to be written
+	 * 
+	 * @throws IllegalStateException
+	 *             if the value cannot be represented as bytes
+	 */
+	protected void writeObject(final IByteBufferWriter writer,
+			final Object value) throws IllegalStateException {
+		try {
+			Streams.writeNextObject(writer, value, true);
+		} catch (final IllegalArgumentException e) {
+			throw new IllegalStateException("The value '" + value
+					+ "' of the RasterModel '" + modelId
+					+ "' cannot be represented as bytes.", e);
+		}
+	}
+
+	/**
+	 * Restores the state written by {@link #write(OutputStream)}. The state
+	 * replaces the values of the <code>RasterModelData</code> of this
+	 * collection.
+	 * 
+	 * @param reader
+	 *            the reader to read the state from, the reader is not closed
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the reader does not contain a valid state
+	 */
+	public void read(final IByteBufferReader reader)
+			throws IllegalArgumentException {
+		final int volume = (Integer) Streams.readNextObject(reader);
+		final int namesSize = (Integer) Streams.readNextObject(reader);
+		final String[] names = new String[namesSize];
+		for (int i = 0; i < namesSize; i++) {
+			names[i] = (String) Streams.readNextObject(reader);
+		}
+
+		final int bucketsSize = (Integer) Streams.readNextObject(reader);
+		for (int i = 0; i < bucketsSize; i++) {
+			final int bucketNumber = (Integer) Streams.readNextObject(reader);
+			final RasterBucket bucket = new RasterBucket(bucketNumber);
+
+			IRasterModelData data = dataCollection.get(bucket);
+			if (data == null) {
+				data = new BaseRasterModelData();
+				dataCollection.put(bucket, data);
+			}
+
+			for (final String name : names) {
+				data.setValue(name, Streams.readNextObject(reader));
+			}
+		}
+
+		addedModelData = volume;
+	}
+
+	/**
+	 * Releases the <code>RasterModelDataCollection</code>, i.e. it is not
+	 * observing the <code>RasterModel</code> anymore. The collection should
+	 * not be used after it was released.
+	 */
+	public void release() {
+		if (model instanceof Observable) {
+			((Observable) model).deleteObserver(this);
+		}
+	}
 }
@@ -1,12 +1,19 @@
 package net.meisen.general.genmisc.raster.data.impl;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.Set;
+
+import net.meisen.general.genmisc.FileManager;
 
 import net.meisen.general.genmisc.raster.configuration.IRasterConfiguration;
 import net.meisen.general.genmisc.raster.data.IModelData;
@@ -18,6 +25,12 @@ import net.meisen.general.genmisc.raster.definition.Events.RasterModelEvents;
 import net.meisen.general.genmisc.raster.definition.IRasterModel;
 import net.meisen.general.genmisc.raster.definition.IRasterModelEntry;
 import net.meisen.general.genmisc.raster.definition.RasterModelEntryType;
+import net.meisen.general.genmisc.raster.metrics.IRasterMetrics;
+import net.meisen.general.genmisc.raster.tracking.IRasterDirtyTracker;
+import net.meisen.general.genmisc.resources.FileByteBufferReader;
+import net.meisen.general.genmisc.resources.FileByteBufferWriter;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+import net.meisen.general.genmisc.types.Streams;
 
 /**
  * The base implementation of the <code>RasterModelGroupCollection</code>
@@ -55,6 +68,50 @@ public class BaseRasterModelGroupCollection<T> implements
 	 * the amount of <code>ModelData</code> added so far
 	 */
 	protected int addedModelData = 0;
+	/**
+	 * The <code>RasterMetrics</code> to be informed, <code>null</code> if no
+	 * information should be collected
+	 */
+	protected IRasterMetrics metrics = null;
+	/**
+	 * The <code>RasterDirtyTracker</code> informed about the modified
+	 * <code>RasterBuckets</code>, <code>null</code> if nothing is tracked
+	 */
+	protected IRasterDirtyTracker dirtyTracker = null;
+	/**
+	 * The maximal amount of groups kept in memory, a value smaller than
+	 * <code>1</code> if no groups are spilled
+	 */
+	protected int maxResidentGroups = -1;
+	/**
+	 * The <code>FileManager</code> used to create the files of the spilled
+	 * groups
+	 */
+	protected FileManager spillManager = null;
+	/**
+	 * The directory the spilled groups are written to
+	 */
+	protected File spillDirectory = null;
+	/**
+	 * The files of the groups currently spilled
+	 */
+	protected final Map<RasterModelGroupKey, File> spilledCollections = new HashMap<RasterModelGroupKey, File>();
+	/**
+	 * The tracked <code>ModelData</code> of the groups currently spilled, which
+	 * is kept in memory
+	 */
+	protected final Map<RasterModelGroupKey, BaseRasterModelDataCollection.AddedRecords> spilledRecords = new HashMap<RasterModelGroupKey, BaseRasterModelDataCollection.AddedRecords>();
+	/**
+	 * The <code>RasterModelData</code> of the groups currently spilled, which
+	 * is read by {@link #getAll()} and kept until a group is spilled or
+	 * restored; <code>null</code> if not read
+	 */
+	protected List<IRasterModelData> spilledModelData = null;
+	/**
+	 * The groups kept in memory, ordered from the least to the most recently
+	 * used one; only maintained if groups are spilled
+	 */
+	protected final Set<RasterModelGroupKey> usedGroups = new LinkedHashSet<RasterModelGroupKey>();
 
 	/**
 	 * The default constructor used to create a
@@ -103,11 +160,20 @@ public class BaseRasterModelGroupCollection<T> implements
 
 		// get the group and add the data there
 		IRasterModelDataCollection<T> collection = dataCollections.get(key);
-		if (collection == null) {
+		if (collection == null && spilledCollections.containsKey(key)) {
+			collection = restore(key);
+			dataCollections.put(key, collection);
+		} else if (collection == null) {
 			collection = new BaseRasterModelDataCollection<T>(configuration,
 					modelId);
+			collection.setMetrics(metrics);
+			collection.setDirtyTracker(dirtyTracker);
 			dataCollections.put(key, collection);
 
+			if (metrics != null) {
+				metrics.groupCreated(modelId);
+			}
+
 			// set the invariant data
 			for (final IRasterModelEntry entry : model
 					.getEntries(RasterModelEntryType.VALUE)) {
@@ -128,6 +194,14 @@ public class BaseRasterModelGroupCollection<T> implements
 			}
 		}
 
+		// mark the group to be the most recently used one and spill others
+		if (isSpilling()) {
+			usedGroups.remove(key);
+			usedGroups.add(key);
+
+			spill(key);
+		}
+
 		// add the data
 		if (collection.addModelData(modelData)) {
 
@@ -144,6 +218,49 @@ public class BaseRasterModelGroupCollection<T> implements
 		}
 	}
 
+	@Override
+	public boolean removeModelData(final IModelData modelData)
+			throws IllegalStateException {
+
+		// get the group-values
+		final RasterModelGroupKey key = new RasterModelGroupKey(modelData,
+				modelId, configuration);
+
+		// get the group, if there is none there is nothing to remove
+		IRasterModelDataCollection<T> collection = dataCollections.get(key);
+		if (collection == null && spilledCollections.containsKey(key)) {
+			collection = restore(key);
+			dataCollections.put(key, collection);
+		} else if (collection == null) {
+			return false;
+		}
+
+		// mark the group to be the most recently used one and spill others
+		if (isSpilling()) {
+			usedGroups.remove(key);
+			usedGroups.add(key);
+
+			spill(key);
+		}
+
+		// remove the data
+		if (collection.removeModelData(modelData)) {
+			addedModelData--;
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Gets all the <code>RasterModelData</code> of all the groups. The groups
+	 * currently spilled are read from their files once and the read
+	 * <code>RasterModelData</code> is kept in memory until a group is spilled
+	 * or restored, i.e. the returned data of spilled groups is a snapshot and
+	 * modifying it does not modify the spilled groups.
+	 * 
+	 * @return all the <code>RasterModelData</code> of all the groups
+	 */
 	@Override
 	public Collection<? extends IRasterModelData> getAll() {
 		final List<IRasterModelData> rasterModelData = new ArrayList<IRasterModelData>();
@@ -153,9 +270,223 @@ public class BaseRasterModelGroupCollection<T> implements
 			rasterModelData.addAll(collection.getAll());
 		}
 
+		// read the spilled groups if not read already
+		if (spilledModelData == null && spilledCollections.size() > 0) {
+			final List<IRasterModelData> spilled = new ArrayList<IRasterModelData>();
+			for (final File file : spilledCollections.values()) {
+				final BaseRasterModelDataCollection<T> collection = read(file);
+				spilled.addAll(collection.getAll());
+				collection.release();
+			}
+			spilledModelData = spilled;
+		}
+		if (spilledModelData != null) {
+			rasterModelData.addAll(spilledModelData);
+		}
+
 		return rasterModelData;
 	}
 
+	/**
+	 * Checks if groups are spilled, i.e. written to files, if the amount of
+	 * groups exceeds the maximal amount of groups kept in memory.
+	 * 
+	 * @return <code>true</code> if groups are spilled, otherwise
+	 *         <code>false</code>
+	 */
+	public boolean isSpilling() {
+		return maxResidentGroups > 0;
+	}
+
+	/**
+	 * Gets the amount of groups currently kept in memory.
+	 * 
+	 * @return the amount of groups currently kept in memory
+	 */
+	public int getResidentGroups() {
+		return dataCollections.size();
+	}
+
+	/**
+	 * Gets the amount of groups currently written to files.
+	 * 
+	 * @return the amount of groups currently written to files
+	 */
+	public int getSpilledGroups() {
+		return spilledCollections.size();
+	}
+
+	@Override
+	public void setDirtyTracker(final IRasterDirtyTracker dirtyTracker) {
+		this.dirtyTracker = dirtyTracker;
+		if (dirtyTracker == null) {
+			spilledRecords.clear();
+		}
+
+		for (final IRasterModelDataCollection<T> collection : dataCollections
+				.values()) {
+			collection.setDirtyTracker(dirtyTracker);
+		}
+	}
+
+	@Override
+	public void setSpilling(final int maxResidentGroups,
+			final FileManager fileManager, final File spillDirectory) {
+
+		if (maxResidentGroups > 0) {
+			if (fileManager == null) {
+				throw new IllegalArgumentException(
+						"The FileManager must be defined to spill groups.");
+			} else if (spillDirectory == null || !spillDirectory.isDirectory()) {
+				throw new IllegalArgumentException("The spill-directory '"
+						+ spillDirectory + "' is not a valid directory.");
+			}
+
+			// keep track of the groups already in memory
+			if (!isSpilling()) {
+				usedGroups.clear();
+				for (final RasterModelGroupKey key : dataCollections.keySet()) {
+					if (key != null) {
+						usedGroups.add(key);
+					}
+				}
+			}
+
+			this.maxResidentGroups = maxResidentGroups;
+			this.spillManager = fileManager;
+			this.spillDirectory = spillDirectory;
+
+			spill(null);
+		} else {
+
+			// get all the spilled groups back into memory
+			for (final RasterModelGroupKey key : new ArrayList<RasterModelGroupKey>(
+					spilledCollections.keySet())) {
+				dataCollections.put(key, restore(key));
+			}
+
+			this.maxResidentGroups = -1;
+			this.spillManager = null;
+			this.spillDirectory = null;
+			usedGroups.clear();
+		}
+	}
+
+	/**
+	 * Writes the least recently used groups to files until the amount of
+	 * groups kept in memory does not exceed the maximal amount anymore.
+	 * 
+	 * @param current
+	 *            the key of the group currently used, which is never spilled
+	 */
+	protected void spill(final RasterModelGroupKey current) {
+		final Iterator<RasterModelGroupKey> it = usedGroups.iterator();
+
+		while (dataCollections.size() > maxResidentGroups && it.hasNext()) {
+			final RasterModelGroupKey key = it.next();
+			if (key.equals(current)) {
+				continue;
+			}
+
+			final BaseRasterModelDataCollection<T> collection = (BaseRasterModelDataCollection<T>) dataCollections
+					.get(key);
+
+			// write the collection
+			File file = null;
+			IByteBufferWriter writer = null;
+			boolean written = false;
+			try {
+				file = spillManager.createFile(spillDirectory
+						.getAbsolutePath());
+				writer = new FileByteBufferWriter(file);
+				collection.write(writer);
+				writer.flush();
+				written = true;
+			} catch (final IOException e) {
+				throw new IllegalStateException("Unable to spill the group '"
+						+ key + "' of the RasterModel '" + modelId + "'.", e);
+			} finally {
+				Streams.closeIO(writer);
+
+				// remove the incomplete file, the group stays in memory
+				if (!written && file != null) {
+					spillManager.deleteFile(file);
+				}
+			}
+
+			spilledCollections.put(key, file);
+			spilledModelData = null;
+			if (collection.addedRecords != null) {
+				spilledRecords.put(key, collection.addedRecords);
+			}
+
+			// remove it from memory
+			it.remove();
+			dataCollections.remove(key);
+			collection.release();
+		}
+	}
+
+	/**
+	 * Reads the spilled group with the specified <code>key</code> and removes
+	 * the file of the group. If the file cannot be read, the group stays
+	 * spilled.
+	 * 
+	 * @param key
+	 *            the key of the spilled group
+	 * 
+	 * @return the read collection of the group
+	 */
+	protected IRasterModelDataCollection<T> restore(final RasterModelGroupKey key) {
+		final File file = spilledCollections.get(key);
+		final BaseRasterModelDataCollection<T> collection = read(file);
+
+		// keep the group spilled if the file cannot be read
+		spilledCollections.remove(key);
+		spilledModelData = null;
+		spillManager.deleteFile(file);
+
+		// the tracked data is kept in memory
+		final BaseRasterModelDataCollection.AddedRecords records = spilledRecords
+				.remove(key);
+		if (records != null && collection.addedRecords != null) {
+			collection.addedRecords = records;
+		}
+
+		return collection;
+	}
+
+	/**
+	 * Reads a collection written to the specified <code>file</code>.
+	 * 
+	 * @param file
+	 *            the file to read the collection from
+	 * 
+	 * @return the read collection
+	 */
+	protected BaseRasterModelDataCollection<T> read(final File file) {
+		final BaseRasterModelDataCollection<T> collection = new BaseRasterModelDataCollection<T>(
+				configuration, modelId);
+		collection.setMetrics(metrics);
+		collection.setDirtyTracker(dirtyTracker);
+
+		FileByteBufferReader reader = null;
+		try {
+			reader = new FileByteBufferReader(file);
+			collection.read(reader);
+		} catch (final IOException e) {
+			collection.release();
+			throw new IllegalStateException("Unable to read the spilled group '"
+					+ file + "' of the RasterModel '" + modelId + "'.", e);
+		} finally {
+			if (reader != null) {
+				reader.close();
+			}
+		}
+
+		return collection;
+	}
+
 	@Override
 	public void update(final Observable o, final Object object) {
 
@@ -185,7 +516,31 @@ public class BaseRasterModelGroupCollection<T> implements
 
 	@Override
 	public void reset() {
+		for (final IRasterModelDataCollection<T> collection : dataCollections
+				.values()) {
+			if (collection instanceof BaseRasterModelDataCollection) {
+				((BaseRasterModelDataCollection<T>) collection).release();
+			}
+		}
+		for (final File file : spilledCollections.values()) {
+			spillManager.deleteFile(file);
+		}
+
 		dataCollections.clear();
+		spilledCollections.clear();
+		spilledModelData = null;
+		spilledRecords.clear();
+		usedGroups.clear();
 		addedModelData = 0;
 	}
+
+	@Override
+	public void setMetrics(final IRasterMetrics metrics) {
+		this.metrics = metrics;
+
+		for (final IRasterModelDataCollection<T> collection : dataCollections
+				.values()) {
+			collection.setMetrics(metrics);
+		}
+	}
 }
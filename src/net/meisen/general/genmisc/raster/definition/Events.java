@@ -52,6 +52,11 @@ public class Events {
 		 * <code>Event</code> contains the added <code>Locale</code>.
 		 */
 		public static final int LOCALECHANGED = 3;
+		/**
+		 * Fired when the <code>TimeZone</code> was changed. The
+		 * <code>Event</code> contains the new <code>TimeZone</code>.
+		 */
+		public static final int TIMEZONECHANGED = 4;
 	}
 
 	/**
@@ -1,10 +1,15 @@
 package net.meisen.general.genmisc.raster.definition;
 
+import java.io.File;
 import java.util.Collection;
 
+import net.meisen.general.genmisc.FileManager;
 import net.meisen.general.genmisc.raster.configuration.IRasterConfiguration;
 import net.meisen.general.genmisc.raster.data.IModelData;
 import net.meisen.general.genmisc.raster.data.IRasterModelData;
+import net.meisen.general.genmisc.raster.function.IsInvertible;
+import net.meisen.general.genmisc.raster.metrics.IRasterMetrics;
+import net.meisen.general.genmisc.raster.tracking.IRasterDirtyTracker;
 
 
 /**
@@ -31,6 +36,66 @@ public interface IRaster<T> {
 	public void addModelData(final IModelData data)
 			throws IllegalArgumentException;
 
+	/**
+	 * This method removes previously added <code>ModelData</code> from the
+	 * <code>Raster</code>, i.e. only the buckets covered by the interval of the
+	 * <code>ModelData</code> are recalculated. The removal is only supported
+	 * if all the aggregating <code>RasterFunctions</code> are invertible.<br/>
+	 * <br/>
+	 * The added <code>ModelData</code> is only tracked if a
+	 * <code>RasterDirtyTracker</code> is set (see
+	 * {@link #setDirtyTracker(IRasterDirtyTracker)}). If all the added
+	 * <code>ModelData</code> is tracked, the <code>ModelData</code> is only
+	 * removed if equal <code>ModelData</code> (see
+	 * {@link Object#equals(Object)}) was added before. Otherwise the caller
+	 * must ensure that only added <code>ModelData</code> is removed.
+	 * 
+	 * @param data
+	 *            the data row to be removed, must be equal to the added one
+	 * 
+	 * @return <code>true</code> if the data was removed from at least one
+	 *         <code>RasterModel</code>, otherwise <code>false</code>
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if one of the passed values is not of data type
+	 *             <code>T</code>
+	 * @throws IllegalStateException
+	 *             if a <code>RasterModel</code> uses a none invertible
+	 *             aggregating <code>RasterFunction</code>
+	 * 
+	 * @see IsInvertible
+	 */
+	public boolean removeModelData(final IModelData data)
+			throws IllegalArgumentException, IllegalStateException;
+
+	/**
+	 * This method replaces previously added <code>ModelData</code> with a
+	 * corrected version, i.e. the <code>oldData</code> is removed and the
+	 * <code>newData</code> is added. The <code>newData</code> is only added if
+	 * the <code>oldData</code> was removed.
+	 * 
+	 * @param oldData
+	 *            the data row to be replaced, must be equal to the added one
+	 * @param newData
+	 *            the data row to be added instead
+	 * 
+	 * @return <code>true</code> if the <code>oldData</code> was removed from
+	 *         at least one <code>RasterModel</code> and the
+	 *         <code>newData</code> was added, otherwise <code>false</code>
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if one of the passed values is not of data type
+	 *             <code>T</code>
+	 * @throws IllegalStateException
+	 *             if a <code>RasterModel</code> uses a none invertible
+	 *             aggregating <code>RasterFunction</code>
+	 * 
+	 * @see #removeModelData(IModelData)
+	 */
+	public boolean replaceModelData(final IModelData oldData,
+			final IModelData newData) throws IllegalArgumentException,
+			IllegalStateException;
+
 	/**
 	 * Use this function to get the <code>RasterModelData</code> of a specific
 	 * <code>RasterModel</code>
@@ -55,4 +120,65 @@ public interface IRaster<T> {
 	 * @return the {@link IRasterConfiguration} of the <code>Raster</code>
 	 */
 	public IRasterConfiguration<T> getConfiguration();
-}
\ No newline at end of file
+
+	/**
+	 * Sets the <code>RasterMetrics</code> to be informed about the ingest of
+	 * <code>ModelData</code>. By default no <code>RasterMetrics</code> is set,
+	 * i.e. no information is collected.
+	 * 
+	 * @param metrics
+	 *            the <code>RasterMetrics</code> to be used, <code>null</code>
+	 *            to disable the collection
+	 */
+	public void setMetrics(final IRasterMetrics metrics);
+
+	/**
+	 * Gets the <code>RasterMetrics</code> used by the <code>Raster</code>.
+	 * 
+	 * @return the <code>RasterMetrics</code> used, <code>null</code> if no
+	 *         information is collected
+	 */
+	public IRasterMetrics getMetrics();
+
+	/**
+	 * Limits the amount of groups kept in memory for each
+	 * <code>RasterModel</code> of the <code>Raster</code>. Groups exceeding the
+	 * limit are written to the <code>spillDirectory</code> (least recently
+	 * used first) and read again when data is added to them or when the data
+	 * of the <code>Raster</code> is retrieved.
+	 * 
+	 * @param maxResidentGroups
+	 *            the maximal amount of groups kept in memory per
+	 *            <code>RasterModel</code>, a value smaller than <code>1</code>
+	 *            disables the spilling
+	 * @param fileManager
+	 *            the <code>FileManager</code> used to create the files, all
+	 *            files are removed by {@link FileManager#cleanUp()}
+	 * @param spillDirectory
+	 *            the directory to write the files to
+	 */
+	public void setSpilling(final int maxResidentGroups,
+			final FileManager fileManager, final File spillDirectory);
+
+	/**
+	 * Sets the <code>RasterDirtyTracker</code> to be informed about the
+	 * <code>RasterBuckets</code> modified by adding or removing
+	 * <code>ModelData</code>. While a <code>RasterDirtyTracker</code> is set,
+	 * the added <code>ModelData</code> is tracked as well, i.e. only tracked
+	 * <code>ModelData</code> can be removed (see
+	 * {@link #removeModelData(IModelData)}).
+	 * 
+	 * @param dirtyTracker
+	 *            the <code>RasterDirtyTracker</code> to be used,
+	 *            <code>null</code> to disable the tracking
+	 */
+	public void setDirtyTracker(final IRasterDirtyTracker dirtyTracker);
+
+	/**
+	 * Gets the <code>RasterDirtyTracker</code> currently used.
+	 * 
+	 * @return the <code>RasterDirtyTracker</code> currently used,
+	 *         <code>null</code> if nothing is tracked
+	 */
+	public IRasterDirtyTracker getDirtyTracker();
+}
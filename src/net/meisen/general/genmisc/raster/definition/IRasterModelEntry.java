@@ -6,6 +6,7 @@ import net.meisen.general.genmisc.raster.data.IRasterModelData;
 import net.meisen.general.genmisc.raster.function.IsAggregatable;
 import net.meisen.general.genmisc.raster.function.IsIntervalAndGroupInvariant;
 import net.meisen.general.genmisc.raster.function.IsIntervalInvariant;
+import net.meisen.general.genmisc.raster.function.IsInvertible;
 
 /**
  * A <code>RasterModelEntry</code> is an entry which specifies which data is
@@ -70,6 +71,44 @@ public interface IRasterModelEntry {
 			final IModelData modelData, final IRasterModelData rasterModelData,
 			final Object intervalStart, final Object intervalEnd);
 
+	/**
+	 * This method is used to remove the contribution of the passed
+	 * <code>ModelData</code> from the <code>RasterModelData</code>, i.e. it
+	 * reverts
+	 * {@link #execute(String, IRasterConfiguration, IModelData, IRasterModelData, Object, Object)}
+	 * .
+	 * 
+	 * @param modelId
+	 *            the identifier of the <code>RasterModel</code>, which defines
+	 *            the <code>RasterModelEntry</code>
+	 * @param configuration
+	 *            the <code>IRasterConfiguration</code> the
+	 *            <code>RasterModelEntry</code> is used in
+	 * @param modelData
+	 *            the <code>ModelData</code> removed from the
+	 *            <code>Raster</code>
+	 * @param rasterModelData
+	 *            the <code>RasterModelData</code> from which the contribution
+	 *            should be removed
+	 * @param intervalStart
+	 *            the current Start value while splitting
+	 * @param intervalEnd
+	 *            the current End value while splitting
+	 * 
+	 * @return the value of the <code>RasterModelEntry</code> without the
+	 *         contribution of the <code>ModelData</code>
+	 * 
+	 * @throws IllegalStateException
+	 *             if the used <code>RasterFunction</code> is not invertible
+	 * 
+	 * @see IsInvertible
+	 */
+	public Object revert(final String modelId,
+			final IRasterConfiguration<?> configuration,
+			final IModelData modelData, final IRasterModelData rasterModelData,
+			final Object intervalStart, final Object intervalEnd)
+			throws IllegalStateException;
+
 	/**
 	 * This method is used to execute the <code>RasterFunction</code> without
 	 * any knowledge about the data (i.e. the <code>RasterFunction</code> is
@@ -167,6 +206,14 @@ public interface IRasterModelEntry {
 	 */
 	public boolean isAggregatable();
 
+	/**
+	 * Checks if the used <code>RasterFunction</code> is invertible
+	 * 
+	 * @return <code>true</code> if the used <code>RasterFunction</code> is
+	 *         invertible, otherwise <code>false</code>
+	 */
+	public boolean isInvertible();
+
 	/**
 	 * Checks if the used <code>RasterFunction</code> is interval invariant
 	 * 
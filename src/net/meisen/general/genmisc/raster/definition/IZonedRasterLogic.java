@@ -0,0 +1,40 @@
+package net.meisen.general.genmisc.raster.definition;
+
+import java.util.TimeZone;
+
+/**
+ * A <code>RasterLogic</code> which calculates the buckets within a specific
+ * <code>TimeZone</code>. The <code>TimeZone</code> of a logic cannot be
+ * changed, i.e. a logic can be shared by several
+ * <code>RasterConfigurations</code>. A configuration using another
+ * <code>TimeZone</code> uses the logic created by
+ * {@link #withTimeZone(TimeZone)}.
+ * 
+ * @author pmeisen
+ * 
+ * @param <T>
+ *            the type of the <code>RasterLogic</code>
+ */
+public interface IZonedRasterLogic<T> extends IRasterLogic<T> {
+
+	/**
+	 * Gets the <code>TimeZone</code> the buckets are calculated in. The
+	 * returned instance must not be modified.
+	 * 
+	 * @return the <code>TimeZone</code> the buckets are calculated in
+	 */
+	public TimeZone getTimeZone();
+
+	/**
+	 * Gets a <code>RasterLogic</code> which calculates the buckets within the
+	 * specified <code>TimeZone</code>, i.e. this logic if the
+	 * <code>TimeZone</code> is the one of this logic, otherwise a new one.
+	 * 
+	 * @param timeZone
+	 *            the <code>TimeZone</code> to be used, <code>null</code> to
+	 *            use the default <code>TimeZone</code>
+	 * 
+	 * @return the <code>RasterLogic</code> for the <code>TimeZone</code>
+	 */
+	public IZonedRasterLogic<T> withTimeZone(final TimeZone timeZone);
+}
@@ -1,5 +1,6 @@
 package net.meisen.general.genmisc.raster.definition.impl;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -9,13 +10,17 @@ import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
 
+import net.meisen.general.genmisc.FileManager;
 import net.meisen.general.genmisc.raster.configuration.IRasterConfiguration;
 import net.meisen.general.genmisc.raster.data.IModelData;
 import net.meisen.general.genmisc.raster.data.IRasterModelData;
 import net.meisen.general.genmisc.raster.data.IRasterModelGroupCollection;
+import net.meisen.general.genmisc.raster.data.impl.BaseRasterModelDataCollection;
 import net.meisen.general.genmisc.raster.data.impl.BaseRasterModelGroupCollection;
 import net.meisen.general.genmisc.raster.definition.IRaster;
 import net.meisen.general.genmisc.raster.definition.RasterBucket;
+import net.meisen.general.genmisc.raster.metrics.IRasterMetrics;
+import net.meisen.general.genmisc.raster.tracking.IRasterDirtyTracker;
 
 /**
  * Creates a raster for a data type. A {@link BaseRaster} defines a infinite
@@ -45,6 +50,16 @@ public class BaseRaster<T> implements IRaster<T>, Observer {
 	 * the data of each defined {@link BaseRaster}
 	 */
 	protected final Map<String, IRasterModelGroupCollection<T>> dataGroups = new HashMap<String, IRasterModelGroupCollection<T>>();
+	/**
+	 * the <code>RasterMetrics</code> informed about the ingest,
+	 * <code>null</code> if no information is collected
+	 */
+	protected IRasterMetrics metrics = null;
+	/**
+	 * the <code>RasterDirtyTracker</code> informed about the modified
+	 * <code>RasterBuckets</code>, <code>null</code> if nothing is tracked
+	 */
+	protected IRasterDirtyTracker dirtyTracker = null;
 
 	/**
 	 * @param configuration
@@ -81,6 +96,39 @@ public class BaseRaster<T> implements IRaster<T>, Observer {
 		}
 	}
 
+	@Override
+	public boolean removeModelData(final IModelData modelData)
+			throws IllegalArgumentException, IllegalStateException {
+
+		// check all the models before anything is modified
+		for (final String id : configuration.getModelIds()) {
+			BaseRasterModelDataCollection.checkInvertible(
+					configuration.getModel(id), id);
+		}
+
+		boolean removed = false;
+		for (final IRasterModelGroupCollection<T> dataGroup : dataGroups
+				.values()) {
+
+			// remove the modelData from the raster of the RasterModel
+			removed = dataGroup.removeModelData(modelData) || removed;
+		}
+
+		return removed;
+	}
+
+	@Override
+	public boolean replaceModelData(final IModelData oldData,
+			final IModelData newData) throws IllegalArgumentException,
+			IllegalStateException {
+		final boolean removed = removeModelData(oldData);
+		if (removed) {
+			addModelData(newData);
+		}
+
+		return removed;
+	}
+
 	@Override
 	public IRasterConfiguration<T> getConfiguration() {
 		return configuration;
@@ -110,6 +158,47 @@ public class BaseRaster<T> implements IRaster<T>, Observer {
 		return allRasterData;
 	}
 
+	@Override
+	public void setMetrics(final IRasterMetrics metrics) {
+		this.metrics = metrics;
+
+		for (final IRasterModelGroupCollection<T> dataGroup : dataGroups
+				.values()) {
+			dataGroup.setMetrics(metrics);
+		}
+	}
+
+	@Override
+	public IRasterMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public void setDirtyTracker(final IRasterDirtyTracker dirtyTracker) {
+		this.dirtyTracker = dirtyTracker;
+
+		for (final IRasterModelGroupCollection<T> dataGroup : dataGroups
+				.values()) {
+			dataGroup.setDirtyTracker(dirtyTracker);
+		}
+	}
+
+	@Override
+	public IRasterDirtyTracker getDirtyTracker() {
+		return dirtyTracker;
+	}
+
+	@Override
+	public void setSpilling(final int maxResidentGroups,
+			final FileManager fileManager, final File spillDirectory) {
+
+		for (final IRasterModelGroupCollection<T> dataGroup : dataGroups
+				.values()) {
+			dataGroup.setSpilling(maxResidentGroups, fileManager,
+					spillDirectory);
+		}
+	}
+
 	@Override
 	public void update(final Observable o, final Object object) {
 		// currently there is nothing to do
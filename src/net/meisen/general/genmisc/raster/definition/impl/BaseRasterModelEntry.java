@@ -11,6 +11,7 @@ import net.meisen.general.genmisc.raster.function.IsDataInvariant;
 import net.meisen.general.genmisc.raster.function.IsIntervalAndGroupInvariant;
 import net.meisen.general.genmisc.raster.function.IsIntervalInvariant;
 import net.meisen.general.genmisc.raster.function.IsInvariant;
+import net.meisen.general.genmisc.raster.function.IsInvertible;
 
 /**
  * A usable base-implementation of a <code>RasterModelEntry</code>. The
@@ -113,6 +114,26 @@ public class BaseRasterModelEntry implements IRasterModelEntry {
 		return value;
 	}
 
+	@Override
+	public Object revert(final String modelId,
+			final IRasterConfiguration<?> configuration,
+			final IModelData modelData, final IRasterModelData rasterModelData,
+			final Object intervalStart, final Object intervalEnd)
+			throws IllegalStateException {
+
+		if (!isInvertible()) {
+			throw new IllegalStateException("The RasterModelEntry '"
+					+ getName() + "' uses a none invertible RasterFunction");
+		}
+
+		final IsInvertible function = (IsInvertible) this.function;
+		final Object value = function.revert(modelId, configuration, this,
+				modelData, rasterModelData, intervalStart, intervalEnd);
+
+		rasterModelData.setValue(getName(), value);
+		return value;
+	}
+
 	@Override
 	public Object execute(final String modelId,
 			final IRasterConfiguration<?> configuration,
@@ -184,6 +205,11 @@ public class BaseRasterModelEntry implements IRasterModelEntry {
 		return function instanceof IsAggregatable;
 	}
 
+	@Override
+	public boolean isInvertible() {
+		return function instanceof IsInvertible;
+	}
+
 	@Override
 	public boolean isIntervalInvariant() {
 		return function instanceof IsIntervalInvariant;
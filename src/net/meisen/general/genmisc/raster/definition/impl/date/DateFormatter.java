@@ -2,6 +2,7 @@ package net.meisen.general.genmisc.raster.definition.impl.date;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.TimeZone;
 
 import net.meisen.general.genmisc.raster.function.impl.BucketLabel.IFormatter;
 
@@ -24,6 +25,7 @@ public class DateFormatter implements IFormatter {
 	private String startFormat;
 	private String endFormat;
 	private String intervalFormat;
+	private TimeZone timeZone;
 
 	/**
 	 * Default constructor which uses the default formats for the
@@ -76,6 +78,34 @@ public class DateFormatter implements IFormatter {
 	 */
 	public DateFormatter(final String startFormat, final String endFormat,
 			final String intervalFormat) {
+		this(startFormat, endFormat, intervalFormat, null);
+	}
+
+	/**
+	 * Constructor to specify the <code>startFormat</code>,
+	 * <code>endFormat</code>, <code>intervalFormat</code> and the
+	 * <code>TimeZone</code> the dates are formatted in
+	 * 
+	 * @param startFormat
+	 *            the start format to be used, if <code>null</code> the default
+	 *            format will be used
+	 * @param endFormat
+	 *            the end format to be used, if <code>null</code> the default
+	 *            format will be used
+	 * @param intervalFormat
+	 *            the interval format to be used, if <code>null</code> the
+	 *            default format will be used
+	 * @param timeZone
+	 *            the <code>TimeZone</code> to format the dates in, if
+	 *            <code>null</code> the default <code>TimeZone</code> will be
+	 *            used
+	 * 
+	 * @see #getDefaultDateFormat()
+	 * @see #getDefaultIntervalFormat()
+	 */
+	public DateFormatter(final String startFormat, final String endFormat,
+			final String intervalFormat, final TimeZone timeZone) {
+		this.timeZone = timeZone == null ? null : (TimeZone) timeZone.clone();
 
 		// set the defined formats
 		this.startFormat = startFormat == null ? getDefaultDateFormat()
@@ -134,6 +164,9 @@ public class DateFormatter implements IFormatter {
 
 		// format the date and return
 		final SimpleDateFormat formatter = new SimpleDateFormat(format);
+		if (timeZone != null) {
+			formatter.setTimeZone(timeZone);
+		}
 		return formatter.format(date);
 	}
 }
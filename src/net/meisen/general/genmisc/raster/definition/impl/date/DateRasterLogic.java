@@ -15,7 +15,10 @@ import net.meisen.general.genmisc.types.Dates;
  * @author pmeisen
  */
 public class DateRasterLogic extends BaseRasterLogic<Date> {
-	private DateGranularity enumGranularity;
+	/**
+	 * The <code>DateGranularity</code> of the <code>RasterLogic</code>
+	 */
+	protected final DateGranularity enumGranularity;
 
 	/**
 	 * @param granularity
@@ -40,24 +43,24 @@ public class DateRasterLogic extends BaseRasterLogic<Date> {
 		final Integer value;
 
 		if (DateGranularity.MINUTES.equals(enumGranularity)) {
-			final Date truncatedDate = Dates.truncateDate(date);
+			final Date truncatedDate = truncate(date);
 			final Long diffMinutes = (long) Math
 					.floor((date.getTime() - truncatedDate.getTime()) / 1000 / 60);
 
 			value = diffMinutes.intValue();
 		} else if (DateGranularity.DAYS.equals(enumGranularity)) {
-			final Calendar cal = Calendar.getInstance();
+			final Calendar cal = createCalendar();
 			cal.setFirstDayOfWeek(Calendar.SUNDAY);
 			cal.setTime(date);
 
 			value = cal.get(Calendar.DAY_OF_WEEK);
 		} else if (DateGranularity.WEEKS.equals(enumGranularity)) {
-			final Calendar cal = Calendar.getInstance();
+			final Calendar cal = createCalendar();
 			cal.setTime(date);
 
 			value = cal.get(Calendar.WEEK_OF_YEAR);
 		} else if (DateGranularity.MONTHS.equals(enumGranularity)) {
-			final Calendar cal = Calendar.getInstance();
+			final Calendar cal = createCalendar();
 			cal.setTime(date);
 
 			value = cal.get(Calendar.MONTH);
@@ -117,28 +120,28 @@ public class DateRasterLogic extends BaseRasterLogic<Date> {
 		if (DateGranularity.MINUTES.equals(enumGranularity)) {
 
 			// get a date base
-			final Date base = Dates.truncateDate(new Date());
+			final Date base = truncate(new Date());
 
 			// calculate the absolute time and create the date
 			final long time = base.getTime()
 					+ (fBucket.getBucketNumber() * 1000l * 60l);
 			value = new Date(time);
 		} else if (DateGranularity.DAYS.equals(enumGranularity)) {
-			final Calendar cal = Calendar.getInstance();
+			final Calendar cal = createCalendar();
 			cal.setFirstDayOfWeek(Calendar.SUNDAY);
 
 			cal.clear();
 			cal.set(Calendar.DAY_OF_WEEK, fBucket.getBucketNumber());
 			value = cal.getTime();
 		} else if (DateGranularity.WEEKS.equals(enumGranularity)) {
-			final Calendar cal = Calendar.getInstance();
+			final Calendar cal = createCalendar();
 
 			cal.clear();
 			cal.set(Calendar.WEEK_OF_YEAR, fBucket.getBucketNumber());
 
 			value = cal.getTime();
 		} else if (DateGranularity.MONTHS.equals(enumGranularity)) {
-			final Calendar cal = Calendar.getInstance();
+			final Calendar cal = createCalendar();
 
 			cal.clear();
 			cal.set(Calendar.MONTH, fBucket.getBucketNumber());
@@ -157,7 +160,7 @@ public class DateRasterLogic extends BaseRasterLogic<Date> {
 		final Integer bucket = getBucket(valueDate).getBucketNumber();
 		final Integer diff = -1 * (relValue - bucket);
 
-		final Calendar cal = Calendar.getInstance();
+		final Calendar cal = createCalendar();
 
 		// increase the date
 		if (DateGranularity.MINUTES.equals(enumGranularity)) {
@@ -166,13 +169,13 @@ public class DateRasterLogic extends BaseRasterLogic<Date> {
 			cal.set(Calendar.SECOND, 0);
 			cal.add(Calendar.MINUTE, diff);
 		} else if (DateGranularity.DAYS.equals(enumGranularity)) {
-			cal.setTime(Dates.truncateDate(valueDate));
+			cal.setTime(truncate(valueDate));
 			cal.add(Calendar.DAY_OF_MONTH, diff);
 		} else if (DateGranularity.WEEKS.equals(enumGranularity)) {
-			cal.setTime(Dates.truncateDate(valueDate));
+			cal.setTime(truncate(valueDate));
 			cal.add(Calendar.WEEK_OF_YEAR, diff);
 		} else if (DateGranularity.MONTHS.equals(enumGranularity)) {
-			cal.setTime(Dates.truncateDate(valueDate));
+			cal.setTime(truncate(valueDate));
 			cal.add(Calendar.MONTH, diff);
 		}
 		return cal.getTime();
@@ -181,7 +184,7 @@ public class DateRasterLogic extends BaseRasterLogic<Date> {
 	@Override
 	public Date increaseAbsoluteValueByBucketSize(final Date valueDate) {
 		final Integer bucketSize = granularity.getBucketSize();
-		final Calendar cal = Calendar.getInstance();
+		final Calendar cal = createCalendar();
 		cal.setTime(valueDate);
 
 		// increase the date
@@ -198,6 +201,28 @@ public class DateRasterLogic extends BaseRasterLogic<Date> {
 		return cal.getTime();
 	}
 
+	/**
+	 * Creates the <code>Calendar</code> used for the calculations of the
+	 * <code>RasterLogic</code>.
+	 * 
+	 * @return the <code>Calendar</code> used for the calculations
+	 */
+	protected Calendar createCalendar() {
+		return Calendar.getInstance();
+	}
+
+	/**
+	 * Truncates the specified <code>date</code> to the start of the day.
+	 * 
+	 * @param date
+	 *            the <code>Date</code> to be truncated
+	 * 
+	 * @return the start of the day of the <code>date</code>
+	 */
+	protected Date truncate(final Date date) {
+		return Dates.truncateDate(date);
+	}
+
 	@Override
 	public int compare(final Date value1, final Date value2) {
 		return value1.compareTo(value2);
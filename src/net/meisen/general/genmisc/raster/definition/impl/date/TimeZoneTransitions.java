@@ -0,0 +1,196 @@
+package net.meisen.general.genmisc.raster.definition.impl.date;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The precomputed transitions of the offset of a <code>TimeZone</code>. The
+ * table is used to convert between UTC and local milliseconds without any
+ * <code>Calendar</code> and without the default <code>TimeZone</code> of the
+ * JVM. Instances are immutable and can be shared between threads.
+ *
+ * @author pmeisen
+ *
+ */
+public class TimeZoneTransitions {
+	private static final ConcurrentMap<String, TimeZoneTransitions> cache = new ConcurrentHashMap<String, TimeZoneTransitions>();
+
+	/**
+	 * The milliseconds of a day
+	 */
+	public static final long DAY = 24l * 60l * 60l * 1000l;
+
+	/**
+	 * The first year the transitions are precomputed for
+	 */
+	protected static final int FIRST_YEAR = 1900;
+	/**
+	 * The last year the transitions are precomputed for
+	 */
+	protected static final int LAST_YEAR = 2100;
+
+	private final String id;
+	private final ZoneRules rules;
+	private final int initialOffset;
+	private final long[] transitions;
+	private final int[] offsets;
+	private final long tableStart;
+	private final long tableEnd;
+
+	/**
+	 * Creates the transitions for the specified <code>TimeZone</code>.
+	 *
+	 * @param timeZone
+	 *            the <code>TimeZone</code> to create the transitions for
+	 */
+	protected TimeZoneTransitions(final TimeZone timeZone) {
+		this.id = timeZone.getID();
+		this.rules = timeZone.toZoneId().getRules();
+
+		final Instant start = LocalDate.of(FIRST_YEAR, 1, 1)
+				.atStartOfDay(ZoneOffset.UTC).toInstant();
+		final Instant end = LocalDate.of(LAST_YEAR + 1, 1, 1)
+				.atStartOfDay(ZoneOffset.UTC).toInstant();
+		this.tableStart = start.toEpochMilli();
+		this.tableEnd = end.toEpochMilli();
+		this.initialOffset = toMillis(rules.getOffset(start));
+
+		// collect the transitions within the table's range
+		final List<ZoneOffsetTransition> list = new ArrayList<ZoneOffsetTransition>();
+		if (!rules.isFixedOffset()) {
+			ZoneOffsetTransition transition = rules.nextTransition(start);
+			while (transition != null
+					&& transition.getInstant().isBefore(end)) {
+				list.add(transition);
+				transition = rules.nextTransition(transition.getInstant());
+			}
+		}
+
+		this.transitions = new long[list.size()];
+		this.offsets = new int[list.size()];
+		for (int i = 0; i < transitions.length; i++) {
+			final ZoneOffsetTransition transition = list.get(i);
+			transitions[i] = transition.getInstant().toEpochMilli();
+			offsets[i] = toMillis(transition.getOffsetAfter());
+		}
+	}
+
+	/**
+	 * Gets the transitions of the specified <code>TimeZone</code>. The
+	 * transitions are computed once per identifier of a <code>TimeZone</code>.
+	 *
+	 * @param timeZone
+	 *            the <code>TimeZone</code> to get the transitions for
+	 *
+	 * @return the transitions of the <code>TimeZone</code>
+	 */
+	public static TimeZoneTransitions of(final TimeZone timeZone) {
+		if (timeZone == null) {
+			throw new IllegalArgumentException("The TimeZone cannot be null.");
+		}
+
+		final String id = timeZone.getID();
+		TimeZoneTransitions transitions = cache.get(id);
+		if (transitions == null) {
+			final TimeZoneTransitions newTransitions = new TimeZoneTransitions(
+					timeZone);
+			transitions = cache.putIfAbsent(id, newTransitions);
+			if (transitions == null) {
+				transitions = newTransitions;
+			}
+		}
+
+		return transitions;
+	}
+
+	private static int toMillis(final ZoneOffset offset) {
+		return offset.getTotalSeconds() * 1000;
+	}
+
+	/**
+	 * Gets the offset (in milliseconds) of the <code>TimeZone</code> at the
+	 * specified UTC time.
+	 *
+	 * @param utc
+	 *            the UTC time in milliseconds
+	 *
+	 * @return the offset in milliseconds
+	 */
+	public int getOffset(final long utc) {
+		if (utc < tableStart || utc >= tableEnd) {
+			return toMillis(rules.getOffset(Instant.ofEpochMilli(utc)));
+		}
+
+		final int pos = Arrays.binarySearch(transitions, utc);
+		final int idx = pos < 0 ? -pos - 2 : pos;
+
+		return idx < 0 ? initialOffset : offsets[idx];
+	}
+
+	/**
+	 * Converts the UTC time to the local time of the <code>TimeZone</code>.
+	 *
+	 * @param utc
+	 *            the UTC time in milliseconds
+	 *
+	 * @return the local time in milliseconds
+	 */
+	public long toLocal(final long utc) {
+		return utc + getOffset(utc);
+	}
+
+	/**
+	 * Converts the local time of the <code>TimeZone</code> to the UTC time. A
+	 * local time within a gap (e.g. when the clock is set forward) is moved
+	 * forward by the length of the gap, a local time within an overlap (e.g.
+	 * when the clock is set back) is resolved to the earlier UTC time, like
+	 * it is done by <code>java.time.ZonedDateTime</code>.
+	 *
+	 * @param local
+	 *            the local time in milliseconds
+	 *
+	 * @return the UTC time in milliseconds
+	 */
+	public long toUtc(final long local) {
+		final int offsetBefore = getOffset(local - DAY);
+		final int offsetAfter = getOffset(local + DAY);
+
+		if (offsetBefore == offsetAfter) {
+			return local - offsetBefore;
+		}
+
+		final long utcBefore = local - offsetBefore;
+		final long utcAfter = local - offsetAfter;
+		final boolean validBefore = getOffset(utcBefore) == offsetBefore;
+		final boolean validAfter = getOffset(utcAfter) == offsetAfter;
+
+		if (validBefore && validAfter) {
+			return Math.min(utcBefore, utcAfter);
+		} else if (validAfter) {
+			return utcAfter;
+		} else {
+			return utcBefore;
+		}
+	}
+
+	/**
+	 * @return the identifier of the <code>TimeZone</code>
+	 */
+	public String getId() {
+		return id;
+	}
+
+	@Override
+	public String toString() {
+		return id + " (" + transitions.length + " transitions)";
+	}
+}
@@ -0,0 +1,220 @@
+package net.meisen.general.genmisc.raster.definition.impl.date;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.WeekFields;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import net.meisen.general.genmisc.raster.configuration.IRasterConfiguration;
+import net.meisen.general.genmisc.raster.definition.IRasterGranularity;
+import net.meisen.general.genmisc.raster.definition.IZonedRasterLogic;
+
+/**
+ * A <code>DateRasterLogic</code> which calculates the buckets within the
+ * <code>TimeZone</code> of the <code>RasterConfiguration</code> (see
+ * {@link IRasterConfiguration#getTimeZone()}) instead of the default
+ * <code>TimeZone</code> of the JVM. The <code>TimeZone</code> of a logic
+ * cannot be changed, a configuration using another <code>TimeZone</code>
+ * uses its own logic (see {@link #withTimeZone(TimeZone)}), i.e. a logic can
+ * be shared by several configurations. The calculations are based on
+ * precomputed
+ * {@link TimeZoneTransitions}, so that several <code>Rasters</code> of
+ * different <code>TimeZones</code> can be filled concurrently.<br/>
+ * <br/>
+ * The relative value of the {@link DateGranularity#MINUTES} is the minute of
+ * the wall-clock, i.e. on days the daylight saving time starts or ends the
+ * value is still within <code>[0, 1439]</code>.
+ *
+ * @author pmeisen
+ */
+public class ZonedDateRasterLogic extends DateRasterLogic implements
+		IZonedRasterLogic<Date> {
+	private static final long MINUTE = 60l * 1000l;
+
+	private final Locale locale;
+	private final WeekFields weekFields;
+
+	private final TimeZone timeZone;
+	private final TimeZoneTransitions transitions;
+
+	/**
+	 * Creates a <code>RasterLogic</code> using the default <code>Locale</code>
+	 * to determine the weeks of a year. The buckets are calculated within the
+	 * default <code>TimeZone</code>.
+	 *
+	 * @param granularity
+	 *            the <code>RasterGranularity</code> to be used for the
+	 *            <code>RasterLogic</code>
+	 */
+	public ZonedDateRasterLogic(final IRasterGranularity<Date> granularity) {
+		this(granularity, null, null);
+	}
+
+	/**
+	 * Creates a <code>RasterLogic</code> using the specified
+	 * <code>Locale</code> to determine the weeks of a year. The buckets are
+	 * calculated within the default <code>TimeZone</code>.
+	 *
+	 * @param granularity
+	 *            the <code>RasterGranularity</code> to be used for the
+	 *            <code>RasterLogic</code>
+	 * @param locale
+	 *            the <code>Locale</code> defining the first day of a week,
+	 *            <code>null</code> to use the default <code>Locale</code>
+	 */
+	public ZonedDateRasterLogic(final IRasterGranularity<Date> granularity,
+			final Locale locale) {
+		this(granularity, null, locale);
+	}
+
+	/**
+	 * Creates a <code>RasterLogic</code> calculating the buckets within the
+	 * specified <code>TimeZone</code> and using the specified
+	 * <code>Locale</code> to determine the weeks of a year.
+	 *
+	 * @param granularity
+	 *            the <code>RasterGranularity</code> to be used for the
+	 *            <code>RasterLogic</code>
+	 * @param timeZone
+	 *            the <code>TimeZone</code> to be used, <code>null</code> to
+	 *            use the default <code>TimeZone</code>
+	 * @param locale
+	 *            the <code>Locale</code> defining the first day of a week,
+	 *            <code>null</code> to use the default <code>Locale</code>
+	 */
+	public ZonedDateRasterLogic(final IRasterGranularity<Date> granularity,
+			final TimeZone timeZone, final Locale locale) {
+		super(granularity);
+
+		this.locale = locale == null ? Locale.getDefault() : locale;
+		this.timeZone = timeZone == null ? TimeZone.getDefault()
+				: (TimeZone) timeZone.clone();
+		this.transitions = TimeZoneTransitions.of(this.timeZone);
+
+		// use the same definition of a week as the Calendar does
+		final Calendar cal = createCalendar();
+		this.weekFields = WeekFields.of(
+				DayOfWeek.SUNDAY.plus(cal.getFirstDayOfWeek() - 1),
+				cal.getMinimalDaysInFirstWeek());
+	}
+
+	/**
+	 * Creates a new <code>ZonedDateRasterLogic</code> with the granularity and
+	 * the <code>Locale</code> of this logic if the <code>TimeZone</code>
+	 * differs, i.e. sub-classes have to override this method to create an
+	 * instance of their own type.
+	 */
+	@Override
+	public ZonedDateRasterLogic withTimeZone(final TimeZone timeZone) {
+		final TimeZone zone = timeZone == null ? TimeZone.getDefault()
+				: timeZone;
+
+		if (zone.getID().equals(this.timeZone.getID())
+				&& zone.hasSameRules(this.timeZone)) {
+			return this;
+		} else {
+			return new ZonedDateRasterLogic(granularity, zone, locale);
+		}
+	}
+
+	@Override
+	public Integer getRelativeValue(final Date date) {
+		final long local = transitions.toLocal(date.getTime());
+		final long day = Math.floorDiv(local, TimeZoneTransitions.DAY);
+
+		if (DateGranularity.MINUTES.equals(enumGranularity)) {
+			return (int) (Math.floorMod(local, TimeZoneTransitions.DAY) / MINUTE);
+		} else if (DateGranularity.DAYS.equals(enumGranularity)) {
+
+			// 01.01.1970 was a thursday, i.e. Calendar.THURSDAY (5)
+			return (int) Math.floorMod(day + 4, 7) + 1;
+		} else if (DateGranularity.WEEKS.equals(enumGranularity)) {
+			return LocalDate.ofEpochDay(day).get(
+					weekFields.weekOfWeekBasedYear());
+		} else if (DateGranularity.MONTHS.equals(enumGranularity)) {
+			return LocalDate.ofEpochDay(day).getMonthValue() - 1;
+		} else {
+			return null;
+		}
+	}
+
+	@Override
+	public Date getAbsoluteBucketStart(final Date valueDate) {
+		final Integer relValue = getRelativeValue(valueDate);
+		final Integer bucket = getBucket(valueDate).getBucketNumber();
+		final int diff = -1 * (relValue - bucket);
+
+		final long local = transitions.toLocal(valueDate.getTime());
+		if (DateGranularity.MINUTES.equals(enumGranularity)) {
+
+			// floor to the minute of the wall-clock (offsets may have seconds)
+			final long minute = valueDate.getTime()
+					- Math.floorMod(local, MINUTE);
+			return new Date(minute + diff * MINUTE);
+		}
+
+		final long day = Math.floorDiv(local, TimeZoneTransitions.DAY);
+
+		final long startDay;
+		if (DateGranularity.DAYS.equals(enumGranularity)) {
+			startDay = day + diff;
+		} else if (DateGranularity.WEEKS.equals(enumGranularity)) {
+			startDay = day + 7l * diff;
+		} else if (DateGranularity.MONTHS.equals(enumGranularity)) {
+			startDay = LocalDate.ofEpochDay(day).plusMonths(diff).toEpochDay();
+		} else {
+			startDay = day;
+		}
+
+		return new Date(transitions.toUtc(startDay * TimeZoneTransitions.DAY));
+	}
+
+	@Override
+	public Date increaseAbsoluteValueByBucketSize(final Date valueDate) {
+		final int bucketSize = granularity.getBucketSize();
+
+		if (DateGranularity.MINUTES.equals(enumGranularity)) {
+			return new Date(valueDate.getTime() + bucketSize * MINUTE);
+		}
+
+		final long local = transitions.toLocal(valueDate.getTime());
+		final long day = Math.floorDiv(local, TimeZoneTransitions.DAY);
+		final long time = Math.floorMod(local, TimeZoneTransitions.DAY);
+
+		final long nextDay;
+		if (DateGranularity.DAYS.equals(enumGranularity)) {
+			nextDay = day + bucketSize;
+		} else if (DateGranularity.WEEKS.equals(enumGranularity)) {
+			nextDay = day + 7l * bucketSize;
+		} else if (DateGranularity.MONTHS.equals(enumGranularity)) {
+			nextDay = LocalDate.ofEpochDay(day).plusMonths(bucketSize)
+					.toEpochDay();
+		} else {
+			nextDay = day;
+		}
+
+		return new Date(transitions.toUtc(nextDay * TimeZoneTransitions.DAY
+				+ time));
+	}
+
+	@Override
+	protected Calendar createCalendar() {
+		return Calendar.getInstance(timeZone, locale);
+	}
+
+	@Override
+	protected Date truncate(final Date date) {
+		final long local = transitions.toLocal(date.getTime());
+		final long day = Math.floorDiv(local, TimeZoneTransitions.DAY);
+
+		return new Date(transitions.toUtc(day * TimeZoneTransitions.DAY));
+	}
+
+	@Override
+	public TimeZone getTimeZone() {
+		return timeZone;
+	}
+}
@@ -0,0 +1,54 @@
+package net.meisen.general.genmisc.raster.function;
+
+import net.meisen.general.genmisc.raster.configuration.IRasterConfiguration;
+import net.meisen.general.genmisc.raster.data.IModelData;
+import net.meisen.general.genmisc.raster.data.IRasterModelData;
+import net.meisen.general.genmisc.raster.definition.IRasterModelEntry;
+
+/**
+ * Marks an aggregatable <code>RasterFunction</code> to be invertible, i.e.
+ * the contribution of a <code>ModelData</code> to an aggregated value can be
+ * removed again without recalculating the value from all the
+ * <code>ModelData</code> (e.g. a count or a sum, but not a maximum).
+ * 
+ * @author pmeisen
+ * 
+ */
+public interface IsInvertible extends IsAggregatable {
+
+	/**
+	 * This function removes the contribution of the <code>modelData</code>
+	 * from the aggregated value, i.e. it reverts a prior call of
+	 * {@link #execute(String, IRasterConfiguration, IRasterModelEntry, IModelData, IRasterModelData, Object, Object)}
+	 * with the same parameters.
+	 * 
+	 * @param modelId
+	 *            the identifier of the <code>RasterModel</code>, which defines
+	 *            the <code>RasterModelEntry</code>
+	 * @param configuration
+	 *            the <code>IRasterConfiguration</code> the
+	 *            <code>RasterModelEntry</code> is used in
+	 * @param entry
+	 *            the <code>RasterModelEntry</code> the
+	 *            <code>RasterFunction</code> is defined for
+	 * @param modelData
+	 *            the <code>ModelData</code> removed from the
+	 *            <code>Raster</code>
+	 * @param rasterModelData
+	 *            the so far calculated <code>RasterModelData</code> of the
+	 *            <code>Raster</code>
+	 * @param intervalStart
+	 *            the current Start value while splitting
+	 * @param intervalEnd
+	 *            the current End value while splitting
+	 * 
+	 * @return the value without the contribution of the
+	 *         <code>modelData</code>, the type depends on the
+	 *         <code>Function</code> used
+	 */
+	public Object revert(final String modelId,
+			final IRasterConfiguration<?> configuration,
+			final IRasterModelEntry entry, final IModelData modelData,
+			final IRasterModelData rasterModelData, final Object intervalStart,
+			final Object intervalEnd);
+}
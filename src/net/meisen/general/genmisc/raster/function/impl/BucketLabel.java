@@ -1,6 +1,9 @@
 package net.meisen.general.genmisc.raster.function.impl;
 
+import java.util.Calendar;
+import java.util.Date;
 import java.util.Locale;
+import java.util.TimeZone;
 
 import net.meisen.general.genmisc.raster.configuration.IRasterConfiguration;
 import net.meisen.general.genmisc.raster.definition.IRasterLogic;
@@ -9,7 +12,16 @@ import net.meisen.general.genmisc.raster.function.IsDataInvariant;
 
 
 /**
- * This <code>RasterFunction</code> is used to created
+ * This <code>RasterFunction</code> is used to create a label for each
+ * bucket.<br/>
+ * <br/>
+ * The start and the end of a bucket are formatted by
+ * <code>%1$s - %2s</code> if no format is specified. The start and the end
+ * of a bucket of a <code>Date</code> based <code>Raster</code> are passed to
+ * a specified format as <code>Calendars</code> within the
+ * <code>TimeZone</code> of the <code>RasterConfiguration</code>, i.e. the
+ * date-time conversions (e.g. <code>%1$tH:%1$tM</code>) format the local
+ * time of the configured <code>TimeZone</code>.
  * 
  * @author pmeisen
  * 
@@ -61,7 +73,7 @@ public class BucketLabel implements IsDataInvariant {
 			format = null;
 			formatter = (IFormatter) parameter[0];
 		} else {
-			format = "%1$s - %2s";
+			format = null;
 			formatter = null;
 		}
 
@@ -84,11 +96,44 @@ public class BucketLabel implements IsDataInvariant {
 
 		// get the value
 		final String value;
-		if (formatter == null) {
+		if (formatter == null && format == null) {
+			value = String.format(locale, "%1$s - %2s", start, end);
+		} else if (formatter == null && start instanceof Date
+				&& end instanceof Date) {
+
+			// dates are formatted within the TimeZone of the configuration
+			final TimeZone timeZone = configuration.getTimeZone();
+			value = String.format(locale, format, toCalendar((Date) start,
+					timeZone, locale), toCalendar((Date) end, timeZone, locale));
+		} else if (formatter == null) {
 			value = String.format(locale, format, start, end);
 		} else {
 			value = formatter.format(start, end);
 		}
 		return value;
 	}
+
+	/**
+	 * Creates a <code>Calendar</code> for the specified <code>date</code>
+	 * within the specified <code>TimeZone</code>.
+	 * 
+	 * @param date
+	 *            the <code>Date</code> to create the <code>Calendar</code> for
+	 * @param timeZone
+	 *            the <code>TimeZone</code> of the <code>Calendar</code>,
+	 *            <code>null</code> to use the default <code>TimeZone</code>
+	 * @param locale
+	 *            the <code>Locale</code> of the <code>Calendar</code>
+	 * 
+	 * @return the created <code>Calendar</code>
+	 */
+	protected Calendar toCalendar(final Date date, final TimeZone timeZone,
+			final Locale locale) {
+		final Calendar cal = Calendar.getInstance(
+				timeZone == null ? TimeZone.getDefault() : timeZone,
+				locale == null ? Locale.getDefault() : locale);
+		cal.setTime(date);
+
+		return cal;
+	}
 }
@@ -4,7 +4,7 @@ import net.meisen.general.genmisc.raster.configuration.IRasterConfiguration;
 import net.meisen.general.genmisc.raster.data.IModelData;
 import net.meisen.general.genmisc.raster.data.IRasterModelData;
 import net.meisen.general.genmisc.raster.definition.IRasterModelEntry;
-import net.meisen.general.genmisc.raster.function.IsAggregatable;
+import net.meisen.general.genmisc.raster.function.IsInvertible;
 
 /**
  * This <code>RasterFunction</code> counts the amount of entries.<br />
@@ -19,7 +19,7 @@ import net.meisen.general.genmisc.raster.function.IsAggregatable;
  * @author pmeisen
  * 
  */
-public class Count extends BaseRasterFunction implements IsAggregatable {
+public class Count extends BaseRasterFunction implements IsInvertible {
 
 	@Override
 	public Integer execute(final String modelId,
@@ -27,6 +27,38 @@ public class Count extends BaseRasterFunction implements IsAggregatable {
 			final IRasterModelEntry entry, final IModelData modelData,
 			final IRasterModelData rasterModelData, final Object intervalStart,
 			final Object intervalEnd) {
+		return count(entry, modelData, rasterModelData, 1);
+	}
+
+	@Override
+	public Integer revert(final String modelId,
+			final IRasterConfiguration<?> configuration,
+			final IRasterModelEntry entry, final IModelData modelData,
+			final IRasterModelData rasterModelData, final Object intervalStart,
+			final Object intervalEnd) {
+		return count(entry, modelData, rasterModelData, -1);
+	}
+
+	/**
+	 * Modifies the counter of the <code>rasterModelData</code> by the
+	 * contribution of the <code>modelData</code>.
+	 * 
+	 * @param entry
+	 *            the <code>RasterModelEntry</code> the
+	 *            <code>RasterFunction</code> is defined for
+	 * @param modelData
+	 *            the <code>ModelData</code> added or removed
+	 * @param rasterModelData
+	 *            the so far calculated <code>RasterModelData</code>
+	 * @param sign
+	 *            <code>1</code> to add the contribution, <code>-1</code> to
+	 *            remove it
+	 * 
+	 * @return the new value of the counter
+	 */
+	protected Integer count(final IRasterModelEntry entry,
+			final IModelData modelData, final IRasterModelData rasterModelData,
+			final int sign) {
 
 		// check if we have parameter
 		final Object[] parameter = entry.getFunctionParameter();
@@ -46,8 +78,8 @@ public class Count extends BaseRasterFunction implements IsAggregatable {
 			counter = (Integer) cur;
 		}
 
-		// increase it
-		counter += increaseBy;
+		// modify it
+		counter += sign * increaseBy;
 
 		// set the value and return
 		rasterModelData.setValue(entry.getName(), counter);
@@ -7,7 +7,7 @@ import net.meisen.general.genmisc.raster.data.IModelData;
 import net.meisen.general.genmisc.raster.data.IRasterModelData;
 import net.meisen.general.genmisc.raster.definition.IRasterLogic;
 import net.meisen.general.genmisc.raster.definition.IRasterModelEntry;
-import net.meisen.general.genmisc.raster.function.IsAggregatable;
+import net.meisen.general.genmisc.raster.function.IsInvertible;
 
 
 /**
@@ -17,7 +17,7 @@ import net.meisen.general.genmisc.raster.function.IsAggregatable;
  * @author pmeisen
  * 
  */
-public class IntervalSum extends BaseRasterFunction implements IsAggregatable {
+public class IntervalSum extends BaseRasterFunction implements IsInvertible {
 
 	@Override
 	public BigDecimal getInitialValue() {
@@ -31,6 +31,37 @@ public class IntervalSum extends BaseRasterFunction implements IsAggregatable {
 			final IRasterModelData rasterModelData, final Object intervalStart,
 			final Object intervalEnd) {
 
+		// finally add the stuff up
+		return getSum(entry, rasterModelData).add(
+				getDifference(configuration, intervalStart, intervalEnd));
+	}
+
+	@Override
+	public BigDecimal revert(final String modelId,
+			final IRasterConfiguration<?> configuration,
+			final IRasterModelEntry entry, final IModelData modelData,
+			final IRasterModelData rasterModelData, final Object intervalStart,
+			final Object intervalEnd) {
+
+		// remove the interval from the sum
+		return getSum(entry, rasterModelData).subtract(
+				getDifference(configuration, intervalStart, intervalEnd));
+	}
+
+	/**
+	 * Gets the current sum of the <code>rasterModelData</code>.
+	 * 
+	 * @param entry
+	 *            the <code>RasterModelEntry</code> the
+	 *            <code>RasterFunction</code> is defined for
+	 * @param rasterModelData
+	 *            the so far calculated <code>RasterModelData</code>
+	 * 
+	 * @return the current sum
+	 */
+	protected BigDecimal getSum(final IRasterModelEntry entry,
+			final IRasterModelData rasterModelData) {
+
 		// get the current value of the count
 		final Object cur = rasterModelData.get(entry.getName());
 		BigDecimal sum = getInitialValue();
@@ -38,6 +69,27 @@ public class IntervalSum extends BaseRasterFunction implements IsAggregatable {
 			sum = (BigDecimal) cur;
 		}
 
+		return sum;
+	}
+
+	/**
+	 * Gets the difference between the <code>intervalEnd</code> and the
+	 * <code>intervalStart</code>.
+	 * 
+	 * @param configuration
+	 *            the <code>IRasterConfiguration</code> defining the
+	 *            <code>RasterLogic</code>
+	 * @param intervalStart
+	 *            the current Start value while splitting
+	 * @param intervalEnd
+	 *            the current End value while splitting
+	 * 
+	 * @return the difference
+	 */
+	protected BigDecimal getDifference(
+			final IRasterConfiguration<?> configuration,
+			final Object intervalStart, final Object intervalEnd) {
+
 		// get the new value to be added
 		@SuppressWarnings("unchecked")
 		final IRasterLogic<Object> logic = (IRasterLogic<Object>) configuration
@@ -45,9 +97,6 @@ public class IntervalSum extends BaseRasterFunction implements IsAggregatable {
 
 		// get the difference
 		final int diff = logic.getDifference(intervalEnd, intervalStart);
-		
-		// finally add the stuff up
-		return sum.add(new BigDecimal(diff));
+		return new BigDecimal(diff);
 	}
-
 }
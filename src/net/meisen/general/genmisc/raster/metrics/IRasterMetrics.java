@@ -0,0 +1,81 @@
+package net.meisen.general.genmisc.raster.metrics;
+
+import net.meisen.general.genmisc.raster.condition.IRasterModelCondition;
+import net.meisen.general.genmisc.raster.data.IModelData;
+import net.meisen.general.genmisc.raster.definition.IRaster;
+
+/**
+ * A <code>RasterMetrics</code> instance is an optional hook of a
+ * <code>Raster</code>, which is informed about the ingest of
+ * <code>ModelData</code>. The collected information can be pulled at any time
+ * using {@link #snapshot()}. If no <code>RasterMetrics</code> is set (i.e. the
+ * default), the <code>Raster</code> does not collect any information.
+ * 
+ * @author pmeisen
+ * 
+ * @see IRaster#setMetrics(IRasterMetrics)
+ */
+public interface IRasterMetrics {
+
+	/**
+	 * Called whenever a <code>ModelData</code> instance was accepted by a
+	 * <code>RasterModel</code>.
+	 * 
+	 * @param modelId
+	 *            the identifier of the <code>RasterModel</code>
+	 * @param touchedBuckets
+	 *            the amount of <code>RasterBuckets</code> touched by the
+	 *            interval of the <code>ModelData</code>
+	 * @param walkNanos
+	 *            the nanoseconds needed to walk through the interval, including
+	 *            the execution of the functions
+	 * @param functionNanos
+	 *            the nanoseconds needed to execute the aggregating functions
+	 *            while walking through the interval
+	 */
+	public void accepted(final String modelId, final int touchedBuckets,
+			final long walkNanos, final long functionNanos);
+
+	/**
+	 * Called whenever a <code>ModelData</code> instance was rejected by a
+	 * <code>RasterModel</code>, because the condition of the
+	 * <code>RasterModel</code> was not fulfilled (or <code>null</code> was
+	 * passed).
+	 * 
+	 * @param modelId
+	 *            the identifier of the <code>RasterModel</code>
+	 * 
+	 * @see IRasterModelCondition#checkCondition(IModelData)
+	 */
+	public void rejectedByCondition(final String modelId);
+
+	/**
+	 * Called whenever a <code>ModelData</code> instance was rejected by a
+	 * <code>RasterModel</code>, because the start or the end of the interval is
+	 * <code>null</code>.
+	 * 
+	 * @param modelId
+	 *            the identifier of the <code>RasterModel</code>
+	 */
+	public void rejectedByInterval(final String modelId);
+
+	/**
+	 * Called whenever a new group was created for a <code>RasterModel</code>.
+	 * 
+	 * @param modelId
+	 *            the identifier of the <code>RasterModel</code>
+	 */
+	public void groupCreated(final String modelId);
+
+	/**
+	 * Creates a snapshot of the currently collected information.
+	 * 
+	 * @return the snapshot of the currently collected information
+	 */
+	public RasterMetricsSnapshot snapshot();
+
+	/**
+	 * Resets all the collected information.
+	 */
+	public void reset();
+}
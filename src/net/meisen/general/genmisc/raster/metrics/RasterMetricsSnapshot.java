@@ -0,0 +1,219 @@
+package net.meisen.general.genmisc.raster.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the information collected by a
+ * <code>RasterMetrics</code> instance.
+ *
+ * @author pmeisen
+ *
+ * @see IRasterMetrics#snapshot()
+ */
+public class RasterMetricsSnapshot {
+
+	/**
+	 * The information collected for a single <code>RasterModel</code>.
+	 *
+	 * @author pmeisen
+	 *
+	 */
+	public static class ModelMetrics {
+		private final long accepted;
+		private final long rejectedByCondition;
+		private final long rejectedByInterval;
+		private final long touchedBuckets;
+		private final long groupsCreated;
+		private final long walkNanos;
+		private final long functionNanos;
+		private final long elapsedNanos;
+
+		/**
+		 * Constructor to specify all the collected values.
+		 *
+		 * @param accepted
+		 *            the amount of accepted <code>ModelData</code>
+		 * @param rejectedByCondition
+		 *            the amount of <code>ModelData</code> rejected by the
+		 *            condition
+		 * @param rejectedByInterval
+		 *            the amount of <code>ModelData</code> rejected because of
+		 *            a <code>null</code> interval
+		 * @param touchedBuckets
+		 *            the amount of touched <code>RasterBuckets</code>
+		 * @param groupsCreated
+		 *            the amount of created groups
+		 * @param walkNanos
+		 *            the nanoseconds needed to walk the intervals
+		 * @param functionNanos
+		 *            the nanoseconds needed to execute the functions
+		 * @param elapsedNanos
+		 *            the nanoseconds elapsed since the collection started
+		 */
+		public ModelMetrics(final long accepted,
+				final long rejectedByCondition, final long rejectedByInterval,
+				final long touchedBuckets, final long groupsCreated,
+				final long walkNanos, final long functionNanos,
+				final long elapsedNanos) {
+			this.accepted = accepted;
+			this.rejectedByCondition = rejectedByCondition;
+			this.rejectedByInterval = rejectedByInterval;
+			this.touchedBuckets = touchedBuckets;
+			this.groupsCreated = groupsCreated;
+			this.walkNanos = walkNanos;
+			this.functionNanos = functionNanos;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		/**
+		 * @return the amount of accepted <code>ModelData</code>
+		 */
+		public long getAccepted() {
+			return accepted;
+		}
+
+		/**
+		 * @return the amount of <code>ModelData</code> rejected, because the
+		 *         condition of the <code>RasterModel</code> failed
+		 */
+		public long getRejectedByCondition() {
+			return rejectedByCondition;
+		}
+
+		/**
+		 * @return the amount of <code>ModelData</code> rejected, because the
+		 *         interval start or end was <code>null</code>
+		 */
+		public long getRejectedByInterval() {
+			return rejectedByInterval;
+		}
+
+		/**
+		 * @return the total amount of rejected <code>ModelData</code>
+		 */
+		public long getRejected() {
+			return rejectedByCondition + rejectedByInterval;
+		}
+
+		/**
+		 * @return the total amount of <code>RasterBuckets</code> touched by
+		 *         the accepted <code>ModelData</code>
+		 */
+		public long getTouchedBuckets() {
+			return touchedBuckets;
+		}
+
+		/**
+		 * @return the average amount of <code>RasterBuckets</code> touched per
+		 *         accepted <code>ModelData</code>
+		 */
+		public double getTouchedBucketsPerRecord() {
+			return accepted == 0 ? 0.0 : touchedBuckets / (double) accepted;
+		}
+
+		/**
+		 * @return the amount of groups created
+		 */
+		public long getGroupsCreated() {
+			return groupsCreated;
+		}
+
+		/**
+		 * @return the amount of groups created per second
+		 */
+		public double getGroupCreationRate() {
+			return elapsedNanos <= 0 ? 0.0 : groupsCreated * 1e9
+					/ elapsedNanos;
+		}
+
+		/**
+		 * @return the nanoseconds needed to walk through the intervals of the
+		 *         accepted <code>ModelData</code> (including the
+		 *         function-execution)
+		 */
+		public long getWalkNanos() {
+			return walkNanos;
+		}
+
+		/**
+		 * @return the nanoseconds needed to execute the aggregating functions
+		 */
+		public long getFunctionNanos() {
+			return functionNanos;
+		}
+
+		@Override
+		public String toString() {
+			return "accepted: " + accepted + ", rejected (condition): "
+					+ rejectedByCondition + ", rejected (interval): "
+					+ rejectedByInterval + ", buckets: " + touchedBuckets
+					+ ", groups: " + groupsCreated + ", walk: " + walkNanos
+					+ "ns, functions: " + functionNanos + "ns";
+		}
+	}
+
+	private final long timestamp;
+	private final long elapsedNanos;
+	private final Map<String, ModelMetrics> models;
+
+	/**
+	 * Constructor to create a snapshot.
+	 *
+	 * @param timestamp
+	 *            the time (in milliseconds) the snapshot was taken
+	 * @param elapsedNanos
+	 *            the nanoseconds elapsed since the collection started
+	 * @param models
+	 *            the information collected per <code>RasterModel</code>
+	 */
+	public RasterMetricsSnapshot(final long timestamp,
+			final long elapsedNanos, final Map<String, ModelMetrics> models) {
+		this.timestamp = timestamp;
+		this.elapsedNanos = elapsedNanos;
+		this.models = Collections.unmodifiableMap(models);
+	}
+
+	/**
+	 * @return the time (in milliseconds) the snapshot was taken
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * @return the nanoseconds elapsed since the collection started (or was
+	 *         reset)
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return the identifiers of the <code>RasterModels</code> information was
+	 *         collected for
+	 */
+	public Collection<String> getModelIds() {
+		return models.keySet();
+	}
+
+	/**
+	 * Gets the information collected for the specified
+	 * <code>RasterModel</code>.
+	 *
+	 * @param modelId
+	 *            the identifier of the <code>RasterModel</code>
+	 *
+	 * @return the information collected, <code>null</code> if no information
+	 *         was collected for the <code>RasterModel</code>
+	 */
+	public ModelMetrics getModel(final String modelId) {
+		return models.get(modelId);
+	}
+
+	@Override
+	public String toString() {
+		return models.toString();
+	}
+}
@@ -0,0 +1,122 @@
+package net.meisen.general.genmisc.raster.metrics.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.meisen.general.genmisc.raster.metrics.IRasterMetrics;
+import net.meisen.general.genmisc.raster.metrics.RasterMetricsSnapshot;
+import net.meisen.general.genmisc.raster.metrics.RasterMetricsSnapshot.ModelMetrics;
+
+/**
+ * The base implementation of the <code>RasterMetrics</code>, which counts the
+ * information per <code>RasterModel</code>. The counting is thread-safe, i.e.
+ * a snapshot can be pulled from another thread (e.g. a monitoring thread)
+ * while the <code>Raster</code> is filled.
+ *
+ * @author pmeisen
+ *
+ */
+public class BaseRasterMetrics implements IRasterMetrics {
+
+	/**
+	 * The counters of a single <code>RasterModel</code>
+	 *
+	 * @author pmeisen
+	 *
+	 */
+	protected static class Counters {
+		private final AtomicLong accepted = new AtomicLong();
+		private final AtomicLong rejectedByCondition = new AtomicLong();
+		private final AtomicLong rejectedByInterval = new AtomicLong();
+		private final AtomicLong touchedBuckets = new AtomicLong();
+		private final AtomicLong groupsCreated = new AtomicLong();
+		private final AtomicLong walkNanos = new AtomicLong();
+		private final AtomicLong functionNanos = new AtomicLong();
+	}
+
+	private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<String, Counters>();
+	private volatile long startNanos;
+
+	/**
+	 * Default constructor
+	 */
+	public BaseRasterMetrics() {
+		this.startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Gets the <code>Counters</code> of the specified <code>modelId</code>,
+	 * the <code>Counters</code> are created if not available so far.
+	 *
+	 * @param modelId
+	 *            the identifier of the <code>RasterModel</code>
+	 *
+	 * @return the <code>Counters</code> of the <code>RasterModel</code>
+	 */
+	protected Counters getCounters(final String modelId) {
+		Counters c = counters.get(modelId);
+		if (c == null) {
+			final Counters newCounters = new Counters();
+			c = counters.putIfAbsent(modelId, newCounters);
+			if (c == null) {
+				c = newCounters;
+			}
+		}
+
+		return c;
+	}
+
+	@Override
+	public void accepted(final String modelId, final int touchedBuckets,
+			final long walkNanos, final long functionNanos) {
+		final Counters c = getCounters(modelId);
+
+		c.accepted.incrementAndGet();
+		c.touchedBuckets.addAndGet(touchedBuckets);
+		c.walkNanos.addAndGet(walkNanos);
+		c.functionNanos.addAndGet(functionNanos);
+	}
+
+	@Override
+	public void rejectedByCondition(final String modelId) {
+		getCounters(modelId).rejectedByCondition.incrementAndGet();
+	}
+
+	@Override
+	public void rejectedByInterval(final String modelId) {
+		getCounters(modelId).rejectedByInterval.incrementAndGet();
+	}
+
+	@Override
+	public void groupCreated(final String modelId) {
+		getCounters(modelId).groupsCreated.incrementAndGet();
+	}
+
+	@Override
+	public RasterMetricsSnapshot snapshot() {
+		final long elapsedNanos = System.nanoTime() - startNanos;
+
+		final Map<String, ModelMetrics> models = new HashMap<String, ModelMetrics>();
+		for (final Entry<String, Counters> e : counters.entrySet()) {
+			final Counters c = e.getValue();
+
+			models.put(e.getKey(), new ModelMetrics(c.accepted.get(),
+					c.rejectedByCondition.get(), c.rejectedByInterval.get(),
+					c.touchedBuckets.get(), c.groupsCreated.get(),
+					c.walkNanos.get(), c.functionNanos.get(), elapsedNanos));
+		}
+
+		return new RasterMetricsSnapshot(System.currentTimeMillis(),
+				elapsedNanos, models);
+	}
+
+	@Override
+	public void reset() {
+		counters.clear();
+		startNanos = System.nanoTime();
+	}
+}
@@ -0,0 +1,72 @@
+package net.meisen.general.genmisc.raster.tracking;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import net.meisen.general.genmisc.raster.definition.RasterBucket;
+
+/**
+ * A <code>RasterDirtyTracker</code> keeps track of the
+ * <code>RasterBuckets</code> modified within a <code>Raster</code>, so that
+ * only the modified buckets have to be refreshed by consumers (e.g. caches or
+ * exports) of the <code>Raster</code>.
+ * 
+ * @author pmeisen
+ * 
+ */
+public interface IRasterDirtyTracker {
+
+	/**
+	 * Marks the <code>RasterBucket</code> of the specified
+	 * <code>RasterModel</code> to be modified.
+	 * 
+	 * @param modelId
+	 *            the identifier of the <code>RasterModel</code>
+	 * @param bucket
+	 *            the modified <code>RasterBucket</code>
+	 */
+	public void markDirty(final String modelId, final RasterBucket bucket);
+
+	/**
+	 * Checks if any <code>RasterBucket</code> is marked to be modified.
+	 * 
+	 * @return <code>true</code> if at least one <code>RasterBucket</code> is
+	 *         modified, otherwise <code>false</code>
+	 */
+	public boolean isDirty();
+
+	/**
+	 * Gets the identifiers of the <code>RasterModels</code> with modified
+	 * <code>RasterBuckets</code>.
+	 * 
+	 * @return the identifiers of the modified <code>RasterModels</code>
+	 */
+	public Collection<String> getDirtyModels();
+
+	/**
+	 * Gets the modified <code>RasterBuckets</code> of the specified
+	 * <code>RasterModel</code>.
+	 * 
+	 * @param modelId
+	 *            the identifier of the <code>RasterModel</code>
+	 * 
+	 * @return the modified <code>RasterBuckets</code>, an empty set if none
+	 *         was modified
+	 */
+	public Set<RasterBucket> getDirtyBuckets(final String modelId);
+
+	/**
+	 * Gets and clears all the modified <code>RasterBuckets</code>, i.e. after
+	 * the call the <code>RasterBuckets</code> are considered to be refreshed.
+	 * 
+	 * @return the modified <code>RasterBuckets</code> of each
+	 *         <code>RasterModel</code>
+	 */
+	public Map<String, Set<RasterBucket>> drain();
+
+	/**
+	 * Clears all the modified <code>RasterBuckets</code>.
+	 */
+	public void clear();
+}
@@ -0,0 +1,95 @@
+package net.meisen.general.genmisc.raster.tracking.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import net.meisen.general.genmisc.raster.definition.RasterBucket;
+import net.meisen.general.genmisc.raster.tracking.IRasterDirtyTracker;
+
+/**
+ * The base implementation of the <code>RasterDirtyTracker</code>. The
+ * tracking is thread-safe, i.e. the modified <code>RasterBuckets</code> can be
+ * drained by another thread while the <code>Raster</code> is modified.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class BaseRasterDirtyTracker implements IRasterDirtyTracker {
+
+	private final ConcurrentMap<String, Set<RasterBucket>> dirty = new ConcurrentHashMap<String, Set<RasterBucket>>();
+
+	@Override
+	public void markDirty(final String modelId, final RasterBucket bucket) {
+
+		// retry if the buckets were drained concurrently
+		while (true) {
+			Set<RasterBucket> buckets = dirty.get(modelId);
+			if (buckets == null) {
+				final Set<RasterBucket> newBuckets = new ConcurrentSkipListSet<RasterBucket>();
+				buckets = dirty.putIfAbsent(modelId, newBuckets);
+				if (buckets == null) {
+					buckets = newBuckets;
+				}
+			}
+
+			buckets.add(bucket);
+			if (dirty.get(modelId) == buckets) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public boolean isDirty() {
+		for (final Set<RasterBucket> buckets : dirty.values()) {
+			if (!buckets.isEmpty()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public Collection<String> getDirtyModels() {
+		return Collections.unmodifiableCollection(dirty.keySet());
+	}
+
+	@Override
+	public Set<RasterBucket> getDirtyBuckets(final String modelId) {
+		final Set<RasterBucket> buckets = dirty.get(modelId);
+
+		if (buckets == null) {
+			return Collections.emptySet();
+		} else {
+			return Collections.unmodifiableSet(new TreeSet<RasterBucket>(
+					buckets));
+		}
+	}
+
+	@Override
+	public Map<String, Set<RasterBucket>> drain() {
+		final Map<String, Set<RasterBucket>> drained = new HashMap<String, Set<RasterBucket>>();
+
+		for (final String modelId : dirty.keySet()) {
+			final Set<RasterBucket> buckets = dirty.remove(modelId);
+			if (buckets != null && !buckets.isEmpty()) {
+				drained.put(modelId, buckets);
+			}
+		}
+
+		return drained;
+	}
+
+	@Override
+	public void clear() {
+		dirty.clear();
+	}
+}
@@ -1,27 +1,53 @@
 package net.meisen.general.genmisc.resources;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.meisen.general.genmisc.types.Streams;
 
 /**
  * Base implementation of a byte-reader which buffers the bytes to be read in an
  * array and a larger {@code ByteBuffer}. The data is transfered from the
- * resource into the buffer and than into the array.
+ * resource into the buffer and than into the array.<br/>
+ * <br/>
+ * If a prefetch depth is defined (see {@link #init(int, long, int, int)}),
+ * the buffer is filled by a background thread, which reads up to the
+ * specified amount of buffers in advance. The consuming thread decodes the
+ * current buffer while the next ones are read, i.e. the latency of the
+ * resource is hidden. The {@link #read(ByteBuffer)} method is then only called
+ * by the background thread.<br/>
+ * <br/>
+ * A failure of the reading ends the data, it is thrown as
+ * {@code IllegalStateException} once the data read prior to the failure is
+ * consumed.<br/>
+ * <br/>
+ * The direct buffers are taken from a {@link DirectByteBufferPool} (see
+ * {@link #getBufferPool()}) and given back when the reader is closed, i.e. a
+ * reader should always be closed.
  * 
  * @author pmeisen
  * 
  */
 public abstract class BaseByteBufferReader implements IByteBufferReader {
 	private int bufferSizeInByte;
+	private int prefetchDepth;
 
 	private ByteBuffer buffer;
+	private Prefetcher prefetcher;
 	private byte[] array;
+	private ByteBuffer arrayView;
 
 	private int curArrayPos;
 	private int curArrayLength;
+	private IOException failure;
 
 	/**
 	 * Default constructor
@@ -42,34 +68,88 @@ public abstract class BaseByteBufferReader implements IByteBufferReader {
 	 *            not known
 	 */
 	protected void init(final int arraySizeInByte, final long limit) {
+		init(arraySizeInByte, limit, -1, 0);
+	}
+
+	/**
+	 * Initializes the base implementation and should be called as last command
+	 * within the concrete implementation's constructor. If the
+	 * {@code prefetchDepth} is larger than {@code 0} a background thread is
+	 * started, which fills the buffers in advance.
+	 * 
+	 * @param arraySizeInByte
+	 *            the size of the array to be used
+	 * @param limit
+	 *            the maximal amount of data to be handled, can be {@code -1} if
+	 *            not known
+	 * @param bufferSizeInByte
+	 *            the size of the buffer to be used, {@code -1} to use ten times
+	 *            the size of the array
+	 * @param prefetchDepth
+	 *            the amount of buffers to be filled in advance by a background
+	 *            thread, {@code 0} to fill the buffer when it is needed
+	 */
+	protected void init(final int arraySizeInByte, final long limit,
+			final int bufferSizeInByte, final int prefetchDepth) {
+		if (prefetchDepth < 0) {
+			throw new IllegalArgumentException(
+					"The prefetch depth cannot be negative.");
+		}
 
 		// the buffer size can be a maximum of the file-size
 		final long usedLimit = limit == -1 ? Long.MAX_VALUE : limit;
 		final int initArraySizeInByte = (int) Math.min(usedLimit,
 				arraySizeInByte);
+		final long initBufferSizeInByte = bufferSizeInByte < 0 ? 10l * arraySizeInByte
+				: Math.max(1, bufferSizeInByte);
 
 		// determine the sizes
 		this.array = new byte[initArraySizeInByte];
+		this.arrayView = ByteBuffer.wrap(this.array);
 		if (initArraySizeInByte == usedLimit) {
 			this.buffer = null;
 			this.bufferSizeInByte = 0;
+			this.prefetchDepth = 0;
 		} else {
 			this.bufferSizeInByte = (int) Math.min(usedLimit,
-					Math.min(Integer.MAX_VALUE, 10l * arraySizeInByte));
+					Math.min(Integer.MAX_VALUE, initBufferSizeInByte));
+			this.prefetchDepth = prefetchDepth;
+
+			this.buffer = getBufferPool().acquire(this.bufferSizeInByte);
+			this.buffer.limit(0);
 
-			this.buffer = ByteBuffer.allocateDirect(this.bufferSizeInByte);
-			this.buffer.position(this.bufferSizeInByte);
+			// start the prefetching prior to the first reading
+			if (prefetchDepth > 0) {
+				this.prefetcher = new Prefetcher(this, prefetchDepth,
+						this.buffer);
+			}
 		}
 
-		// fill the array
+		// fill the array, a failure without any data is thrown directly
 		fillArray();
+		if (curArrayLength == 0 && failure != null) {
+			checkRemaining();
+		}
 	}
 
-	@Override
-	public byte get() {
-		if (!hasRemaining()) {
+	/**
+	 * Checks if the array contains data, otherwise the failure of the reading
+	 * or a {@code BufferUnderflowException} is thrown. A failure is thrown
+	 * after all the data read prior to the failure is consumed.
+	 */
+	private void checkRemaining() {
+		if (curArrayLength > 0) {
+			return;
+		} else if (failure != null) {
+			throw new IllegalStateException("Unable to read channel.", failure);
+		} else {
 			throw new BufferUnderflowException();
 		}
+	}
+
+	@Override
+	public byte get() {
+		checkRemaining();
 
 		final byte value = array[curArrayPos];
 		curArrayPos++;
@@ -90,9 +170,184 @@ public abstract class BaseByteBufferReader implements IByteBufferReader {
 
 	@Override
 	public void get(final byte[] dst, final int offset, final int length) {
-		int end = offset + length;
-		for (int i = offset; i < end; i++) {
-			dst[i] = get();
+		int pos = offset;
+		int left = length;
+
+		// copy the array chunk by chunk and reload it whenever it is consumed
+		while (left > 0) {
+			checkRemaining();
+
+			final int amount = Math.min(curArrayLength - curArrayPos, left);
+			System.arraycopy(array, curArrayPos, dst, pos, amount);
+			curArrayPos += amount;
+			pos += amount;
+			left -= amount;
+
+			if (curArrayPos >= curArrayLength) {
+				fillArray();
+				curArrayPos = 0;
+			}
+		}
+	}
+
+	/**
+	 * Checks if the array contains more than {@code size} bytes, i.e. if a
+	 * value of the {@code size} can be decoded directly from the array without
+	 * reloading it afterwards.
+	 * 
+	 * @param size
+	 *            the size of the value to be read
+	 * 
+	 * @return the position of the value within the array, or {@code -1} if
+	 *         the value spans the boundary of the array
+	 */
+	private int reserve(final int size) {
+		final int pos = curArrayPos;
+		if (curArrayLength - pos > size) {
+			curArrayPos = pos + size;
+			return pos;
+		} else {
+			return -1;
+		}
+	}
+
+	@Override
+	public short getShort() {
+		final int pos = reserve(Streams.SIZEOF_SHORT);
+		if (pos < 0) {
+			return (short) ((get() << 8) | (get() & 0xFF));
+		} else {
+			return Streams.byteToShort(array, pos);
+		}
+	}
+
+	@Override
+	public int getInt() {
+		final int pos = reserve(Streams.SIZEOF_INT);
+		if (pos < 0) {
+			return (get() << 24) | ((get() & 0xFF) << 16)
+					| ((get() & 0xFF) << 8) | (get() & 0xFF);
+		} else {
+			return Streams.byteToInt(array, pos);
+		}
+	}
+
+	@Override
+	public long getLong() {
+		final int pos = reserve(Streams.SIZEOF_LONG);
+		if (pos < 0) {
+			return ((long) getInt() << 32) | (getInt() & 0xFFFFFFFFl);
+		} else {
+			return Streams.byteToLong(array, pos);
+		}
+	}
+
+	@Override
+	public double getDouble() {
+		return Double.longBitsToDouble(getLong());
+	}
+
+	@Override
+	public void getInts(final int[] dst, final int offset, final int length) {
+		int pos = offset;
+		int left = length;
+
+		// copy the values of the array chunk by chunk
+		while (left > 0) {
+			final int amount = Math.min((curArrayLength - curArrayPos)
+					/ Streams.SIZEOF_INT, left);
+
+			// a value may span two chunks (or nothing is left)
+			if (amount == 0) {
+				dst[pos] = getInt();
+				pos++;
+				left--;
+			} else {
+				view(curArrayPos).asIntBuffer().get(dst, pos, amount);
+				consume(amount * Streams.SIZEOF_INT);
+				pos += amount;
+				left -= amount;
+			}
+		}
+	}
+
+	@Override
+	public void getLongs(final long[] dst, final int offset, final int length) {
+		int pos = offset;
+		int left = length;
+
+		// copy the values of the array chunk by chunk
+		while (left > 0) {
+			final int amount = Math.min((curArrayLength - curArrayPos)
+					/ Streams.SIZEOF_LONG, left);
+
+			// a value may span two chunks (or nothing is left)
+			if (amount == 0) {
+				dst[pos] = getLong();
+				pos++;
+				left--;
+			} else {
+				view(curArrayPos).asLongBuffer().get(dst, pos, amount);
+				consume(amount * Streams.SIZEOF_LONG);
+				pos += amount;
+				left -= amount;
+			}
+		}
+	}
+
+	@Override
+	public void getDoubles(final double[] dst, final int offset,
+			final int length) {
+		int pos = offset;
+		int left = length;
+
+		// copy the values of the array chunk by chunk
+		while (left > 0) {
+			final int amount = Math.min((curArrayLength - curArrayPos)
+					/ Streams.SIZEOF_LONG, left);
+
+			// a value may span two chunks (or nothing is left)
+			if (amount == 0) {
+				dst[pos] = getDouble();
+				pos++;
+				left--;
+			} else {
+				view(curArrayPos).asDoubleBuffer().get(dst, pos, amount);
+				consume(amount * Streams.SIZEOF_LONG);
+				pos += amount;
+				left -= amount;
+			}
+		}
+	}
+
+	/**
+	 * Gets the view of the array starting at the specified position. The
+	 * byte-order of the view is big-endian, i.e. the one of the values.
+	 * 
+	 * @param pos
+	 *            the position of the array the view starts at
+	 * 
+	 * @return the view of the array
+	 */
+	private ByteBuffer view(final int pos) {
+		arrayView.limit(curArrayLength);
+		arrayView.position(pos);
+		return arrayView;
+	}
+
+	/**
+	 * Marks the specified amount of bytes of the array as read and reloads the
+	 * array if it is consumed.
+	 * 
+	 * @param amount
+	 *            the amount of bytes read
+	 */
+	private void consume(final int amount) {
+		curArrayPos += amount;
+
+		if (curArrayPos >= curArrayLength) {
+			fillArray();
+			curArrayPos = 0;
 		}
 	}
 
@@ -105,9 +360,10 @@ public abstract class BaseByteBufferReader implements IByteBufferReader {
 
 		if (buffer == null) {
 			try {
-				curArrayLength = read(ByteBuffer.wrap(array));
+				curArrayLength = Math.max(0, read(ByteBuffer.wrap(array)));
 			} catch (final IOException e) {
-				throw new IllegalStateException("Unable to read channel.", e);
+				failure = e;
+				curArrayLength = 0;
 			}
 		} else {
 			final int bufferedBytes = buffer.remaining();
@@ -115,6 +371,7 @@ public abstract class BaseByteBufferReader implements IByteBufferReader {
 			// there are enough bytes in the buffer
 			if (bufferedBytes >= curArraySize) {
 				buffer.get(array, 0, curArraySize);
+				curArrayLength = curArraySize;
 			}
 			// the buffer does not have enough bytes, but has some
 			else {
@@ -128,9 +385,10 @@ public abstract class BaseByteBufferReader implements IByteBufferReader {
 				// get the rest
 				if (buffer.remaining() > 0) {
 					final int neededBytesToFill = curArraySize - bufferedBytes;
-					curArrayLength = Math.min(buffer.remaining(),
+					final int readBytes = Math.min(buffer.remaining(),
 							neededBytesToFill);
-					buffer.get(array, bufferedBytes, curArrayLength);
+					buffer.get(array, bufferedBytes, readBytes);
+					curArrayLength = bufferedBytes + readBytes;
 				} else if (bufferedBytes > 0) {
 					curArrayLength = bufferedBytes;
 				} else {
@@ -156,15 +414,28 @@ public abstract class BaseByteBufferReader implements IByteBufferReader {
 	protected abstract int read(final ByteBuffer buffer) throws IOException;
 
 	/**
-	 * Fills the buffer with data from the file.
+	 * Fills the buffer with data from the file. If the reader prefetches the
+	 * data, the current buffer is handed back to the background thread and
+	 * the next filled one is taken. A failure ends the data, it is thrown
+	 * when the data read before is consumed.
 	 */
 	protected void fillBuffer() {
+		if (prefetcher != null) {
+			buffer = prefetcher.next(buffer);
+			if (!buffer.hasRemaining() && prefetcher.failure != null) {
+				failure = prefetcher.failure;
+			}
+			return;
+		}
+
 		buffer.clear();
-		final int readFileBytes;
+		buffer.limit(bufferSizeInByte);
+		int readFileBytes;
 		try {
 			readFileBytes = read(buffer);
 		} catch (final IOException e) {
-			throw new IllegalStateException("Unable to read channel.", e);
+			failure = e;
+			readFileBytes = -1;
 		}
 
 		if (readFileBytes == -1) {
@@ -177,7 +448,24 @@ public abstract class BaseByteBufferReader implements IByteBufferReader {
 	}
 
 	public void close() {
-		Streams.closeIO(buffer);
+		if (prefetcher != null) {
+			prefetcher.close();
+		} else if (buffer != null) {
+			getBufferPool().release(buffer);
+		}
+
+		buffer = null;
+		curArrayLength = 0;
+		failure = null;
+	}
+
+	/**
+	 * Gets the pool the direct buffers are taken from.
+	 * 
+	 * @return the pool of the direct buffers
+	 */
+	protected DirectByteBufferPool getBufferPool() {
+		return DirectByteBufferPool.getDefault();
 	}
 
 	/**
@@ -189,6 +477,16 @@ public abstract class BaseByteBufferReader implements IByteBufferReader {
 		return this.bufferSizeInByte;
 	}
 
+	/**
+	 * Gets the amount of buffers filled in advance by a background thread.
+	 * 
+	 * @return the amount of buffers filled in advance, {@code 0} if the
+	 *         buffer is filled when needed
+	 */
+	public int getPrefetchDepth() {
+		return this.prefetchDepth;
+	}
+
 	/**
 	 * Checks if a buffer is used.
 	 * 
@@ -207,8 +505,191 @@ public abstract class BaseByteBufferReader implements IByteBufferReader {
 		return this.array.length;
 	}
 
+	/**
+	 * Checks if data is remaining, which is also the case if the reading
+	 * failed and the failure was not thrown yet (i.e. the next read throws
+	 * it).
+	 */
 	@Override
 	public boolean hasRemaining() {
-		return curArrayLength > 0;
+		return curArrayLength > 0 || failure != null;
+	}
+
+	/**
+	 * The background thread which fills the buffers in advance. Each buffer
+	 * is passed between the two threads using a queue, i.e. a buffer is
+	 * either filled by the background thread, waiting to be consumed or
+	 * consumed by the reading thread. An empty buffer marks the end of the
+	 * data or a failure. The buffers are given back to the pool, when the
+	 * reader is closed and the background thread is finished.<br/>
+	 * <br/>
+	 * The background thread refers to the reader weakly and waits for a
+	 * limited time only, i.e. if a reader is not closed but garbage
+	 * collected, the thread stops and gives the buffers back to the pool.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	private static class Prefetcher implements Runnable {
+		private static final long TIMEOUT = 500;
+
+		private final WeakReference<BaseByteBufferReader> reader;
+		private final DirectByteBufferPool pool;
+		private final int bufferSize;
+		private final BlockingQueue<ByteBuffer> free;
+		private final BlockingQueue<ByteBuffer> filled;
+		private final List<ByteBuffer> buffers;
+		private final AtomicInteger owners;
+		private final Thread thread;
+
+		private volatile IOException failure;
+		private volatile boolean closed;
+		private boolean finished;
+
+		public Prefetcher(final BaseByteBufferReader reader, final int depth,
+				final ByteBuffer current) {
+			this.reader = new WeakReference<BaseByteBufferReader>(reader);
+			this.pool = reader.getBufferPool();
+			this.bufferSize = reader.bufferSizeInByte;
+			this.free = new ArrayBlockingQueue<ByteBuffer>(depth + 1);
+			this.filled = new ArrayBlockingQueue<ByteBuffer>(depth + 1);
+			this.buffers = new ArrayList<ByteBuffer>(depth + 1);
+			this.owners = new AtomicInteger(2);
+			this.closed = false;
+			this.finished = false;
+
+			buffers.add(current);
+			for (int i = 0; i < depth; i++) {
+				final ByteBuffer buffer = pool.acquire(bufferSize);
+				buffers.add(buffer);
+				free.add(buffer);
+			}
+
+			this.thread = new Thread(this, getClass().getSimpleName() + "-"
+					+ reader.getClass().getSimpleName());
+			this.thread.setDaemon(true);
+			this.thread.start();
+		}
+
+		@Override
+		public void run() {
+			boolean abandoned = false;
+			try {
+				while (!closed) {
+					final ByteBuffer buffer = free.poll(TIMEOUT,
+							TimeUnit.MILLISECONDS);
+					if (buffer == null) {
+						abandoned = reader.get() == null;
+						if (abandoned) {
+							break;
+						} else {
+							continue;
+						}
+					}
+					buffer.clear();
+					buffer.limit(bufferSize);
+
+					int readBytes;
+					try {
+						readBytes = read(buffer);
+					} catch (final IOException e) {
+						if (!closed) {
+							failure = e;
+						}
+						readBytes = -1;
+					}
+
+					// an empty buffer signals the end
+					buffer.position(0);
+					buffer.limit(readBytes < 0 ? 0 : readBytes);
+					while (!filled.offer(buffer, TIMEOUT, TimeUnit.MILLISECONDS)) {
+						abandoned = reader.get() == null;
+						if (abandoned) {
+							return;
+						}
+					}
+
+					if (readBytes <= 0) {
+						break;
+					}
+				}
+			} catch (final InterruptedException e) {
+				// the reader was closed
+			} finally {
+
+				// the reader cannot release the buffers anymore
+				if (abandoned) {
+					owners.decrementAndGet();
+				}
+				releaseBuffers();
+			}
+		}
+
+		/**
+		 * Reads the next data using the reader, {@code -1} if the reader was
+		 * garbage collected. The reader is referred to only while reading.
+		 */
+		private int read(final ByteBuffer buffer) throws IOException {
+			final BaseByteBufferReader r = reader.get();
+			return r == null ? -1 : r.read(buffer);
+		}
+
+		/**
+		 * Gives the buffers back to the pool, if neither the reader nor the
+		 * background thread uses those anymore.
+		 */
+		private void releaseBuffers() {
+			if (owners.decrementAndGet() == 0) {
+				for (final ByteBuffer buffer : buffers) {
+					pool.release(buffer);
+				}
+			}
+		}
+
+		/**
+		 * Gets the next filled buffer, which blocks until the buffer is
+		 * available. A failure of the background thread is available (see
+		 * {@link #failure}) with the empty buffer marking the end, i.e. after
+		 * all the buffers filled prior to the failure are consumed.
+		 * 
+		 * @param consumed
+		 *            the consumed buffer to be filled again
+		 * 
+		 * @return the next filled buffer
+		 */
+		public ByteBuffer next(final ByteBuffer consumed) {
+			if (finished) {
+				return consumed;
+			}
+			free.offer(consumed);
+
+			final ByteBuffer next;
+			try {
+				next = filled.take();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(
+						"Interrupted while waiting for the data.", e);
+			}
+
+			if (!next.hasRemaining()) {
+				finished = true;
+			}
+
+			return next;
+		}
+
+		/**
+		 * Stops the background thread.
+		 */
+		public void close() {
+			if (closed) {
+				return;
+			}
+
+			closed = true;
+			thread.interrupt();
+			releaseBuffers();
+		}
 	}
 }
@@ -0,0 +1,237 @@
+package net.meisen.general.genmisc.resources;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Base implementation of a byte-writer which collects the bytes to be written
+ * in a reusable {@code ByteBuffer}. The buffer is drained to the resource
+ * whenever it is full, so that writing does not create any garbage.
+ * 
+ * @author pmeisen
+ * 
+ */
+public abstract class BaseByteBufferWriter implements IByteBufferWriter {
+	private ByteBuffer buffer;
+	private long drainedBytes;
+
+	/**
+	 * Default constructor
+	 */
+	public BaseByteBufferWriter() {
+		this.buffer = null;
+		this.drainedBytes = 0;
+	}
+
+	/**
+	 * Initializes the base implementation and should be called within the
+	 * concrete implementation's constructor.
+	 * 
+	 * @param buffer
+	 *            the buffer to collect the bytes in, the buffer is written
+	 *            starting at its current position
+	 */
+	protected void init(final ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Gets the buffer used to collect the bytes.
+	 * 
+	 * @return the buffer used to collect the bytes
+	 */
+	protected ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Replaces the buffer used to collect the bytes, e.g. to increase its
+	 * capacity.
+	 * 
+	 * @param buffer
+	 *            the new buffer
+	 */
+	protected void setBuffer(final ByteBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Makes sure that the buffer can hold the next {@code size} bytes. The
+	 * default implementation drains the buffer if not enough space is left.
+	 * 
+	 * @param size
+	 *            the amount of bytes to be written next, never larger than the
+	 *            capacity of the buffer
+	 */
+	protected void ensureRemaining(final int size) {
+		if (buffer.remaining() < size) {
+			drainBuffer();
+		}
+	}
+
+	/**
+	 * Writes the bytes collected in the buffer to the resource and clears the
+	 * buffer afterwards.
+	 */
+	protected void drainBuffer() {
+		buffer.flip();
+		drainedBytes += buffer.remaining();
+
+		try {
+			while (buffer.hasRemaining()) {
+				drain(buffer);
+			}
+		} catch (final IOException e) {
+			throw new IllegalStateException("Unable to write channel.", e);
+		}
+
+		buffer.clear();
+	}
+
+	/**
+	 * Writes a sequence of bytes from the given {@code buffer} to the
+	 * resource, i.e. the bytes between the buffer's position and its limit.
+	 * The method is called as long as the buffer has remaining bytes.
+	 * 
+	 * @param buffer
+	 *            the buffer to be written
+	 * 
+	 * @throws IOException
+	 *             if the bytes cannot be written
+	 */
+	protected abstract void drain(final ByteBuffer buffer) throws IOException;
+
+	@Override
+	public void put(final byte b) {
+		ensureRemaining(1);
+		buffer.put(b);
+	}
+
+	@Override
+	public void put(final byte[] src) {
+		put(src, 0, src.length);
+	}
+
+	@Override
+	public void put(final byte[] src, final int offset, final int length) {
+		int pos = offset;
+		int left = length;
+
+		while (left > 0) {
+			ensureRemaining(Math.min(left, buffer.capacity()));
+
+			final int amount = Math.min(buffer.remaining(), left);
+			buffer.put(src, pos, amount);
+			pos += amount;
+			left -= amount;
+		}
+	}
+
+	@Override
+	public void putShort(final short value) {
+		ensureRemaining(2);
+		buffer.putShort(value);
+	}
+
+	@Override
+	public void putInt(final int value) {
+		ensureRemaining(4);
+		buffer.putInt(value);
+	}
+
+	@Override
+	public void putLong(final long value) {
+		ensureRemaining(8);
+		buffer.putLong(value);
+	}
+
+	@Override
+	public void putDouble(final double value) {
+		ensureRemaining(8);
+		buffer.putDouble(value);
+	}
+
+	/**
+	 * Determines the amount of bytes to be reserved within the buffer to write
+	 * the next values of the specified size.
+	 * 
+	 * @param values
+	 *            the amount of values left to be written
+	 * @param size
+	 *            the size of a single value
+	 * 
+	 * @return the amount of bytes to be reserved
+	 */
+	private int chunkSize(final int values, final int size) {
+		final long needed = (long) values * size;
+		final int fitting = buffer.capacity() / size * size;
+
+		return (int) Math.max(size, Math.min(needed, fitting));
+	}
+
+	@Override
+	public void putInts(final int[] src, final int offset, final int length) {
+		int pos = offset;
+		int left = length;
+
+		while (left > 0) {
+			ensureRemaining(chunkSize(left, 4));
+
+			final int amount = Math.min(buffer.remaining() / 4, left);
+			buffer.asIntBuffer().put(src, pos, amount);
+			buffer.position(buffer.position() + amount * 4);
+			pos += amount;
+			left -= amount;
+		}
+	}
+
+	@Override
+	public void putLongs(final long[] src, final int offset, final int length) {
+		int pos = offset;
+		int left = length;
+
+		while (left > 0) {
+			ensureRemaining(chunkSize(left, 8));
+
+			final int amount = Math.min(buffer.remaining() / 8, left);
+			buffer.asLongBuffer().put(src, pos, amount);
+			buffer.position(buffer.position() + amount * 8);
+			pos += amount;
+			left -= amount;
+		}
+	}
+
+	@Override
+	public void putDoubles(final double[] src, final int offset,
+			final int length) {
+		int pos = offset;
+		int left = length;
+
+		while (left > 0) {
+			ensureRemaining(chunkSize(left, 8));
+
+			final int amount = Math.min(buffer.remaining() / 8, left);
+			buffer.asDoubleBuffer().put(src, pos, amount);
+			buffer.position(buffer.position() + amount * 8);
+			pos += amount;
+			left -= amount;
+		}
+	}
+
+	@Override
+	public long position() {
+		return drainedBytes + buffer.position();
+	}
+
+	@Override
+	public void flush() {
+		if (buffer.position() > 0) {
+			drainBuffer();
+		}
+	}
+
+	@Override
+	public void close() {
+		flush();
+	}
+}
@@ -0,0 +1,364 @@
+package net.meisen.general.genmisc.resources;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+import net.meisen.general.genmisc.types.Streams;
+
+/**
+ * A {@code ByteBufferReader} which reads the blocks written by a
+ * {@link BlockCompressedWriter}. The reader provides the uncompressed bytes,
+ * i.e. objects written using e.g.
+ * {@link Streams#writeNextObject(IByteBufferWriter, Object)} are read using
+ * {@link Streams#readNextObject(IByteBufferReader)}.<br/>
+ * <br/>
+ * The index of the blocks is read when the reader is created. Each block can
+ * be decompressed independently using {@link #decompressBlock(int)}, which
+ * is thread-safe. If a parallelism larger than {@code 1} is specified, the
+ * reader decompresses up to the specified amount of blocks in advance using
+ * an {@code ExecutorService}. The checksum of each block is validated when
+ * the block is decompressed.
+ * 
+ * @author pmeisen
+ * 
+ * @see BlockCompressedWriter
+ */
+public class BlockCompressedReader extends BaseByteBufferReader {
+	private final FileInputStream fis;
+	private final FileChannel channel;
+	private final ExecutorService executor;
+	private final int parallelism;
+
+	private final long[] rawOffsets;
+	private final long[] fileOffsets;
+	private final long size;
+
+	private final Deque<Future<byte[]>> pending;
+	private int nextBlock;
+	private int submittedBlock;
+	private byte[] current;
+	private int currentPos;
+
+	/**
+	 * Default constructor creates a {@code BlockCompressedReader} for the
+	 * specified {@code file}, which decompresses the blocks when needed.
+	 * 
+	 * @param file
+	 *            the {@code File} to create the reader for
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be found
+	 * @throws IllegalArgumentException
+	 *             if the file was not written by a
+	 *             {@code BlockCompressedWriter}
+	 */
+	public BlockCompressedReader(final File file) throws FileNotFoundException,
+			IllegalArgumentException {
+		this(file, 1);
+	}
+
+	/**
+	 * Constructor creates a {@code BlockCompressedReader} for the specified
+	 * {@code file}, which decompresses up to {@code parallelism} blocks
+	 * concurrently using the common {@code ForkJoinPool}.
+	 * 
+	 * @param file
+	 *            the {@code File} to create the reader for
+	 * @param parallelism
+	 *            the amount of blocks decompressed concurrently, {@code 1} to
+	 *            decompress the blocks when needed
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be found
+	 * @throws IllegalArgumentException
+	 *             if the file was not written by a
+	 *             {@code BlockCompressedWriter}
+	 */
+	public BlockCompressedReader(final File file, final int parallelism)
+			throws FileNotFoundException, IllegalArgumentException {
+		this(file, parallelism, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor creates a {@code BlockCompressedReader} for the specified
+	 * {@code file}, which decompresses up to {@code parallelism} blocks
+	 * concurrently using the specified {@code executor}.
+	 * 
+	 * @param file
+	 *            the {@code File} to create the reader for
+	 * @param parallelism
+	 *            the amount of blocks decompressed concurrently, {@code 1} to
+	 *            decompress the blocks when needed
+	 * @param executor
+	 *            the {@code ExecutorService} used to decompress the blocks
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be found
+	 * @throws IllegalArgumentException
+	 *             if the file was not written by a
+	 *             {@code BlockCompressedWriter}
+	 */
+	public BlockCompressedReader(final File file, final int parallelism,
+			final ExecutorService executor) throws FileNotFoundException,
+			IllegalArgumentException {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(
+					"The parallelism must be at least 1.");
+		} else if (parallelism > 1 && executor == null) {
+			throw new IllegalArgumentException(
+					"You must specify an executor to decompress concurrently.");
+		}
+
+		this.fis = new FileInputStream(file);
+		this.channel = fis.getChannel();
+		this.executor = executor;
+		this.parallelism = parallelism;
+
+		// read the index of the blocks
+		try {
+			final long fileSize = channel.size();
+			if (fileSize < BlockCompressedWriter.TRAILER_SIZE) {
+				throw new IllegalArgumentException("The file '" + file
+						+ "' is too small to contain blocks.");
+			}
+
+			final ByteBuffer trailer = readFully(fileSize
+					- BlockCompressedWriter.TRAILER_SIZE,
+					BlockCompressedWriter.TRAILER_SIZE);
+			final int blocks = trailer.getInt();
+			final long indexPosition = trailer.getLong();
+			if (trailer.getInt() != BlockCompressedWriter.MAGIC
+					|| blocks < 0
+					|| indexPosition + 16l * blocks
+							+ BlockCompressedWriter.TRAILER_SIZE != fileSize) {
+				throw new IllegalArgumentException("The file '" + file
+						+ "' does not contain an index of blocks.");
+			}
+
+			final ByteBuffer index = readFully(indexPosition, 16 * blocks);
+			this.rawOffsets = new long[blocks + 1];
+			this.fileOffsets = new long[blocks + 1];
+			for (int i = 0; i < blocks; i++) {
+				this.rawOffsets[i] = index.getLong();
+				this.fileOffsets[i] = index.getLong();
+			}
+			this.fileOffsets[blocks] = indexPosition;
+			this.rawOffsets[blocks] = blocks == 0 ? 0 : rawOffsets[blocks - 1]
+					+ readFully(fileOffsets[blocks - 1] + 1, 4).getInt();
+			this.size = this.rawOffsets[blocks];
+		} catch (final IOException e) {
+			Streams.closeIO(fis);
+			throw new IllegalStateException("Unable to read channel.", e);
+		} catch (final IllegalArgumentException e) {
+			Streams.closeIO(fis);
+			throw e;
+		}
+
+		this.pending = new ArrayDeque<Future<byte[]>>();
+		this.nextBlock = 0;
+		this.submittedBlock = 0;
+		this.current = null;
+		this.currentPos = 0;
+
+		// a corrupted first block fails the initialization
+		try {
+			init(1024, size);
+		} catch (final RuntimeException e) {
+			Streams.closeIO(channel);
+			Streams.closeIO(fis);
+			throw e;
+		}
+	}
+
+	private ByteBuffer readFully(final long position, final int length)
+			throws IOException {
+		final ByteBuffer data = ByteBuffer.allocate(length);
+		while (data.hasRemaining()) {
+			if (channel.read(data, position + data.position()) < 0) {
+				throw new IOException("The channel ends at position '"
+						+ (position + data.position()) + "'.");
+			}
+		}
+		data.flip();
+
+		return data;
+	}
+
+	/**
+	 * Decompresses the {@code i}-th block and validates its checksum. The
+	 * method can be called concurrently.
+	 * 
+	 * @param i
+	 *            the number of the block to be decompressed
+	 * 
+	 * @return the decompressed bytes of the block
+	 * 
+	 * @throws IOException
+	 *             if the block cannot be read or is corrupted
+	 */
+	public byte[] decompressBlock(final int i) throws IOException {
+		if (i < 0 || i >= getBlockCount()) {
+			throw new IndexOutOfBoundsException("There is no block " + i + ".");
+		}
+
+		final int frameLength = (int) (fileOffsets[i + 1] - fileOffsets[i]);
+		final ByteBuffer frame = readFully(fileOffsets[i], frameLength);
+		final byte method = frame.get();
+		final int length = frame.getInt();
+		final int stored = frame.getInt();
+		final int checksum = frame.getInt();
+		if (length != rawOffsets[i + 1] - rawOffsets[i]
+				|| stored != frameLength - BlockCompressedWriter.HEADER_SIZE) {
+			throw new IOException("The header of block " + i
+					+ " is corrupted.");
+		}
+
+		final byte[] block;
+		if (method == BlockCompressedWriter.METHOD_STORED) {
+			block = new byte[length];
+			frame.get(block);
+		} else if (method == BlockCompressedWriter.METHOD_LZ) {
+			block = new byte[length];
+			try {
+				if (LZBlockCompressor.decompress(frame.array(),
+						BlockCompressedWriter.HEADER_SIZE, stored, block, 0,
+						length) != length) {
+					throw new IOException("The block " + i
+							+ " is incomplete.");
+				}
+			} catch (final IllegalArgumentException e) {
+				throw new IOException("The block " + i + " is corrupted.", e);
+			}
+		} else {
+			throw new IOException("The block " + i
+					+ " uses the unsupported method '" + method + "'.");
+		}
+
+		final CRC32 crc = new CRC32();
+		crc.update(block, 0, length);
+		if ((int) crc.getValue() != checksum) {
+			throw new IOException("The checksum of block " + i
+					+ " does not match.");
+		}
+
+		return block;
+	}
+
+	private byte[] nextBlock() throws IOException {
+		if (parallelism == 1) {
+			return decompressBlock(nextBlock++);
+		}
+
+		// keep the decompression of the next blocks running
+		while (pending.size() < parallelism
+				&& submittedBlock < getBlockCount()) {
+			final int i = submittedBlock++;
+			pending.add(executor.submit(new Callable<byte[]>() {
+
+				@Override
+				public byte[] call() throws IOException {
+					return decompressBlock(i);
+				}
+			}));
+		}
+
+		nextBlock++;
+		try {
+			return pending.poll().get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while decompressing.", e);
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else {
+				throw new IOException("Unable to decompress block.", cause);
+			}
+		}
+	}
+
+	@Override
+	protected int read(final ByteBuffer buffer) throws IOException {
+		int read = 0;
+		while (buffer.hasRemaining()) {
+			if (current == null || currentPos == current.length) {
+				if (nextBlock == getBlockCount()) {
+					break;
+				}
+				current = nextBlock();
+				currentPos = 0;
+			}
+
+			final int amount = Math.min(buffer.remaining(), current.length
+					- currentPos);
+			buffer.put(current, currentPos, amount);
+			currentPos += amount;
+			read += amount;
+		}
+
+		return read == 0 ? -1 : read;
+	}
+
+	/**
+	 * Gets the amount of blocks of the file.
+	 * 
+	 * @return the amount of blocks
+	 */
+	public int getBlockCount() {
+		return rawOffsets.length - 1;
+	}
+
+	/**
+	 * Gets the position of the first uncompressed byte of the {@code i}-th
+	 * block.
+	 * 
+	 * @param i
+	 *            the number of the block
+	 * 
+	 * @return the position of the first uncompressed byte of the block
+	 */
+	public long getBlockOffset(final int i) {
+		if (i < 0 || i >= getBlockCount()) {
+			throw new IndexOutOfBoundsException("There is no block " + i + ".");
+		}
+
+		return rawOffsets[i];
+	}
+
+	/**
+	 * Gets the amount of uncompressed bytes of the file.
+	 * 
+	 * @return the amount of uncompressed bytes
+	 */
+	public long size() {
+		return size;
+	}
+
+	@Override
+	public void close() {
+		Future<byte[]> future;
+		while ((future = pending.poll()) != null) {
+			future.cancel(false);
+		}
+
+		try {
+			super.close();
+		} finally {
+			Streams.closeIO(channel);
+			Streams.closeIO(fis);
+		}
+	}
+}
@@ -0,0 +1,272 @@
+package net.meisen.general.genmisc.resources;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import net.meisen.general.genmisc.types.Streams;
+
+/**
+ * A {@code ByteBufferWriter} which groups the written bytes into blocks of a
+ * fixed maximal size and writes each block compressed (see
+ * {@link LZBlockCompressor}) to a {@code FileChannel}. A block might be
+ * smaller if a primitive does not fit into the remaining bytes of the block.
+ * Each block is written as
+ * {@code [byte method][int length][int storedLength][int crc32][data]}, a
+ * block is stored uncompressed if the compression does not reduce its size.
+ * When the writer is closed, the index of the blocks (i.e. the uncompressed
+ * and the file offset of each block) is appended to the file, which allows
+ * the {@link BlockCompressedReader} to decompress the blocks
+ * independently.<br/>
+ * <br/>
+ * Calling {@link #flush()} writes the current block even if it is not full,
+ * i.e. frequent flushing decreases the compression ratio.
+ * 
+ * @author pmeisen
+ * 
+ * @see BlockCompressedReader
+ */
+public class BlockCompressedWriter extends BaseByteBufferWriter {
+	/**
+	 * The default amount of uncompressed bytes of a block
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+	/**
+	 * The size of the header of each block
+	 */
+	public static final int HEADER_SIZE = 13;
+	/**
+	 * The size of the trailer following the index of the blocks
+	 */
+	public static final int TRAILER_SIZE = 16;
+	/**
+	 * The value marking the end of a file written by the writer
+	 */
+	public static final int MAGIC = 0x474D4243;
+
+	/**
+	 * The method of a block stored without compression
+	 */
+	public static final byte METHOD_STORED = 0;
+	/**
+	 * The method of a block compressed using the {@link LZBlockCompressor}
+	 */
+	public static final byte METHOD_LZ = 1;
+
+	private final Closeable closeable;
+	private final FileChannel channel;
+	private final LZBlockCompressor compressor;
+	private final CRC32 crc;
+	private final byte[] frame;
+
+	private long filePosition;
+	private long[] rawOffsets;
+	private long[] fileOffsets;
+	private int blocks;
+	private boolean closed;
+
+	/**
+	 * Default constructor creates a {@code BlockCompressedWriter} for the
+	 * specified {@code file} using the {@link #DEFAULT_BLOCK_SIZE}, an
+	 * existing file is overwritten.
+	 * 
+	 * @param file
+	 *            the {@code File} to create the writer for
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be created
+	 */
+	public BlockCompressedWriter(final File file) throws FileNotFoundException {
+		this(file, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Constructor creates a {@code BlockCompressedWriter} for the specified
+	 * {@code file}, an existing file is overwritten.
+	 * 
+	 * @param file
+	 *            the {@code File} to create the writer for
+	 * @param blockSize
+	 *            the amount of uncompressed bytes of a block
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be created
+	 */
+	public BlockCompressedWriter(final File file, final int blockSize)
+			throws FileNotFoundException {
+		this(new FileOutputStream(file), blockSize);
+	}
+
+	/**
+	 * Constructor creates a {@code BlockCompressedWriter} for the specified
+	 * {@code channel}. The blocks are written at the current position of the
+	 * {@code channel}, the channel is closed when the writer is closed.
+	 * 
+	 * @param channel
+	 *            the {@code FileChannel} to create the writer for
+	 * @param blockSize
+	 *            the amount of uncompressed bytes of a block
+	 */
+	public BlockCompressedWriter(final FileChannel channel, final int blockSize) {
+		this((Closeable) null, channel, blockSize);
+	}
+
+	/**
+	 * Internally used constructor which initializes the writer for the
+	 * specified {@code FileOutputStream}.
+	 * 
+	 * @param fos
+	 *            the {@code FileOutputStream} to create the writer for
+	 * @param blockSize
+	 *            the amount of uncompressed bytes of a block
+	 */
+	private BlockCompressedWriter(final FileOutputStream fos,
+			final int blockSize) {
+		this(fos, fos.getChannel(), blockSize);
+	}
+
+	/**
+	 * Internally used constructor which initializes the writer.
+	 * 
+	 * @param closeable
+	 *            the resource the {@code channel} belongs to, closed when the
+	 *            writer is closed, can be {@code null}
+	 * @param channel
+	 *            the {@code FileChannel} to be written
+	 * @param blockSize
+	 *            the amount of uncompressed bytes of a block
+	 */
+	protected BlockCompressedWriter(final Closeable closeable,
+			final FileChannel channel, final int blockSize) {
+		if (channel == null) {
+			throw new IllegalArgumentException(
+					"You must specify a FileChannel or a File.");
+		} else if (blockSize < 8) {
+			throw new IllegalArgumentException(
+					"The block size must be at least 8 bytes.");
+		}
+
+		this.closeable = closeable;
+		this.channel = channel;
+		this.compressor = new LZBlockCompressor();
+		this.crc = new CRC32();
+		this.frame = new byte[HEADER_SIZE
+				+ LZBlockCompressor.maxCompressedLength(blockSize)];
+
+		try {
+			this.filePosition = channel.position();
+		} catch (final IOException e) {
+			throw new IllegalStateException("Unable to write channel.", e);
+		}
+		this.rawOffsets = new long[16];
+		this.fileOffsets = new long[16];
+		this.blocks = 0;
+		this.closed = false;
+
+		init(ByteBuffer.allocate(blockSize));
+	}
+
+	@Override
+	protected void drain(final ByteBuffer buffer) throws IOException {
+		final byte[] block = buffer.array();
+		final int offset = buffer.arrayOffset() + buffer.position();
+		final int length = buffer.remaining();
+
+		// add the block to the index
+		if (blocks == rawOffsets.length) {
+			rawOffsets = Arrays.copyOf(rawOffsets, 2 * blocks);
+			fileOffsets = Arrays.copyOf(fileOffsets, 2 * blocks);
+		}
+		rawOffsets[blocks] = position() - length;
+		fileOffsets[blocks] = filePosition;
+		blocks++;
+
+		// compress the block, keep it if the compression does not pay off
+		int stored = compressor.compress(block, offset, length, frame,
+				HEADER_SIZE);
+		if (stored < length) {
+			frame[0] = METHOD_LZ;
+		} else {
+			frame[0] = METHOD_STORED;
+			System.arraycopy(block, offset, frame, HEADER_SIZE, length);
+			stored = length;
+		}
+
+		crc.reset();
+		crc.update(block, offset, length);
+
+		final ByteBuffer header = ByteBuffer.wrap(frame, 1, HEADER_SIZE - 1);
+		header.putInt(length);
+		header.putInt(stored);
+		header.putInt((int) crc.getValue());
+
+		write(ByteBuffer.wrap(frame, 0, HEADER_SIZE + stored));
+		buffer.position(buffer.limit());
+	}
+
+	private void write(final ByteBuffer data) throws IOException {
+		while (data.hasRemaining()) {
+			filePosition += channel.write(data);
+		}
+	}
+
+	/**
+	 * Gets the amount of blocks written so far.
+	 * 
+	 * @return the amount of blocks written
+	 */
+	public int getBlockCount() {
+		return blocks;
+	}
+
+	/**
+	 * Gets the amount of bytes written to the channel so far, i.e. the size of
+	 * the compressed data.
+	 * 
+	 * @return the amount of bytes written to the channel
+	 */
+	public long getCompressedPosition() {
+		return filePosition;
+	}
+
+	/**
+	 * Writes the last block and the index of the blocks, and closes the
+	 * channel.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		try {
+			super.close();
+
+			final long indexPosition = filePosition;
+			final ByteBuffer index = ByteBuffer.allocate(16 * blocks
+					+ TRAILER_SIZE);
+			for (int i = 0; i < blocks; i++) {
+				index.putLong(rawOffsets[i]);
+				index.putLong(fileOffsets[i]);
+			}
+			index.putInt(blocks);
+			index.putLong(indexPosition);
+			index.putInt(MAGIC);
+			index.flip();
+
+			write(index);
+		} catch (final IOException e) {
+			throw new IllegalStateException("Unable to write channel.", e);
+		} finally {
+			Streams.closeIO(channel);
+			Streams.closeIO(closeable);
+		}
+	}
+}
@@ -0,0 +1,230 @@
+package net.meisen.general.genmisc.resources;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe pool of direct {@code ByteBuffer} instances. Allocating a
+ * direct buffer is expensive and the native memory of a buffer is only
+ * released when the buffer is garbage collected, i.e. creating many
+ * short-lived buffers leads to peaks of native memory. The pool keeps
+ * released buffers for reuse, up to the specified amount of bytes. Buffers
+ * released to a full pool are freed directly.<br/>
+ * <br/>
+ * The capacity of a buffer is rounded up to the next power of two, so that
+ * buffers can be reused for similar sizes. A buffer must not be used after it
+ * was released.
+ * 
+ * @author pmeisen
+ * 
+ * @see BaseByteBufferReader
+ */
+public class DirectByteBufferPool {
+	/**
+	 * The default amount of bytes kept by the pool, i.e. 64 MB
+	 */
+	public static final long DEFAULT_MAX_POOLED_BYTES = 64l * 1024l * 1024l;
+	/**
+	 * The minimal capacity of a buffer provided by the pool
+	 */
+	public static final int MIN_CAPACITY = 1024;
+
+	private static final DirectByteBufferPool defaultPool = new DirectByteBufferPool(
+			DEFAULT_MAX_POOLED_BYTES);
+
+	private final long maxPooledBytes;
+	private final AtomicLong pooledBytes;
+	private final ConcurrentMap<Integer, Queue<ByteBuffer>> buffers;
+
+	/**
+	 * Creates a pool, which keeps up to {@code maxPooledBytes} bytes.
+	 * 
+	 * @param maxPooledBytes
+	 *            the maximal amount of bytes kept by the pool, {@code 0} to
+	 *            free every released buffer
+	 */
+	public DirectByteBufferPool(final long maxPooledBytes) {
+		if (maxPooledBytes < 0) {
+			throw new IllegalArgumentException(
+					"The maximal amount of pooled bytes cannot be negative.");
+		}
+
+		this.maxPooledBytes = maxPooledBytes;
+		this.pooledBytes = new AtomicLong(0);
+		this.buffers = new ConcurrentHashMap<Integer, Queue<ByteBuffer>>();
+	}
+
+	/**
+	 * Gets the pool shared by all the readers.
+	 * 
+	 * @return the default pool
+	 */
+	public static DirectByteBufferPool getDefault() {
+		return defaultPool;
+	}
+
+	/**
+	 * Gets the capacity of the buffers provided for the specified
+	 * {@code size}.
+	 * 
+	 * @param size
+	 *            the size needed
+	 * 
+	 * @return the capacity of the buffer provided
+	 */
+	protected static int capacity(final int size) {
+		if (size <= MIN_CAPACITY) {
+			return MIN_CAPACITY;
+		} else if (size > (1 << 30)) {
+			return size;
+		} else {
+			return Integer.highestOneBit(size - 1) << 1;
+		}
+	}
+
+	/**
+	 * Gets a cleared direct buffer with a capacity of at least {@code size}
+	 * bytes. The buffer is taken from the pool if available, otherwise it is
+	 * allocated.
+	 * 
+	 * @param size
+	 *            the minimal capacity of the buffer
+	 * 
+	 * @return the buffer, which should be given back using
+	 *         {@link #release(ByteBuffer)}
+	 */
+	public ByteBuffer acquire(final int size) {
+		final int capacity = capacity(size);
+
+		final Queue<ByteBuffer> queue = buffers.get(capacity);
+		final ByteBuffer pooled = queue == null ? null : queue.poll();
+		if (pooled == null) {
+			return ByteBuffer.allocateDirect(capacity);
+		} else {
+			pooledBytes.addAndGet(-capacity);
+
+			pooled.clear();
+			return pooled;
+		}
+	}
+
+	/**
+	 * Gives the {@code buffer} back to the pool. If the pool is full the
+	 * buffer is freed directly. Buffers which are not direct or which were
+	 * not provided by a pool are ignored.
+	 * 
+	 * @param buffer
+	 *            the buffer to be released, can be {@code null}
+	 */
+	public void release(final ByteBuffer buffer) {
+		if (buffer == null || !buffer.isDirect()) {
+			return;
+		}
+
+		final int capacity = buffer.capacity();
+		if (capacity != capacity(capacity)) {
+			return;
+		}
+
+		// reserve the space within the pool
+		long current;
+		do {
+			current = pooledBytes.get();
+			if (current + capacity > maxPooledBytes) {
+				free(buffer);
+				return;
+			}
+		} while (!pooledBytes.compareAndSet(current, current + capacity));
+
+		Queue<ByteBuffer> queue = buffers.get(capacity);
+		if (queue == null) {
+			final Queue<ByteBuffer> newQueue = new ConcurrentLinkedQueue<ByteBuffer>();
+			queue = buffers.putIfAbsent(capacity, newQueue);
+			if (queue == null) {
+				queue = newQueue;
+			}
+		}
+		queue.offer(buffer);
+	}
+
+	/**
+	 * Frees all the buffers kept by the pool.
+	 */
+	public void clear() {
+		for (final Queue<ByteBuffer> queue : buffers.values()) {
+			ByteBuffer buffer;
+			while ((buffer = queue.poll()) != null) {
+				pooledBytes.addAndGet(-buffer.capacity());
+				free(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Gets the amount of bytes currently kept by the pool.
+	 * 
+	 * @return the amount of bytes kept by the pool
+	 */
+	public long getPooledBytes() {
+		return pooledBytes.get();
+	}
+
+	/**
+	 * Gets the maximal amount of bytes kept by the pool.
+	 * 
+	 * @return the maximal amount of bytes kept by the pool
+	 */
+	public long getMaxPooledBytes() {
+		return maxPooledBytes;
+	}
+
+	/**
+	 * Releases the native memory of the specified direct {@code buffer} (or
+	 * the mapping of a {@code MappedByteBuffer}) directly, instead of waiting
+	 * for the garbage collector to do so. The method does nothing, if the JVM
+	 * does not support it.
+	 * 
+	 * @param buffer
+	 *            the buffer to be freed, can be {@code null}
+	 */
+	public static void free(final ByteBuffer buffer) {
+		if (buffer == null || !buffer.isDirect()) {
+			return;
+		}
+
+		try {
+
+			// since Java 9 the Unsafe provides a method to do so
+			final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			final Method invokeCleaner = unsafeClass.getMethod(
+					"invokeCleaner", ByteBuffer.class);
+			final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			invokeCleaner.invoke(theUnsafe.get(null), buffer);
+		} catch (final NoSuchMethodException e) {
+			try {
+
+				// Java 8 and earlier provide the cleaner of the buffer
+				final Method cleanerMethod = buffer.getClass().getMethod(
+						"cleaner");
+				cleanerMethod.setAccessible(true);
+				final Object cleaner = cleanerMethod.invoke(buffer);
+				if (cleaner != null) {
+					final Method clean = cleaner.getClass().getMethod("clean");
+					clean.setAccessible(true);
+					clean.invoke(cleaner);
+				}
+			} catch (final Exception ex) {
+				// leave it to the garbage collector
+			}
+		} catch (final Exception e) {
+			// leave it to the garbage collector
+		}
+	}
+}
@@ -20,10 +20,15 @@ import net.meisen.general.genmisc.types.Streams;
  * afterwards. The class can be used for read-only purposes. It uses a direct
  * ByteBuffer, which is backed by a byte-array. Externally the byte-arrays size
  * can be set using the {@link #FileByteBufferReader(FileChannel, int)}
- * constructor.
+ * constructor. If the data should be read without copying it, the
+ * {@link MappedByteBufferReader} can be used instead. To overlap the reading
+ * of the file with the processing of the data, the
+ * {@link #FileByteBufferReader(File, int, int, int)} constructor can be used,
+ * which reads the file in advance within a background thread.
  * 
  * @author pmeisen
  * 
+ * @see MappedByteBufferReader
  */
 public class FileByteBufferReader extends BaseByteBufferReader {
 
@@ -61,6 +66,32 @@ public class FileByteBufferReader extends BaseByteBufferReader {
 		this(new FileInputStream(file), null, null, arraySizeInByte);
 	}
 
+	/**
+	 * Constructor creates a {@code ByteBufferReader} for the specified
+	 * {@code file}, which reads up to {@code prefetchDepth} buffers in
+	 * advance within a background thread.
+	 * 
+	 * @param file
+	 *            the {@code File} to create the reader for
+	 * @param arraySizeInByte
+	 *            the size of the internally used array
+	 * @param bufferSizeInByte
+	 *            the size of each buffer, {@code -1} to use ten times the size
+	 *            of the array
+	 * @param prefetchDepth
+	 *            the amount of buffers read in advance, {@code 0} to read
+	 *            within the calling thread
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be found
+	 */
+	public FileByteBufferReader(final File file, final int arraySizeInByte,
+			final int bufferSizeInByte, final int prefetchDepth)
+			throws FileNotFoundException {
+		this(new FileInputStream(file), null, null, arraySizeInByte,
+				bufferSizeInByte, prefetchDepth);
+	}
+
 	/**
 	 * Default constructor creates a {@code RandomAccessFile} for the specified
 	 * {@code file}.
@@ -111,6 +142,29 @@ public class FileByteBufferReader extends BaseByteBufferReader {
 		this(null, null, channel, arraySizeInByte);
 	}
 
+	/**
+	 * Constructor creates a {@code ByteBufferReader} for the specified
+	 * {@code channel}, which reads up to {@code prefetchDepth} buffers in
+	 * advance within a background thread.
+	 * 
+	 * @param channel
+	 *            the {@code FileChannel} to create the reader for
+	 * @param arraySizeInByte
+	 *            the size of the internally used array
+	 * @param bufferSizeInByte
+	 *            the size of each buffer, {@code -1} to use ten times the size
+	 *            of the array
+	 * @param prefetchDepth
+	 *            the amount of buffers read in advance, {@code 0} to read
+	 *            within the calling thread
+	 */
+	public FileByteBufferReader(final FileChannel channel,
+			final int arraySizeInByte, final int bufferSizeInByte,
+			final int prefetchDepth) {
+		this(null, null, channel, arraySizeInByte, bufferSizeInByte,
+				prefetchDepth);
+	}
+
 	/**
 	 * Internally used constructor which initializes the reader.
 	 * 
@@ -129,6 +183,34 @@ public class FileByteBufferReader extends BaseByteBufferReader {
 	protected FileByteBufferReader(final FileInputStream fis,
 			final RandomAccessFile raf, final FileChannel channel,
 			final int arraySizeInByte) {
+		this(fis, raf, channel, arraySizeInByte, -1, 0);
+	}
+
+	/**
+	 * Internally used constructor which initializes the reader.
+	 * 
+	 * @param fis
+	 *            a {@code FileInputStream} if one was defined to create the
+	 *            instance
+	 * @param raf
+	 *            a {@code RandomAccessFile} if one was defined to create the
+	 *            instance
+	 * @param channel
+	 *            a {@code FileChannel} if one was defined to create the
+	 *            instance
+	 * @param arraySizeInByte
+	 *            the size of the internally used array
+	 * @param bufferSizeInByte
+	 *            the size of each buffer, {@code -1} to use ten times the size
+	 *            of the array
+	 * @param prefetchDepth
+	 *            the amount of buffers read in advance, {@code 0} to read
+	 *            within the calling thread
+	 */
+	protected FileByteBufferReader(final FileInputStream fis,
+			final RandomAccessFile raf, final FileChannel channel,
+			final int arraySizeInByte, final int bufferSizeInByte,
+			final int prefetchDepth) {
 
 		// determine the channel to be used
 		if (channel != null) {
@@ -150,9 +232,10 @@ public class FileByteBufferReader extends BaseByteBufferReader {
 		}
 
 		try {
-			init(arraySizeInByte, this.channel.size());
+			init(arraySizeInByte, this.channel.size(), bufferSizeInByte,
+					prefetchDepth);
 		} catch (final IOException e) {
-			init(arraySizeInByte, -1l);
+			init(arraySizeInByte, -1l, bufferSizeInByte, prefetchDepth);
 		}
 	}
 
@@ -0,0 +1,165 @@
+package net.meisen.general.genmisc.resources;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import net.meisen.general.genmisc.types.Streams;
+
+/**
+ * A {@code ByteBufferWriter} which writes the bytes to a {@code FileChannel}.
+ * The bytes are collected in a direct {@code ByteBuffer}, which is written to
+ * the channel whenever it is full. It is the counterpart of the
+ * {@link FileByteBufferReader}.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class FileByteBufferWriter extends BaseByteBufferWriter {
+
+	private final Closeable closeable;
+	private final FileChannel channel;
+
+	/**
+	 * Default constructor creates a {@code ByteBufferWriter} for the specified
+	 * {@code file}, an existing file is overwritten.
+	 * 
+	 * @param file
+	 *            the {@code File} to create the writer for
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be created
+	 */
+	public FileByteBufferWriter(final File file) throws FileNotFoundException {
+		this(file, 64 * 1024);
+	}
+
+	/**
+	 * Constructor creates a {@code ByteBufferWriter} for the specified
+	 * {@code file}, an existing file is overwritten.
+	 * 
+	 * @param file
+	 *            the {@code File} to create the writer for
+	 * @param bufferSizeInByte
+	 *            the size of the internally used buffer
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be created
+	 */
+	public FileByteBufferWriter(final File file, final int bufferSizeInByte)
+			throws FileNotFoundException {
+		this(new FileOutputStream(file), bufferSizeInByte);
+	}
+
+	/**
+	 * Default constructor creates a {@code ByteBufferWriter} for the specified
+	 * {@code file}. The bytes are written at the current position of the
+	 * {@code file}.
+	 * 
+	 * @param file
+	 *            the {@code RandomAccesFile} to create the writer for
+	 */
+	public FileByteBufferWriter(final RandomAccessFile file) {
+		this(file, 64 * 1024);
+	}
+
+	/**
+	 * Constructor creates a {@code ByteBufferWriter} for the specified
+	 * {@code file}. The bytes are written at the current position of the
+	 * {@code file}.
+	 * 
+	 * @param file
+	 *            the {@code RandomAccesFile} to create the writer for
+	 * @param bufferSizeInByte
+	 *            the size of the internally used buffer
+	 */
+	public FileByteBufferWriter(final RandomAccessFile file,
+			final int bufferSizeInByte) {
+		this(file, file.getChannel(), bufferSizeInByte);
+	}
+
+	/**
+	 * Default constructor creates a {@code ByteBufferWriter} for the specified
+	 * {@code channel}. The bytes are written at the current position of the
+	 * {@code channel}.
+	 * 
+	 * @param channel
+	 *            the {@code FileChannel} to create the writer for
+	 */
+	public FileByteBufferWriter(final FileChannel channel) {
+		this(channel, 64 * 1024);
+	}
+
+	/**
+	 * Constructor creates a {@code ByteBufferWriter} for the specified
+	 * {@code channel}. The bytes are written at the current position of the
+	 * {@code channel}.
+	 * 
+	 * @param channel
+	 *            the {@code FileChannel} to create the writer for
+	 * @param bufferSizeInByte
+	 *            the size of the internally used buffer
+	 */
+	public FileByteBufferWriter(final FileChannel channel,
+			final int bufferSizeInByte) {
+		this((Closeable) null, channel, bufferSizeInByte);
+	}
+
+	/**
+	 * Internally used constructor which initializes the writer for the
+	 * specified {@code FileOutputStream}.
+	 * 
+	 * @param fos
+	 *            the {@code FileOutputStream} to create the writer for
+	 * @param bufferSizeInByte
+	 *            the size of the internally used buffer
+	 */
+	private FileByteBufferWriter(final FileOutputStream fos,
+			final int bufferSizeInByte) {
+		this(fos, fos.getChannel(), bufferSizeInByte);
+	}
+
+	/**
+	 * Internally used constructor which initializes the writer.
+	 * 
+	 * @param closeable
+	 *            the resource the {@code channel} belongs to, closed when the
+	 *            writer is closed, can be {@code null}
+	 * @param channel
+	 *            the {@code FileChannel} to be written
+	 * @param bufferSizeInByte
+	 *            the size of the internally used buffer
+	 */
+	protected FileByteBufferWriter(final Closeable closeable,
+			final FileChannel channel, final int bufferSizeInByte) {
+		if (channel == null) {
+			throw new IllegalArgumentException(
+					"You must specify a FileChannel, FileOutputStream, or RandomAccessFile.");
+		}
+
+		this.closeable = closeable;
+		this.channel = channel;
+
+		init(ByteBuffer.allocateDirect(Math.max(8, bufferSizeInByte)));
+	}
+
+	@Override
+	protected void drain(final ByteBuffer buffer) throws IOException {
+		channel.write(buffer);
+	}
+
+	@Override
+	public void close() {
+		try {
+			super.close();
+		} finally {
+			Streams.closeIO(channel);
+			Streams.closeIO(closeable);
+		}
+	}
+}
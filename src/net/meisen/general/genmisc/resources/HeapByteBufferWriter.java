@@ -0,0 +1,89 @@
+package net.meisen.general.genmisc.resources;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A {@code ByteBufferWriter} which writes the bytes into an array on the heap,
+ * which grows if needed. The writer can be reused by calling {@link #reset()},
+ * which keeps the already allocated array.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class HeapByteBufferWriter extends BaseByteBufferWriter {
+
+	/**
+	 * Default constructor
+	 */
+	public HeapByteBufferWriter() {
+		this(1024);
+	}
+
+	/**
+	 * Constructor specifying the initial capacity of the array.
+	 * 
+	 * @param initialCapacity
+	 *            the initial capacity of the array
+	 */
+	public HeapByteBufferWriter(final int initialCapacity) {
+		init(ByteBuffer.allocate(Math.max(1, initialCapacity)));
+	}
+
+	@Override
+	protected void ensureRemaining(final int size) {
+		final ByteBuffer buffer = getBuffer();
+
+		if (buffer.remaining() < size) {
+			final long needed = (long) buffer.position() + size;
+			final long capacity = Math.max(needed, 2l * buffer.capacity());
+			if (needed > Integer.MAX_VALUE - 8) {
+				throw new OutOfMemoryError("The array cannot hold " + needed
+						+ " bytes.");
+			}
+
+			final ByteBuffer newBuffer = ByteBuffer.allocate((int) Math.min(
+					capacity, Integer.MAX_VALUE - 8));
+			buffer.flip();
+			newBuffer.put(buffer);
+			setBuffer(newBuffer);
+		}
+	}
+
+	@Override
+	protected void drain(final ByteBuffer buffer) {
+		throw new IllegalStateException("The array cannot be drained.");
+	}
+
+	@Override
+	public void flush() {
+		// nothing to do, the bytes are kept in the array
+	}
+
+	/**
+	 * Gets the written bytes as new array.
+	 * 
+	 * @return the written bytes
+	 */
+	public byte[] toByteArray() {
+		final ByteBuffer buffer = getBuffer();
+		return Arrays.copyOf(buffer.array(), buffer.position());
+	}
+
+	/**
+	 * Gets the array the bytes are written to. Only the first
+	 * {@link #position()} bytes of the array are written.
+	 * 
+	 * @return the array the bytes are written to
+	 */
+	public byte[] getArray() {
+		return getBuffer().array();
+	}
+
+	/**
+	 * Discards all the written bytes, so that the writer can be reused.
+	 */
+	public void reset() {
+		getBuffer().clear();
+	}
+}
@@ -39,6 +39,79 @@ public interface IByteBufferReader extends Closeable {
 	 */
 	public void get(final byte[] dst, final int offset, final int length);
 
+	/**
+	 * Gets the next two bytes as {@code short} (big-endian), i.e. as written
+	 * by {@link net.meisen.general.genmisc.types.Streams#shortToByte(short)}.
+	 * 
+	 * @return the next {@code short}
+	 */
+	public short getShort();
+
+	/**
+	 * Gets the next four bytes as {@code int} (big-endian), i.e. as written by
+	 * {@link net.meisen.general.genmisc.types.Streams#intToByte(int)}.
+	 * 
+	 * @return the next {@code int}
+	 */
+	public int getInt();
+
+	/**
+	 * Gets the next eight bytes as {@code long} (big-endian), i.e. as written
+	 * by {@link net.meisen.general.genmisc.types.Streams#longToByte(long)}.
+	 * 
+	 * @return the next {@code long}
+	 */
+	public long getLong();
+
+	/**
+	 * Gets the next eight bytes as {@code double} (big-endian), i.e. as
+	 * written by
+	 * {@link net.meisen.general.genmisc.types.Streams#doubleToByte(double)}.
+	 * 
+	 * @return the next {@code double}
+	 */
+	public double getDouble();
+
+	/**
+	 * Fills {@code dst} at the {@code offset} position with the next
+	 * {@code length} {@code int} values (see {@link #getInt()}).
+	 * 
+	 * @param dst
+	 *            the array to be filled
+	 * @param offset
+	 *            the position to start the filling at
+	 * @param length
+	 *            the amount of values to fill
+	 */
+	public void getInts(final int[] dst, final int offset, final int length);
+
+	/**
+	 * Fills {@code dst} at the {@code offset} position with the next
+	 * {@code length} {@code long} values (see {@link #getLong()}).
+	 * 
+	 * @param dst
+	 *            the array to be filled
+	 * @param offset
+	 *            the position to start the filling at
+	 * @param length
+	 *            the amount of values to fill
+	 */
+	public void getLongs(final long[] dst, final int offset, final int length);
+
+	/**
+	 * Fills {@code dst} at the {@code offset} position with the next
+	 * {@code length} {@code double} values (see {@link #getDouble()}).
+	 * 
+	 * @param dst
+	 *            the array to be filled
+	 * @param offset
+	 *            the position to start the filling at
+	 * @param length
+	 *            the amount of values to fill
+	 */
+	public void getDoubles(final double[] dst, final int offset,
+			final int length);
+
 	@Override
 	public void close();
 
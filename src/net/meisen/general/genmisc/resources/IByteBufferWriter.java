@@ -0,0 +1,139 @@
+package net.meisen.general.genmisc.resources;
+
+import java.io.Closeable;
+import java.io.Flushable;
+
+/**
+ * An interface to write bytes, e.g. to a {@code ByteBuffer}. It is the
+ * counterpart of the {@link IByteBufferReader}, i.e. primitive values are
+ * written big-endian.
+ * 
+ * @author pmeisen
+ */
+public interface IByteBufferWriter extends Closeable, Flushable {
+
+	/**
+	 * Writes the specified byte.
+	 * 
+	 * @param b
+	 *            the byte to be written
+	 */
+	public void put(final byte b);
+
+	/**
+	 * Writes all the bytes of {@code src}.
+	 * 
+	 * @param src
+	 *            the bytes to be written
+	 */
+	public void put(final byte[] src);
+
+	/**
+	 * Writes {@code length} bytes of {@code src} starting at the
+	 * {@code offset}, i.e. the values {@code src[offset]} till
+	 * {@code src[offset + length - 1]}.
+	 * 
+	 * @param src
+	 *            the bytes to be written
+	 * @param offset
+	 *            the position of the first byte to be written
+	 * @param length
+	 *            the amount of bytes to be written
+	 */
+	public void put(final byte[] src, final int offset, final int length);
+
+	/**
+	 * Writes the {@code short} (big-endian), i.e. like
+	 * {@link net.meisen.general.genmisc.types.Streams#shortToByte(short)}.
+	 * 
+	 * @param value
+	 *            the value to be written
+	 */
+	public void putShort(final short value);
+
+	/**
+	 * Writes the {@code int} (big-endian), i.e. like
+	 * {@link net.meisen.general.genmisc.types.Streams#intToByte(int)}.
+	 * 
+	 * @param value
+	 *            the value to be written
+	 */
+	public void putInt(final int value);
+
+	/**
+	 * Writes the {@code long} (big-endian), i.e. like
+	 * {@link net.meisen.general.genmisc.types.Streams#longToByte(long)}.
+	 * 
+	 * @param value
+	 *            the value to be written
+	 */
+	public void putLong(final long value);
+
+	/**
+	 * Writes the {@code double} (big-endian), i.e. like
+	 * {@link net.meisen.general.genmisc.types.Streams#doubleToByte(double)}.
+	 * 
+	 * @param value
+	 *            the value to be written
+	 */
+	public void putDouble(final double value);
+
+	/**
+	 * Writes {@code length} {@code int} values of {@code src} starting at the
+	 * {@code offset} (see {@link #putInt(int)}).
+	 * 
+	 * @param src
+	 *            the values to be written
+	 * @param offset
+	 *            the position of the first value to be written
+	 * @param length
+	 *            the amount of values to be written
+	 */
+	public void putInts(final int[] src, final int offset, final int length);
+
+	/**
+	 * Writes {@code length} {@code long} values of {@code src} starting at the
+	 * {@code offset} (see {@link #putLong(long)}).
+	 * 
+	 * @param src
+	 *            the values to be written
+	 * @param offset
+	 *            the position of the first value to be written
+	 * @param length
+	 *            the amount of values to be written
+	 */
+	public void putLongs(final long[] src, final int offset, final int length);
+
+	/**
+	 * Writes {@code length} {@code double} values of {@code src} starting at
+	 * the {@code offset} (see {@link #putDouble(double)}).
+	 * 
+	 * @param src
+	 *            the values to be written
+	 * @param offset
+	 *            the position of the first value to be written
+	 * @param length
+	 *            the amount of values to be written
+	 */
+	public void putDoubles(final double[] src, final int offset,
+			final int length);
+
+	/**
+	 * Gets the amount of bytes written so far.
+	 * 
+	 * @return the amount of bytes written so far
+	 */
+	public long position();
+
+	/**
+	 * Writes the buffered bytes to the underlying resource.
+	 */
+	@Override
+	public void flush();
+
+	/**
+	 * Flushes the buffered bytes and releases the underlying resource.
+	 */
+	@Override
+	public void close();
+}
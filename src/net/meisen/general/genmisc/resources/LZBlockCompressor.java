@@ -0,0 +1,266 @@
+package net.meisen.general.genmisc.resources;
+
+import java.util.Arrays;
+
+/**
+ * A fast compressor of blocks of bytes written in pure Java. The compressed
+ * data follows the sequence format of the LZ4 block format, i.e. each
+ * sequence consists of a token, the literals, a two byte offset and the
+ * length of the match. Matches are found using a hash table of the last
+ * position of each four byte sequence, i.e. the compression is fast but the
+ * ratio is lower than the one of e.g. a {@code Deflater}.<br/>
+ * <br/>
+ * An instance keeps the hash table used to find matches and is therefore not
+ * thread-safe, the decompression (see
+ * {@link #decompress(byte[], int, int, byte[], int, int)}) is stateless.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class LZBlockCompressor {
+	private static final int MIN_MATCH = 4;
+	private static final int LAST_LITERALS = 5;
+	private static final int MF_LIMIT = 12;
+	private static final int MAX_DISTANCE = 65535;
+	private static final int HASH_LOG = 12;
+	private static final int RUN_MASK = 15;
+
+	private final int[] table;
+
+	/**
+	 * Default constructor
+	 */
+	public LZBlockCompressor() {
+		this.table = new int[1 << HASH_LOG];
+	}
+
+	/**
+	 * Gets the maximal size of the compressed data of {@code length} bytes,
+	 * i.e. the size the destination of
+	 * {@link #compress(byte[], int, int, byte[], int)} must provide.
+	 * 
+	 * @param length
+	 *            the amount of bytes to be compressed
+	 * 
+	 * @return the maximal size of the compressed data
+	 */
+	public static int maxCompressedLength(final int length) {
+		return length + length / 255 + 16;
+	}
+
+	/**
+	 * Compresses the {@code length} bytes of {@code src} starting at
+	 * {@code offset} into {@code dst}.
+	 * 
+	 * @param src
+	 *            the bytes to be compressed
+	 * @param offset
+	 *            the first byte to be compressed
+	 * @param length
+	 *            the amount of bytes to be compressed
+	 * @param dst
+	 *            the array to write the compressed data to, must provide
+	 *            {@link #maxCompressedLength(int)} bytes
+	 * @param dstOffset
+	 *            the position to write the compressed data at
+	 * 
+	 * @return the size of the compressed data
+	 */
+	public int compress(final byte[] src, final int offset, final int length,
+			final byte[] dst, final int dstOffset) {
+		final int srcEnd = offset + length;
+
+		int dp = dstOffset;
+		int anchor = offset;
+		if (length > MF_LIMIT) {
+			Arrays.fill(table, -1);
+
+			// the last literals are never part of a match
+			final int matchLimit = srcEnd - LAST_LITERALS;
+			final int limit = srcEnd - MF_LIMIT;
+
+			int sp = offset;
+			while (sp < limit) {
+				final int sequence = readInt(src, sp);
+				final int hash = hash(sequence);
+				int ref = table[hash];
+				table[hash] = sp;
+
+				if (ref < 0 || sp - ref > MAX_DISTANCE
+						|| readInt(src, ref) != sequence) {
+					sp++;
+					continue;
+				}
+
+				// extend the match backwards and forwards
+				while (sp > anchor && ref > offset && src[sp - 1] == src[ref - 1]) {
+					sp--;
+					ref--;
+				}
+				int matchLength = MIN_MATCH;
+				while (sp + matchLength < matchLimit
+						&& src[sp + matchLength] == src[ref + matchLength]) {
+					matchLength++;
+				}
+
+				dp = writeSequence(src, anchor, sp - anchor, sp - ref,
+						matchLength, dst, dp);
+				sp += matchLength;
+				anchor = sp;
+			}
+		}
+
+		// the last sequence contains only literals
+		dp = writeSequence(src, anchor, srcEnd - anchor, 0, 0, dst, dp);
+
+		return dp - dstOffset;
+	}
+
+	/**
+	 * Decompresses the {@code length} bytes of compressed data of {@code src}
+	 * starting at {@code offset} into {@code dst}.
+	 * 
+	 * @param src
+	 *            the compressed data
+	 * @param offset
+	 *            the first byte of the compressed data
+	 * @param length
+	 *            the size of the compressed data
+	 * @param dst
+	 *            the array to write the decompressed bytes to
+	 * @param dstOffset
+	 *            the position to write the decompressed bytes at
+	 * @param dstLength
+	 *            the maximal amount of bytes to be written to {@code dst}
+	 * 
+	 * @return the amount of decompressed bytes
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the compressed data is invalid
+	 */
+	public static int decompress(final byte[] src, final int offset,
+			final int length, final byte[] dst, final int dstOffset,
+			final int dstLength) throws IllegalArgumentException {
+		final int srcEnd = offset + length;
+		final int dstEnd = dstOffset + dstLength;
+
+		int sp = offset;
+		int dp = dstOffset;
+		try {
+			while (true) {
+				final int token = src[sp++] & 0xFF;
+
+				// copy the literals
+				int literals = token >>> 4;
+				if (literals == RUN_MASK) {
+					int b;
+					do {
+						b = src[sp++] & 0xFF;
+						literals += b;
+					} while (b == 255);
+				}
+				if (sp + literals > srcEnd || dp + literals > dstEnd) {
+					throw new IllegalArgumentException(
+							"The literals exceed the data at position '"
+									+ (sp - offset) + "'.");
+				}
+				System.arraycopy(src, sp, dst, dp, literals);
+				sp += literals;
+				dp += literals;
+
+				// the last sequence does not have a match
+				if (sp >= srcEnd) {
+					break;
+				}
+
+				// copy the match
+				final int distance = (src[sp] & 0xFF)
+						| ((src[sp + 1] & 0xFF) << 8);
+				sp += 2;
+				int matchLength = token & RUN_MASK;
+				if (matchLength == RUN_MASK) {
+					int b;
+					do {
+						b = src[sp++] & 0xFF;
+						matchLength += b;
+					} while (b == 255);
+				}
+				matchLength += MIN_MATCH;
+
+				final int ref = dp - distance;
+				if (distance == 0 || ref < dstOffset
+						|| dp + matchLength > dstEnd) {
+					throw new IllegalArgumentException(
+							"The match is invalid at position '"
+									+ (sp - offset) + "'.");
+				} else if (distance >= matchLength) {
+					System.arraycopy(dst, ref, dst, dp, matchLength);
+				} else {
+
+					// overlapping matches repeat the last bytes
+					for (int i = 0; i < matchLength; i++) {
+						dst[dp + i] = dst[ref + i];
+					}
+				}
+				dp += matchLength;
+			}
+		} catch (final ArrayIndexOutOfBoundsException e) {
+			throw new IllegalArgumentException(
+					"The compressed data is truncated.", e);
+		}
+
+		return dp - dstOffset;
+	}
+
+	private static int writeSequence(final byte[] src, final int literalsPos,
+			final int literals, final int distance, final int matchLength,
+			final byte[] dst, final int dstPos) {
+		int dp = dstPos;
+
+		// write the token
+		final int tokenPos = dp++;
+		int token = Math.min(literals, RUN_MASK) << 4;
+		if (literals >= RUN_MASK) {
+			dp = writeLength(literals - RUN_MASK, dst, dp);
+		}
+		System.arraycopy(src, literalsPos, dst, dp, literals);
+		dp += literals;
+
+		// write the match, if there is one
+		if (matchLength > 0) {
+			dst[dp++] = (byte) distance;
+			dst[dp++] = (byte) (distance >>> 8);
+
+			final int length = matchLength - MIN_MATCH;
+			token |= Math.min(length, RUN_MASK);
+			if (length >= RUN_MASK) {
+				dp = writeLength(length - RUN_MASK, dst, dp);
+			}
+		}
+		dst[tokenPos] = (byte) token;
+
+		return dp;
+	}
+
+	private static int writeLength(final int length, final byte[] dst,
+			final int dstPos) {
+		int dp = dstPos;
+		int left = length;
+		while (left >= 255) {
+			dst[dp++] = (byte) 255;
+			left -= 255;
+		}
+		dst[dp++] = (byte) left;
+
+		return dp;
+	}
+
+	private static int readInt(final byte[] src, final int pos) {
+		return (src[pos] & 0xFF) | ((src[pos + 1] & 0xFF) << 8)
+				| ((src[pos + 2] & 0xFF) << 16) | ((src[pos + 3] & 0xFF) << 24);
+	}
+
+	private static int hash(final int sequence) {
+		return (sequence * -1640531535) >>> (32 - HASH_LOG);
+	}
+}
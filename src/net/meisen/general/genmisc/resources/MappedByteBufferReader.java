@@ -0,0 +1,543 @@
+package net.meisen.general.genmisc.resources;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+
+import net.meisen.general.genmisc.types.Streams;
+
+/**
+ * A {@code ByteBufferReader} which reads the bytes of a file directly from
+ * {@code MappedByteBuffer} instances, i.e. without copying the data into an
+ * intermediate buffer or array. A {@code MappedByteBuffer} is limited to
+ * {@code Integer.MAX_VALUE} bytes, therefore the file is mapped in segments,
+ * which are mapped when needed. The reader supports to change the position
+ * within the file (see {@link #position(long)}), so that a file can be scanned
+ * several times without reopening it.<br/>
+ * <br/>
+ * The size of the file is determined when the reader is created, data appended
+ * afterwards is read after a {@link #refresh()}, which maps the appended data
+ * only, i.e. complete segments stay mapped. The segments are unmapped when
+ * the reader is closed (if supported by the JVM), so that the file can be
+ * deleted afterwards. The reader must not be used after it was closed.
+ *
+ * @author pmeisen
+ *
+ * @see FileByteBufferReader
+ */
+public class MappedByteBufferReader implements IByteBufferReader {
+
+	/**
+	 * The default size of a segment, i.e. 256 MB
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 256 * 1024 * 1024;
+
+	private final Closeable closeable;
+	private final FileChannel channel;
+	private final int segmentSizeInByte;
+
+	private long size;
+
+	private MappedByteBuffer[] segments;
+	private MappedByteBuffer segment;
+	private int segmentIdx;
+
+	/**
+	 * Default constructor creates a {@code MappedByteBufferReader} for the
+	 * specified {@code file}.
+	 *
+	 * @param file
+	 *            the {@code File} to create the reader for
+	 *
+	 * @throws FileNotFoundException
+	 *             if the file cannot be found
+	 */
+	public MappedByteBufferReader(final File file)
+			throws FileNotFoundException {
+		this(file, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Constructor creates a {@code MappedByteBufferReader} for the specified
+	 * {@code file}, which maps segments of the specified size.
+	 *
+	 * @param file
+	 *            the {@code File} to create the reader for
+	 * @param segmentSizeInByte
+	 *            the size of a mapped segment
+	 *
+	 * @throws FileNotFoundException
+	 *             if the file cannot be found
+	 */
+	public MappedByteBufferReader(final File file, final int segmentSizeInByte)
+			throws FileNotFoundException {
+		this(new FileInputStream(file), segmentSizeInByte);
+	}
+
+	/**
+	 * Default constructor creates a {@code MappedByteBufferReader} for the
+	 * specified {@code file}.
+	 *
+	 * @param file
+	 *            the {@code RandomAccesFile} to create the reader for
+	 */
+	public MappedByteBufferReader(final RandomAccessFile file) {
+		this(file, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Constructor creates a {@code MappedByteBufferReader} for the specified
+	 * {@code file}, which maps segments of the specified size.
+	 *
+	 * @param file
+	 *            the {@code RandomAccesFile} to create the reader for
+	 * @param segmentSizeInByte
+	 *            the size of a mapped segment
+	 */
+	public MappedByteBufferReader(final RandomAccessFile file,
+			final int segmentSizeInByte) {
+		this(file, file.getChannel(), segmentSizeInByte);
+	}
+
+	/**
+	 * Default constructor creates a {@code MappedByteBufferReader} for the
+	 * specified {@code channel}.
+	 *
+	 * @param channel
+	 *            the {@code FileChannel} to create the reader for
+	 */
+	public MappedByteBufferReader(final FileChannel channel) {
+		this(channel, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Constructor creates a {@code MappedByteBufferReader} for the specified
+	 * {@code channel}, which maps segments of the specified size.
+	 *
+	 * @param channel
+	 *            the {@code FileChannel} to create the reader for
+	 * @param segmentSizeInByte
+	 *            the size of a mapped segment
+	 */
+	public MappedByteBufferReader(final FileChannel channel,
+			final int segmentSizeInByte) {
+		this((Closeable) null, channel, segmentSizeInByte);
+	}
+
+	/**
+	 * Internally used constructor which initializes the reader for the
+	 * specified {@code FileInputStream}.
+	 *
+	 * @param fis
+	 *            the {@code FileInputStream} to create the reader for
+	 * @param segmentSizeInByte
+	 *            the size of a mapped segment
+	 */
+	private MappedByteBufferReader(final FileInputStream fis,
+			final int segmentSizeInByte) {
+		this(fis, fis.getChannel(), segmentSizeInByte);
+	}
+
+	/**
+	 * Internally used constructor which initializes the reader.
+	 *
+	 * @param closeable
+	 *            the resource the {@code channel} belongs to, closed when the
+	 *            reader is closed, can be {@code null}
+	 * @param channel
+	 *            the {@code FileChannel} to be read
+	 * @param segmentSizeInByte
+	 *            the size of a mapped segment
+	 */
+	protected MappedByteBufferReader(final Closeable closeable,
+			final FileChannel channel, final int segmentSizeInByte) {
+		if (channel == null) {
+			throw new IllegalArgumentException(
+					"You must specify a FileChannel, FileInputStream, or RandomAccessFile.");
+		} else if (segmentSizeInByte < 1) {
+			throw new IllegalArgumentException("The segment size '"
+					+ segmentSizeInByte + "' must be positive.");
+		}
+
+		this.closeable = closeable;
+		this.channel = channel;
+		this.segmentSizeInByte = segmentSizeInByte;
+
+		try {
+			this.size = channel.size();
+		} catch (final IOException e) {
+			Streams.closeIO(channel);
+			Streams.closeIO(closeable);
+			throw new IllegalStateException(
+					"Unable to determine the size of the channel.", e);
+		}
+
+		final long amount = (size + segmentSizeInByte - 1) / segmentSizeInByte;
+		if (amount > Integer.MAX_VALUE) {
+			Streams.closeIO(channel);
+			Streams.closeIO(closeable);
+			throw new IllegalArgumentException("The segment size '"
+					+ segmentSizeInByte + "' is too small for a file of '"
+					+ size + "' bytes.");
+		}
+		this.segments = new MappedByteBuffer[(int) amount];
+
+		// start at the beginning of the file
+		position(0);
+	}
+
+	/**
+	 * Gets the segment with the specified index, the segment is mapped if not
+	 * done so far.
+	 *
+	 * @param idx
+	 *            the index of the segment
+	 *
+	 * @return the segment
+	 */
+	protected MappedByteBuffer getSegment(final int idx) {
+		MappedByteBuffer seg = segments[idx];
+		if (seg == null) {
+			final long start = (long) idx * segmentSizeInByte;
+			final long length = Math.min(segmentSizeInByte, size - start);
+
+			try {
+				seg = channel.map(MapMode.READ_ONLY, start, length);
+			} catch (final IOException e) {
+				throw new IllegalStateException("Unable to map the segment '"
+						+ idx + "' of the channel.", e);
+			}
+			segments[idx] = seg;
+		}
+
+		return seg;
+	}
+
+	/**
+	 * Gets the segment to read the next byte from, the next segment is
+	 * selected if the current one is completely read.
+	 *
+	 * @return the segment to read the next byte from
+	 *
+	 * @throws BufferUnderflowException
+	 *             if the end of the file is reached
+	 */
+	protected ByteBuffer current() throws BufferUnderflowException {
+		if (segment != null && segment.hasRemaining()) {
+			return segment;
+		} else if (segmentIdx + 1 >= segments.length) {
+			throw new BufferUnderflowException();
+		}
+
+		segmentIdx++;
+		segment = getSegment(segmentIdx);
+		segment.position(0);
+
+		return segment;
+	}
+
+	@Override
+	public byte get() {
+		return current().get();
+	}
+
+	@Override
+	public void get(final byte[] dst) {
+		get(dst, 0, dst.length);
+	}
+
+	@Override
+	public void get(final byte[] dst, final int offset, final int length) {
+		int pos = offset;
+		int left = length;
+
+		while (left > 0) {
+			final ByteBuffer seg = current();
+			final int amount = Math.min(seg.remaining(), left);
+
+			seg.get(dst, pos, amount);
+			pos += amount;
+			left -= amount;
+		}
+	}
+
+	@Override
+	public short getShort() {
+		final ByteBuffer seg = current();
+		if (seg.remaining() >= Streams.SIZEOF_SHORT) {
+			return seg.getShort();
+		} else {
+			return (short) ((get() << 8) | (get() & 0xFF));
+		}
+	}
+
+	@Override
+	public int getInt() {
+		final ByteBuffer seg = current();
+		if (seg.remaining() >= Streams.SIZEOF_INT) {
+			return seg.getInt();
+		} else {
+			return (get() << 24) | ((get() & 0xFF) << 16)
+					| ((get() & 0xFF) << 8) | (get() & 0xFF);
+		}
+	}
+
+	@Override
+	public long getLong() {
+		final ByteBuffer seg = current();
+		if (seg.remaining() >= Streams.SIZEOF_LONG) {
+			return seg.getLong();
+		} else {
+			return ((long) getInt() << 32) | (getInt() & 0xFFFFFFFFl);
+		}
+	}
+
+	@Override
+	public double getDouble() {
+		return Double.longBitsToDouble(getLong());
+	}
+
+	@Override
+	public void getInts(final int[] dst, final int offset, final int length) {
+		int pos = offset;
+		int left = length;
+
+		while (left > 0) {
+			final ByteBuffer seg = current();
+			final int amount = Math.min(seg.remaining() / 4, left);
+
+			// copy the values of the segment, a value may span two segments
+			if (amount == 0) {
+				dst[pos] = getInt();
+				pos++;
+				left--;
+			} else {
+				seg.asIntBuffer().get(dst, pos, amount);
+				seg.position(seg.position() + amount * 4);
+				pos += amount;
+				left -= amount;
+			}
+		}
+	}
+
+	@Override
+	public void getLongs(final long[] dst, final int offset, final int length) {
+		int pos = offset;
+		int left = length;
+
+		while (left > 0) {
+			final ByteBuffer seg = current();
+			final int amount = Math.min(seg.remaining() / 8, left);
+
+			// copy the values of the segment, a value may span two segments
+			if (amount == 0) {
+				dst[pos] = getLong();
+				pos++;
+				left--;
+			} else {
+				seg.asLongBuffer().get(dst, pos, amount);
+				seg.position(seg.position() + amount * 8);
+				pos += amount;
+				left -= amount;
+			}
+		}
+	}
+
+	@Override
+	public void getDoubles(final double[] dst, final int offset,
+			final int length) {
+		int pos = offset;
+		int left = length;
+
+		while (left > 0) {
+			final ByteBuffer seg = current();
+			final int amount = Math.min(seg.remaining() / 8, left);
+
+			// copy the values of the segment, a value may span two segments
+			if (amount == 0) {
+				dst[pos] = getDouble();
+				pos++;
+				left--;
+			} else {
+				seg.asDoubleBuffer().get(dst, pos, amount);
+				seg.position(seg.position() + amount * 8);
+				pos += amount;
+				left -= amount;
+			}
+		}
+	}
+
+	@Override
+	public boolean hasRemaining() {
+		return position() < size;
+	}
+
+	/**
+	 * Gets the current position within the file.
+	 *
+	 * @return the current position within the file
+	 */
+	public long position() {
+		if (segment == null) {
+			return 0;
+		} else {
+			return (long) segmentIdx * segmentSizeInByte + segment.position();
+		}
+	}
+
+	/**
+	 * Sets the position within the file, i.e. the next byte read is the byte
+	 * at the specified position.
+	 *
+	 * @param position
+	 *            the new position, must be within {@code [0, size()]}
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the position is not within the file
+	 */
+	public void position(final long position) throws IllegalArgumentException {
+		if (position < 0 || position > size) {
+			throw new IllegalArgumentException("The position '" + position
+					+ "' is not within [0, " + size + "].");
+		} else if (segments.length == 0) {
+			segmentIdx = -1;
+			segment = null;
+			return;
+		}
+
+		// the end of the file is the end of the last segment
+		final int idx = (int) Math.min(position / segmentSizeInByte,
+				segments.length - 1);
+		segmentIdx = idx;
+		segment = getSegment(idx);
+		segment.position((int) (position - (long) idx * segmentSizeInByte));
+	}
+
+	/**
+	 * Determines the size of the file again, so that data appended since the
+	 * creation of the reader (or the last refresh) can be read. Only the last
+	 * segment, if it was incomplete, is mapped again, all the other segments
+	 * stay mapped. The position within the file is kept.
+	 *
+	 * @return the size of the file read
+	 *
+	 * @throws IllegalStateException
+	 *             if the size of the file cannot be determined
+	 * @throws IllegalArgumentException
+	 *             if the segment size is too small for the new size of the
+	 *             file
+	 */
+	public long refresh() throws IllegalStateException,
+			IllegalArgumentException {
+		final long newSize;
+		try {
+			newSize = channel.size();
+		} catch (final IOException e) {
+			throw new IllegalStateException(
+					"Unable to determine the size of the channel.", e);
+		}
+
+		// the file did not grow, a truncated file is not supported
+		if (newSize <= size) {
+			return size;
+		}
+
+		final long amount = (newSize + segmentSizeInByte - 1)
+				/ segmentSizeInByte;
+		if (amount > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The segment size '"
+					+ segmentSizeInByte + "' is too small for a file of '"
+					+ newSize + "' bytes.");
+		}
+
+		final long position = position();
+		final MappedByteBuffer[] mapped = Arrays.copyOf(segments,
+				(int) amount);
+
+		// the formerly last segment grows, it is mapped again when needed
+		final int last = segments.length - 1;
+		if (last >= 0 && size % segmentSizeInByte != 0) {
+			unmap(mapped[last]);
+			mapped[last] = null;
+		}
+
+		size = newSize;
+		segments = mapped;
+		position(position);
+
+		return size;
+	}
+
+	/**
+	 * Gets the size of the file read.
+	 *
+	 * @return the size of the file read
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Gets the amount of bytes not read so far.
+	 *
+	 * @return the amount of bytes not read so far
+	 */
+	public long remaining() {
+		return size - position();
+	}
+
+	/**
+	 * Gets the size of the segments mapped.
+	 *
+	 * @return the size of the segments mapped
+	 */
+	public int getSegmentSize() {
+		return segmentSizeInByte;
+	}
+
+	/**
+	 * Gets the amount of segments the file is divided into.
+	 *
+	 * @return the amount of segments
+	 */
+	public int getSegmentCount() {
+		return segments.length;
+	}
+
+	@Override
+	public void close() {
+		final MappedByteBuffer[] mapped = segments;
+
+		segments = new MappedByteBuffer[0];
+		segment = null;
+		segmentIdx = -1;
+
+		for (final MappedByteBuffer seg : mapped) {
+			unmap(seg);
+		}
+
+		Streams.closeIO(channel);
+		Streams.closeIO(closeable);
+	}
+
+	/**
+	 * Releases the mapping of the specified {@code buffer} directly, instead
+	 * of waiting for the garbage collector to do so. The method does nothing,
+	 * if the JVM does not support the unmapping.
+	 *
+	 * @param buffer
+	 *            the buffer to be unmapped, can be {@code null}
+	 */
+	protected static void unmap(final MappedByteBuffer buffer) {
+		DirectByteBufferPool.free(buffer);
+	}
+}
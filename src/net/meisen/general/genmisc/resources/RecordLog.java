@@ -0,0 +1,570 @@
+package net.meisen.general.genmisc.resources;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+import net.meisen.general.genmisc.types.Streams;
+
+/**
+ * An append-only log of records, whereby each record is an object encoded by
+ * {@link Streams#writeNextObject(IByteBufferWriter, Object, boolean)}. The
+ * records are numbered in the order those are appended, starting with
+ * {@code 0}, and can be read randomly by their number or as a range.<br/>
+ * <br/>
+ * Each record is stored as its length, a CRC32 checksum and the encoded
+ * object. The position of every {@code indexInterval}-th record is stored
+ * within an index file aside of the log (see {@link #getIndexFile(File)}), so
+ * that a record is found by skipping at most {@code indexInterval - 1}
+ * records. The records are read using a {@link MappedByteBufferReader}.<br/>
+ * <br/>
+ * Appended records are durable after a {@link #commit()}. Several threads
+ * calling {@link #commit()} concurrently share a single synchronization of
+ * the log and its index (group commit). Additionally a commit is done
+ * automatically after the specified amount of appended records. When a log is
+ * opened, the records following the last valid record (e.g. a partially
+ * written record after a crash) are truncated.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class RecordLog implements Closeable {
+	/**
+	 * The default amount of records between two positions of the index
+	 */
+	public static final int DEFAULT_INDEX_INTERVAL = 128;
+	/**
+	 * The extension of the index file
+	 */
+	public static final String INDEX_EXTENSION = ".idx";
+
+	private static final int HEADER_SIZE = 2 * Streams.SIZEOF_INT;
+
+	private final File file;
+	private final File indexFile;
+	private final int indexInterval;
+	private final int commitInterval;
+
+	private final RandomAccessFile raf;
+	private final RandomAccessFile indexRaf;
+	private final FileByteBufferWriter writer;
+	private final FileByteBufferWriter indexWriter;
+	private final HeapByteBufferWriter record;
+	private final CRC32 crc;
+	private final Object commitLock;
+
+	private long[] index;
+	private int indexSize;
+	private long count;
+	private long end;
+	private volatile long committed;
+
+	private MappedByteBufferReader reader;
+	private long mappedCount;
+	private boolean closed;
+
+	/**
+	 * Opens the log stored in the specified {@code file}. The log is created
+	 * if it does not exist.
+	 * 
+	 * @param file
+	 *            the file of the log
+	 * 
+	 * @throws IOException
+	 *             if the log cannot be opened
+	 */
+	public RecordLog(final File file) throws IOException {
+		this(file, DEFAULT_INDEX_INTERVAL, 0);
+	}
+
+	/**
+	 * Opens the log stored in the specified {@code file}. The log is created
+	 * if it does not exist.
+	 * 
+	 * @param file
+	 *            the file of the log
+	 * @param indexInterval
+	 *            the amount of records between two positions of the index
+	 * @param commitInterval
+	 *            the amount of appended records after which a commit is done
+	 *            automatically, {@code 0} to commit only explicitly
+	 * 
+	 * @throws IOException
+	 *             if the log cannot be opened
+	 */
+	public RecordLog(final File file, final int indexInterval,
+			final int commitInterval) throws IOException {
+		if (indexInterval < 1) {
+			throw new IllegalArgumentException(
+					"The index interval must be at least 1.");
+		} else if (commitInterval < 0) {
+			throw new IllegalArgumentException(
+					"The commit interval cannot be negative.");
+		}
+
+		this.file = file;
+		this.indexFile = getIndexFile(file);
+		this.indexInterval = indexInterval;
+		this.commitInterval = commitInterval;
+
+		this.record = new HeapByteBufferWriter();
+		this.crc = new CRC32();
+		this.commitLock = new Object();
+		this.reader = null;
+		this.mappedCount = 0;
+		this.closed = false;
+
+		// read the index and validate the records following the last entry
+		loadIndex();
+		recover();
+
+		this.raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(end);
+			raf.seek(end);
+
+			this.indexRaf = new RandomAccessFile(indexFile, "rw");
+		} catch (final IOException e) {
+			Streams.closeIO(raf);
+			throw e;
+		}
+		try {
+			indexRaf.setLength(0);
+		} catch (final IOException e) {
+			Streams.closeIO(raf);
+			Streams.closeIO(indexRaf);
+			throw e;
+		}
+
+		this.writer = new FileByteBufferWriter(raf);
+		this.committed = count;
+
+		// the index is small, therefore it is rewritten completely
+		this.indexWriter = new FileByteBufferWriter(indexRaf, 1024);
+		this.indexWriter.putLongs(index, 0, indexSize);
+		this.indexWriter.flush();
+	}
+
+	/**
+	 * Gets the index file of the log stored in the specified {@code file}.
+	 * 
+	 * @param file
+	 *            the file of the log
+	 * 
+	 * @return the index file
+	 */
+	public static File getIndexFile(final File file) {
+		return new File(file.getPath() + INDEX_EXTENSION);
+	}
+
+	/**
+	 * Loads the entries of the index file, which point into the log.
+	 */
+	private void loadIndex() throws IOException {
+		final long size = file.exists() ? file.length() : 0l;
+
+		this.index = new long[16];
+		this.indexSize = 0;
+		if (!indexFile.exists() || size == 0) {
+			return;
+		}
+
+		final MappedByteBufferReader indexReader = new MappedByteBufferReader(
+				indexFile);
+		try {
+			final long entries = indexReader.size() / Streams.SIZEOF_LONG;
+
+			long last = -1;
+			for (long i = 0; i < entries; i++) {
+				final long offset = indexReader.getLong();
+
+				// entries pointing behind the file are invalid
+				if (offset <= last || offset >= size) {
+					break;
+				}
+				addIndex(offset);
+				last = offset;
+			}
+		} finally {
+			indexReader.close();
+		}
+	}
+
+	/**
+	 * Validates the records following the last entry of the index and
+	 * determines the end of the last valid record.
+	 */
+	private void recover() throws IOException {
+		final int lastEntry = indexSize - 1;
+		this.count = lastEntry < 0 ? 0 : (long) lastEntry * indexInterval;
+		this.end = lastEntry < 0 ? 0 : index[lastEntry];
+
+		// the entry is validated again
+		indexSize = Math.max(0, lastEntry);
+		if (!file.exists()) {
+			return;
+		}
+
+		final MappedByteBufferReader recoveryReader = new MappedByteBufferReader(
+				file);
+		try {
+			recoveryReader.position(end);
+
+			byte[] bytes = new byte[0];
+			while (recoveryReader.remaining() >= HEADER_SIZE) {
+				final int length = recoveryReader.getInt();
+				final int checksum = recoveryReader.getInt();
+				if (length < 0 || length > recoveryReader.remaining()) {
+					break;
+				}
+
+				if (bytes.length < length) {
+					bytes = new byte[length];
+				}
+				recoveryReader.get(bytes, 0, length);
+				crc.reset();
+				crc.update(bytes, 0, length);
+				if ((int) crc.getValue() != checksum) {
+					break;
+				}
+
+				if (count % indexInterval == 0) {
+					addIndex(end);
+				}
+				count++;
+				end += HEADER_SIZE + length;
+			}
+		} finally {
+			recoveryReader.close();
+		}
+	}
+
+	private void addIndex(final long offset) {
+		if (indexSize == index.length) {
+			index = Arrays.copyOf(index, 2 * indexSize);
+		}
+		index[indexSize] = offset;
+		indexSize++;
+	}
+
+	/**
+	 * Appends the specified {@code object} to the log. The record is durable
+	 * after the next {@link #commit()}.
+	 * 
+	 * @param object
+	 *            the object to be appended
+	 * 
+	 * @return the number of the record
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the object cannot be serialized
+	 * @throws IllegalStateException
+	 *             if the log is closed or cannot be written
+	 */
+	public long append(final Object object) throws IllegalArgumentException,
+			IllegalStateException {
+		final long nr;
+		synchronized (this) {
+			checkOpen();
+
+			record.reset();
+			Streams.writeNextObject(record, object, true);
+			final int length = (int) record.position();
+
+			crc.reset();
+			crc.update(record.getArray(), 0, length);
+
+			// write the record
+			writer.putInt(length);
+			writer.putInt((int) crc.getValue());
+			writer.put(record.getArray(), 0, length);
+
+			nr = count;
+			if (nr % indexInterval == 0) {
+				addIndex(end);
+				indexWriter.putLong(end);
+			}
+			count++;
+			end += HEADER_SIZE + length;
+		}
+
+		if (commitInterval > 0 && nr + 1 - committed >= commitInterval) {
+			commit();
+		}
+
+		return nr;
+	}
+
+	/**
+	 * Makes all the records appended so far durable. Concurrently committing
+	 * threads wait for a single synchronization of the file, i.e. a thread
+	 * returns without synchronizing if its records were synchronized by
+	 * another thread meanwhile.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the log is closed or cannot be written
+	 */
+	public void commit() throws IllegalStateException {
+		final long target;
+		synchronized (this) {
+			checkOpen();
+			target = count;
+		}
+
+		synchronized (commitLock) {
+			if (committed >= target) {
+				return;
+			}
+
+			final long upTo;
+			synchronized (this) {
+				checkOpen();
+
+				writer.flush();
+				indexWriter.flush();
+				upTo = count;
+			}
+
+			// synchronize all the records flushed so far and their index
+			try {
+				raf.getChannel().force(false);
+				indexRaf.getChannel().force(false);
+			} catch (final IOException e) {
+				throw new IllegalStateException("Unable to write channel.", e);
+			}
+			committed = upTo;
+		}
+	}
+
+	/**
+	 * Gets the record with the specified number.
+	 * 
+	 * @param nr
+	 *            the number of the record
+	 * 
+	 * @return the object of the record
+	 * 
+	 * @throws IndexOutOfBoundsException
+	 *             if there is no record with the specified number
+	 */
+	public synchronized Object get(final long nr)
+			throws IndexOutOfBoundsException {
+		return read(nr, position(nr));
+	}
+
+	/**
+	 * Gets the records within the specified range.
+	 * 
+	 * @param from
+	 *            the number of the first record (inclusive)
+	 * @param to
+	 *            the number of the last record (exclusive)
+	 * 
+	 * @return the objects of the records
+	 * 
+	 * @throws IndexOutOfBoundsException
+	 *             if the range is invalid
+	 */
+	public List<Object> get(final long from, final long to)
+			throws IndexOutOfBoundsException {
+		final List<Object> objects = new ArrayList<Object>();
+
+		final Iterator<Object> it = iterator(from, to);
+		while (it.hasNext()) {
+			objects.add(it.next());
+		}
+
+		return objects;
+	}
+
+	/**
+	 * Creates an {@code Iterator} over the records within the specified
+	 * range.
+	 * 
+	 * @param from
+	 *            the number of the first record (inclusive)
+	 * @param to
+	 *            the number of the last record (exclusive)
+	 * 
+	 * @return the {@code Iterator} of the objects of the records
+	 * 
+	 * @throws IndexOutOfBoundsException
+	 *             if the range is invalid
+	 */
+	public Iterator<Object> iterator(final long from, final long to)
+			throws IndexOutOfBoundsException {
+		final long start;
+		synchronized (this) {
+			if (from < 0 || to > count || from > to) {
+				throw new IndexOutOfBoundsException("The range [" + from
+						+ ", " + to + ") is not within [0, " + count + ").");
+			}
+			start = from == to ? end : position(from);
+		}
+
+		return new Iterator<Object>() {
+			private long nr = from;
+			private long pos = start;
+
+			@Override
+			public boolean hasNext() {
+				return nr < to;
+			}
+
+			@Override
+			public Object next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+
+				synchronized (RecordLog.this) {
+					final Object object = read(nr, pos);
+					pos = reader.position();
+					nr++;
+
+					return object;
+				}
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException(
+						"Records cannot be removed.");
+			}
+		};
+	}
+
+	/**
+	 * Determines the position of the record with the specified number, using
+	 * the index and skipping the records following the entry of the index.
+	 * Must be called while holding the lock of the log.
+	 */
+	private long position(final long nr) {
+		if (nr < 0 || nr >= count) {
+			throw new IndexOutOfBoundsException("The record " + nr
+					+ " is not within [0, " + count + ").");
+		}
+
+		final int entry = (int) (nr / indexInterval);
+		final MappedByteBufferReader r = getReader(nr);
+
+		long pos = index[entry];
+		for (long i = (long) entry * indexInterval; i < nr; i++) {
+			r.position(pos);
+			pos += HEADER_SIZE + r.getInt();
+		}
+
+		return pos;
+	}
+
+	/**
+	 * Reads the record with the specified number at the specified position.
+	 * Must be called while holding the lock of the log.
+	 */
+	private Object read(final long nr, final long pos) {
+		final MappedByteBufferReader r = getReader(nr);
+
+		r.position(pos + HEADER_SIZE);
+		return Streams.readNextObject(r);
+	}
+
+	/**
+	 * Gets a reader, which maps the log at least up to the end of the record
+	 * with the specified number. The reader is created once, afterwards only
+	 * the records appended meanwhile are mapped. Must be called while holding
+	 * the lock of the log.
+	 */
+	private MappedByteBufferReader getReader(final long nr) {
+		checkOpen();
+
+		// map the records appended so far
+		if (reader == null || nr >= mappedCount) {
+			writer.flush();
+
+			if (reader == null) {
+				try {
+					reader = new MappedByteBufferReader(file);
+				} catch (final IOException e) {
+					throw new IllegalStateException("Unable to read channel.",
+							e);
+				}
+			} else {
+				reader.refresh();
+			}
+			mappedCount = count;
+		}
+
+		return reader;
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("The log '" + file
+					+ "' is closed.");
+		}
+	}
+
+	/**
+	 * Gets the amount of records of the log.
+	 * 
+	 * @return the amount of records
+	 */
+	public synchronized long size() {
+		return count;
+	}
+
+	/**
+	 * Gets the amount of records, which are durable.
+	 * 
+	 * @return the amount of durable records
+	 */
+	public long getCommitted() {
+		return committed;
+	}
+
+	/**
+	 * Gets the file of the log.
+	 * 
+	 * @return the file of the log
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Commits and closes the log.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+		}
+
+		try {
+			commit();
+		} finally {
+			synchronized (this) {
+				closed = true;
+
+				Streams.closeIO(reader);
+				reader = null;
+				indexWriter.close();
+				writer.close();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return file + " (" + count + " records)";
+	}
+}
@@ -4,6 +4,8 @@ import java.nio.ByteBuffer;
 
 /**
  * A wrapper of a {@code ByteBuffer} to be used as {@code ByteBufferReader}.
+ * The primitive values are read using the {@code ByteOrder} of the wrapped
+ * {@code ByteBuffer}, which is big-endian by default.
  * 
  * @author pmeisen
  * 
@@ -43,6 +45,45 @@ public class WrappedByteBufferReader implements IByteBufferReader {
 		byteBuffer.get(dst);
 	}
 
+	@Override
+	public short getShort() {
+		return byteBuffer.getShort();
+	}
+
+	@Override
+	public int getInt() {
+		return byteBuffer.getInt();
+	}
+
+	@Override
+	public long getLong() {
+		return byteBuffer.getLong();
+	}
+
+	@Override
+	public double getDouble() {
+		return byteBuffer.getDouble();
+	}
+
+	@Override
+	public void getInts(final int[] dst, final int offset, final int length) {
+		byteBuffer.asIntBuffer().get(dst, offset, length);
+		byteBuffer.position(byteBuffer.position() + length * 4);
+	}
+
+	@Override
+	public void getLongs(final long[] dst, final int offset, final int length) {
+		byteBuffer.asLongBuffer().get(dst, offset, length);
+		byteBuffer.position(byteBuffer.position() + length * 8);
+	}
+
+	@Override
+	public void getDoubles(final double[] dst, final int offset,
+			final int length) {
+		byteBuffer.asDoubleBuffer().get(dst, offset, length);
+		byteBuffer.position(byteBuffer.position() + length * 8);
+	}
+
 	@Override
 	public void close() {
 		byteBuffer.clear();
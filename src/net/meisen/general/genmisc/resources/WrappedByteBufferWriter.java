@@ -0,0 +1,64 @@
+package net.meisen.general.genmisc.resources;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A wrapper of a {@code ByteBuffer} (heap or direct) to be used as
+ * {@code ByteBufferWriter}. The bytes are written directly into the wrapped
+ * {@code ByteBuffer}, i.e. a {@code BufferOverflowException} is thrown if the
+ * capacity is exceeded. The primitive values are written using the
+ * {@code ByteOrder} of the wrapped {@code ByteBuffer}, which is big-endian by
+ * default.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class WrappedByteBufferWriter extends BaseByteBufferWriter {
+	private final int start;
+
+	/**
+	 * Default constructor which specifies which {@code ByteBuffer} to be
+	 * wrapped.
+	 * 
+	 * @param byteBuffer
+	 *            the {@code ByteBuffer} to be wrapped, cannot be {@code null}
+	 */
+	public WrappedByteBufferWriter(final ByteBuffer byteBuffer) {
+		this.start = byteBuffer.position();
+
+		init(byteBuffer);
+	}
+
+	@Override
+	protected void ensureRemaining(final int size) {
+		if (getBuffer().remaining() < size) {
+			throw new BufferOverflowException();
+		}
+	}
+
+	@Override
+	protected void drain(final ByteBuffer buffer) {
+		throw new IllegalStateException(
+				"The wrapped ByteBuffer cannot be drained.");
+	}
+
+	@Override
+	public long position() {
+		return getBuffer().position() - start;
+	}
+
+	@Override
+	public void flush() {
+		// nothing to do, the bytes are written to the ByteBuffer directly
+	}
+
+	/**
+	 * Gets the wrapped {@code ByteBuffer}.
+	 * 
+	 * @return the wrapped {@code ByteBuffer}
+	 */
+	public ByteBuffer getByteBuffer() {
+		return getBuffer();
+	}
+}
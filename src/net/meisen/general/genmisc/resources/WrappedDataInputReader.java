@@ -45,6 +45,8 @@ public class WrappedDataInputReader extends BaseByteBufferReader {
 
 	@Override
 	public void close() {
+		super.close();
+
 		Streams.closeIO(input);
 	}
 
@@ -52,7 +54,7 @@ public class WrappedDataInputReader extends BaseByteBufferReader {
 	protected int read(final ByteBuffer buffer) throws IOException {
 
 		// get the maximal amount to be read
-		final int maxSize = buffer.capacity();
+		final int maxSize = buffer.remaining();
 
 		// fill the rest of the buffer
 		final byte[] array = new byte[maxSize];
@@ -77,9 +79,12 @@ public class WrappedDataInputReader extends BaseByteBufferReader {
 				}
 			}
 
-			readBytes = currentlyReadBytes;
+			return currentlyReadBytes == 0 ? -1 : currentlyReadBytes;
+		}
+
+		if (readBytes > 0) {
+			buffer.put(array, 0, readBytes);
 		}
-		buffer.put(array);
 
 		return readBytes;
 	}
@@ -35,13 +35,35 @@ public class WrappedInputStreamReader extends BaseByteBufferReader {
 	 *            the size of the array to be used
 	 */
 	public WrappedInputStreamReader(final InputStream input, final int arraySize) {
+		this(input, arraySize, -1, 0);
+	}
+
+	/**
+	 * Wrapper for a {@code InputStream}, which reads up to
+	 * {@code prefetchDepth} buffers in advance within a background thread.
+	 * 
+	 * @param input
+	 *            the {@code InputStream} to be wrapped
+	 * @param arraySize
+	 *            the size of the array to be used
+	 * @param bufferSize
+	 *            the size of each buffer, {@code -1} to use ten times the size
+	 *            of the array
+	 * @param prefetchDepth
+	 *            the amount of buffers read in advance, {@code 0} to read
+	 *            within the calling thread
+	 */
+	public WrappedInputStreamReader(final InputStream input,
+			final int arraySize, final int bufferSize, final int prefetchDepth) {
 		this.input = input;
 
-		init(arraySize, -1l);
+		init(arraySize, -1l, bufferSize, prefetchDepth);
 	}
 
 	@Override
 	public void close() {
+		super.close();
+
 		Streams.closeIO(input);
 	}
 
@@ -49,14 +71,16 @@ public class WrappedInputStreamReader extends BaseByteBufferReader {
 	protected int read(final ByteBuffer buffer) throws IOException {
 
 		// get the maximal amount to be read
-		final int maxSize = buffer.capacity();
+		final int maxSize = buffer.remaining();
 
 		// fill the rest of the buffer
 		final byte[] array = new byte[maxSize];
 
 		// add the data
 		final int readBytes = input.read(array);
-		buffer.put(array);
+		if (readBytes > 0) {
+			buffer.put(array, 0, readBytes);
+		}
 
 		return readBytes;
 	}
@@ -0,0 +1,72 @@
+package net.meisen.general.genmisc.resources;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import net.meisen.general.genmisc.types.Streams;
+
+/**
+ * A {@code ByteBufferWriter} which writes the bytes to an
+ * {@code OutputStream}. The bytes are collected in an array, which is written
+ * to the stream whenever it is full.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class WrappedOutputStreamWriter extends BaseByteBufferWriter {
+	private final OutputStream outputStream;
+
+	/**
+	 * Constructor which specifies the {@code OutputStream} to be wrapped.
+	 * 
+	 * @param outputStream
+	 *            the {@code OutputStream} to be wrapped
+	 */
+	public WrappedOutputStreamWriter(final OutputStream outputStream) {
+		this(outputStream, 8192);
+	}
+
+	/**
+	 * Constructor which specifies the {@code OutputStream} to be wrapped and
+	 * the size of the array used.
+	 * 
+	 * @param outputStream
+	 *            the {@code OutputStream} to be wrapped
+	 * @param arraySizeInByte
+	 *            the size of the array used to collect the bytes
+	 */
+	public WrappedOutputStreamWriter(final OutputStream outputStream,
+			final int arraySizeInByte) {
+		this.outputStream = outputStream;
+
+		init(ByteBuffer.allocate(Math.max(8, arraySizeInByte)));
+	}
+
+	@Override
+	protected void drain(final ByteBuffer buffer) throws IOException {
+		outputStream.write(buffer.array(),
+				buffer.arrayOffset() + buffer.position(), buffer.remaining());
+		buffer.position(buffer.limit());
+	}
+
+	@Override
+	public void flush() {
+		super.flush();
+
+		try {
+			outputStream.flush();
+		} catch (final IOException e) {
+			throw new IllegalStateException("Unable to flush stream.", e);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			super.close();
+		} finally {
+			Streams.closeIO(outputStream);
+		}
+	}
+}
@@ -5,6 +5,7 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.net.URL;
 import java.util.Enumeration;
 import java.util.HashSet;
@@ -34,7 +35,10 @@ public class Classes {
 	}
 
 	/**
-	 * Determines the class of the generic type of the generic class.
+	 * Determines the class of the generic type of the generic class. If the
+	 * superclass of the class is not generic (i.e. the class extends a class
+	 * which already defines the generic type), the hierarchy is searched for
+	 * the first generic superclass.
 	 * 
 	 * @param genericClass
 	 *            the generic class
@@ -43,8 +47,13 @@ public class Classes {
 	 *         passed
 	 */
 	public static Class<?> getGenericClass(final Class<?> genericClass) {
-		Class<?> clazz = ((Class<?>) ((ParameterizedType) genericClass
-				.getGenericSuperclass()).getActualTypeArguments()[0]);
+		Type type = genericClass.getGenericSuperclass();
+		while (type instanceof Class && !Object.class.equals(type)) {
+			type = ((Class<?>) type).getGenericSuperclass();
+		}
+
+		Class<?> clazz = ((Class<?>) ((ParameterizedType) type)
+				.getActualTypeArguments()[0]);
 		return clazz;
 	}
 
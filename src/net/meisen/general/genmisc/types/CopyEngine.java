@@ -0,0 +1,549 @@
+package net.meisen.general.genmisc.types;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Engine used to copy files and streams. Files are copied between the
+ * {@code FileChannel} instances using
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+ * , i.e. the operating system can copy the bytes without passing them through
+ * the heap. Streams, which are backed by files (i.e. {@code FileInputStream}
+ * and {@code FileOutputStream}), are copied the same way up to the size of
+ * the file, the remaining bytes (e.g. of {@code /proc} files, pipes or
+ * devices, which report a size of {@code 0}) are copied using a large
+ * buffer. All other streams are copied using the buffer, which is pooled
+ * between the copies.<br/>
+ * <br/>
+ * Each copy reports the amount of bytes copied and the time needed (see
+ * {@link CopyResult}). Whole directory trees can be copied concurrently using
+ * {@link #copyTree(File, File, int, boolean)}.
+ * 
+ * @author pmeisen
+ * 
+ * @see Files#copyFile(File, File)
+ * @see Streams#copyStream(InputStream, OutputStream)
+ */
+public class CopyEngine {
+	/**
+	 * The size of the buffers used to copy streams
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+	/**
+	 * The maximal amount of buffers kept for later copies
+	 */
+	public static final int MAX_POOLED_BUFFERS = 8;
+
+	private static final Queue<byte[]> buffers = new ConcurrentLinkedQueue<byte[]>();
+	private static final AtomicInteger pooled = new AtomicInteger(0);
+
+	/**
+	 * Copies the {@code source} to the {@code dest}, an existing file is
+	 * overwritten.
+	 * 
+	 * @param source
+	 *            the file to be copied
+	 * @param dest
+	 *            the file to copy to
+	 * 
+	 * @return the result of the copy
+	 * 
+	 * @throws IOException
+	 *             if a file cannot be read or written
+	 */
+	public static CopyResult copy(final File source, final File dest)
+			throws IOException {
+		final FileInputStream in = new FileInputStream(source);
+		try {
+			return copy(in, dest);
+		} finally {
+			Streams.closeIO(in);
+		}
+	}
+
+	/**
+	 * Copies the content of the {@code in} to the {@code dest}, an existing
+	 * file is overwritten. The stream is not closed.
+	 * 
+	 * @param in
+	 *            the stream to be copied
+	 * @param dest
+	 *            the file to copy to
+	 * 
+	 * @return the result of the copy
+	 * 
+	 * @throws IOException
+	 *             if the stream cannot be read or the file cannot be written
+	 */
+	public static CopyResult copy(final InputStream in, final File dest)
+			throws IOException {
+		final FileOutputStream out = new FileOutputStream(dest);
+		try {
+			return copy(in, out);
+		} finally {
+			Streams.closeIO(out);
+		}
+	}
+
+	/**
+	 * Copies the content of the {@code in} to the {@code out}. None of the
+	 * streams is closed.
+	 * 
+	 * @param in
+	 *            the stream to be copied
+	 * @param out
+	 *            the stream to copy to
+	 * 
+	 * @return the result of the copy
+	 * 
+	 * @throws IOException
+	 *             if one of the streams cannot be read or written
+	 */
+	public static CopyResult copy(final InputStream in, final OutputStream out)
+			throws IOException {
+		final long start = System.nanoTime();
+
+		// transfer the bytes of a regular file between the channels
+		long bytes = 0;
+		if (in instanceof FileInputStream && out instanceof FileOutputStream) {
+			bytes = transfer(((FileInputStream) in).getChannel(),
+					((FileOutputStream) out).getChannel());
+		}
+
+		// copy anything not transferred, i.e. the size was not known
+		final byte[] buffer = acquire();
+		try {
+			bytes += copy(in, out, buffer);
+		} finally {
+			release(buffer);
+		}
+
+		return new CopyResult(bytes, System.nanoTime() - start, 1);
+	}
+
+	/**
+	 * Copies the content of the {@code in} to the {@code out} using a buffer
+	 * of the specified size. None of the streams is closed.
+	 * 
+	 * @param in
+	 *            the stream to be copied
+	 * @param out
+	 *            the stream to copy to
+	 * @param bufferSize
+	 *            the size of the buffer to be used
+	 * 
+	 * @return the result of the copy
+	 * 
+	 * @throws IOException
+	 *             if one of the streams cannot be read or written
+	 */
+	public static CopyResult copy(final InputStream in,
+			final OutputStream out, final int bufferSize) throws IOException {
+		final long start = System.nanoTime();
+		final long bytes = copy(in, out, new byte[Math.max(1, bufferSize)]);
+
+		return new CopyResult(bytes, System.nanoTime() - start, 1);
+	}
+
+	/**
+	 * Transfers the bytes from the current position of the {@code source} to
+	 * the end of it to the current position of the {@code dest}. The
+	 * positions of both channels are moved behind the transferred bytes. The
+	 * transfer stops at the size of the {@code source} or if the
+	 * {@code source} does not make any progress, i.e. the channel of a file
+	 * without a known size (e.g. a pipe) might not be transferred completely.
+	 * 
+	 * @param source
+	 *            the channel to be copied
+	 * @param dest
+	 *            the channel to copy to
+	 * 
+	 * @return the amount of bytes transferred
+	 * 
+	 * @throws IOException
+	 *             if one of the channels cannot be read or written
+	 */
+	public static long transfer(final FileChannel source,
+			final FileChannel dest) throws IOException {
+		final long start = source.position();
+		final long size = source.size();
+
+		// a single transfer might copy less bytes than requested
+		long position = start;
+		while (position < size) {
+			final long transferred = source.transferTo(position, size
+					- position, dest);
+			if (transferred <= 0) {
+				break;
+			}
+			position += transferred;
+		}
+		source.position(position);
+
+		return position - start;
+	}
+
+	/**
+	 * Copies all the specified files into the {@code destDir}.
+	 * 
+	 * @param files
+	 *            the files to be copied
+	 * @param destDir
+	 *            the directory to copy to
+	 * 
+	 * @return the result of all the copies
+	 * 
+	 * @throws IOException
+	 *             if a file cannot be read or written
+	 * 
+	 * @see Files#copyFiles(Collection, File)
+	 */
+	public static CopyResult copyFiles(final Collection<File> files,
+			final File destDir) throws IOException {
+		CopyResult result = CopyResult.EMPTY;
+		for (final File file : files) {
+
+			// determine the destination
+			final File destFile = new File(destDir, file.getName());
+
+			// copy the file
+			result = result.add(copy(file, destFile));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Copies all the specified files into the {@code destDir}, whereby the
+	 * path of each file is truncated by the {@code truncater}, i.e. the
+	 * structure of the sub-directories below the {@code truncater} is kept.
+	 * 
+	 * @param files
+	 *            the files to be copied
+	 * @param destDir
+	 *            the directory to copy to
+	 * @param truncater
+	 *            the path the specified files should be truncated by
+	 * 
+	 * @return the result of all the copies
+	 * 
+	 * @throws IOException
+	 *             if a file cannot be read or written
+	 * 
+	 * @see Files#copyFiles(Collection, File, File)
+	 */
+	public static CopyResult copyFiles(final Collection<File> files,
+			final File destDir, final File truncater) throws IOException {
+
+		if (truncater == null || !truncater.isDirectory()) {
+			throw new IllegalArgumentException("The passed truncater '"
+					+ truncater + "' is null or not a directory.");
+		}
+
+		final Path truncaterPath = Paths.get(Files.getCanonicalPath(truncater));
+
+		// the files of a folder share the destination folder
+		final Map<String, File> destFolders = new HashMap<String, File>();
+		CopyResult result = CopyResult.EMPTY;
+		for (final File file : files) {
+
+			if (!file.isFile()) {
+				continue;
+			}
+
+			// truncate the part
+			File destFolder = destFolders.get(file.getParent());
+			if (destFolder == null) {
+				final Path filePath = Paths.get(Files.getCanonicalPath(file
+						.getParent()));
+				final String part = filePath.startsWith(truncaterPath) ? truncaterPath
+						.relativize(filePath).toString() : filePath.toString();
+				destFolder = new File(destDir, part);
+				Files.checkDirectory(Files.getCanonicalPath(destFolder), true);
+
+				destFolders.put(file.getParent(), destFolder);
+			}
+
+			// copy the file
+			result = result.add(copy(file, new File(destFolder, file.getName())));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Copies the {@code sourceDir} to the {@code destDir} recursively. The
+	 * copy stops at the first file, which cannot be copied (see
+	 * {@link #copyTree(File, File, int, boolean)} for a concurrent copy,
+	 * which does not stop).
+	 * 
+	 * @param sourceDir
+	 *            the directory to be copied
+	 * @param destDir
+	 *            the directory to copy to
+	 * 
+	 * @return the result of all the copies
+	 * 
+	 * @throws IOException
+	 *             if a file cannot be read or written
+	 * 
+	 * @see Files#copyDirectory(File, File)
+	 */
+	public static CopyResult copyDirectory(final File sourceDir,
+			final File destDir) throws IOException {
+
+		if (sourceDir.isDirectory()) {
+
+			// if directory not exists, create it
+			if (!destDir.exists() && !destDir.mkdir()) {
+				throw new IOException("Unable to create directory '"
+						+ destDir + "'.");
+			}
+
+			// list all the directory contents
+			final String files[] = sourceDir.list();
+			if (files == null) {
+				return CopyResult.EMPTY;
+			}
+
+			CopyResult result = CopyResult.EMPTY;
+			for (final String file : files) {
+
+				// recursive copy
+				result = result.add(copyDirectory(new File(sourceDir, file),
+						new File(destDir, file)));
+			}
+
+			return result;
+		} else {
+			return copy(sourceDir, destDir);
+		}
+	}
+
+	/**
+	 * Copies the directory tree of the {@code source} to the {@code dest}.
+	 * The tree is walked first and all the directories are created, the
+	 * files are copied afterwards using a {@code ForkJoinPool} with the
+	 * specified {@code parallelism}. A file, which cannot be copied, does not
+	 * stop the copy, instead it is added to the errors of the result.<br/>
+	 * <br/>
+	 * If the {@code source} is a file, it is copied to the {@code dest}.
+	 * 
+	 * @param source
+	 *            the directory to be copied
+	 * @param dest
+	 *            the directory to copy to, is created if it does not exist
+	 * @param parallelism
+	 *            the maximal amount of files copied concurrently
+	 * @param preserveAttributes
+	 *            {@code true} to copy the times of the files and directories,
+	 *            otherwise {@code false}
+	 * 
+	 * @return the result of the copy
+	 * 
+	 * @throws IOException
+	 *             if the tree of the {@code source} cannot be walked
+	 */
+	public static CopyTreeResult copyTree(final File source, final File dest,
+			final int parallelism, final boolean preserveAttributes)
+			throws IOException {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(
+					"The parallelism must be at least 1.");
+		}
+
+		final long start = System.nanoTime();
+		final Path sourcePath = source.toPath();
+		final Path destPath = dest.toPath();
+
+		final Map<File, IOException> errors = Collections
+				.synchronizedMap(new LinkedHashMap<File, IOException>());
+		final List<Path[]> files = new ArrayList<Path[]>();
+		final List<Path[]> directories = new ArrayList<Path[]>();
+		final List<BasicFileAttributes> dirAttributes = new ArrayList<BasicFileAttributes>();
+		final List<BasicFileAttributes> fileAttributes = new ArrayList<BasicFileAttributes>();
+
+		// create the directories and collect the files
+		java.nio.file.Files.walkFileTree(sourcePath,
+				new SimpleFileVisitor<Path>() {
+
+					@Override
+					public FileVisitResult preVisitDirectory(final Path dir,
+							final BasicFileAttributes attrs) {
+						final Path target = destPath.resolve(sourcePath
+								.relativize(dir).toString());
+						try {
+							java.nio.file.Files.createDirectories(target);
+						} catch (final IOException e) {
+							errors.put(dir.toFile(), e);
+							return FileVisitResult.SKIP_SUBTREE;
+						}
+
+						directories.add(new Path[] { dir, target });
+						dirAttributes.add(attrs);
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFile(final Path file,
+							final BasicFileAttributes attrs) {
+						if (!attrs.isOther()) {
+							files.add(new Path[] {
+									file,
+									destPath.resolve(sourcePath.relativize(
+											file).toString()) });
+							fileAttributes.add(attrs);
+						}
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFileFailed(final Path file,
+							final IOException e) {
+						errors.put(file.toFile(), e);
+						return FileVisitResult.CONTINUE;
+					}
+				});
+
+		// copy the files concurrently
+		final AtomicLong bytes = new AtomicLong(0);
+		final AtomicInteger copied = new AtomicInteger(0);
+		final ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					copyFiles(0, files.size());
+				}
+
+				private void copyFiles(final int from, final int to) {
+					if (to - from > 1) {
+						final int mid = (from + to) >>> 1;
+						final RecursiveAction prefix = new RecursiveAction() {
+							private static final long serialVersionUID = 1L;
+
+							@Override
+							protected void compute() {
+								copyFiles(from, mid);
+							}
+						};
+						prefix.fork();
+						copyFiles(mid, to);
+						prefix.join();
+						return;
+					} else if (to == from) {
+						return;
+					}
+
+					final Path[] file = files.get(from);
+					try {
+						final CopyResult result = copy(file[0].toFile(),
+								file[1].toFile());
+						if (preserveAttributes) {
+							setTimes(file[1], fileAttributes.get(from));
+						}
+
+						bytes.addAndGet(result.getBytes());
+						copied.incrementAndGet();
+					} catch (final IOException e) {
+						errors.put(file[0].toFile(), e);
+					}
+				}
+			});
+		} finally {
+			pool.shutdown();
+		}
+
+		// the times of the directories are modified by the files
+		if (preserveAttributes) {
+			for (int i = directories.size() - 1; i >= 0; i--) {
+				final Path[] dir = directories.get(i);
+				try {
+					setTimes(dir[1], dirAttributes.get(i));
+				} catch (final IOException e) {
+					errors.put(dir[0].toFile(), e);
+				}
+			}
+		}
+
+		return new CopyTreeResult(bytes.get(), System.nanoTime() - start,
+				copied.get(), directories.size(), errors);
+	}
+
+	private static void setTimes(final Path path,
+			final BasicFileAttributes attrs) throws IOException {
+		java.nio.file.Files.getFileAttributeView(path,
+				BasicFileAttributeView.class).setTimes(
+				attrs.lastModifiedTime(), attrs.lastAccessTime(),
+				attrs.creationTime());
+	}
+
+	private static long copy(final InputStream in, final OutputStream out,
+			final byte[] buffer) throws IOException {
+		long bytes = 0;
+
+		int len;
+		while ((len = in.read(buffer)) != -1) {
+			out.write(buffer, 0, len);
+			bytes += len;
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Gets a buffer from the pool, or creates a new one if the pool is empty.
+	 * 
+	 * @return a buffer of the {@link #DEFAULT_BUFFER_SIZE}
+	 */
+	protected static byte[] acquire() {
+		final byte[] buffer = buffers.poll();
+		if (buffer == null) {
+			return new byte[DEFAULT_BUFFER_SIZE];
+		} else {
+			pooled.decrementAndGet();
+			return buffer;
+		}
+	}
+
+	/**
+	 * Gives a buffer back to the pool. The buffer is dropped if the pool is
+	 * full.
+	 * 
+	 * @param buffer
+	 *            the buffer to be given back
+	 */
+	protected static void release(final byte[] buffer) {
+		if (pooled.incrementAndGet() > MAX_POOLED_BUFFERS) {
+			pooled.decrementAndGet();
+		} else {
+			buffers.add(buffer);
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package net.meisen.general.genmisc.types;
+
+/**
+ * The result of a copy performed by the {@link CopyEngine}, i.e. the amount
+ * of bytes copied and the time needed.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class CopyResult {
+	/**
+	 * The result of a copy, which did not copy anything
+	 */
+	public static final CopyResult EMPTY = new CopyResult(0, 0, 0);
+
+	private final long bytes;
+	private final long nanos;
+	private final int files;
+
+	/**
+	 * Creates a result of a copy.
+	 * 
+	 * @param bytes
+	 *            the amount of bytes copied
+	 * @param nanos
+	 *            the time needed in nanoseconds
+	 * @param files
+	 *            the amount of files copied
+	 */
+	public CopyResult(final long bytes, final long nanos, final int files) {
+		this.bytes = bytes;
+		this.nanos = nanos;
+		this.files = files;
+	}
+
+	/**
+	 * Creates the result of both this and the {@code other} copy.
+	 * 
+	 * @param other
+	 *            the result to be added
+	 * 
+	 * @return the combined result
+	 */
+	public CopyResult add(final CopyResult other) {
+		if (other == null) {
+			return this;
+		}
+
+		return new CopyResult(bytes + other.bytes, nanos + other.nanos, files
+				+ other.files);
+	}
+
+	/**
+	 * Gets the amount of bytes copied.
+	 * 
+	 * @return the amount of bytes copied
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Gets the time needed in nanoseconds.
+	 * 
+	 * @return the time needed in nanoseconds
+	 */
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * Gets the time needed in milliseconds.
+	 * 
+	 * @return the time needed in milliseconds
+	 */
+	public long getMillis() {
+		return nanos / 1000000l;
+	}
+
+	/**
+	 * Gets the amount of files copied.
+	 * 
+	 * @return the amount of files copied
+	 */
+	public int getFiles() {
+		return files;
+	}
+
+	/**
+	 * Gets the amount of bytes copied per second.
+	 * 
+	 * @return the amount of bytes copied per second, {@code 0} if no time was
+	 *         needed
+	 */
+	public double getBytesPerSecond() {
+		return nanos == 0 ? 0.0 : bytes * 1000000000.0 / nanos;
+	}
+
+	@Override
+	public String toString() {
+		return bytes + " bytes of " + files + " file(s) in " + getMillis()
+				+ " ms";
+	}
+}
@@ -0,0 +1,79 @@
+package net.meisen.general.genmisc.types;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The result of a copy of a directory tree performed by the
+ * {@link CopyEngine}. Additionally to the amount of bytes and files copied,
+ * the result contains the amount of directories created and the files, which
+ * could not be copied.
+ * 
+ * @author pmeisen
+ * 
+ * @see CopyEngine#copyTree(File, File, int, boolean)
+ */
+public class CopyTreeResult extends CopyResult {
+	private final int directories;
+	private final Map<File, IOException> errors;
+
+	/**
+	 * Creates a result of the copy of a directory tree.
+	 * 
+	 * @param bytes
+	 *            the amount of bytes copied
+	 * @param nanos
+	 *            the time needed in nanoseconds
+	 * @param files
+	 *            the amount of files copied
+	 * @param directories
+	 *            the amount of directories created
+	 * @param errors
+	 *            the source files, which could not be copied, and the
+	 *            exception thrown
+	 */
+	public CopyTreeResult(final long bytes, final long nanos, final int files,
+			final int directories, final Map<File, IOException> errors) {
+		super(bytes, nanos, files);
+
+		this.directories = directories;
+		this.errors = Collections.unmodifiableMap(errors);
+	}
+
+	/**
+	 * Gets the amount of directories created.
+	 * 
+	 * @return the amount of directories created
+	 */
+	public int getDirectories() {
+		return directories;
+	}
+
+	/**
+	 * Gets the source files or directories, which could not be copied,
+	 * associated to the exception thrown.
+	 * 
+	 * @return the files, which could not be copied
+	 */
+	public Map<File, IOException> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Checks if all the files were copied.
+	 * 
+	 * @return {@code true} if all the files were copied, otherwise
+	 *         {@code false}
+	 */
+	public boolean isSuccessful() {
+		return errors.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + ", " + directories + " director(y|ies), "
+				+ errors.size() + " error(s)";
+	}
+}
@@ -0,0 +1,1041 @@
+package net.meisen.general.genmisc.types;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Pattern;
+
+/**
+ * A copier creating deep copies of object graphs without serialization. For
+ * each class a plan is created once and cached, which defines how an
+ * instance is copied:
+ * <ul>
+ * <li>immutable types (e.g. {@code String}, the wrappers of primitives,
+ * enums or the types of {@code java.time}) are not copied at all</li>
+ * <li>arrays of primitives or immutable types are cloned, other arrays are
+ * copied element by element, large arrays concurrently (see
+ * {@link #DeepCopier(int, ForkJoinPool)})</li>
+ * <li>the common collections and maps of the JDK (see {@link #COLLECTIONS})
+ * are re-created and filled with the copied elements, i.e. hashed
+ * collections are re-hashed, whereby the comparator of a sorted collection,
+ * the key type of an {@code EnumMap} and the order of a
+ * {@code LinkedHashMap} are kept; other collections (e.g. a
+ * {@code Properties} with defaults or a bounded {@code LinkedBlockingQueue})
+ * are copied like any other instance</li>
+ * <li>{@code Date} instances (and sub-classes) and {@code EnumSet} instances
+ * are cloned</li>
+ * <li>any other instance is allocated without calling a constructor (like
+ * deserialization does) and its fields are copied using
+ * {@code MethodHandle} accessors, whereby primitive fields and fields of an
+ * immutable type are copied by a single handle without boxing</li>
+ * <li>a {@code Serializable} instance, whose fields cannot be accessed (e.g.
+ * the internal classes of the JDK like {@code Arrays.asList} or
+ * {@code Collections.unmodifiableList} since Java 9), is serialized and
+ * deserialized, whereby the referred instances, which are not serialized by
+ * the JDK themselves, are copied by the copier</li>
+ * </ul>
+ * The identity within the graph is preserved, i.e. an instance referred to
+ * several times (even cyclic) is copied once. In contrast to serialization,
+ * the instances do not have to be {@code Serializable}, transient fields are
+ * copied as well and the methods {@code writeReplace}, {@code readObject}
+ * and {@code readResolve} are not called (besides for serialized instances).
+ * If an array is copied concurrently, an instance copied by one thread is
+ * visible to the other threads only after it is filled completely (unless
+ * the threads refer to each other's instances cyclically), i.e. hashed
+ * collections never contain half copied keys of another thread.
+ * 
+ * @author pmeisen
+ * 
+ * @see Objects#copy(Object)
+ */
+public class DeepCopier {
+	/**
+	 * The default length of an array, from which on the array is copied
+	 * concurrently
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 64 * 1024;
+
+	private static final int CHUNK_SIZE = 4096;
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final MethodType GETTER = MethodType.methodType(
+			Object.class, Object.class);
+	private static final MethodType SETTER = MethodType.methodType(
+			void.class, Object.class, Object.class);
+	private static final MethodType FACTORY = MethodType
+			.methodType(Object.class);
+	private static final Set<Class<?>> IMMUTABLES = new HashSet<Class<?>>(
+			Arrays.<Class<?>> asList(String.class, Boolean.class, Byte.class,
+					Short.class, Character.class, Integer.class, Long.class,
+					Float.class, Double.class, BigInteger.class,
+					BigDecimal.class, Class.class, UUID.class, Locale.class,
+					URI.class, URL.class, File.class, Pattern.class,
+					Object.class));
+	/**
+	 * The collections and maps, which are re-created by the copier, i.e. the
+	 * collections without any state besides the elements (and the comparator,
+	 * the key type or the order)
+	 */
+	public static final Set<Class<?>> COLLECTIONS = Collections
+			.unmodifiableSet(new HashSet<Class<?>>(Arrays.<Class<?>> asList(
+					ArrayList.class, LinkedList.class, ArrayDeque.class,
+					HashSet.class, LinkedHashSet.class, TreeSet.class,
+					HashMap.class, LinkedHashMap.class, TreeMap.class,
+					Hashtable.class, IdentityHashMap.class, EnumMap.class,
+					PriorityQueue.class, ConcurrentHashMap.class,
+					ConcurrentSkipListMap.class, ConcurrentSkipListSet.class,
+					ConcurrentLinkedQueue.class, ConcurrentLinkedDeque.class,
+					CopyOnWriteArrayList.class, CopyOnWriteArraySet.class)));
+	private static final Object UNSAFE = getUnsafe();
+	private static final MethodHandle ACCESS_ORDER = getAccessOrder();
+
+	private final int parallelThreshold;
+	private final ForkJoinPool pool;
+	private final Set<Class<?>> immutables;
+	private final ClassValue<Plan> plans;
+	private final ClassValue<Boolean> serialized;
+
+	/**
+	 * A plan defining how an instance of a specific class is copied.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	private static abstract class Plan {
+
+		/**
+		 * Copies the {@code orig}, the copy must be registered within the
+		 * {@code context} before any referred instance is copied.
+		 * 
+		 * @param orig
+		 *            the instance to be copied
+		 * @param context
+		 *            the context of the copy
+		 * 
+		 * @return the copy
+		 */
+		public abstract Object copy(Object orig, Context context);
+	}
+
+	/**
+	 * Marks the plan of instances, which are copied by serialization.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	private static abstract class SerializationPlan extends Plan {
+	}
+
+	/**
+	 * The placeholder of an instance referred to by a serialized instance,
+	 * the instance is copied by the copier instead of being serialized.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	private static class Referred implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final int index;
+
+		public Referred(final int index) {
+			this.index = index;
+		}
+	}
+
+	/**
+	 * The copies created so far, the context becomes concurrent as soon as an
+	 * array is copied concurrently. Within a concurrent context a copy, which
+	 * is still filled by one thread, is marked as {@link Pending}, i.e. other
+	 * threads wait until the copy is completed (see
+	 * {@link #complete(Object)}). A thread does not wait, if the owner of the
+	 * copy waits (transitively) for the thread itself, the cycle is handled
+	 * like a cycle within a single thread.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	private static class Context {
+		private Map<Object, Object> copies = new IdentityHashMap<Object, Object>();
+		private ConcurrentHashMap<Identity, Object> concurrentCopies = null;
+
+		private final Map<Thread, Pending> waiting = new HashMap<Thread, Pending>();
+		private volatile int waiters = 0;
+		private volatile boolean parallel = false;
+
+		public Object get(final Object orig) {
+			if (concurrentCopies == null) {
+				return copies.get(orig);
+			} else {
+				return resolve(concurrentCopies.get(new Identity(orig)));
+			}
+		}
+
+		/**
+		 * Registers the completed {@code copy} of the {@code orig}.
+		 * 
+		 * @return the registered copy, which might be the copy of another
+		 *         thread
+		 */
+		public Object register(final Object orig, final Object copy) {
+			if (concurrentCopies == null) {
+				copies.put(orig, copy);
+				return copy;
+			} else {
+				final Object prev = concurrentCopies.putIfAbsent(new Identity(
+						orig), copy);
+				return prev == null ? copy : resolve(prev);
+			}
+		}
+
+		/**
+		 * Registers the {@code copy} of the {@code orig}, which is filled
+		 * afterwards. If the returned copy is the specified one,
+		 * {@link #complete(Object)} must be called after filling it.
+		 * 
+		 * @return the registered copy, which might be the copy of another
+		 *         thread
+		 */
+		public Object start(final Object orig, final Object copy) {
+			if (concurrentCopies == null) {
+				copies.put(orig, copy);
+				return copy;
+			} else {
+				final Object prev = concurrentCopies.putIfAbsent(new Identity(
+						orig), new Pending(copy));
+				return prev == null ? copy : resolve(prev);
+			}
+		}
+
+		/**
+		 * Marks the copy of the {@code orig} started by the current thread to
+		 * be completed, i.e. publishes it to the other threads.
+		 */
+		public void complete(final Object orig) {
+			if (concurrentCopies == null) {
+				return;
+			}
+
+			final Identity identity = new Identity(orig);
+			final Object value = concurrentCopies.get(identity);
+			if (value instanceof Pending) {
+				final Pending pending = (Pending) value;
+				concurrentCopies.replace(identity, pending, pending.copy);
+				pending.done = true;
+
+				if (waiters > 0) {
+					synchronized (this) {
+						notifyAll();
+					}
+				}
+			}
+		}
+
+		private Object resolve(final Object value) {
+			if (value instanceof Pending) {
+				return await((Pending) value);
+			} else {
+				return value;
+			}
+		}
+
+		private Object await(final Pending pending) {
+			final Thread current = Thread.currentThread();
+			if (pending.done || pending.owner == current) {
+				return pending.copy;
+			}
+
+			synchronized (this) {
+				waiters++;
+				try {
+					while (!pending.done) {
+
+						// a cycle between the threads, use the copy as is
+						if (isWaitingFor(pending.owner, current)) {
+							return pending.copy;
+						}
+
+						waiting.put(current, pending);
+						try {
+							wait();
+						} catch (final InterruptedException e) {
+							current.interrupt();
+							throw new IllegalStateException(
+									"Interrupted while waiting for a copy.", e);
+						} finally {
+							waiting.remove(current);
+						}
+					}
+				} finally {
+					waiters--;
+				}
+			}
+
+			return pending.copy;
+		}
+
+		private boolean isWaitingFor(final Thread owner, final Thread thread) {
+			Thread t = owner;
+			while (t != null) {
+				if (t == thread) {
+					return true;
+				}
+
+				final Pending pending = waiting.get(t);
+				t = pending == null || pending.done ? null : pending.owner;
+			}
+
+			return false;
+		}
+
+		/**
+		 * Starts to copy concurrently, the copies started so far are the
+		 * copies the concurrently copied array belongs to, i.e. these are
+		 * published as is.
+		 */
+		public void beginParallel() {
+			if (concurrentCopies == null) {
+				concurrentCopies = new ConcurrentHashMap<Identity, Object>();
+				for (final Entry<Object, Object> e : copies.entrySet()) {
+					concurrentCopies.put(new Identity(e.getKey()), e.getValue());
+				}
+				copies = null;
+			} else {
+				for (final Entry<Identity, Object> e : concurrentCopies
+						.entrySet()) {
+					if (e.getValue() instanceof Pending) {
+						final Pending pending = (Pending) e.getValue();
+						pending.done = true;
+						e.setValue(pending.copy);
+					}
+				}
+			}
+
+			parallel = true;
+		}
+
+		public void endParallel() {
+			parallel = false;
+		}
+
+		public boolean isParallel() {
+			return parallel;
+		}
+	}
+
+	/**
+	 * A copy, which is still filled by the {@code owner}.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	private static class Pending {
+		private final Object copy;
+		private final Thread owner;
+		private volatile boolean done = false;
+
+		public Pending(final Object copy) {
+			this.copy = copy;
+			this.owner = Thread.currentThread();
+		}
+	}
+
+	/**
+	 * Wrapper of an instance using the identity for {@code equals} and
+	 * {@code hashCode}.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	private static final class Identity {
+		private final Object o;
+
+		public Identity(final Object o) {
+			this.o = o;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(o);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			return obj instanceof Identity && ((Identity) obj).o == o;
+		}
+	}
+
+	/**
+	 * The accessors of a field. Fields of a primitive or an immutable type are
+	 * copied by the {@code direct} handle, i.e. {@code setter(copy,
+	 * getter(orig))}, otherwise the value is copied in between.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	private static class FieldAccess {
+		private final Field field;
+		private final MethodHandle direct;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+
+		public FieldAccess(final Field field, final boolean direct)
+				throws IllegalAccessException {
+			field.setAccessible(true);
+			final MethodHandle getter = LOOKUP.unreflectGetter(field);
+			final MethodHandle setter = LOOKUP.unreflectSetter(field);
+
+			this.field = field;
+			if (direct) {
+				this.direct = MethodHandles.filterArguments(setter, 1, getter)
+						.asType(SETTER);
+				this.getter = null;
+				this.setter = null;
+			} else {
+				this.direct = null;
+				this.getter = getter.asType(GETTER);
+				this.setter = setter.asType(SETTER);
+			}
+		}
+	}
+
+	/**
+	 * Creates a copier, which copies arrays with at least
+	 * {@link #DEFAULT_PARALLEL_THRESHOLD} elements concurrently using the
+	 * common pool.
+	 */
+	public DeepCopier() {
+		this(DEFAULT_PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a copier, which copies arrays with at least
+	 * {@code parallelThreshold} elements concurrently.
+	 * 
+	 * @param parallelThreshold
+	 *            the length of an array, from which on the array is copied
+	 *            concurrently, {@link Integer#MAX_VALUE} to copy sequentially
+	 * @param pool
+	 *            the pool used to copy arrays concurrently
+	 */
+	public DeepCopier(final int parallelThreshold, final ForkJoinPool pool) {
+		if (parallelThreshold < 1) {
+			throw new IllegalArgumentException(
+					"The parallel threshold must be at least 1.");
+		} else if (pool == null) {
+			throw new IllegalArgumentException("The pool cannot be null.");
+		}
+
+		this.parallelThreshold = parallelThreshold;
+		this.pool = pool;
+		this.immutables = Collections
+				.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+		this.plans = new ClassValue<Plan>() {
+
+			@Override
+			protected Plan computeValue(final Class<?> clazz) {
+				return createPlan(clazz);
+			}
+		};
+		this.serialized = new ClassValue<Boolean>() {
+
+			@Override
+			protected Boolean computeValue(final Class<?> clazz) {
+				return isSerialized(clazz);
+			}
+		};
+	}
+
+	private static MethodHandle getAccessOrder() {
+		try {
+			final Field field = LinkedHashMap.class
+					.getDeclaredField("accessOrder");
+			field.setAccessible(true);
+			return LOOKUP.unreflectGetter(field).asType(
+					MethodType.methodType(boolean.class, Object.class));
+		} catch (final Exception e) {
+			return null;
+		}
+	}
+
+	private static Object getUnsafe() {
+		try {
+			final Field field = Class.forName("sun.misc.Unsafe")
+					.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			return field.get(null);
+		} catch (final Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Registers the specified {@code clazz} to be immutable, i.e. instances of
+	 * the class are not copied. The registration should be done prior to
+	 * copying any instance referring to the class.
+	 * 
+	 * @param clazz
+	 *            the class to be registered as immutable
+	 */
+	public void registerImmutable(final Class<?> clazz) {
+		immutables.add(clazz);
+	}
+
+	/**
+	 * Checks if instances of the specified {@code clazz} are immutable.
+	 * 
+	 * @param clazz
+	 *            the class to be checked
+	 * 
+	 * @return {@code true} if the instances are immutable, otherwise
+	 *         {@code false}
+	 */
+	public boolean isImmutable(final Class<?> clazz) {
+		return clazz.isPrimitive() || IMMUTABLES.contains(clazz)
+				|| immutables.contains(clazz) || Enum.class.isAssignableFrom(clazz)
+				|| clazz.getName().startsWith("java.time.")
+				|| Path.class.isAssignableFrom(clazz)
+				|| Charset.class.isAssignableFrom(clazz);
+	}
+
+	/**
+	 * Creates a deep copy of the specified {@code orig}.
+	 * 
+	 * @param orig
+	 *            the instance to be copied, can be {@code null}
+	 * 
+	 * @return the copy
+	 * 
+	 * @throws IllegalStateException
+	 *             if an instance of the graph cannot be copied
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T copy(final T orig) {
+		return (T) copy(orig, new Context());
+	}
+
+	private Object copy(final Object orig, final Context context) {
+		if (orig == null) {
+			return null;
+		}
+
+		final Class<?> clazz = orig.getClass();
+		if (immutables.contains(clazz)) {
+			return orig;
+		}
+
+		final Object copy = context.get(orig);
+		if (copy == null) {
+			return plans.get(clazz).copy(orig, context);
+		} else {
+			return copy;
+		}
+	}
+
+	private Plan createPlan(final Class<?> clazz) {
+		if (isImmutable(clazz)) {
+			return new Plan() {
+
+				@Override
+				public Object copy(final Object orig, final Context context) {
+					return orig;
+				}
+			};
+		} else if (clazz.isArray()) {
+			return createArrayPlan(clazz);
+		} else if (Date.class.isAssignableFrom(clazz)
+				|| EnumSet.class.isAssignableFrom(clazz)) {
+			return createClonePlan();
+		}
+
+		// re-create the collections and maps of the JDK
+		final MethodHandle factory = getFactory(clazz);
+		if (factory != null) {
+			return createCollectionPlan(clazz, factory);
+		}
+
+		// serialize instances, which cannot be accessed
+		try {
+			return createFieldPlan(clazz);
+		} catch (final IllegalStateException e) {
+			if (Serializable.class.isAssignableFrom(clazz)) {
+				return createSerializationPlan(clazz);
+			} else {
+				throw e;
+			}
+		}
+	}
+
+	private Plan createClonePlan() {
+		return new Plan() {
+
+			@Override
+			public Object copy(final Object orig, final Context context) {
+				final Object copy;
+				if (orig instanceof Date) {
+					copy = ((Date) orig).clone();
+				} else {
+					copy = ((EnumSet<?>) orig).clone();
+				}
+
+				return context.register(orig, copy);
+			}
+		};
+	}
+
+	private boolean isFinalImmutable(final Class<?> clazz) {
+		return clazz.isPrimitive()
+				|| (Modifier.isFinal(clazz.getModifiers()) && isImmutable(clazz))
+				|| clazz.isEnum();
+	}
+
+	private Plan createArrayPlan(final Class<?> clazz) {
+		final Class<?> componentType = clazz.getComponentType();
+
+		// the elements are not copied, a clone is sufficient
+		if (isFinalImmutable(componentType)) {
+			return new Plan() {
+
+				@Override
+				public Object copy(final Object orig, final Context context) {
+					final int length = Array.getLength(orig);
+					final Object copy = Array.newInstance(componentType, length);
+					System.arraycopy(orig, 0, copy, 0, length);
+
+					return context.register(orig, copy);
+				}
+			};
+		}
+
+		return new Plan() {
+
+			@Override
+			public Object copy(final Object orig, final Context context) {
+				final Object[] origArray = (Object[]) orig;
+				final Object[] copy = (Object[]) Array.newInstance(
+						componentType, origArray.length);
+				final Object registered = context.start(orig, copy);
+				if (registered != copy) {
+					return registered;
+				}
+
+				// arrays within a concurrently copied array are copied by
+				// the current thread, i.e. a thread never joins other tasks
+				// while filling a copy
+				if (origArray.length >= parallelThreshold
+						&& pool.getParallelism() > 1 && !context.isParallel()) {
+					context.beginParallel();
+					try {
+						pool.invoke(new ArrayCopy(origArray, copy, 0,
+								origArray.length, context));
+					} finally {
+						context.endParallel();
+					}
+				} else {
+					try {
+						for (int i = 0; i < origArray.length; i++) {
+							copy[i] = DeepCopier.this.copy(origArray[i],
+									context);
+						}
+					} finally {
+						context.complete(orig);
+					}
+				}
+
+				return copy;
+			}
+		};
+	}
+
+	/**
+	 * Task copying a range of the elements of an array.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	private class ArrayCopy extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Object[] orig;
+		private final Object[] copy;
+		private final int from;
+		private final int to;
+		private final Context context;
+
+		public ArrayCopy(final Object[] orig, final Object[] copy,
+				final int from, final int to, final Context context) {
+			this.orig = orig;
+			this.copy = copy;
+			this.from = from;
+			this.to = to;
+			this.context = context;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= CHUNK_SIZE) {
+				for (int i = from; i < to; i++) {
+					copy[i] = DeepCopier.this.copy(orig[i], context);
+				}
+			} else {
+				final int mid = (from + to) >>> 1;
+				invokeAll(new ArrayCopy(orig, copy, from, mid, context),
+						new ArrayCopy(orig, copy, mid, to, context));
+			}
+		}
+	}
+
+	private MethodHandle getFactory(final Class<?> clazz) {
+		if (!COLLECTIONS.contains(clazz)) {
+			return null;
+		}
+
+		try {
+			if (EnumMap.class.equals(clazz)) {
+
+				// (orig) -> new EnumMap(orig) without any entries
+				return LOOKUP.findStatic(DeepCopier.class, "createEnumMap",
+						MethodType.methodType(Object.class, Object.class));
+			} else if (LinkedHashMap.class.equals(clazz)) {
+
+				// (orig) -> new LinkedHashMap(orig.accessOrder)
+				return ACCESS_ORDER == null ? null : LOOKUP.findStatic(
+						DeepCopier.class, "createLinkedHashMap",
+						MethodType.methodType(Object.class, Object.class));
+			} else if (hasMethod(clazz, "comparator")) {
+				final Method comparator = clazz.getMethod("comparator");
+				final Constructor<?> constructor = clazz
+						.getConstructor(Comparator.class);
+
+				// (orig) -> new Clazz(orig.comparator())
+				return MethodHandles.filterArguments(
+						LOOKUP.unreflectConstructor(constructor), 0,
+						LOOKUP.unreflect(comparator)).asType(GETTER);
+			} else {
+				final Constructor<?> constructor = clazz.getConstructor();
+
+				// (orig) -> new Clazz()
+				return MethodHandles.dropArguments(
+						LOOKUP.unreflectConstructor(constructor)
+								.asType(FACTORY), 0, Object.class);
+			}
+		} catch (final NoSuchMethodException e) {
+			return null;
+		} catch (final IllegalAccessException e) {
+			return null;
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static Object createEnumMap(final Object orig) {
+		final EnumMap copy = new EnumMap((EnumMap) orig);
+		copy.clear();
+
+		return copy;
+	}
+
+	private static Object createLinkedHashMap(final Object orig)
+			throws Throwable {
+		final boolean accessOrder = (boolean) ACCESS_ORDER.invokeExact(orig);
+
+		return new LinkedHashMap<Object, Object>(16, 0.75f, accessOrder);
+	}
+
+	private boolean hasMethod(final Class<?> clazz, final String name) {
+		try {
+			clazz.getMethod(name);
+			return true;
+		} catch (final NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	private Plan createCollectionPlan(final Class<?> clazz,
+			final MethodHandle factory) {
+		final boolean map = Map.class.isAssignableFrom(clazz);
+
+		return new Plan() {
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public Object copy(final Object orig, final Context context) {
+				final Object copy;
+				try {
+					copy = (Object) factory.invokeExact(orig);
+				} catch (final Throwable t) {
+					throw rethrow(t, clazz);
+				}
+				final Object registered = context.start(orig, copy);
+				if (registered != copy) {
+					return registered;
+				}
+
+				try {
+					if (map) {
+						final Map<Object, Object> copyMap = (Map<Object, Object>) copy;
+						for (final Entry<?, ?> e : ((Map<?, ?>) orig)
+								.entrySet()) {
+							copyMap.put(
+									DeepCopier.this.copy(e.getKey(), context),
+									DeepCopier.this.copy(e.getValue(), context));
+						}
+					} else {
+						final Collection<Object> copyColl = (Collection<Object>) copy;
+						for (final Object e : (Collection<?>) orig) {
+							copyColl.add(DeepCopier.this.copy(e, context));
+						}
+					}
+				} finally {
+					context.complete(orig);
+				}
+
+				return copy;
+			}
+		};
+	}
+
+	/**
+	 * Checks if instances of the specified {@code clazz} are serialized, if
+	 * referred to by a serialized instance. Besides the instances copied by
+	 * serialization, instances of classes defining the replacement or
+	 * resolution of instances are serialized.
+	 */
+	private boolean isSerialized(final Class<?> clazz) {
+		if (plans.get(clazz) instanceof SerializationPlan) {
+			return true;
+		}
+
+		for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+			for (final Method method : c.getDeclaredMethods()) {
+				if (method.getParameterTypes().length == 0
+						&& ("writeReplace".equals(method.getName()) || "readResolve"
+								.equals(method.getName()))) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private Plan createSerializationPlan(final Class<?> clazz) {
+		return new SerializationPlan() {
+
+			@Override
+			public Object copy(final Object orig, final Context context) {
+				final List<Object> referred = new ArrayList<Object>();
+
+				final Object copy;
+				try {
+					final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+					final ObjectOutputStream out = new ObjectOutputStream(bytes) {
+						{
+							enableReplaceObject(true);
+						}
+
+						@Override
+						protected Object replaceObject(final Object obj) {
+							if (obj == orig || serialized.get(obj.getClass())) {
+								return obj;
+							} else {
+								referred.add(obj);
+								return new Referred(referred.size() - 1);
+							}
+						}
+					};
+					out.writeObject(orig);
+					out.close();
+
+					final ObjectInputStream in = new ObjectInputStream(
+							new ByteArrayInputStream(bytes.toByteArray())) {
+						{
+							enableResolveObject(true);
+						}
+
+						@Override
+						protected Class<?> resolveClass(
+								final ObjectStreamClass desc)
+								throws IOException, ClassNotFoundException {
+							try {
+								return super.resolveClass(desc);
+							} catch (final ClassNotFoundException e) {
+								return Class.forName(desc.getName(), false,
+										DeepCopier.class.getClassLoader());
+							}
+						}
+
+						@Override
+						protected Object resolveObject(final Object obj) {
+							if (obj instanceof Referred) {
+								return DeepCopier.this.copy(
+										referred.get(((Referred) obj).index),
+										context);
+							} else {
+								return obj;
+							}
+						}
+					};
+					copy = in.readObject();
+					in.close();
+				} catch (final Exception e) {
+					throw rethrow(e, clazz);
+				}
+
+				// the instance might be copied by a cycle already
+				final Object cyclic = context.get(orig);
+				return cyclic == null ? context.register(orig, copy) : cyclic;
+			}
+		};
+	}
+
+	private Plan createFieldPlan(final Class<?> clazz) {
+		final MethodHandle allocator = getAllocator(clazz);
+
+		// determine the accessors of all the fields
+		final List<FieldAccess> accesses = new ArrayList<FieldAccess>();
+		for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+			for (final Field field : c.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+
+				try {
+					accesses.add(new FieldAccess(field,
+							isFinalImmutable(field.getType())));
+				} catch (final Exception e) {
+					throw new IllegalStateException("Unable to access field '"
+							+ field + "'.", e);
+				}
+			}
+		}
+		final FieldAccess[] fields = accesses
+				.toArray(new FieldAccess[accesses.size()]);
+
+		return new Plan() {
+
+			@Override
+			public Object copy(final Object orig, final Context context) {
+				FieldAccess current = null;
+				try {
+					final Object copy = (Object) allocator.invokeExact();
+					final Object registered = context.start(orig, copy);
+					if (registered != copy) {
+						return registered;
+					}
+
+					try {
+						for (final FieldAccess field : fields) {
+							current = field;
+							if (field.direct != null) {
+								field.direct.invokeExact(copy, orig);
+							} else {
+								final Object value = (Object) field.getter
+										.invokeExact(orig);
+								field.setter.invokeExact(copy,
+										DeepCopier.this.copy(value, context));
+							}
+						}
+					} finally {
+						context.complete(orig);
+					}
+
+					return copy;
+				} catch (final Throwable t) {
+					throw rethrow(t, current == null ? clazz : current.field);
+				}
+			}
+		};
+	}
+
+	private MethodHandle getAllocator(final Class<?> clazz) {
+		if (Modifier.isAbstract(clazz.getModifiers())) {
+			throw new IllegalStateException("Unable to instantiate '"
+					+ clazz.getName() + "'.");
+		}
+
+		// allocate without calling any constructor
+		if (UNSAFE != null) {
+			try {
+				final Method allocate = UNSAFE.getClass().getMethod(
+						"allocateInstance", Class.class);
+				return LOOKUP.unreflect(allocate).bindTo(UNSAFE).bindTo(clazz)
+						.asType(FACTORY);
+			} catch (final Exception e) {
+				// try the constructor
+			}
+		}
+
+		try {
+			final Constructor<?> constructor = clazz.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			return LOOKUP.unreflectConstructor(constructor).asType(FACTORY);
+		} catch (final Exception e) {
+			throw new IllegalStateException("Unable to instantiate '"
+					+ clazz.getName() + "'.", e);
+		}
+	}
+
+	private static RuntimeException rethrow(final Throwable t,
+			final Object source) {
+		if (t instanceof RuntimeException) {
+			return (RuntimeException) t;
+		} else if (t instanceof Error) {
+			throw (Error) t;
+		} else {
+			return new IllegalStateException("Unable to copy '" + source
+					+ "'.", t);
+		}
+	}
+}
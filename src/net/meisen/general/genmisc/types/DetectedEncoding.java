@@ -0,0 +1,94 @@
+package net.meisen.general.genmisc.types;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * The result of the detection of the encoding of a stream (see
+ * {@link Streams#detectEncoding(InputStream, String)}). Besides the encoding,
+ * the result provides the stream positioned at its start, i.e. the bytes read
+ * to detect the encoding are pushed back.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class DetectedEncoding {
+	private final String encoding;
+	private final InputStream stream;
+
+	/**
+	 * Creates the result of a detection.
+	 * 
+	 * @param encoding
+	 *            the detected encoding
+	 * @param stream
+	 *            the stream positioned at its start
+	 */
+	public DetectedEncoding(final String encoding, final InputStream stream) {
+		this.encoding = encoding;
+		this.stream = stream;
+	}
+
+	/**
+	 * Gets the detected encoding.
+	 * 
+	 * @return the detected encoding
+	 */
+	public String getEncoding() {
+		return encoding;
+	}
+
+	/**
+	 * Gets the stream positioned at its start. The stream must be used
+	 * instead of the stream passed to the detection.
+	 * 
+	 * @return the stream positioned at its start
+	 */
+	public InputStream getStream() {
+		return stream;
+	}
+
+	/**
+	 * Gets a {@code Reader} of the stream using the detected encoding.
+	 * Malformed characters are replaced.
+	 * 
+	 * @return a {@code Reader} of the stream
+	 */
+	public Reader getReader() {
+		return getReader(false);
+	}
+
+	/**
+	 * Gets a {@code Reader} of the stream using the detected encoding. The
+	 * detection validates only the beginning of the stream, a strict reader
+	 * validates the remaining content while it is read, i.e. it fails with a
+	 * {@code CharacterCodingException} if a character cannot be decoded.
+	 * 
+	 * @param strict
+	 *            {@code true} to fail on malformed characters, {@code false}
+	 *            to replace them
+	 * 
+	 * @return a {@code Reader} of the stream
+	 */
+	public Reader getReader(final boolean strict) {
+		final CharsetDecoder decoder = Charset.forName(encoding).newDecoder();
+		if (strict) {
+			decoder.onMalformedInput(CodingErrorAction.REPORT);
+			decoder.onUnmappableCharacter(CodingErrorAction.REPORT);
+		} else {
+			decoder.onMalformedInput(CodingErrorAction.REPLACE);
+			decoder.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		}
+
+		return new InputStreamReader(stream, decoder);
+	}
+
+	@Override
+	public String toString() {
+		return encoding;
+	}
+}
@@ -0,0 +1,340 @@
+package net.meisen.general.genmisc.types;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A lazy walker of a directory tree. The directories are opened when the
+ * entries are requested, i.e. the caller receives the first entries before
+ * the whole tree is known. The attributes of each entry are read once and
+ * passed to the filter, i.e. the filter does not need to access the file
+ * system again (see {@link #glob(Path, String)} and
+ * {@link #pattern(Path, Pattern)}).<br/>
+ * <br/>
+ * The walker is a {@code Spliterator}, which can be split by handing over
+ * the half of the directories not visited so far, i.e. the sub-directories
+ * are traversed concurrently by a parallel stream (see
+ * {@link #stream(Path, int, BiPredicate, boolean, boolean)}). Directories,
+ * which cannot be read, are skipped.
+ * 
+ * @author pmeisen
+ * 
+ * @see Files#walk(File, int, BiPredicate, boolean)
+ */
+public class DirectoryWalker implements Spliterator<Path>, Closeable {
+	private final int maxDepth;
+	private final BiPredicate<Path, BasicFileAttributes> filter;
+	private final boolean includeDirectories;
+	private final LinkOption[] linkOptions;
+	private final Queue<DirectoryStream<Path>> streams;
+
+	private final Deque<Object[]> pending;
+	private Path single;
+	private DirectoryStream<Path> stream;
+	private Iterator<Path> iterator;
+	private int depth;
+
+	/**
+	 * Creates a walker of the tree of the specified {@code root}. If the
+	 * {@code root} is not a directory, the walker provides only the
+	 * {@code root} if accepted by the {@code filter}.
+	 * 
+	 * @param root
+	 *            the root of the tree
+	 * @param maxDepth
+	 *            the maximal depth of the entries, i.e. {@code 1} for the
+	 *            entries of the {@code root} only
+	 * @param filter
+	 *            the filter of the entries, can be {@code null} to accept all
+	 *            entries
+	 * @param includeDirectories
+	 *            {@code true} if directories are provided, {@code false} if
+	 *            only files are provided
+	 * @param followLinks
+	 *            {@code true} to follow symbolic links, otherwise
+	 *            {@code false}
+	 */
+	public DirectoryWalker(final Path root, final int maxDepth,
+			final BiPredicate<Path, BasicFileAttributes> filter,
+			final boolean includeDirectories, final boolean followLinks) {
+		this(maxDepth, filter, includeDirectories,
+				followLinks ? new LinkOption[0]
+						: new LinkOption[] { LinkOption.NOFOLLOW_LINKS },
+				new ConcurrentLinkedQueue<DirectoryStream<Path>>(),
+				new ArrayDeque<Object[]>());
+
+		final BasicFileAttributes attrs = readAttributes(root);
+		if (attrs == null) {
+			// nothing to walk
+		} else if (attrs.isDirectory()) {
+			if (maxDepth > 0) {
+				pending.add(new Object[] { root, 0 });
+			}
+		} else if (accept(root, attrs)) {
+			single = root;
+		}
+	}
+
+	/**
+	 * Creates a walker of the specified {@code pending} directories, used when
+	 * a walker is split.
+	 * 
+	 * @param maxDepth
+	 *            the maximal depth of the entries
+	 * @param filter
+	 *            the filter of the entries, can be {@code null}
+	 * @param includeDirectories
+	 *            {@code true} if directories are provided
+	 * @param linkOptions
+	 *            the options used to read the attributes
+	 * @param streams
+	 *            the opened directories of all the walkers
+	 * @param pending
+	 *            the directories to be visited and their depth
+	 */
+	protected DirectoryWalker(final int maxDepth,
+			final BiPredicate<Path, BasicFileAttributes> filter,
+			final boolean includeDirectories, final LinkOption[] linkOptions,
+			final Queue<DirectoryStream<Path>> streams,
+			final Deque<Object[]> pending) {
+		if (maxDepth < 0) {
+			throw new IllegalArgumentException(
+					"The maximal depth cannot be negative.");
+		}
+
+		this.maxDepth = maxDepth;
+		this.filter = filter;
+		this.includeDirectories = includeDirectories;
+		this.linkOptions = linkOptions;
+		this.streams = streams;
+		this.pending = pending;
+
+		this.single = null;
+		this.stream = null;
+		this.iterator = null;
+		this.depth = 0;
+	}
+
+	private BasicFileAttributes readAttributes(final Path path) {
+		try {
+			return java.nio.file.Files.readAttributes(path,
+					BasicFileAttributes.class, linkOptions);
+		} catch (final IOException e) {
+			// the entry might have been removed
+			return null;
+		}
+	}
+
+	private boolean accept(final Path path, final BasicFileAttributes attrs) {
+		if (attrs.isDirectory() && !includeDirectories) {
+			return false;
+		} else {
+			return filter == null || filter.test(path, attrs);
+		}
+	}
+
+	@Override
+	public boolean tryAdvance(final Consumer<? super Path> action) {
+		if (single != null) {
+			final Path root = single;
+			single = null;
+			action.accept(root);
+			return true;
+		}
+
+		while (true) {
+
+			// open the next directory
+			if (iterator == null) {
+				final Object[] next = pending.poll();
+				if (next == null) {
+					return false;
+				}
+
+				try {
+					stream = java.nio.file.Files
+							.newDirectoryStream((Path) next[0]);
+				} catch (final IOException e) {
+					continue;
+				}
+				streams.add(stream);
+				iterator = stream.iterator();
+				depth = (Integer) next[1] + 1;
+			}
+
+			// get the next entry of the directory
+			while (iterator.hasNext()) {
+				final Path path = iterator.next();
+				final BasicFileAttributes attrs = readAttributes(path);
+				if (attrs == null) {
+					continue;
+				}
+
+				if (attrs.isDirectory() && depth < maxDepth) {
+					pending.push(new Object[] { path, depth });
+				}
+				if (accept(path, attrs)) {
+					action.accept(path);
+					return true;
+				}
+			}
+			closeStream();
+		}
+	}
+
+	@Override
+	public Spliterator<Path> trySplit() {
+		if (pending.size() < 2) {
+			return null;
+		}
+
+		// hand over the half of the directories, which were found first
+		final Deque<Object[]> split = new ArrayDeque<Object[]>();
+		for (int i = pending.size() / 2; i > 0; i--) {
+			split.push(pending.pollLast());
+		}
+
+		return new DirectoryWalker(maxDepth, filter, includeDirectories,
+				linkOptions, streams, split);
+	}
+
+	@Override
+	public long estimateSize() {
+		return Long.MAX_VALUE;
+	}
+
+	@Override
+	public int characteristics() {
+		return DISTINCT | NONNULL;
+	}
+
+	private void closeStream() {
+		if (stream != null) {
+			streams.remove(stream);
+			Streams.closeIO(stream);
+			stream = null;
+		}
+		iterator = null;
+	}
+
+	/**
+	 * Closes the directories opened by this walker and all the walkers split
+	 * from it.
+	 */
+	@Override
+	public void close() {
+		DirectoryStream<Path> s;
+		while ((s = streams.poll()) != null) {
+			Streams.closeIO(s);
+		}
+	}
+
+	/**
+	 * Creates a lazy {@code Stream} of the entries of the tree of the
+	 * specified {@code root}. The stream should be closed if it is not
+	 * consumed completely.
+	 * 
+	 * @param root
+	 *            the root of the tree
+	 * @param maxDepth
+	 *            the maximal depth of the entries, i.e. {@code 1} for the
+	 *            entries of the {@code root} only
+	 * @param filter
+	 *            the filter of the entries, can be {@code null} to accept all
+	 *            entries
+	 * @param includeDirectories
+	 *            {@code true} if directories are provided, {@code false} if
+	 *            only files are provided
+	 * @param parallel
+	 *            {@code true} to traverse the sub-directories concurrently
+	 * 
+	 * @return the stream of the entries
+	 */
+	public static Stream<Path> stream(final Path root, final int maxDepth,
+			final BiPredicate<Path, BasicFileAttributes> filter,
+			final boolean includeDirectories, final boolean parallel) {
+		final DirectoryWalker walker = new DirectoryWalker(root, maxDepth,
+				filter, includeDirectories, false);
+
+		return StreamSupport.stream(walker, parallel).onClose(new Runnable() {
+
+			@Override
+			public void run() {
+				walker.close();
+			}
+		});
+	}
+
+	/**
+	 * Creates a filter, which accepts the entries whose path relative to the
+	 * {@code root} matches the specified {@code glob} (e.g.
+	 * {@code **}{@code /*.xml}).
+	 * 
+	 * @param root
+	 *            the root of the tree
+	 * @param glob
+	 *            the glob to match the relative paths against
+	 * 
+	 * @return the created filter
+	 * 
+	 * @see java.nio.file.FileSystem#getPathMatcher(String)
+	 */
+	public static BiPredicate<Path, BasicFileAttributes> glob(final Path root,
+			final String glob) {
+		final PathMatcher matcher = FileSystems.getDefault().getPathMatcher(
+				"glob:" + glob);
+
+		return new BiPredicate<Path, BasicFileAttributes>() {
+
+			@Override
+			public boolean test(final Path path, final BasicFileAttributes attrs) {
+				return matcher.matches(root.relativize(path));
+			}
+		};
+	}
+
+	/**
+	 * Creates a filter, which accepts the entries whose path relative to the
+	 * {@code root} and prefixed by the separator (e.g. {@code /sub/file.xml})
+	 * matches the specified {@code pattern}.
+	 * 
+	 * @param root
+	 *            the root of the tree
+	 * @param pattern
+	 *            the pattern to match the relative paths against
+	 * 
+	 * @return the created filter
+	 */
+	public static BiPredicate<Path, BasicFileAttributes> pattern(
+			final Path root, final Pattern pattern) {
+		return new BiPredicate<Path, BasicFileAttributes>() {
+
+			@Override
+			public boolean test(final Path path, final BasicFileAttributes attrs) {
+				final String relative = root.relativize(path).toString();
+				final String subPath = relative.isEmpty() ? relative
+						: File.separator + relative;
+
+				return pattern.matcher(subPath).matches();
+			}
+		};
+	}
+}
@@ -0,0 +1,320 @@
+package net.meisen.general.genmisc.types;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Utility class to validate content against the US-ASCII and the UTF-8
+ * encoding without decoding it. The content is read as {@code long} words,
+ * i.e. eight ASCII characters are skipped by a single test, only multi-byte
+ * sequences are validated byte by byte.<br/>
+ * <br/>
+ * The UTF-8 validation follows the rules of the {@code CharsetDecoder} of
+ * the UTF-8 charset, i.e. overlong forms, encoded surrogates and code points
+ * beyond {@code U+10FFFF} are invalid, whereby four byte sequences (i.e.
+ * supplementary characters) are valid.
+ * 
+ * @author pmeisen
+ * 
+ * @see Streams#validateEncoding(byte[], String)
+ */
+public class EncodingValidator {
+	private static final long ASCII_MASK = 0x8080808080808080l;
+	private static final int MAPPING_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * Checks if the {@code content} contains only US-ASCII characters.
+	 * 
+	 * @param content
+	 *            the content to be checked
+	 * 
+	 * @return {@code true} if the content is valid US-ASCII, otherwise
+	 *         {@code false}
+	 */
+	public static boolean isAscii(final byte[] content) {
+		return isAscii(content, 0, content.length);
+	}
+
+	/**
+	 * Checks if the {@code length} bytes of the {@code content} starting at
+	 * the {@code offset} are US-ASCII characters.
+	 * 
+	 * @param content
+	 *            the content to be checked
+	 * @param offset
+	 *            the offset of the first byte to be checked
+	 * @param length
+	 *            the amount of bytes to be checked
+	 * 
+	 * @return {@code true} if the content is valid US-ASCII, otherwise
+	 *         {@code false}
+	 */
+	public static boolean isAscii(final byte[] content, final int offset,
+			final int length) {
+		return isAscii(ByteBuffer.wrap(content), offset, offset + length);
+	}
+
+	/**
+	 * Checks if the remaining bytes of the {@code buffer} are US-ASCII
+	 * characters. The position of the {@code buffer} is not modified.
+	 * 
+	 * @param buffer
+	 *            the buffer to be checked
+	 * 
+	 * @return {@code true} if the content is valid US-ASCII, otherwise
+	 *         {@code false}
+	 */
+	public static boolean isAscii(final ByteBuffer buffer) {
+		return isAscii(buffer, buffer.position(), buffer.limit());
+	}
+
+	/**
+	 * Checks if the {@code file} contains only US-ASCII characters. The file
+	 * is mapped into memory.
+	 * 
+	 * @param file
+	 *            the file to be checked
+	 * 
+	 * @return {@code true} if the content is valid US-ASCII, otherwise
+	 *         {@code false}
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	public static boolean isAscii(final File file) throws IOException {
+		final FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ);
+		try {
+			final long size = channel.size();
+			for (long offset = 0; offset < size; offset += MAPPING_SIZE) {
+				final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY,
+						offset, Math.min(MAPPING_SIZE, size - offset));
+				if (!isAscii(buffer)) {
+					return false;
+				}
+			}
+
+			return true;
+		} finally {
+			Streams.closeIO(channel);
+		}
+	}
+
+	/**
+	 * Checks if the bytes of the {@code buffer} between {@code from}
+	 * (inclusive) and {@code to} (exclusive) are US-ASCII characters.
+	 * 
+	 * @param buffer
+	 *            the buffer to be checked
+	 * @param from
+	 *            the index of the first byte
+	 * @param to
+	 *            the index after the last byte
+	 * 
+	 * @return {@code true} if the content is valid US-ASCII, otherwise
+	 *         {@code false}
+	 */
+	protected static boolean isAscii(final ByteBuffer buffer, final int from,
+			final int to) {
+		int i = from;
+
+		// check eight bytes at once
+		for (final int end = to - 7; i < end; i += 8) {
+			if ((buffer.getLong(i) & ASCII_MASK) != 0) {
+				return false;
+			}
+		}
+
+		// check the remaining bytes
+		for (; i < to; i++) {
+			if (buffer.get(i) < 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks if the {@code content} contains only valid UTF-8 characters.
+	 * 
+	 * @param content
+	 *            the content to be checked
+	 * 
+	 * @return {@code true} if the content is valid UTF-8, otherwise
+	 *         {@code false}
+	 */
+	public static boolean isUtf8(final byte[] content) {
+		return isUtf8(content, 0, content.length, true);
+	}
+
+	/**
+	 * Checks if the {@code length} bytes of the {@code content} starting at
+	 * the {@code offset} are valid UTF-8 characters. If the content is not the
+	 * end of the input, the content might end with an incomplete character,
+	 * i.e. an incomplete but so far valid character is valid.
+	 * 
+	 * @param content
+	 *            the content to be checked
+	 * @param offset
+	 *            the offset of the first byte to be checked
+	 * @param length
+	 *            the amount of bytes to be checked
+	 * @param endOfInput
+	 *            {@code true} if the content is the end of the input,
+	 *            otherwise {@code false}
+	 * 
+	 * @return {@code true} if the content is valid UTF-8, otherwise
+	 *         {@code false}
+	 */
+	public static boolean isUtf8(final byte[] content, final int offset,
+			final int length, final boolean endOfInput) {
+		final int end = offset + length;
+		final int pos = validateUtf8(ByteBuffer.wrap(content), offset, end);
+
+		return endOfInput ? pos == end : pos > -1;
+	}
+
+	/**
+	 * Checks if the remaining bytes of the {@code buffer} are valid UTF-8
+	 * characters. The position of the {@code buffer} is not modified.
+	 * 
+	 * @param buffer
+	 *            the buffer to be checked
+	 * 
+	 * @return {@code true} if the content is valid UTF-8, otherwise
+	 *         {@code false}
+	 */
+	public static boolean isUtf8(final ByteBuffer buffer) {
+		return validateUtf8(buffer, buffer.position(), buffer.limit()) == buffer
+				.limit();
+	}
+
+	/**
+	 * Checks if the {@code file} contains only valid UTF-8 characters. The
+	 * file is mapped into memory, characters crossing the boundary of a
+	 * mapped region are validated with the next region.
+	 * 
+	 * @param file
+	 *            the file to be checked
+	 * 
+	 * @return {@code true} if the content is valid UTF-8, otherwise
+	 *         {@code false}
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	public static boolean isUtf8(final File file) throws IOException {
+		final FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ);
+		try {
+			final long size = channel.size();
+
+			long offset = 0;
+			while (offset < size) {
+				final int length = (int) Math.min(MAPPING_SIZE, size - offset);
+				final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY,
+						offset, length);
+
+				final int pos = validateUtf8(buffer, 0, length);
+				if (pos < 0) {
+					return false;
+				} else if (pos < length && offset + length == size) {
+					return false;
+				}
+				offset += pos;
+			}
+
+			return true;
+		} finally {
+			Streams.closeIO(channel);
+		}
+	}
+
+	/**
+	 * Validates the bytes of the {@code buffer} between {@code from}
+	 * (inclusive) and {@code to} (exclusive) against the UTF-8 encoding.
+	 * 
+	 * @param buffer
+	 *            the buffer to be validated
+	 * @param from
+	 *            the index of the first byte
+	 * @param to
+	 *            the index after the last byte
+	 * 
+	 * @return {@code to} if the bytes are valid, the index of the last
+	 *         character if the bytes are valid but end with an incomplete
+	 *         character, or {@code -1} if the bytes are invalid
+	 */
+	protected static int validateUtf8(final ByteBuffer buffer, final int from,
+			final int to) {
+		int i = from;
+		while (i < to) {
+
+			// skip eight ASCII characters at once
+			for (final int end = to - 7; i < end; i += 8) {
+				if ((buffer.getLong(i) & ASCII_MASK) != 0) {
+					break;
+				}
+			}
+			if (i >= to) {
+				break;
+			}
+
+			final int b = buffer.get(i) & 0xFF;
+			if (b < 0x80) {
+				i++;
+				continue;
+			}
+
+			// determine the length and the range of the second byte
+			final int length;
+			int lo = 0x80, hi = 0xBF;
+			if (b < 0xC2) {
+				// continuation byte or overlong two byte sequence
+				return -1;
+			} else if (b < 0xE0) {
+				length = 2;
+			} else if (b < 0xF0) {
+				length = 3;
+				if (b == 0xE0) {
+					lo = 0xA0;
+				} else if (b == 0xED) {
+					hi = 0x9F;
+				}
+			} else if (b < 0xF5) {
+				length = 4;
+				if (b == 0xF0) {
+					lo = 0x90;
+				} else if (b == 0xF4) {
+					hi = 0x8F;
+				}
+			} else {
+				return -1;
+			}
+
+			// validate the available continuation bytes
+			final int end = Math.min(i + length, to);
+			for (int j = i + 1; j < end; j++) {
+				final int c = buffer.get(j) & 0xFF;
+				if (c < lo || c > hi) {
+					return -1;
+				}
+				lo = 0x80;
+				hi = 0xBF;
+			}
+
+			if (i + length > to) {
+				return i;
+			}
+			i += length;
+		}
+
+		return to;
+	}
+}
@@ -12,12 +12,13 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.FileNameMap;
 import java.net.URI;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -25,11 +26,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.function.BiPredicate;
 import java.util.regex.Pattern;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 /**
  * Utility class which provides standard functionalities concerning {@link File}
@@ -346,21 +350,9 @@ public class Files {
             return new ArrayList<>();
         }
 
-        // create a filter
-        final FileFilter filter = new FileFilter() {
-
-            private final String dirRegEx = transformFileNameIntoValidRegEx(getCanonicalPath(dir));
-
-            @Override
-            public boolean accept(final File file) {
-                final String filePath = Files.getCanonicalPath(file);
-                final String subFilePath = filePath.replaceFirst(dirRegEx, "");
-
-                return searchPattern.matcher(subFilePath).matches();
-            }
-        };
-
-        return getFilelist(dir, fileList, filter);
+        // match the path relative to the directory, without resolving it
+        final Path root = dir.toPath();
+        return getFilelist(dir, fileList, DirectoryWalker.pattern(root, searchPattern));
     }
 
     /**
@@ -432,36 +424,83 @@ public class Files {
      * @return the {@link List} of all files within the directory or a
      * subdirectory
      */
-    public static List<File> getFilelist(final File dir, List<File> fileList,
+    public static List<File> getFilelist(final File dir, final List<File> fileList,
                                          final FileFilter filter) {
-        if (fileList == null) {
-            fileList = new ArrayList<>();
-        }
+        return getFilelist(dir, fileList, filter == null ? null
+                : (path, attrs) -> filter.accept(path.toFile()));
+    }
 
-        if (!dir.exists()) {
-            return fileList;
+    private static List<File> getFilelist(final File dir, final List<File> fileList,
+                                          final BiPredicate<Path, BasicFileAttributes> filter) {
+        final List<File> result = fileList == null ? new ArrayList<>() : fileList;
+
+        // symbolic links are followed like by File.isDirectory
+        final DirectoryWalker walker = new DirectoryWalker(dir.toPath(),
+                Integer.MAX_VALUE, filter, false, true);
+        try {
+            walker.forEachRemaining(path -> result.add(path.toFile()));
+        } finally {
+            walker.close();
         }
 
-        // check sub-directories or add the file
-        if (dir.isDirectory()) {
-            final String[] children = dir.list();
-            if (children == null) {
-                return fileList;
-            }
+        return result;
+    }
 
-            for (final String child : children) {
-                final File file = new File(dir, child);
-                fileList = getFilelist(file, fileList, filter);
-            }
-        } else {
+    /**
+     * Creates a lazy {@code Stream} of the files and directories of the tree of
+     * the specified {@code dir}. In contrast to {@link #getFilelist(File, List)}
+     * the directories are read while the stream is consumed and the attributes
+     * of each entry are read once, i.e. the {@code filter} gets them without
+     * accessing the file-system again. The stream should be closed if it is not
+     * consumed completely.
+     *
+     * @param dir      the directory to walk
+     * @param maxDepth the maximal depth of the entries, i.e. {@code 1} for the
+     *                 entries of the {@code dir} only
+     * @param filter   the filter of the entries, can be {@code null} to accept
+     *                 all entries
+     * @param parallel {@code true} to traverse the sub-directories concurrently
+     * @return the stream of the entries
+     * @see DirectoryWalker
+     */
+    public static Stream<Path> walk(final File dir, final int maxDepth,
+                                    final BiPredicate<Path, BasicFileAttributes> filter,
+                                    final boolean parallel) {
+        return DirectoryWalker.stream(dir.toPath(), maxDepth, filter, true, parallel);
+    }
 
-            // check the file against the filter
-            if (filter == null || filter.accept(dir)) {
-                fileList.add(dir);
-            }
-        }
+    /**
+     * Creates a lazy {@code Stream} of the files and directories of the tree of
+     * the specified {@code dir}, whose path relative to the {@code dir} matches
+     * the specified {@code glob}, e.g. {@code **}{@code /*.xml}.
+     *
+     * @param dir      the directory to walk
+     * @param maxDepth the maximal depth of the entries
+     * @param glob     the glob the relative paths have to match
+     * @param parallel {@code true} to traverse the sub-directories concurrently
+     * @return the stream of the entries
+     * @see DirectoryWalker#glob(Path, String)
+     */
+    public static Stream<Path> walk(final File dir, final int maxDepth,
+                                    final String glob, final boolean parallel) {
+        return walk(dir, maxDepth, DirectoryWalker.glob(dir.toPath(), glob), parallel);
+    }
 
-        return fileList;
+    /**
+     * Creates a lazy {@code Stream} of the files and directories of the tree of
+     * the specified {@code dir}, whose path relative to the {@code dir} (e.g.
+     * {@code /sub/file.xml}) matches the specified {@code pattern}.
+     *
+     * @param dir      the directory to walk
+     * @param maxDepth the maximal depth of the entries
+     * @param pattern  the pattern the relative paths have to match
+     * @param parallel {@code true} to traverse the sub-directories concurrently
+     * @return the stream of the entries
+     * @see DirectoryWalker#pattern(Path, Pattern)
+     */
+    public static Stream<Path> walk(final File dir, final int maxDepth,
+                                    final Pattern pattern, final boolean parallel) {
+        return walk(dir, maxDepth, DirectoryWalker.pattern(dir.toPath(), pattern), parallel);
     }
 
     /**
@@ -729,36 +768,11 @@ public class Files {
      * @param destDir   the destination directory
      * @param truncater the path the specified files should be truncated by
      * @throws IOException if a file cannot be read or written
+     * @see CopyEngine#copyFiles(Collection, File, File)
      */
     public static void copyFiles(final Collection<File> files,
                                  final File destDir, final File truncater) throws IOException {
-
-        if (truncater == null || !truncater.isDirectory()) {
-            throw new IllegalArgumentException("The passed truncater '"
-                    + truncater + "' is null or not a directory.");
-        }
-
-        final String truncaterPath = getCanonicalPath(truncater);
-        final String regEx = "^" + Pattern.quote(truncaterPath);
-
-        for (final File file : files) {
-
-            if (!file.isFile()) {
-                continue;
-            }
-
-            // truncate the part
-            final String filePath = getCanonicalPath(file.getParent());
-            final File destFolder = new File(destDir, filePath.replaceAll(
-                    regEx, ""));
-            checkDirectory(getCanonicalPath(destFolder), true);
-
-            // determine the destination
-            final File destFile = new File(destFolder, file.getName());
-
-            // copy the file
-            copyFile(file, destFile);
-        }
+        CopyEngine.copyFiles(files, destDir, truncater);
     }
 
     /**
@@ -767,17 +781,11 @@ public class Files {
      * @param files   the files to be copied
      * @param destDir the destination directory
      * @throws IOException if a file cannot be read or written
+     * @see CopyEngine#copyFiles(Collection, File)
      */
     public static void copyFiles(final Collection<File> files,
                                  final File destDir) throws IOException {
-        for (final File file : files) {
-
-            // determine the destination
-            final File destFile = new File(destDir, file.getName());
-
-            // copy the file
-            copyFile(file, destFile);
-        }
+        CopyEngine.copyFiles(files, destDir);
     }
 
     /**
@@ -786,53 +794,51 @@ public class Files {
      * @param sourceDir the source directory to be copied
      * @param destDir   the destination directory to copy to
      * @throws IOException if an error occurs
+     * @see CopyEngine#copyDirectory(File, File)
      */
     public static void copyDirectory(final File sourceDir, final File destDir)
             throws IOException {
+        CopyEngine.copyDirectory(sourceDir, destDir);
+    }
 
-        if (sourceDir.isDirectory()) {
-
-            // if directory not exists, create it
-            if (!destDir.exists() && !destDir.mkdir()) {
-                throw new IOException("Unable to create directory '" + destDir + "'.");
-            }
-
-            // list all the directory contents
-            final String files[] = sourceDir.list();
-            if (files == null) {
-                return;
-            }
-
-            for (final String file : files) {
-
-                // construct the src and dest file structure
-                final File srcFile = new File(sourceDir, file);
-                final File destFile = new File(destDir, file);
-
-                // recursive copy
-                copyDirectory(srcFile, destFile);
-            }
-
-        } else {
-            copyFile(sourceDir, destDir);
-        }
+    /**
+     * Copies the <code>sourceDir</code> to the <code>destDir</code> using
+     * {@code parallelism} threads. The directories are created first, the
+     * files are copied concurrently afterwards. In contrast to
+     * {@link #copyDirectory(File, File)} the copy does not stop at the first
+     * file, which cannot be copied, instead the files are reported by the
+     * returned result.
+     *
+     * @param sourceDir          the source directory to be copied
+     * @param destDir            the destination directory to copy to
+     * @param parallelism        the maximal amount of files copied concurrently
+     * @param preserveAttributes {@code true} to keep the times of the files and
+     *                           directories, otherwise {@code false}
+     * @return the result of the copy, including the files, which could not be
+     * copied
+     * @throws IOException if the directory tree cannot be walked
+     * @see CopyEngine#copyTree(File, File, int, boolean)
+     */
+    public static CopyTreeResult copyDirectory(final File sourceDir, final File destDir,
+                                               final int parallelism,
+                                               final boolean preserveAttributes)
+            throws IOException {
+        return CopyEngine.copyTree(sourceDir, destDir, parallelism, preserveAttributes);
     }
 
     /**
-     * Copies the <code>sourceFile</code> to the <code>destFile</code>
+     * Copies the <code>sourceFile</code> to the <code>destFile</code>. The
+     * bytes are transferred between the channels of the files, i.e. without
+     * passing them through the heap.
      *
      * @param sourceFile the file to be copied
      * @param destFile   the destination file to copy to
      * @throws IOException if an error occurs
+     * @see CopyEngine#copy(File, File)
      */
     public static void copyFile(final File sourceFile, final File destFile)
             throws IOException {
-
-        // use bytes stream to support all file types
-        final InputStream in = new FileInputStream(sourceFile);
-
-        // copy the stream
-        copyStreamToFile(in, destFile);
+        CopyEngine.copy(sourceFile, destFile);
     }
 
     /**
@@ -857,25 +863,18 @@ public class Files {
      *                     is successfully copied; {@code true} to close the
      *                     {@code sourceStream}, otherwise {@code false}
      * @throws IOException if the file cannot be accessed
+     * @see CopyEngine#copy(InputStream, File)
      */
     public static void copyStreamToFile(final InputStream sourceStream,
                                         final File destFile, final boolean closeStream) throws IOException {
 
-        // use bytes stream to support all file types
-        final OutputStream out = new FileOutputStream(destFile);
-
         // copy the file content in bytes
-        final byte[] buffer = new byte[1024];
-        int length;
-        while ((length = sourceStream.read(buffer)) > 0) {
-            out.write(buffer, 0, length);
-        }
+        CopyEngine.copy(sourceStream, destFile);
 
         // write the information
         if (closeStream) {
             Streams.closeIO(sourceStream);
         }
-        Streams.closeIO(out);
     }
 
     /**
@@ -936,53 +935,57 @@ public class Files {
     }
 
     /**
-     * Zips a specific directory and all it sub-directories
+     * Unzippes the specified {@code zipFile} to the specified
+     * {@code outputDest} using {@code parallelism} threads. The central
+     * directory of the archive is read and the entries are inflated
+     * concurrently.
+     *
+     * @param zipFile     the file to be unzipped
+     * @param outputDest  the destination to locate to
+     * @param parallelism the amount of threads inflating the entries
+     * @return the result of the extraction
+     * @throws IOException if the file cannot be unzipped
+     * @see ParallelZip#unzip(File, File, int)
+     */
+    public static CopyResult unzip(final File zipFile, final File outputDest,
+                                   final int parallelism) throws IOException {
+        return ParallelZip.unzip(zipFile, outputDest, parallelism);
+    }
+
+    /**
+     * Zips a specific directory and all it sub-directories using
+     * {@code parallelism} threads, which deflate the entries concurrently.
+     *
+     * @param sourceDir   the source directory, which should be zipped
+     * @param zipFile     the zip-file to be created
+     * @param parallelism the amount of threads deflating the entries
+     * @param level       the compression level, i.e. {@code 0} to {@code 9}
+     *                    or {@code -1} for the default level
+     * @throws IOException if the directory cannot be accessed or the zip-file cannot be
+     *                     created
+     * @see ParallelZip#zip(File, File, int, int)
+     */
+    public static void zipDirectory(final File sourceDir, final File zipFile,
+                                    final int parallelism, final int level)
+            throws IOException {
+        ParallelZip.zip(sourceDir, zipFile, parallelism, level);
+    }
+
+    /**
+     * Zips a specific directory and all it sub-directories. The names of the
+     * entries are the paths relative to the {@code sourceDir} using {@code /}
+     * as separator.
      *
      * @param sourceDir the source directory, which should be zipped
      * @param zipFile   the zip-file to be created
      * @throws IOException if the directory cannot be accessed or the zip-file cannot be
      *                     created
+     * @see ParallelZip#zipSequentially(File, File, int)
      */
     public static void zipDirectory(final File sourceDir, final File zipFile)
             throws IOException {
-
-        // create a buffer for the files
-        final byte[] readBuffer = new byte[1024];
-        int bytesIn;
-
-        // get all the files to be zipped
-        final List<File> files = getDirectoryContent(sourceDir);
-        final String fullPath = getCanonicalPath(sourceDir.getPath());
-
-        // open the ZipStream
-        final ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(
-                zipFile));
-        for (final File file : files) {
-
-            // create the entry
-            final String entry = getCanonicalPath(file).replaceAll(
-                    "^" + Pattern.quote(fullPath), "");
-
-            if (file.isFile()) {
-                zos.putNextEntry(new ZipEntry(entry));
-
-                // create a stream for the file
-                final FileInputStream fis = new FileInputStream(file);
-
-                // now write the content of the file to the ZipOutputStream
-                while ((bytesIn = fis.read(readBuffer)) != -1) {
-                    zos.write(readBuffer, 0, bytesIn);
-                }
-
-                // close the Stream
-                Streams.closeIO(fis);
-            } else {
-                zos.putNextEntry(new ZipEntry(entry + "/"));
-            }
-        }
-
-        // finalize the zip archive
-        zos.close();
+        ParallelZip.zipSequentially(sourceDir, zipFile,
+                Deflater.DEFAULT_COMPRESSION);
     }
 
     /**
@@ -1074,6 +1077,61 @@ public class Files {
         return data;
     }
 
+    /**
+     * Creates a lazy {@code Stream} of the lines of the specified {@code file}.
+     * In contrast to {@link #readFromFile(File, String)} the file is not read
+     * into memory, it is mapped and its lines are decoded while the stream is
+     * consumed. The encoding is detected once using the beginning of the file.
+     * A parallel stream processes chunks of the file, which are aligned to line
+     * breaks, concurrently. The stream should be closed after it is consumed.
+     *
+     * @param file            the file to read the lines from
+     * @param defaultEncoding the encoding used if the encoding cannot be
+     *                        detected, can be {@code null} to use the system's
+     *                        default encoding
+     * @param parallel        {@code true} to process chunks of the file
+     *                        concurrently
+     * @return the stream of the lines
+     * @throws IOException if the file cannot be read
+     * @see LineSpliterator
+     */
+    public static Stream<String> lines(final File file, final String defaultEncoding,
+                                       final boolean parallel) throws IOException {
+        return LineSpliterator.stream(file, defaultEncoding, parallel);
+    }
+
+    /**
+     * Processes the lines of the specified {@code file} concurrently using the
+     * {@code collector}. The lines of each chunk of the file are accumulated
+     * into an own result, the results are combined in the order of the chunks,
+     * or as they are available if the {@code collector} is
+     * {@link Collector.Characteristics#UNORDERED}.
+     *
+     * @param file            the file to read the lines from
+     * @param defaultEncoding the encoding used if the encoding cannot be
+     *                        detected, can be {@code null} to use the system's
+     *                        default encoding
+     * @param collector       the collector accumulating and combining the lines
+     * @param <R>             the type of the result
+     * @return the result of the {@code collector}
+     * @throws IOException if the file cannot be read
+     * @see #lines(File, String, boolean)
+     */
+    public static <R> R processLines(final File file, final String defaultEncoding,
+                                     final Collector<? super String, ?, R> collector)
+            throws IOException {
+        final Stream<String> lines = lines(file, defaultEncoding, true);
+        try {
+            if (collector.characteristics().contains(Collector.Characteristics.UNORDERED)) {
+                return lines.unordered().collect(collector);
+            } else {
+                return lines.collect(collector);
+            }
+        } finally {
+            lines.close();
+        }
+    }
+
     /**
      * Removes the extension (if there is one) from the specified
      * <code>File</code>. It is not checked if the passed <code>file</code>
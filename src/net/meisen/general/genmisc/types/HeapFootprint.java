@@ -0,0 +1,585 @@
+package net.meisen.general.genmisc.types;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Estimator of the size of instances on the heap. The shallow size of an
+ * instance is determined by the layout of its fields (using the offsets of
+ * the fields if available), the size of the object header, the size of
+ * references (i.e. if compressed oops are used) and the alignment of the
+ * JVM. The deep size is the sum of the shallow sizes of all the instances
+ * reachable from an instance, whereby instances referred to several times are
+ * counted once and classes and enum constants are not counted at all.<br/>
+ * <br/>
+ * The layout of each class is determined once and cached. Arrays of
+ * references exceeding a threshold are sampled, i.e. only a subset of the
+ * elements is traversed and the size of the remaining elements is
+ * extrapolated (see {@link #HeapFootprint(int, int)}).<br/>
+ * <br/>
+ * Since Java 9 the fields of the classes of the JDK cannot be accessed, i.e.
+ * the instances referred to by such fields cannot be traversed. The sizes of
+ * strings, big numbers, collections and maps are therefore estimated using
+ * their public methods, i.e. the size of the internal structure (e.g. the
+ * table of a {@code HashMap}) is estimated and the elements are traversed.
+ * For any other class of the JDK (e.g. {@code Date}) the fields, which
+ * cannot be accessed, are not traversed, i.e. only the shallow size of the
+ * instance and the instances referred to by the accessible fields are
+ * counted. The deep size of an instance of any other class with fields,
+ * which cannot be accessed (e.g. of a class within a named module), cannot
+ * be estimated and an {@code IllegalStateException} is thrown.
+ * 
+ * @author pmeisen
+ * 
+ * @see Streams#objectFootprint(Object)
+ */
+public class HeapFootprint {
+	/**
+	 * The default length of an array, from which on the elements are sampled
+	 */
+	public static final int DEFAULT_SAMPLING_THRESHOLD = 10000;
+	/**
+	 * The default amount of elements sampled of a large array
+	 */
+	public static final int DEFAULT_SAMPLE_SIZE = 1000;
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final MethodType GETTER = MethodType.methodType(
+			Object.class, Object.class);
+
+	private final int samplingThreshold;
+	private final int sampleSize;
+	private final Object unsafe;
+	private final boolean compressedOops;
+	private final int referenceSize;
+	private final int objectHeaderSize;
+	private final int arrayHeaderSize;
+	private final int alignment;
+	private final ClassValue<Layout> layouts;
+
+	/**
+	 * The layout of the instances of a class, i.e. the size of an instance or
+	 * the header and element size of an array.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	private static class Layout {
+		private final long shallowSize;
+		private final int elementSize;
+		private final MethodHandle[] references;
+		private final Field inaccessible;
+
+		public Layout(final long shallowSize, final int elementSize,
+				final MethodHandle[] references, final Field inaccessible) {
+			this.shallowSize = shallowSize;
+			this.elementSize = elementSize;
+			this.references = references;
+			this.inaccessible = inaccessible;
+		}
+	}
+
+	/**
+	 * Helper to determine the size of the object header, i.e. the offset of
+	 * the first field.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	@SuppressWarnings("unused")
+	private static class HeaderProbe {
+		private byte probe;
+	}
+
+	/**
+	 * Creates an estimator sampling arrays with at least
+	 * {@link #DEFAULT_SAMPLING_THRESHOLD} elements.
+	 */
+	public HeapFootprint() {
+		this(DEFAULT_SAMPLING_THRESHOLD, DEFAULT_SAMPLE_SIZE);
+	}
+
+	/**
+	 * Creates an estimator sampling arrays with at least
+	 * {@code samplingThreshold} elements.
+	 * 
+	 * @param samplingThreshold
+	 *            the length of an array, from which on the elements are
+	 *            sampled, {@link Integer#MAX_VALUE} to traverse all the
+	 *            elements
+	 * @param sampleSize
+	 *            the amount of elements sampled of a large array
+	 */
+	public HeapFootprint(final int samplingThreshold, final int sampleSize) {
+		if (sampleSize < 1) {
+			throw new IllegalArgumentException(
+					"The sample size must be at least 1.");
+		} else if (samplingThreshold < sampleSize) {
+			throw new IllegalArgumentException(
+					"The sampling threshold cannot be smaller than the sample size.");
+		}
+
+		this.samplingThreshold = samplingThreshold;
+		this.sampleSize = sampleSize;
+		this.unsafe = getUnsafe();
+
+		// determine the layout of the JVM
+		final boolean is64Bit = !"32".equals(System
+				.getProperty("sun.arch.data.model"));
+		final Object alignmentOption = getVMOption("ObjectAlignmentInBytes");
+		this.alignment = alignmentOption == null ? 8 : Integer
+				.parseInt(alignmentOption.toString());
+
+		if (unsafe != null) {
+			this.referenceSize = (int) unsafeInvoke("arrayIndexScale",
+					Object[].class);
+			this.objectHeaderSize = (int) unsafeFieldOffset(getProbe());
+			this.arrayHeaderSize = (int) unsafeInvoke("arrayBaseOffset",
+					Object[].class);
+		} else {
+			final Object oopsOption = getVMOption("UseCompressedOops");
+			final Object classOption = getVMOption("UseCompressedClassPointers");
+			final boolean compressedClasses;
+			if (!is64Bit) {
+				this.referenceSize = 4;
+				compressedClasses = false;
+			} else if (oopsOption == null) {
+				this.referenceSize = Runtime.getRuntime().maxMemory() < 32l * 1024 * 1024 * 1024 ? 4
+						: 8;
+				compressedClasses = referenceSize == 4;
+			} else {
+				this.referenceSize = Boolean.parseBoolean(oopsOption
+						.toString()) ? 4 : 8;
+				compressedClasses = classOption == null ? referenceSize == 4
+						: Boolean.parseBoolean(classOption.toString());
+			}
+
+			this.objectHeaderSize = !is64Bit ? 8 : compressedClasses ? 12 : 16;
+			this.arrayHeaderSize = (int) align(objectHeaderSize + 4,
+					referenceSize);
+		}
+		this.compressedOops = is64Bit && referenceSize == 4;
+
+		this.layouts = new ClassValue<Layout>() {
+
+			@Override
+			protected Layout computeValue(final Class<?> clazz) {
+				return createLayout(clazz);
+			}
+		};
+	}
+
+	private static Object getUnsafe() {
+		try {
+			final Field field = Class.forName("sun.misc.Unsafe")
+					.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			return field.get(null);
+		} catch (final Exception e) {
+			return null;
+		}
+	}
+
+	private static Field getProbe() {
+		try {
+			return HeaderProbe.class.getDeclaredField("probe");
+		} catch (final NoSuchFieldException e) {
+			throw new IllegalStateException("Unable to find probe.", e);
+		}
+	}
+
+	private static Object getVMOption(final String name) {
+		try {
+			final MBeanServer server = ManagementFactory
+					.getPlatformMBeanServer();
+			final CompositeData option = (CompositeData) server.invoke(
+					new ObjectName("com.sun.management:type=HotSpotDiagnostic"),
+					"getVMOption", new Object[] { name },
+					new String[] { String.class.getName() });
+
+			return option.get("value");
+		} catch (final Exception e) {
+			return null;
+		}
+	}
+
+	private long unsafeInvoke(final String method, final Class<?> arrayClass) {
+		try {
+			final Method m = unsafe.getClass().getMethod(method, Class.class);
+			return ((Number) m.invoke(unsafe, arrayClass)).longValue();
+		} catch (final Exception e) {
+			throw new IllegalStateException("Unable to invoke '" + method
+					+ "'.", e);
+		}
+	}
+
+	private long unsafeFieldOffset(final Field field) {
+		try {
+			final Method m = unsafe.getClass().getMethod("objectFieldOffset",
+					Field.class);
+			return ((Number) m.invoke(unsafe, field)).longValue();
+		} catch (final Exception e) {
+			throw new IllegalStateException("Unable to determine offset of '"
+					+ field + "'.", e);
+		}
+	}
+
+	private static long align(final long size, final int alignment) {
+		return (size + alignment - 1) / alignment * alignment;
+	}
+
+	private int sizeOf(final Class<?> type) {
+		if (!type.isPrimitive()) {
+			return referenceSize;
+		} else if (long.class.equals(type) || double.class.equals(type)) {
+			return 8;
+		} else if (int.class.equals(type) || float.class.equals(type)) {
+			return 4;
+		} else if (short.class.equals(type) || char.class.equals(type)) {
+			return 2;
+		} else {
+			return 1;
+		}
+	}
+
+	private Layout createLayout(final Class<?> clazz) {
+		if (clazz.isArray()) {
+			final Class<?> componentType = clazz.getComponentType();
+			final long header;
+			if (unsafe != null) {
+				header = unsafeInvoke("arrayBaseOffset", clazz);
+			} else if (componentType.isPrimitive()
+					&& sizeOf(componentType) < 8) {
+				header = objectHeaderSize + 4;
+			} else {
+				header = arrayHeaderSize;
+			}
+
+			return new Layout(header, sizeOf(componentType), null, null);
+		}
+
+		long end = objectHeaderSize;
+		long sum = objectHeaderSize;
+
+		final List<MethodHandle> references = new ArrayList<MethodHandle>();
+		Field inaccessible = null;
+		for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+			for (final Field field : c.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+
+				// determine the end of the field
+				final int size = sizeOf(field.getType());
+				if (unsafe != null) {
+					end = Math.max(end, unsafeFieldOffset(field) + size);
+				}
+				sum += size;
+
+				// get the accessor of references
+				if (!field.getType().isPrimitive()) {
+					try {
+						field.setAccessible(true);
+						references.add(LOOKUP.unreflectGetter(field).asType(
+								GETTER));
+					} catch (final Exception e) {
+						inaccessible = inaccessible == null ? field
+								: inaccessible;
+					}
+				}
+			}
+		}
+
+		final long shallowSize = align(unsafe == null ? sum : end, alignment);
+		return new Layout(shallowSize, 0,
+				references.toArray(new MethodHandle[references.size()]),
+				inaccessible);
+	}
+
+	/**
+	 * Gets the size of the object header in bytes.
+	 * 
+	 * @return the size of the object header
+	 */
+	public int getObjectHeaderSize() {
+		return objectHeaderSize;
+	}
+
+	/**
+	 * Gets the size of the header of an array in bytes, i.e. the offset of the
+	 * first element of an array of references.
+	 * 
+	 * @return the size of the header of an array
+	 */
+	public int getArrayHeaderSize() {
+		return arrayHeaderSize;
+	}
+
+	/**
+	 * Gets the size of a reference in bytes.
+	 * 
+	 * @return the size of a reference
+	 */
+	public int getReferenceSize() {
+		return referenceSize;
+	}
+
+	/**
+	 * Gets the alignment of instances in bytes.
+	 * 
+	 * @return the alignment of instances
+	 */
+	public int getAlignment() {
+		return alignment;
+	}
+
+	/**
+	 * Checks if the JVM uses compressed references.
+	 * 
+	 * @return {@code true} if compressed references are used, otherwise
+	 *         {@code false}
+	 */
+	public boolean isCompressedOops() {
+		return compressedOops;
+	}
+
+	/**
+	 * Gets the size of an instance of the specified {@code clazz} without
+	 * the instances referred to.
+	 * 
+	 * @param clazz
+	 *            the class to get the size of an instance for, cannot be an
+	 *            array class
+	 * 
+	 * @return the size of an instance in bytes
+	 * 
+	 * @see #arraySize(Class, int)
+	 */
+	public long shallowSize(final Class<?> clazz) {
+		if (clazz.isArray()) {
+			throw new IllegalArgumentException(
+					"The size of an array depends on its length.");
+		}
+
+		return layouts.get(clazz).shallowSize;
+	}
+
+	/**
+	 * Gets the size of an array of the specified {@code arrayClass} and
+	 * {@code length}, without the instances referred to.
+	 * 
+	 * @param arrayClass
+	 *            the class of the array
+	 * @param length
+	 *            the length of the array
+	 * 
+	 * @return the size of the array in bytes
+	 */
+	public long arraySize(final Class<?> arrayClass, final int length) {
+		if (!arrayClass.isArray()) {
+			throw new IllegalArgumentException("The class '"
+					+ arrayClass.getName() + "' is not an array.");
+		}
+
+		final Layout layout = layouts.get(arrayClass);
+		return align(layout.shallowSize + (long) length * layout.elementSize,
+				alignment);
+	}
+
+	/**
+	 * Gets the size of the specified {@code o} without the instances referred
+	 * to.
+	 * 
+	 * @param o
+	 *            the instance to get the size for
+	 * 
+	 * @return the size of the instance in bytes, {@code 0} if {@code null} is
+	 *         passed
+	 */
+	public long shallowSize(final Object o) {
+		if (o == null) {
+			return 0;
+		}
+
+		final Class<?> clazz = o.getClass();
+		if (clazz.isArray()) {
+			return arraySize(clazz, Array.getLength(o));
+		} else {
+			return shallowSize(clazz);
+		}
+	}
+
+	/**
+	 * Estimates the size of the specified {@code o} including all the
+	 * instances reachable from it. Large arrays of references are sampled.
+	 * 
+	 * @param o
+	 *            the instance to get the size for
+	 * 
+	 * @return the estimated size in bytes, {@code 0} if {@code null} is passed
+	 * 
+	 * @throws IllegalStateException
+	 *             if a reachable instance has fields, which cannot be
+	 *             traversed (see {@link HeapFootprint})
+	 */
+	public long deepSize(final Object o) {
+		return deepSize(o,
+				Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>()));
+	}
+
+	private boolean isShared(final Object o) {
+		return o instanceof Class || o instanceof Enum;
+	}
+
+	private long deepSize(final Object root, final Set<Object> visited) {
+		if (root == null || isShared(root) || !visited.add(root)) {
+			return 0;
+		}
+
+		long size = 0;
+		final Deque<Object> pending = new ArrayDeque<Object>();
+		pending.push(root);
+		while (!pending.isEmpty()) {
+			final Object o = pending.pop();
+			final Class<?> clazz = o.getClass();
+
+			if (clazz.isArray()) {
+				final int length = Array.getLength(o);
+				size += arraySize(clazz, length);
+				if (clazz.getComponentType().isPrimitive()) {
+					continue;
+				}
+
+				final Object[] array = (Object[]) o;
+				if (length < samplingThreshold) {
+					for (final Object element : array) {
+						push(element, pending, visited);
+					}
+				} else {
+
+					// traverse a sample and extrapolate the size
+					final double stride = (double) length / sampleSize;
+					long sampled = 0;
+					for (int i = 0; i < sampleSize; i++) {
+						sampled += deepSize(array[(int) (i * stride)], visited);
+					}
+					size += (long) (sampled * stride);
+				}
+			} else {
+				final Layout layout = layouts.get(clazz);
+				size += layout.shallowSize;
+				for (final MethodHandle reference : layout.references) {
+					final Object value;
+					try {
+						value = (Object) reference.invokeExact(o);
+					} catch (final Error e) {
+						throw e;
+					} catch (final Throwable t) {
+						continue;
+					}
+					push(value, pending, visited);
+				}
+
+				if (layout.inaccessible != null) {
+					size += estimateInaccessible(o, layout, pending, visited);
+				}
+			}
+		}
+
+		return size;
+	}
+
+	/**
+	 * Estimates the size of the instances referred to by the fields of the
+	 * {@code o}, which cannot be accessed. The instances, which are reachable
+	 * through public methods, are added to the {@code pending} ones.
+	 */
+	private long estimateInaccessible(final Object o, final Layout layout,
+			final Deque<Object> pending, final Set<Object> visited) {
+		if (o instanceof String) {
+			final String s = (String) o;
+
+			// the characters are stored as Latin-1 or UTF-16 bytes
+			boolean latin1 = true;
+			for (int i = 0; i < s.length() && latin1; i++) {
+				latin1 = s.charAt(i) < 256;
+			}
+			return arraySize(byte[].class, latin1 ? s.length()
+					: 2 * s.length());
+		} else if (o instanceof BigInteger) {
+			final int bits = ((BigInteger) o).bitLength();
+			return arraySize(int[].class, (bits + 31) / 32);
+		} else if (o instanceof BigDecimal) {
+			final BigInteger unscaled = ((BigDecimal) o).unscaledValue();
+
+			// small values are stored as long without a BigInteger
+			return unscaled.bitLength() < 64 ? 0 : deepSize(unscaled, visited);
+		} else if (o instanceof Collection) {
+			final Collection<?> collection = (Collection<?>) o;
+
+			// estimate the internal structure by an array of references
+			for (final Object element : collection) {
+				push(element, pending, visited);
+			}
+			return arraySize(Object[].class, collection.size());
+		} else if (o instanceof Map) {
+			final Map<?, ?> map = (Map<?, ?>) o;
+
+			// estimate the internal structure by a table and the entries
+			int capacity = 1;
+			while (capacity * 3 < map.size() * 4) {
+				capacity <<= 1;
+			}
+			long size = arraySize(Object[].class, capacity);
+			for (final Map.Entry<?, ?> entry : map.entrySet()) {
+				size += shallowSize(entry);
+				push(entry.getKey(), pending, visited);
+				push(entry.getValue(), pending, visited);
+			}
+			return size;
+		} else if (isJdk(o.getClass())) {
+
+			// the internals of the JDK are not traversed
+			return 0;
+		} else {
+			throw new IllegalStateException("Unable to traverse field '"
+					+ layout.inaccessible + "', the size of '"
+					+ o.getClass().getName() + "' cannot be estimated.");
+		}
+	}
+
+	private boolean isJdk(final Class<?> clazz) {
+		final String name = clazz.getName();
+		return name.startsWith("java.") || name.startsWith("javax.")
+				|| name.startsWith("jdk.") || name.startsWith("sun.")
+				|| name.startsWith("com.sun.");
+	}
+
+	private void push(final Object o, final Deque<Object> pending,
+			final Set<Object> visited) {
+		if (o != null && !isShared(o) && visited.add(o)) {
+			pending.push(o);
+		}
+	}
+}
@@ -0,0 +1,380 @@
+package net.meisen.general.genmisc.types;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@code Spliterator} of the lines of a memory-mapped file. The encoding of
+ * the file is detected once (see
+ * {@link Streams#detectEncoding(java.io.InputStream, String)}), the lines are
+ * decoded while the file is traversed, i.e. only the mapped region and the
+ * current line are held in memory.<br/>
+ * <br/>
+ * The spliterator is split by dividing its byte range at the first line break
+ * after the middle, i.e. the chunks of a parallel stream (see
+ * {@link #stream(File, String, boolean)}) are processed concurrently and the
+ * results of the chunks are combined by the collector, in the order of the
+ * lines or unordered. A line is terminated by a line feed ({@code \n}) or a
+ * carriage return followed by a line feed ({@code \r\n}).
+ * 
+ * @author pmeisen
+ * 
+ * @see Files#lines(File, String, boolean)
+ */
+public class LineSpliterator implements Spliterator<String>, Closeable {
+	/**
+	 * The default minimal amount of bytes of a chunk to be split further
+	 */
+	public static final int DEFAULT_MIN_SPLIT_SIZE = 1024 * 1024;
+
+	private static final int REGION_SIZE = 64 * 1024 * 1024;
+	private static final int SCAN_SIZE = 64 * 1024;
+	private static final long ONES = 0x0101010101010101l;
+	private static final long HIGHS = 0x8080808080808080l;
+
+	private final FileChannel channel;
+	private final Charset charset;
+	private final byte[] lineFeed;
+	private final byte[] carriageReturn;
+	private final long start;
+	private final int minSplitSize;
+
+	private long pos;
+	private long end;
+	private MappedByteBuffer region;
+	private long regionOffset;
+	private CharsetDecoder decoder;
+
+	/**
+	 * Creates a spliterator of the lines of the specified {@code file}.
+	 * 
+	 * @param file
+	 *            the file to read the lines from
+	 * @param defaultEncoding
+	 *            the encoding used if the encoding cannot be detected, can be
+	 *            {@code null} to use the system's default encoding
+	 * @param minSplitSize
+	 *            the minimal amount of bytes of a chunk to be split further
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	public LineSpliterator(final File file, final String defaultEncoding,
+			final int minSplitSize) throws IOException {
+		if (minSplitSize < 1) {
+			throw new IllegalArgumentException(
+					"The minimal split size must be at least 1.");
+		}
+
+		// detect the encoding once, ASCII is read as UTF-8 (i.e. a superset)
+		final FileInputStream in = new FileInputStream(file);
+		final String encoding;
+		try {
+			encoding = Streams.detectEncoding(in, defaultEncoding)
+					.getEncoding();
+		} finally {
+			Streams.closeIO(in);
+		}
+		final Charset detected = Charset.forName(encoding);
+		this.charset = StandardCharsets.US_ASCII.equals(detected) ? StandardCharsets.UTF_8
+				: detected;
+
+		this.lineFeed = "\n".getBytes(charset);
+		this.carriageReturn = "\r".getBytes(charset);
+		if (lineFeed.length != carriageReturn.length
+				|| "\n\n".getBytes(charset).length != 2 * lineFeed.length) {
+			throw new IllegalArgumentException("The encoding '" + encoding
+					+ "' is not supported to read lines.");
+		}
+
+		this.channel = FileChannel
+				.open(file.toPath(), StandardOpenOption.READ);
+		this.minSplitSize = minSplitSize;
+		this.start = skipBom();
+		this.pos = start;
+		this.end = channel.size();
+	}
+
+	/**
+	 * Creates a spliterator of a chunk of the lines of the {@code parent}.
+	 * 
+	 * @param parent
+	 *            the spliterator the chunk is split from
+	 * @param pos
+	 *            the position of the first line of the chunk
+	 * @param end
+	 *            the position after the last line of the chunk
+	 */
+	protected LineSpliterator(final LineSpliterator parent, final long pos,
+			final long end) {
+		this.channel = parent.channel;
+		this.charset = parent.charset;
+		this.lineFeed = parent.lineFeed;
+		this.carriageReturn = parent.carriageReturn;
+		this.start = parent.start;
+		this.minSplitSize = parent.minSplitSize;
+
+		this.pos = pos;
+		this.end = end;
+	}
+
+	private long skipBom() throws IOException {
+		if (!charset.newEncoder().canEncode('\uFEFF')) {
+			return 0;
+		}
+
+		final byte[] bom = "\uFEFF".getBytes(charset);
+		final ByteBuffer head = ByteBuffer.allocate(bom.length);
+		while (head.hasRemaining() && channel.read(head, head.position()) > 0) {
+			// read the head completely
+		}
+
+		head.flip();
+
+		return ByteBuffer.wrap(bom).equals(head) ? bom.length : 0;
+	}
+
+	/**
+	 * Gets the charset used to decode the lines.
+	 * 
+	 * @return the charset used to decode the lines
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	private void map(final long offset, final long size) {
+		final long length = Math.min(size, end - offset);
+		if (length > Integer.MAX_VALUE) {
+			throw new IllegalStateException("The line at position '" + offset
+					+ "' exceeds the maximal size.");
+		}
+
+		try {
+			region = channel.map(MapMode.READ_ONLY, offset, length);
+			regionOffset = offset;
+		} catch (final IOException e) {
+			throw new IllegalStateException("Unable to read channel.", e);
+		}
+	}
+
+	private int indexOfLineFeed(final ByteBuffer buffer, final int from,
+			final int to) {
+		int i = from;
+
+		if (lineFeed.length == 1) {
+			final long pattern = ONES * (lineFeed[0] & 0xFF);
+
+			// skip eight bytes without a line feed at once
+			for (final int last = to - 7; i < last; i += 8) {
+				final long word = buffer.getLong(i) ^ pattern;
+				if (((word - ONES) & ~word & HIGHS) != 0) {
+					break;
+				}
+			}
+
+			for (; i < to; i++) {
+				if (buffer.get(i) == lineFeed[0]) {
+					return i;
+				}
+			}
+		} else {
+			for (; i <= to - lineFeed.length; i += lineFeed.length) {
+				if (matches(buffer, i, lineFeed)) {
+					return i;
+				}
+			}
+		}
+
+		return -1;
+	}
+
+	private boolean matches(final ByteBuffer buffer, final int pos,
+			final byte[] bytes) {
+		for (int k = 0; k < bytes.length; k++) {
+			if (buffer.get(pos + k) != bytes[k]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean tryAdvance(final Consumer<? super String> action) {
+		if (pos >= end) {
+			return false;
+		}
+
+		// find the end of the line within the mapped region
+		if (region == null || pos < regionOffset
+				|| pos >= regionOffset + region.limit()) {
+			map(pos, REGION_SIZE);
+		}
+		int lineEnd;
+		long next;
+		while (true) {
+			final int limit = region.limit();
+			final int idx = indexOfLineFeed(region, (int) (pos - regionOffset),
+					limit);
+
+			if (idx > -1) {
+				lineEnd = idx;
+				next = regionOffset + idx + lineFeed.length;
+				break;
+			} else if (regionOffset + limit >= end) {
+				lineEnd = limit;
+				next = end;
+				break;
+			} else {
+
+				// the line exceeds the region, map it from its start
+				map(pos, Math.max(REGION_SIZE, 2l * limit));
+			}
+		}
+		final int lineStart = (int) (pos - regionOffset);
+
+		// remove the carriage return
+		if (lineEnd - lineStart >= carriageReturn.length
+				&& matches(region, lineEnd - carriageReturn.length,
+						carriageReturn)) {
+			lineEnd -= carriageReturn.length;
+		}
+
+		// decode the line
+		if (decoder == null) {
+			decoder = charset.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		}
+		final ByteBuffer line = region.duplicate();
+		line.limit(lineEnd).position(lineStart);
+		final String value;
+		try {
+			value = decoder.decode(line).toString();
+		} catch (final CharacterCodingException e) {
+			throw new IllegalStateException("Unable to read channel.", e);
+		}
+
+		pos = next;
+		action.accept(value);
+		return true;
+	}
+
+	/**
+	 * Determines the start of the first line after the specified
+	 * {@code offset}.
+	 * 
+	 * @param offset
+	 *            the offset to start the search at, must be aligned to the
+	 *            width of a line feed
+	 * 
+	 * @return the start of the next line, or {@code end} if there is none
+	 */
+	private long nextLineStart(final long offset) {
+		long scan = offset;
+		while (scan < end) {
+			final int length = (int) Math.min(SCAN_SIZE, end - scan);
+			final MappedByteBuffer buffer;
+			try {
+				buffer = channel.map(MapMode.READ_ONLY, scan, length);
+			} catch (final IOException e) {
+				throw new IllegalStateException("Unable to read channel.", e);
+			}
+
+			final int idx = indexOfLineFeed(buffer, 0, length);
+			if (idx > -1) {
+				return scan + idx + lineFeed.length;
+			}
+			scan += length;
+		}
+
+		return end;
+	}
+
+	@Override
+	public Spliterator<String> trySplit() {
+		final long size = end - pos;
+		if (size < 2l * minSplitSize) {
+			return null;
+		}
+
+		// split at the line following the middle
+		long mid = pos + size / 2;
+		mid -= (mid - start) % lineFeed.length;
+		final long split = nextLineStart(mid);
+		if (split >= end) {
+			return null;
+		}
+
+		final LineSpliterator prefix = new LineSpliterator(this, pos, split);
+		pos = split;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return end - pos;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | NONNULL | IMMUTABLE;
+	}
+
+	/**
+	 * Closes the file of this spliterator and all the spliterators split from
+	 * it.
+	 */
+	@Override
+	public void close() {
+		Streams.closeIO(channel);
+	}
+
+	/**
+	 * Creates a lazy {@code Stream} of the lines of the specified {@code file}
+	 * . The stream should be closed after it is consumed.
+	 * 
+	 * @param file
+	 *            the file to read the lines from
+	 * @param defaultEncoding
+	 *            the encoding used if the encoding cannot be detected, can be
+	 *            {@code null} to use the system's default encoding
+	 * @param parallel
+	 *            {@code true} to process chunks of the file concurrently
+	 * 
+	 * @return the stream of the lines
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be read
+	 */
+	public static Stream<String> stream(final File file,
+			final String defaultEncoding, final boolean parallel)
+			throws IOException {
+		final LineSpliterator lines = new LineSpliterator(file,
+				defaultEncoding, DEFAULT_MIN_SPLIT_SIZE);
+
+		return StreamSupport.stream(lines, parallel).onClose(new Runnable() {
+
+			@Override
+			public void run() {
+				lines.close();
+			}
+		});
+	}
+}
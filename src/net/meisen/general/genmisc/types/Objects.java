@@ -1,10 +1,6 @@
 package net.meisen.general.genmisc.types;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
 
@@ -15,6 +11,7 @@ import java.math.BigDecimal;
  * 
  */
 public class Objects {
+	private static final DeepCopier COPIER = new DeepCopier();
 
 	/**
 	 * Checks if two objects are equal to each other, whereby to
@@ -107,7 +104,17 @@ public class Objects {
 	}
 
 	/**
-	 * Copies an <code>Object</code> using serialization
+	 * Copies an <code>Object</code> deeply, i.e. the whole graph referred to
+	 * by the <code>Object</code> is copied (see {@link DeepCopier}).<br/>
+	 * <br/>
+	 * In contrast to a copy created by serialization, <code>transient</code>
+	 * fields are copied and the serialization methods (i.e.
+	 * <code>writeReplace</code>, <code>readObject</code> and
+	 * <code>readResolve</code>) of the instances are not called. Thus, a class
+	 * relying on these methods (e.g. a singleton or a class re-creating
+	 * transient caches) must be registered as immutable (see
+	 * {@link DeepCopier#registerImmutable(Class)}) or must be copied by an own
+	 * <code>DeepCopier</code>.
 	 * 
 	 * @param orig
 	 *            the <code>Object</code> to be copied
@@ -117,32 +124,12 @@ public class Objects {
 	 * @throws IOException
 	 *             if the <code>Object</code> cannot be copied
 	 */
-	@SuppressWarnings("unchecked")
 	public static <T> T copy(final T orig) throws IOException {
-
-		// Write the object out to a byte array
-		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
-		final ObjectOutputStream out = new ObjectOutputStream(bos);
-		out.writeObject(orig);
-		out.flush();
-		Streams.closeIO(out);
-		Streams.closeIO(bos);
-
-		// Make an input stream from the byte array and read
-		// a copy of the object back in.
-		final ObjectInputStream in = new ObjectInputStream(
-				new ByteArrayInputStream(bos.toByteArray()));
-
-		// read the new object
-		Object obj = null;
 		try {
-			obj = in.readObject();
-		} catch (final ClassNotFoundException e) {
-			// cannot happen
+			return COPIER.copy(orig);
+		} catch (final IllegalStateException e) {
+			throw new IOException(e.getMessage(), e);
 		}
-		Streams.closeIO(in);
-
-		return (T) obj;
 	}
 
 	/**
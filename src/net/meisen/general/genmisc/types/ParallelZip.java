@@ -0,0 +1,609 @@
+package net.meisen.general.genmisc.types;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Utility class to create and extract zip-archives using several threads.
+ * When zipping, the entries are deflated concurrently into buffers, which are
+ * written in the order of the entries into the archive. When unzipping, the
+ * central directory of the archive is read and the entries are inflated
+ * concurrently.<br/>
+ * <br/>
+ * The amount of bytes buffered in memory is limited, i.e. the deflating of
+ * further entries waits until buffered entries are written. Files, which are
+ * too large to be buffered, are deflated by the writing thread while it
+ * writes them into the archive.<br/>
+ * <br/>
+ * The created archives do not use the ZIP64 extensions, i.e. the amount of
+ * entries and the size of the archive are limited. A directory exceeding the
+ * limits is zipped sequentially (see
+ * {@link #zipSequentially(File, File, int)}), whereby the names of the entries
+ * and the compression level are the same.
+ * 
+ * @author pmeisen
+ * 
+ * @see Files#zipDirectory(File, File, int, int)
+ * @see Files#unzip(File, File, int)
+ */
+public class ParallelZip {
+	/**
+	 * The default maximal amount of bytes of files buffered while zipping
+	 */
+	public static final long DEFAULT_MAX_BUFFERED = 64l * 1024l * 1024l;
+
+	private static final int LOCAL_HEADER = 0x04034b50;
+	private static final int CENTRAL_HEADER = 0x02014b50;
+	private static final int END_HEADER = 0x06054b50;
+	private static final int DATA_DESCRIPTOR = 0x08074b50;
+	private static final int VERSION = 20;
+	private static final int UTF8_FLAG = 0x0800;
+	private static final int DESCRIPTOR_FLAG = 0x0008;
+	private static final int MAX_ENTRIES = 0xFFFF;
+	private static final long MAX_SIZE = 0xF0000000l;
+
+	/**
+	 * An entry of an archive, i.e. the data compressed by a task and the
+	 * values needed by the central directory.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	private static class Pending {
+		private final File file;
+		private final String name;
+		private final Future<Entry> future;
+
+		private Pending(final File file, final String name,
+				final Future<Entry> future) {
+			this.file = file;
+			this.name = name;
+			this.future = future;
+		}
+	}
+
+	private static class Entry {
+		private byte[] name;
+		private int flags = UTF8_FLAG;
+		private int method;
+		private int dosTime;
+		private long crc;
+		private long size;
+		private byte[] data;
+		private int dataLength;
+		private long offset;
+		private boolean directory;
+	}
+
+	/**
+	 * Zips the content of the {@code sourceDir} into the {@code zipFile}. The
+	 * names of the entries are the paths relative to the {@code sourceDir}
+	 * using {@code /} as separator. At most {@link #DEFAULT_MAX_BUFFERED}
+	 * bytes of files are buffered.
+	 * 
+	 * @param sourceDir
+	 *            the directory to be zipped
+	 * @param zipFile
+	 *            the archive to be created
+	 * @param parallelism
+	 *            the amount of threads deflating the entries
+	 * @param level
+	 *            the compression level, i.e. {@code 0} to {@code 9} or
+	 *            {@link Deflater#DEFAULT_COMPRESSION}
+	 * 
+	 * @throws IOException
+	 *             if a file cannot be read or the archive cannot be written
+	 */
+	public static void zip(final File sourceDir, final File zipFile,
+			final int parallelism, final int level) throws IOException {
+		zip(sourceDir, zipFile, parallelism, level, DEFAULT_MAX_BUFFERED);
+	}
+
+	/**
+	 * Zips the content of the {@code sourceDir} into the {@code zipFile}. The
+	 * names of the entries are the paths relative to the {@code sourceDir}
+	 * using {@code /} as separator. The files are deflated concurrently as
+	 * long as the files buffered in memory do not exceed {@code maxBuffered}
+	 * bytes, files larger than a quarter of {@code maxBuffered} are deflated
+	 * by the writing thread without buffering them.
+	 * 
+	 * @param sourceDir
+	 *            the directory to be zipped
+	 * @param zipFile
+	 *            the archive to be created
+	 * @param parallelism
+	 *            the amount of threads deflating the entries
+	 * @param level
+	 *            the compression level, i.e. {@code 0} to {@code 9} or
+	 *            {@link Deflater#DEFAULT_COMPRESSION}
+	 * @param maxBuffered
+	 *            the maximal amount of bytes of files buffered in memory
+	 * 
+	 * @throws IOException
+	 *             if a file cannot be read or the archive cannot be written
+	 */
+	public static void zip(final File sourceDir, final File zipFile,
+			final int parallelism, final int level, final long maxBuffered)
+			throws IOException {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(
+					"The parallelism must be at least 1.");
+		} else if ((level < 0 || level > 9)
+				&& level != Deflater.DEFAULT_COMPRESSION) {
+			throw new IllegalArgumentException("The level '" + level
+					+ "' is not a valid compression level.");
+		} else if (maxBuffered < 1) {
+			throw new IllegalArgumentException(
+					"The maximal amount of buffered bytes must be at least 1.");
+		}
+
+		// determine the entries of the archive
+		final List<File> files = Files.getDirectoryContent(sourceDir);
+		long size = 0;
+		for (final File file : files) {
+			size += file.length();
+		}
+		if (files.size() > MAX_ENTRIES || size > MAX_SIZE) {
+			zipSequentially(sourceDir, zipFile, level);
+			return;
+		}
+
+		final long maxEntry = Math.max(1, maxBuffered / 4);
+		final ExecutorService executor = Executors
+				.newFixedThreadPool(parallelism);
+		final OutputStream out = new BufferedOutputStream(
+				new FileOutputStream(zipFile), 64 * 1024);
+		try {
+			final List<Entry> entries = new ArrayList<Entry>();
+			final Deque<Pending> pending = new ArrayDeque<Pending>();
+
+			long offset = 0;
+			long buffered = 0;
+			int next = 0;
+			while (next < files.size() || !pending.isEmpty()) {
+
+				// keep the deflating of the next entries running
+				while (next < files.size()
+						&& (pending.isEmpty() || buffered < maxBuffered)) {
+					final File file = files.get(next++);
+					final String name = getEntryName(sourceDir, file);
+
+					if (file.isFile() && file.length() > maxEntry) {
+
+						// large files are deflated while written
+						pending.add(new Pending(file, name, null));
+					} else {
+						buffered += file.length();
+						pending.add(new Pending(file, name, executor
+								.submit(new Callable<Entry>() {
+
+									@Override
+									public Entry call() throws IOException {
+										return deflate(file, name, level);
+									}
+								})));
+					}
+				}
+
+				// write the entries in the order of the files
+				final Pending p = pending.poll();
+				final Entry entry;
+				if (p.future == null) {
+					entry = new Entry();
+					entry.offset = offset;
+					offset += deflate(out, p.file, p.name, level, entry);
+				} else {
+					entry = get(p.future);
+					buffered -= p.file.length();
+
+					entry.offset = offset;
+					offset += writeHeader(out, LOCAL_HEADER, entry);
+					out.write(entry.data, 0, entry.dataLength);
+					offset += entry.dataLength;
+				}
+
+				entry.data = null;
+				entries.add(entry);
+			}
+
+			// write the central directory
+			final long centralOffset = offset;
+			for (final Entry entry : entries) {
+				offset += writeHeader(out, CENTRAL_HEADER, entry);
+			}
+
+			final ByteBuffer end = ByteBuffer.allocate(22).order(
+					ByteOrder.LITTLE_ENDIAN);
+			end.putInt(END_HEADER);
+			end.putShort((short) 0);
+			end.putShort((short) 0);
+			end.putShort((short) entries.size());
+			end.putShort((short) entries.size());
+			end.putInt((int) (offset - centralOffset));
+			end.putInt((int) centralOffset);
+			end.putShort((short) 0);
+			out.write(end.array());
+		} finally {
+			executor.shutdownNow();
+			Streams.closeIO(out);
+		}
+	}
+
+	/**
+	 * Zips the content of the {@code sourceDir} into the {@code zipFile}
+	 * using a single thread. The archive contains the same entries as the one
+	 * created by {@link #zip(File, File, int, int)}, but uses the ZIP64
+	 * extensions if needed, i.e. the amount of entries and the size of the
+	 * archive are not limited.
+	 * 
+	 * @param sourceDir
+	 *            the directory to be zipped
+	 * @param zipFile
+	 *            the archive to be created
+	 * @param level
+	 *            the compression level, i.e. {@code 0} to {@code 9} or
+	 *            {@link Deflater#DEFAULT_COMPRESSION}
+	 * 
+	 * @throws IOException
+	 *             if a file cannot be read or the archive cannot be written
+	 * 
+	 * @see Files#zipDirectory(File, File)
+	 */
+	public static void zipSequentially(final File sourceDir,
+			final File zipFile, final int level) throws IOException {
+		final ZipOutputStream zos = new ZipOutputStream(
+				new BufferedOutputStream(new FileOutputStream(zipFile),
+						64 * 1024));
+		try {
+			zos.setLevel(level);
+
+			for (final File file : Files.getDirectoryContent(sourceDir)) {
+				final ZipEntry entry = new ZipEntry(getEntryName(sourceDir,
+						file));
+				entry.setTime(file.lastModified());
+				zos.putNextEntry(entry);
+
+				if (file.isFile()) {
+					final FileInputStream fis = new FileInputStream(file);
+					try {
+						CopyEngine.copy(fis, zos);
+					} finally {
+						Streams.closeIO(fis);
+					}
+				}
+				zos.closeEntry();
+			}
+		} finally {
+			Streams.closeIO(zos);
+		}
+	}
+
+	/**
+	 * Gets the name of the entry of the {@code file} within an archive of the
+	 * {@code sourceDir}, i.e. the path relative to the {@code sourceDir} using
+	 * {@code /} as separator. The name of a directory ends with {@code /}.
+	 * 
+	 * @param sourceDir
+	 *            the directory zipped
+	 * @param file
+	 *            the file or directory to get the name for
+	 * 
+	 * @return the name of the entry
+	 */
+	protected static String getEntryName(final File sourceDir, final File file) {
+		final String name = sourceDir.toPath().relativize(file.toPath())
+				.toString().replace(File.separatorChar, '/');
+
+		return file.isDirectory() ? name + "/" : name;
+	}
+
+	private static Entry deflate(final File file, final String name,
+			final int level) throws IOException {
+		final Entry entry = new Entry();
+		entry.dosTime = toDosTime(file.lastModified());
+
+		if (file.isDirectory()) {
+			entry.name = name.getBytes(StandardCharsets.UTF_8);
+			entry.directory = true;
+			entry.method = ZipEntry.STORED;
+			entry.data = new byte[0];
+			return entry;
+		}
+		entry.name = name.getBytes(StandardCharsets.UTF_8);
+
+		// read the file
+		final byte[] content = new byte[(int) file.length()];
+		final InputStream in = new FileInputStream(file);
+		try {
+			int pos = 0;
+			int len;
+			while (pos < content.length
+					&& (len = in.read(content, pos, content.length - pos)) != -1) {
+				pos += len;
+			}
+			if (pos != content.length) {
+				throw new IOException("The file '" + file
+						+ "' was modified while zipping.");
+			}
+		} finally {
+			Streams.closeIO(in);
+		}
+
+		final CRC32 crc = new CRC32();
+		crc.update(content, 0, content.length);
+		entry.crc = crc.getValue();
+		entry.size = content.length;
+
+		// deflate the content, keep it if the deflating does not pay off
+		final Deflater deflater = new Deflater(level, true);
+		try {
+			deflater.setInput(content);
+			deflater.finish();
+
+			byte[] data = new byte[Math.max(64, content.length / 2)];
+			int length = 0;
+			while (!deflater.finished() && length < content.length) {
+				if (length == data.length) {
+					data = Arrays.copyOf(data, 2 * data.length);
+				}
+				length += deflater.deflate(data, length, data.length - length);
+			}
+
+			if (deflater.finished() && length < content.length) {
+				entry.method = ZipEntry.DEFLATED;
+				entry.data = data;
+				entry.dataLength = length;
+			} else {
+				entry.method = ZipEntry.STORED;
+				entry.data = content;
+				entry.dataLength = content.length;
+			}
+		} finally {
+			deflater.end();
+		}
+
+		return entry;
+	}
+
+	/**
+	 * Writes the {@code file} as deflated entry to the {@code out}, without
+	 * buffering the whole file. The local header is followed by the deflated
+	 * data and a data descriptor containing the checksum and the sizes.
+	 * 
+	 * @return the amount of bytes written
+	 */
+	private static long deflate(final OutputStream out, final File file,
+			final String name, final int level, final Entry entry)
+			throws IOException {
+		entry.name = name.getBytes(StandardCharsets.UTF_8);
+		entry.flags = UTF8_FLAG | DESCRIPTOR_FLAG;
+		entry.method = ZipEntry.DEFLATED;
+		entry.dosTime = toDosTime(file.lastModified());
+
+		long written = writeHeader(out, LOCAL_HEADER, entry);
+
+		final CRC32 crc = new CRC32();
+		final Deflater deflater = new Deflater(level, true);
+		final InputStream in = new FileInputStream(file);
+		final byte[] buffer = CopyEngine.acquire();
+		final byte[] data = new byte[64 * 1024];
+		try {
+			long size = 0;
+			long compressed = 0;
+
+			int len;
+			while ((len = in.read(buffer)) != -1) {
+				crc.update(buffer, 0, len);
+				size += len;
+
+				deflater.setInput(buffer, 0, len);
+				while (!deflater.needsInput()) {
+					final int deflated = deflater.deflate(data);
+					out.write(data, 0, deflated);
+					compressed += deflated;
+				}
+			}
+			deflater.finish();
+			while (!deflater.finished()) {
+				final int deflated = deflater.deflate(data);
+				out.write(data, 0, deflated);
+				compressed += deflated;
+			}
+
+			entry.crc = crc.getValue();
+			entry.size = size;
+			entry.dataLength = (int) compressed;
+			written += compressed;
+		} finally {
+			CopyEngine.release(buffer);
+			Streams.closeIO(in);
+			deflater.end();
+		}
+
+		// the sizes are known after the data is written
+		final ByteBuffer descriptor = ByteBuffer.allocate(16).order(
+				ByteOrder.LITTLE_ENDIAN);
+		descriptor.putInt(DATA_DESCRIPTOR);
+		descriptor.putInt((int) entry.crc);
+		descriptor.putInt(entry.dataLength);
+		descriptor.putInt((int) entry.size);
+		out.write(descriptor.array());
+
+		return written + descriptor.capacity();
+	}
+
+	private static int writeHeader(final OutputStream out, final int type,
+			final Entry entry) throws IOException {
+		final boolean central = type == CENTRAL_HEADER;
+
+		final ByteBuffer header = ByteBuffer.allocate(
+				(central ? 46 : 30) + entry.name.length).order(
+				ByteOrder.LITTLE_ENDIAN);
+		header.putInt(type);
+		if (central) {
+			header.putShort((short) VERSION);
+		}
+		header.putShort((short) VERSION);
+		header.putShort((short) entry.flags);
+		header.putShort((short) entry.method);
+		header.putInt(entry.dosTime);
+		header.putInt((int) entry.crc);
+		header.putInt(entry.dataLength);
+		header.putInt((int) entry.size);
+		header.putShort((short) entry.name.length);
+		header.putShort((short) 0);
+		if (central) {
+			header.putShort((short) 0);
+			header.putShort((short) 0);
+			header.putShort((short) 0);
+			header.putInt(entry.directory ? 0x10 : 0);
+			header.putInt((int) entry.offset);
+		}
+		header.put(entry.name);
+		out.write(header.array());
+
+		return header.capacity();
+	}
+
+	private static int toDosTime(final long time) {
+		final Calendar cal = Calendar.getInstance();
+		cal.setTimeInMillis(time);
+
+		final int year = cal.get(Calendar.YEAR);
+		if (year < 1980) {
+			return (1 << 21) | (1 << 16);
+		}
+
+		return (year - 1980) << 25 | (cal.get(Calendar.MONTH) + 1) << 21
+				| cal.get(Calendar.DAY_OF_MONTH) << 16
+				| cal.get(Calendar.HOUR_OF_DAY) << 11
+				| cal.get(Calendar.MINUTE) << 5 | cal.get(Calendar.SECOND) >> 1;
+	}
+
+	/**
+	 * Extracts the {@code zipFile} into the {@code outputDest}. The
+	 * directories are created first, the files are inflated concurrently
+	 * afterwards. Entries, which would be extracted outside of the
+	 * {@code outputDest}, are rejected.
+	 * 
+	 * @param zipFile
+	 *            the archive to be extracted
+	 * @param outputDest
+	 *            the directory to extract to, is created if it does not exist
+	 * @param parallelism
+	 *            the amount of threads inflating the entries
+	 * 
+	 * @return the result of the extraction, i.e. the amount of bytes and files
+	 *         written
+	 * 
+	 * @throws IOException
+	 *             if the archive cannot be read or a file cannot be written
+	 */
+	public static CopyResult unzip(final File zipFile, final File outputDest,
+			final int parallelism) throws IOException {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(
+					"The parallelism must be at least 1.");
+		}
+
+		final long start = System.nanoTime();
+		final String destPath = outputDest.getCanonicalPath() + File.separator;
+		final ZipFile zip = new ZipFile(zipFile);
+		final ExecutorService executor = Executors
+				.newFixedThreadPool(parallelism);
+		try {
+
+			// create the directories and determine the files
+			if (!outputDest.exists() && !outputDest.mkdirs()) {
+				throw new IOException("Unable to create directory '"
+						+ outputDest + "'.");
+			}
+			final List<Future<CopyResult>> results = new ArrayList<Future<CopyResult>>();
+			final Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				final ZipEntry entry = entries.nextElement();
+				final File file = new File(outputDest, entry.getName());
+				if (!(file.getCanonicalPath() + File.separator)
+						.startsWith(destPath)) {
+					throw new IOException("The entry '" + entry.getName()
+							+ "' is outside of the destination.");
+				}
+
+				final File dir = entry.isDirectory() ? file : file
+						.getParentFile();
+				if (!dir.exists() && !dir.mkdirs()) {
+					throw new IOException("Unable to create directory '" + dir
+							+ "'.");
+				}
+
+				if (!entry.isDirectory()) {
+					results.add(executor.submit(new Callable<CopyResult>() {
+
+						@Override
+						public CopyResult call() throws IOException {
+							final InputStream in = zip.getInputStream(entry);
+							try {
+								return CopyEngine.copy(in, file);
+							} finally {
+								Streams.closeIO(in);
+							}
+						}
+					}));
+				}
+			}
+
+			// wait for all the files
+			long bytes = 0;
+			for (final Future<CopyResult> result : results) {
+				bytes += get(result).getBytes();
+			}
+
+			return new CopyResult(bytes, System.nanoTime() - start,
+					results.size());
+		} finally {
+			executor.shutdownNow();
+			Streams.closeIO(zip);
+		}
+	}
+
+	private static <T> T get(final Future<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for an entry.", e);
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else {
+				throw new IOException("Unable to process an entry.", cause);
+			}
+		}
+	}
+}
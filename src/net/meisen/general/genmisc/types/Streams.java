@@ -16,25 +16,39 @@ import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.PushbackInputStream;
 import java.io.RandomAccessFile;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
-import java.nio.charset.MalformedInputException;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Properties;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import net.meisen.general.genmisc.resources.FileByteBufferReader;
+import net.meisen.general.genmisc.resources.FileByteBufferWriter;
+import net.meisen.general.genmisc.resources.HeapByteBufferWriter;
 import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+import net.meisen.general.genmisc.resources.MappedByteBufferReader;
 import net.meisen.general.genmisc.resources.WrappedByteBufferReader;
+import net.meisen.general.genmisc.resources.WrappedByteBufferWriter;
 import net.meisen.general.genmisc.resources.WrappedDataInputReader;
 import net.meisen.general.genmisc.resources.WrappedInputStreamReader;
+import net.meisen.general.genmisc.resources.WrappedOutputStreamWriter;
+import net.meisen.general.genmisc.types.codecs.IStreamsCodec;
+import net.meisen.general.genmisc.types.codecs.StreamsCodecs;
 import net.meisen.general.genmisc.unicode.UnicodeReader;
 
 /**
@@ -46,7 +60,8 @@ import net.meisen.general.genmisc.unicode.UnicodeReader;
 public class Streams {
 	/**
 	 * Array of classes, which have a special byte-representation (with
-	 * exception of Object).
+	 * exception of Object). Further types can be represented using the codecs
+	 * registered at the {@link StreamsCodecs}.
 	 */
 	public static final Class<?>[] BYTE_TYPES;
 	static {
@@ -74,6 +89,20 @@ public class Streams {
 	 * The size of a long within the byte representation
 	 */
 	public static final int SIZEOF_LONG = Long.SIZE / Byte.SIZE;
+	/**
+	 * The amount of bytes read to detect the encoding of a stream
+	 */
+	public static final int DEFAULT_ENCODING_SAMPLE = 64 * 1024;
+
+	/**
+	 * Holder of the {@code HeapFootprint}, which is created when needed.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	private static class FootprintHolder {
+		private static final HeapFootprint FOOTPRINT = new HeapFootprint();
+	}
 
 	private static class EncodingResult {
 		/**
@@ -122,7 +151,10 @@ public class Streams {
 	}
 
 	/**
-	 * Gets an identifier for some specific (i.e. deserializable) classes.
+	 * Gets an identifier for some specific (i.e. deserializable) classes. The
+	 * identifier is the position within the {@link #BYTE_TYPES}, or the
+	 * identifier of the codec registered at the {@link StreamsCodecs} for the
+	 * class.
 	 * 
 	 * @param clazz
 	 *            the class to get the number for
@@ -145,8 +177,272 @@ public class Streams {
 				}
 			}
 
-			// if we didn't find one return the Object.class
-			return objectClazzPos;
+			// check if there is a codec, otherwise return the Object.class
+			final byte codecId = StreamsCodecs.getId(clazz);
+			return codecId < 0 ? objectClazzPos : codecId;
+		}
+	}
+
+	/**
+	 * Gets the class represented by the specified identifier, i.e. the
+	 * inverse of {@link #getByteTypeNr(Class)}.
+	 * 
+	 * @param nr
+	 *            the identifier to get the class for
+	 * 
+	 * @return the class, or {@code null} if the identifier represents
+	 *         {@code null}
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the identifier is unknown
+	 */
+	public static Class<?> getByteType(final byte nr)
+			throws IllegalArgumentException {
+		if (nr < 0) {
+			return null;
+		} else if (nr < BYTE_TYPES.length) {
+			return BYTE_TYPES[nr];
+		}
+
+		final IStreamsCodec<?> codec = StreamsCodecs.getCodec(nr);
+		if (codec == null) {
+			throw new IllegalArgumentException(
+					"There is no codec registered with the identifier '" + nr
+							+ "'.");
+		}
+
+		return codec.getType();
+	}
+
+	/**
+	 * Gets the identifier of the compact representation of the type with the
+	 * specified identifier. The identifiers of the compact representations
+	 * are negative, i.e. {@code -2 - nr}, whereby {@code -1} represents
+	 * {@code null}.
+	 * 
+	 * @param nr
+	 *            the identifier of the type, i.e. a position within the
+	 *            {@link #BYTE_TYPES}
+	 * 
+	 * @return the identifier of the compact representation
+	 * 
+	 * @see #writeNextObject(IByteBufferWriter, Object, boolean)
+	 */
+	public static byte getCompactByteTypeNr(final byte nr) {
+		return (byte) (-2 - nr);
+	}
+
+	/**
+	 * Gets the class represented by the identifier of a compact
+	 * representation, i.e. the inverse of {@link #getCompactByteTypeNr(byte)}
+	 * .
+	 * 
+	 * @param compactNr
+	 *            the identifier of the compact representation
+	 * 
+	 * @return the class represented
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the identifier is unknown
+	 */
+	protected static Class<?> getCompactByteType(final byte compactNr)
+			throws IllegalArgumentException {
+		final int nr = -2 - compactNr;
+		if (nr < 0 || nr >= BYTE_TYPES.length) {
+			throw new IllegalArgumentException("The identifier '" + compactNr
+					+ "' is not a valid compact representation.");
+		}
+
+		return BYTE_TYPES[nr];
+	}
+
+	/**
+	 * Zigzag encodes the signed {@code value}, so that values with a small
+	 * absolute value result in small unsigned values.
+	 * 
+	 * @param value
+	 *            the value to be encoded
+	 * 
+	 * @return the encoded value
+	 */
+	public static int zigZag(final int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	/**
+	 * Zigzag encodes the signed {@code value}, so that values with a small
+	 * absolute value result in small unsigned values.
+	 * 
+	 * @param value
+	 *            the value to be encoded
+	 * 
+	 * @return the encoded value
+	 */
+	public static long zigZag(final long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	/**
+	 * Decodes a value encoded by {@link #zigZag(int)}.
+	 * 
+	 * @param value
+	 *            the encoded value
+	 * 
+	 * @return the decoded value
+	 */
+	public static int unZigZag(final int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Decodes a value encoded by {@link #zigZag(long)}.
+	 * 
+	 * @param value
+	 *            the encoded value
+	 * 
+	 * @return the decoded value
+	 */
+	public static long unZigZag(final long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Writes the {@code value} as unsigned LEB128 variable-length integer,
+	 * i.e. using 1 to 5 bytes.
+	 * 
+	 * @param writer
+	 *            the writer to write to
+	 * @param value
+	 *            the value to be written
+	 */
+	public static void writeVarInt(final IByteBufferWriter writer,
+			final int value) {
+		int v = value;
+		while ((v & ~0x7F) != 0) {
+			writer.put((byte) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		writer.put((byte) v);
+	}
+
+	/**
+	 * Writes the {@code value} as unsigned LEB128 variable-length integer,
+	 * i.e. using 1 to 10 bytes.
+	 * 
+	 * @param writer
+	 *            the writer to write to
+	 * @param value
+	 *            the value to be written
+	 */
+	public static void writeVarLong(final IByteBufferWriter writer,
+			final long value) {
+		long v = value;
+		while ((v & ~0x7Fl) != 0) {
+			writer.put((byte) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		writer.put((byte) v);
+	}
+
+	/**
+	 * Reads an integer written by
+	 * {@link #writeVarInt(IByteBufferWriter, int)}.
+	 * 
+	 * @param reader
+	 *            the reader to read from
+	 * 
+	 * @return the read value
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the bytes do not represent a valid variable-length
+	 *             integer
+	 */
+	public static int readVarInt(final IByteBufferReader reader)
+			throws IllegalArgumentException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			final byte b = reader.get();
+			value |= (b & 0x7F) << shift;
+
+			if (b >= 0) {
+				return value;
+			}
+		}
+
+		throw new IllegalArgumentException(
+				"The variable-length integer is too long.");
+	}
+
+	/**
+	 * Reads a long written by {@link #writeVarLong(IByteBufferWriter, long)}.
+	 * 
+	 * @param reader
+	 *            the reader to read from
+	 * 
+	 * @return the read value
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the bytes do not represent a valid variable-length
+	 *             integer
+	 */
+	public static long readVarLong(final IByteBufferReader reader)
+			throws IllegalArgumentException {
+		long value = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			final byte b = reader.get();
+			value |= (long) (b & 0x7F) << shift;
+
+			if (b >= 0) {
+				return value;
+			}
+		}
+
+		throw new IllegalArgumentException(
+				"The variable-length integer is too long.");
+	}
+
+	/**
+	 * Reads the value of the compact representation of an object of the
+	 * specified {@code clazz}, i.e. the bytes following the type identifier.
+	 * 
+	 * @param buffer
+	 *            the buffer to read from
+	 * @param clazz
+	 *            the type of the object to be read
+	 * 
+	 * @return the object read
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if there is no valid object in the buffer
+	 * 
+	 * @see #writeNextObject(IByteBufferWriter, Object, boolean)
+	 */
+	protected static Object readCompactObject(final IByteBufferReader buffer,
+			final Class<?> clazz) throws IllegalArgumentException {
+		try {
+			if (Short.class.equals(clazz)) {
+				return (short) unZigZag(readVarInt(buffer));
+			} else if (Integer.class.equals(clazz)) {
+				return unZigZag(readVarInt(buffer));
+			} else if (Long.class.equals(clazz)) {
+				return unZigZag(readVarLong(buffer));
+			} else if (String.class.equals(clazz)
+					|| Object.class.equals(clazz)) {
+				final byte[] bytes = new byte[readVarInt(buffer)];
+				buffer.get(bytes);
+
+				if (String.class.equals(clazz)) {
+					return Streams.byteToString(bytes);
+				} else {
+					return deserializeObject(bytes);
+				}
+			} else {
+				throw new IllegalArgumentException("The type '" + clazz
+						+ "' does not have a compact representation.");
+			}
+		} catch (final BufferUnderflowException e) {
+			throw new IllegalArgumentException(
+					"The buffer does not contain any valid object.", e);
 		}
 	}
 
@@ -157,17 +453,15 @@ public class Streams {
 	 *            the source
 	 * @param output
 	 *            the destination
+	 * 
 	 * @throws IOException
 	 *             if one of the streams cannot be read or written
+	 * 
+	 * @see CopyEngine#copy(InputStream, OutputStream)
 	 */
 	public static void copyStream(final InputStream input,
 			final OutputStream output) throws IOException {
-		byte[] buffer = new byte[8];
-
-		int len = -1;
-		while ((len = input.read(buffer)) != -1) {
-			output.write(buffer, 0, len);
-		}
+		CopyEngine.copy(input, output);
 	}
 
 	/**
@@ -370,7 +664,7 @@ public class Streams {
 
 	/**
 	 * Copies the <code>inputStream</code> into a <code>byte[]</code>. Uses a
-	 * buffer of size 4096 to copy the stream.
+	 * pooled buffer of the {@link CopyEngine} to copy the stream.
 	 * 
 	 * @param inputStream
 	 *            the <code>InputStream</code> to be copied
@@ -384,7 +678,11 @@ public class Streams {
 	 */
 	public static byte[] copyStreamToByteArray(final InputStream inputStream)
 			throws IOException {
-		return copyStreamToByteArray(inputStream, 4096);
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream(
+				Math.max(32, inputStream.available()));
+		CopyEngine.copy(inputStream, buffer);
+
+		return buffer.toByteArray();
 	}
 
 	/**
@@ -405,15 +703,7 @@ public class Streams {
 	public static byte[] copyStreamToByteArray(final InputStream inputStream,
 			final int bufferSize) throws IOException {
 		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-
-		int nRead;
-		byte[] data = new byte[bufferSize];
-
-		while ((nRead = inputStream.read(data, 0, data.length)) != -1) {
-			buffer.write(data, 0, nRead);
-		}
-		buffer.flush();
-		Streams.closeIO(buffer);
+		CopyEngine.copy(inputStream, buffer, bufferSize);
 
 		return buffer.toByteArray();
 	}
@@ -423,6 +713,10 @@ public class Streams {
 	 * no indices to guess a encoding the default encoding will be returned,
 	 * which can be <code>null</code>. If <code>null</code> is passed the
 	 * system's default encoding ( <code>file.encoding</code>) will be used.
+	 * The encoding is determined by the BOM and the first
+	 * {@link #DEFAULT_ENCODING_SAMPLE} bytes of the stream (see
+	 * {@link #detectEncoding(InputStream, String)}), the stream is closed
+	 * afterwards.
 	 * 
 	 * @param inStream
 	 *            the stream to guess the encoding of
@@ -436,40 +730,107 @@ public class Streams {
 	 */
 	public static String guessEncoding(final InputStream inStream,
 			final String defaultEncoding) throws IOException {
-		final String defEnc = defaultEncoding == null ? System.getProperty("file.encoding") : defaultEncoding;
 
 		// if we don't have any stream return the default directly
 		if (inStream == null) {
-			return defEnc;
+			return defaultEncoding == null ? System
+					.getProperty("file.encoding") : defaultEncoding;
 		}
 
-		// we read the complete file into a byte-array
-		final byte[] content = copyStreamToByteArray(inStream);
+		try {
+			return detectEncoding(inStream, defaultEncoding).getEncoding();
+		} finally {
+			closeIO(inStream);
+		}
+	}
 
-		// get the first four bytes
-		final byte[] head = new byte[4];
-		int read = -1;
-		for (int i = 0; i < 4; i++) {
-			if (content.length > i) {
-				head[i] = content[i];
-				read = i + 1;
-			} else {
-				head[i] = 0x00;
+	/**
+	 * Detects the encoding of the specified <code>inStream</code> using the
+	 * BOM and the first {@link #DEFAULT_ENCODING_SAMPLE} bytes. The returned
+	 * result provides the stream positioned at its start, i.e. the stream can
+	 * be read after the detection without copying it.
+	 * 
+	 * @param inStream
+	 *            the stream to detect the encoding of
+	 * @param defaultEncoding
+	 *            the default encoding to use, can be <code>null</code> to use
+	 *            the system's default encoding
+	 * 
+	 * @return the detected encoding and the stream positioned at its start
+	 * 
+	 * @throws IOException
+	 *             if the <code>InputStream</code> cannot be accessed
+	 * 
+	 * @see #detectEncoding(InputStream, String, int)
+	 */
+	public static DetectedEncoding detectEncoding(final InputStream inStream,
+			final String defaultEncoding) throws IOException {
+		return detectEncoding(inStream, defaultEncoding,
+				DEFAULT_ENCODING_SAMPLE);
+	}
+
+	/**
+	 * Detects the encoding of the specified <code>inStream</code> using the
+	 * BOM and the first {@code sampleSize} bytes, i.e. the stream is only
+	 * validated against a guessed encoding up to the {@code sampleSize}. If
+	 * the sample contains only US-ASCII characters, but the stream contains
+	 * further bytes, UTF-8 (i.e. the superset of US-ASCII) is detected, because
+	 * the bytes after the sample are not validated. The read bytes are pushed
+	 * back, so that the returned result provides the stream positioned at its
+	 * start.
+	 * 
+	 * @param inStream
+	 *            the stream to detect the encoding of
+	 * @param defaultEncoding
+	 *            the default encoding to use, can be <code>null</code> to use
+	 *            the system's default encoding
+	 * @param sampleSize
+	 *            the maximal amount of bytes read to detect the encoding
+	 * 
+	 * @return the detected encoding and the stream positioned at its start
+	 * 
+	 * @throws IOException
+	 *             if the <code>InputStream</code> cannot be accessed
+	 */
+	public static DetectedEncoding detectEncoding(final InputStream inStream,
+			final String defaultEncoding, final int sampleSize)
+			throws IOException {
+		if (sampleSize < 4) {
+			throw new IllegalArgumentException(
+					"The sample must contain at least 4 bytes.");
+		}
+		final String defEnc = defaultEncoding == null ? System
+				.getProperty("file.encoding") : defaultEncoding;
+
+		// read the sample
+		final PushbackInputStream stream = new PushbackInputStream(inStream,
+				sampleSize);
+		final byte[] sample = new byte[sampleSize];
+		int length = 0;
+		boolean endOfInput = false;
+		while (length < sampleSize) {
+			final int read = stream.read(sample, length, sampleSize - length);
+			if (read == -1) {
+				endOfInput = true;
+				break;
 			}
+			length += read;
 		}
 
 		// try to map the first bytes
-		final EncodingResult encResult = determineEncoding(head[0], head[1], head[2], head[3], read, defEnc);
+		final EncodingResult encResult = determineEncoding(sample[0],
+				sample[1], sample[2], sample[3], Math.min(length, 4), defEnc);
 
-		// check if we should read the content just to be sure
+		// check if we should validate the sample just to be sure
 		if (encResult.validateByContent) {
+			if (!validateEncoding(sample, length, encResult.encoding,
+					endOfInput)) {
 
-			// validate the content by reading the buffer
-			if (!validateEncoding(content, encResult.encoding)) {
+				// check if it might be UTF-8 without a BOM, otherwise use the
+				// default
 				encResult.encoding = Charset.forName("UTF-8").toString();
-
-				// check if it might be UTF-8 without a BOM, otherwise use the default
-				if (!validUTF8(content) || !validateEncoding(content, encResult.encoding)) {
+				if (!validateEncoding(sample, length, encResult.encoding,
+						endOfInput)) {
 					encResult.encoding = defEnc;
 				}
 			}
@@ -480,10 +841,17 @@ public class Streams {
 			encResult.encoding = defEnc;
 		}
 
-		// close the stream
-		closeIO(inStream);
+		// the content after an ASCII sample might not be ASCII
+		if (!endOfInput
+				&& StandardCharsets.US_ASCII.equals(Charset
+						.forName(encResult.encoding))) {
+			encResult.encoding = StandardCharsets.UTF_8.toString();
+		}
+
+		// position the stream at its start
+		stream.unread(sample, 0, length);
 
-		return encResult.encoding;
+		return new DetectedEncoding(encResult.encoding, stream);
 	}
 
 	/**
@@ -507,20 +875,56 @@ public class Streams {
 	 */
 	public static boolean validateEncoding(final byte[] content,
 			final String encoding) throws IOException {
+		return validateEncoding(content, content.length, encoding, true);
+	}
+
+	/**
+	 * Validates the first {@code length} bytes of the {@code content} against
+	 * the passed {@code encoding}. US-ASCII and UTF-8 are validated by the
+	 * {@link EncodingValidator}, other encodings are decoded in chunks, i.e.
+	 * without creating the decoded characters as a whole. If the
+	 * {@code content} is not the end of the input, an incomplete character at
+	 * the end of the {@code content} is not handled as malformed.
+	 * 
+	 * @param content
+	 *            the content to validate the {@code encoding} against
+	 * @param length
+	 *            the amount of bytes of the {@code content} to be validated
+	 * @param encoding
+	 *            the encoding to be validated
+	 * @param endOfInput
+	 *            {@code true} if the {@code content} is the end of the input
+	 * 
+	 * @return {@code true} if all the characters could be decoded, otherwise
+	 *         {@code false}
+	 */
+	protected static boolean validateEncoding(final byte[] content,
+			final int length, final String encoding, final boolean endOfInput) {
+		final Charset charset = Charset.forName(encoding);
+
+		// validate the most common encodings without decoding
+		if (StandardCharsets.US_ASCII.equals(charset)) {
+			return EncodingValidator.isAscii(content, 0, length);
+		} else if (StandardCharsets.UTF_8.equals(charset)) {
+			return EncodingValidator.isUtf8(content, 0, length, endOfInput);
+		}
 
-		// create a decoder for the specified encoding and check if it can
-		// decode
-		final CharsetDecoder d = Charset.forName(encoding).newDecoder();
+		final CharsetDecoder d = charset.newDecoder();
+		final ByteBuffer in = ByteBuffer.wrap(content, 0, length);
+		final CharBuffer out = CharBuffer.allocate(1024);
 
-		// decode the content we read
-		try {
-			d.decode(ByteBuffer.wrap(content));
-		} catch (final MalformedInputException e) {
-			return false;
+		while (true) {
+			final CoderResult result = d.decode(in, out, endOfInput);
+			if (result.isError()) {
+				return false;
+			} else if (result.isOverflow()) {
+				out.clear();
+			} else {
+				break;
+			}
 		}
 
-		// it worked we could decode
-		return true;
+		return !endOfInput || !d.flush(out).isError();
 	}
 
 	/**
@@ -533,35 +937,7 @@ public class Streams {
 	 *         otherwise <code>false</code>
 	 */
 	protected static boolean validUTF8(final byte[] content) {
-		int i = 0, end;
-		for (int j = content.length; i < j; i++) {
-			int octet = content[i];
-			if ((octet & 0x80) == 0) {
-				continue; // ASCII
-			}
-
-			// Check for UTF-8 leading byte
-			if ((octet & 0xE0) == 0xC0) {
-				end = i + 1;
-			} else if ((octet & 0xF0) == 0xE0) {
-				end = i + 2;
-			} else if ((octet & 0xF8) == 0xF0) {
-				end = i + 3;
-			} else {
-				// Java only supports BMP so 3 is max
-				return false;
-			}
-
-			while (i < end) {
-				i++;
-				octet = content[i];
-				if ((octet & 0xC0) != 0x80) {
-					// Not a valid trailing byte
-					return false;
-				}
-			}
-		}
-		return true;
+		return EncodingValidator.isUtf8(content);
 	}
 
 	/**
@@ -719,11 +1095,22 @@ public class Streams {
 	 * @return the short represented by the bytes
 	 */
 	public static short byteToShort(final byte[] bytes) {
-		short n = 0;
-		n ^= bytes[0] & 0xFF;
-		n <<= 8;
-		n ^= bytes[1] & 0xFF;
-		return n;
+		return byteToShort(bytes, 0);
+	}
+
+	/**
+	 * Transforms the bytes starting at {@code offset} to the short. The bytes
+	 * should have been generated using {@link #shortToByte(short)}.
+	 * 
+	 * @param bytes
+	 *            the bytes to read the short from
+	 * @param offset
+	 *            the position of the first byte of the short
+	 * 
+	 * @return the short represented by the bytes
+	 */
+	public static short byteToShort(final byte[] bytes, final int offset) {
+		return (short) ((bytes[offset] << 8) | (bytes[offset + 1] & 0xFF));
 	}
 
 	/**
@@ -757,13 +1144,24 @@ public class Streams {
 	 * @return the int represented by the bytes
 	 */
 	public static int byteToInt(final byte[] bytes) {
-		int n = 0;
-		for (int i = 0; i < SIZEOF_INT; i++) {
-			n <<= 8;
-			n ^= bytes[i] & 0xFF;
-		}
+		return byteToInt(bytes, 0);
+	}
 
-		return n;
+	/**
+	 * Transforms the bytes starting at {@code offset} to the int. The bytes
+	 * should have been generated using {@link #intToByte(int)}.
+	 * 
+	 * @param bytes
+	 *            the bytes to read the integer from
+	 * @param offset
+	 *            the position of the first byte of the integer
+	 * 
+	 * @return the int represented by the bytes
+	 */
+	public static int byteToInt(final byte[] bytes, final int offset) {
+		return (bytes[offset] << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+				| ((bytes[offset + 2] & 0xFF) << 8)
+				| (bytes[offset + 3] & 0xFF);
 	}
 
 	/**
@@ -796,14 +1194,23 @@ public class Streams {
 	 * @return the long represented by the bytes
 	 */
 	public static long byteToLong(final byte[] bytes) {
-		long l = 0;
-
-		for (int i = 0; i < SIZEOF_LONG; i++) {
-			l <<= 8;
-			l ^= bytes[i] & 0xFF;
-		}
+		return byteToLong(bytes, 0);
+	}
 
-		return l;
+	/**
+	 * Transforms the bytes starting at {@code offset} to the long. The bytes
+	 * should have been generated using {@link #longToByte(long)}.
+	 * 
+	 * @param bytes
+	 *            the bytes to read the long from
+	 * @param offset
+	 *            the position of the first byte of the long
+	 * 
+	 * @return the long represented by the bytes
+	 */
+	public static long byteToLong(final byte[] bytes, final int offset) {
+		return ((long) byteToInt(bytes, offset) << 32)
+				| (byteToInt(bytes, offset + SIZEOF_INT) & 0xFFFFFFFFl);
 	}
 
 	/**
@@ -827,7 +1234,22 @@ public class Streams {
 	 * @return the created double
 	 */
 	public static double byteToDouble(final byte[] bytes) {
-		return Double.longBitsToDouble(byteToLong(bytes));
+		return byteToDouble(bytes, 0);
+	}
+
+	/**
+	 * Transforms the bytes starting at {@code offset} to the double. The bytes
+	 * should have been generated using {@link #doubleToByte(double)}.
+	 * 
+	 * @param bytes
+	 *            the bytes to read the double from
+	 * @param offset
+	 *            the position of the first byte of the double
+	 * 
+	 * @return the double represented by the bytes
+	 */
+	public static double byteToDouble(final byte[] bytes, final int offset) {
+		return Double.longBitsToDouble(byteToLong(bytes, offset));
 	}
 
 	/**
@@ -952,47 +1374,240 @@ public class Streams {
 	 *         serialized
 	 */
 	public static byte[] objectToByte(final Object o) {
-		final Class<?> clazz = o == null ? null : o.getClass();
-		final byte nr = getByteTypeNr(clazz);
-
-		// get the identifier as array
-		final byte[] bytesType = new byte[] { nr };
-
-		// get the value as array
-		final byte[] bytesRepresentation;
-		if (clazz == null) {
-			bytesRepresentation = new byte[] {};
-		} else if (Byte.class.equals(clazz)) {
-			bytesRepresentation = new byte[] { (Byte) o };
-		} else if (Boolean.class.equals(clazz)) {
-			bytesRepresentation = Streams.booleanToByte((Boolean) o);
-		} else if (Short.class.equals(clazz)) {
-			bytesRepresentation = Streams.shortToByte((Short) o);
-		} else if (Integer.class.equals(clazz)) {
-			bytesRepresentation = Streams.intToByte((Integer) o);
-		} else if (Long.class.equals(clazz)) {
-			bytesRepresentation = Streams.longToByte((Long) o);
-		} else if (Double.class.equals(clazz)) {
-			bytesRepresentation = Streams.doubleToByte((Double) o);
-		} else if (String.class.equals(clazz)) {
-			final byte[] tmpBytes = Streams.stringToByte((String) o);
-			final byte[] tmpBytesLength = Streams.intToByte(tmpBytes.length);
+		return objectToByte(o, false);
+	}
 
-			bytesRepresentation = Streams
-					.combineBytes(tmpBytesLength, tmpBytes);
-		} else {
-			final byte[] tmpBytes = serializeObject(o);
-			final byte[] tmpBytesLength = Streams.intToByte(tmpBytes.length);
+	/**
+	 * Transforms a serializable object to a byte array, using the compact
+	 * representation if {@code compact} is {@code true}.
+	 * 
+	 * @param o
+	 *            the object to be transformed
+	 * @param compact
+	 *            {@code true} to use the compact representation, see
+	 *            {@link #writeNextObject(IByteBufferWriter, Object, boolean)}
+	 * 
+	 * @return the byte array or {@code null} if the object could not be
+	 *         serialized
+	 */
+	public static byte[] objectToByte(final Object o, final boolean compact) {
+		final int size = objectSize(o);
+		final HeapByteBufferWriter writer = new HeapByteBufferWriter(
+				size < 0 ? 64 : size);
 
-			bytesRepresentation = Streams
-					.combineBytes(tmpBytesLength, tmpBytes);
+		try {
+			writeNextObject(writer, o, compact);
+		} catch (final IllegalArgumentException e) {
+			return null;
 		}
 
-		return Streams.combineBytes(bytesType, bytesRepresentation);
+		// the array can be used directly if it was filled completely
+		final byte[] array = writer.getArray();
+		return array.length == writer.position() ? array : writer
+				.toByteArray();
 	}
 
 	/**
-	 * Deserializes an object from the specified byte array. If the array
+	 * Writes the specified object to the {@code writer}, using the same
+	 * byte-representation as {@link #objectToByte(Object)}. The object can be
+	 * read using {@link #readNextObject(IByteBufferReader)}. Objects of the
+	 * {@link #BYTE_TYPES} and objects having a codec registered at the
+	 * {@link StreamsCodecs} are written without any allocation, all other
+	 * objects are serialized into an intermediate array.
+	 * 
+	 * @param writer
+	 *            the writer to write to
+	 * @param o
+	 *            the object to be written
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the object cannot be serialized
+	 * 
+	 * @see WrappedByteBufferWriter
+	 * @see FileByteBufferWriter
+	 */
+	public static void writeNextObject(final IByteBufferWriter writer,
+			final Object o) throws IllegalArgumentException {
+		writeNextObject(writer, o, false);
+	}
+
+	/**
+	 * Writes the specified object to the {@code writer}. If {@code compact} is
+	 * {@code true}, {@code Short}, {@code Integer} and {@code Long} values are
+	 * written as zigzag encoded LEB128 variable-length integers, and the
+	 * length of strings and serialized objects is written as variable-length
+	 * integer. The compact representation is marked by its type identifier
+	 * (see {@link #getCompactByteTypeNr(byte)}), i.e.
+	 * {@link #readNextObject(IByteBufferReader)} and
+	 * {@link #byteToObject(byte[], int)} read both representations and both
+	 * can be mixed within one stream. All other types are written using the
+	 * default representation.
+	 * 
+	 * @param writer
+	 *            the writer to write to
+	 * @param o
+	 *            the object to be written
+	 * @param compact
+	 *            {@code true} to use the compact representation, otherwise
+	 *            {@code false}
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the object cannot be serialized
+	 */
+	public static void writeNextObject(final IByteBufferWriter writer,
+			final Object o, final boolean compact)
+			throws IllegalArgumentException {
+		final Class<?> clazz = o == null ? null : o.getClass();
+		final byte nr = getByteTypeNr(clazz);
+
+		// get the serialized representation first, so that nothing is written
+		final byte[] serialized;
+		if (nr < 0 || nr >= BYTE_TYPES.length
+				|| !Object.class.equals(BYTE_TYPES[nr])) {
+			serialized = null;
+		} else {
+			serialized = serializeObject(o);
+			if (serialized == null) {
+				throw new IllegalArgumentException("The object '" + o
+						+ "' of type '" + clazz.getName()
+						+ "' cannot be serialized.");
+			}
+		}
+
+		// check if there is a compact representation of the object
+		if (compact && clazz != null) {
+			if (Short.class.equals(clazz)) {
+				writer.put(getCompactByteTypeNr(nr));
+				writeVarInt(writer, zigZag((Short) o));
+				return;
+			} else if (Integer.class.equals(clazz)) {
+				writer.put(getCompactByteTypeNr(nr));
+				writeVarInt(writer, zigZag((Integer) o));
+				return;
+			} else if (Long.class.equals(clazz)) {
+				writer.put(getCompactByteTypeNr(nr));
+				writeVarLong(writer, zigZag((Long) o));
+				return;
+			} else if (String.class.equals(clazz)) {
+				final String string = (String) o;
+				writer.put(getCompactByteTypeNr(nr));
+				writeVarInt(writer, utf8Length(string));
+				writeUtf8(writer, string);
+				return;
+			} else if (serialized != null) {
+				writer.put(getCompactByteTypeNr(nr));
+				writeVarInt(writer, serialized.length);
+				writer.put(serialized);
+				return;
+			}
+		}
+
+		writer.put(nr);
+		if (clazz == null) {
+			// nothing more to write
+		} else if (Byte.class.equals(clazz)) {
+			writer.put((Byte) o);
+		} else if (Boolean.class.equals(clazz)) {
+			writer.put((Boolean) o ? (byte) 1 : (byte) 0);
+		} else if (Short.class.equals(clazz)) {
+			writer.putShort((Short) o);
+		} else if (Integer.class.equals(clazz)) {
+			writer.putInt((Integer) o);
+		} else if (Long.class.equals(clazz)) {
+			writer.putLong((Long) o);
+		} else if (Double.class.equals(clazz)) {
+			writer.putDouble((Double) o);
+		} else if (String.class.equals(clazz)) {
+			final String string = (String) o;
+			writer.putInt(utf8Length(string));
+			writeUtf8(writer, string);
+		} else if (nr >= BYTE_TYPES.length) {
+			@SuppressWarnings("unchecked")
+			final IStreamsCodec<Object> codec = (IStreamsCodec<Object>) StreamsCodecs
+					.getCodec(nr);
+			codec.write(writer, o);
+		} else {
+			writer.putInt(serialized.length);
+			writer.put(serialized);
+		}
+	}
+
+	/**
+	 * Determines the amount of bytes needed to encode the {@code string} using
+	 * UTF-8, i.e. the length of {@code string.getBytes("UTF-8")}.
+	 * 
+	 * @param string
+	 *            the string to determine the length for
+	 * 
+	 * @return the amount of bytes needed
+	 */
+	protected static int utf8Length(final String string) {
+		final int length = string.length();
+
+		int bytes = 0;
+		for (int i = 0; i < length; i++) {
+			final char c = string.charAt(i);
+
+			if (c < 0x80) {
+				bytes += 1;
+			} else if (c < 0x800) {
+				bytes += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < length
+					&& Character.isLowSurrogate(string.charAt(i + 1))) {
+				bytes += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+
+				// malformed surrogates are replaced by '?'
+				bytes += 1;
+			} else {
+				bytes += 3;
+			}
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Writes the UTF-8 encoding of the {@code string} to the {@code writer},
+	 * the bytes written are equal to {@code string.getBytes("UTF-8")}.
+	 * 
+	 * @param writer
+	 *            the writer to write to
+	 * @param string
+	 *            the string to be written
+	 */
+	protected static void writeUtf8(final IByteBufferWriter writer,
+			final String string) {
+		final int length = string.length();
+
+		for (int i = 0; i < length; i++) {
+			final char c = string.charAt(i);
+
+			if (c < 0x80) {
+				writer.put((byte) c);
+			} else if (c < 0x800) {
+				writer.put((byte) (0xC0 | (c >> 6)));
+				writer.put((byte) (0x80 | (c & 0x3F)));
+			} else if (Character.isHighSurrogate(c) && i + 1 < length
+					&& Character.isLowSurrogate(string.charAt(i + 1))) {
+				final int cp = Character.toCodePoint(c, string.charAt(++i));
+				writer.put((byte) (0xF0 | (cp >> 18)));
+				writer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+				writer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+				writer.put((byte) (0x80 | (cp & 0x3F)));
+			} else if (Character.isSurrogate(c)) {
+				writer.put((byte) '?');
+			} else {
+				writer.put((byte) (0xE0 | (c >> 12)));
+				writer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+				writer.put((byte) (0x80 | (c & 0x3F)));
+			}
+		}
+	}
+
+	/**
+	 * Deserializes an object from the specified byte array. If the array
 	 * represents several objects, all objects can be read using:
 	 * 
 	 * <pre>
@@ -1045,14 +1660,29 @@ public class Streams {
 		int off = offset;
 
 		final byte pos = bytes[off];
-		if (pos < 0) {
+		if (pos < -1) {
+			final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			buffer.position(off + SIZEOF_BYTE);
+
+			final Object res = readCompactObject(new WrappedByteBufferReader(
+					buffer), getCompactByteType(pos));
+			return new ByteResult(res, buffer.position());
+		} else if (pos < 0) {
 			return new ByteResult(null, offset + SIZEOF_BYTE);
+		} else if (pos >= BYTE_TYPES.length) {
+			final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			buffer.position(off + SIZEOF_BYTE);
+
+			// codecs are selected by identifier, a type may have several
+			final Object res = readCodecObject(new WrappedByteBufferReader(
+					buffer), pos);
+			return new ByteResult(res, buffer.position());
 		} else {
 			off += SIZEOF_BYTE;
 		}
 
 		// get the first byte to get the representation type
-		final Class<?> clazz = BYTE_TYPES[pos];
+		final Class<?> clazz = getByteType(pos);
 
 		// read the object
 		return byteToObject(clazz, bytes, off);
@@ -1103,20 +1733,27 @@ public class Streams {
 			res = bytes[off];
 			off += SIZEOF_BYTE;
 		} else if (Boolean.class.equals(clazz)) {
-			res = Streams.byteToBoolean(Arrays.copyOfRange(bytes, off,
-					off = off + SIZEOF_BYTE));
+			res = bytes[off] == (byte) 1;
+			off += SIZEOF_BYTE;
 		} else if (Short.class.equals(clazz)) {
-			res = Streams.byteToShort(Arrays.copyOfRange(bytes, off, off = off
-					+ SIZEOF_SHORT));
+			res = Streams.byteToShort(bytes, off);
+			off += SIZEOF_SHORT;
 		} else if (Integer.class.equals(clazz)) {
-			res = Streams.byteToInt(Arrays.copyOfRange(bytes, off, off = off
-					+ SIZEOF_INT));
+			res = Streams.byteToInt(bytes, off);
+			off += SIZEOF_INT;
 		} else if (Long.class.equals(clazz)) {
-			res = Streams.byteToLong(Arrays.copyOfRange(bytes, off, off = off
-					+ SIZEOF_LONG));
+			res = Streams.byteToLong(bytes, off);
+			off += SIZEOF_LONG;
 		} else if (Double.class.equals(clazz)) {
-			res = Streams.byteToDouble(Arrays.copyOfRange(bytes, off, off = off
-					+ SIZEOF_LONG));
+			res = Streams.byteToDouble(bytes, off);
+			off += SIZEOF_LONG;
+		} else if (StreamsCodecs.getId(clazz) >= 0) {
+			final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			buffer.position(off);
+
+			res = StreamsCodecs.getCodec(clazz).read(
+					new WrappedByteBufferReader(buffer));
+			off = buffer.position();
 		}
 		// we have a dynamically sizing object
 		else {
@@ -1124,8 +1761,8 @@ public class Streams {
 			// get the length
 			final int length;
 			if (dynLength < 0) {
-				length = Streams.byteToInt(Arrays.copyOfRange(bytes, off,
-						off = off + SIZEOF_INT));
+				length = Streams.byteToInt(bytes, off);
+				off += SIZEOF_INT;
 			} else {
 				length = dynLength;
 			}
@@ -1198,6 +1835,8 @@ public class Streams {
 			return classOverhead();
 		} else if (String.class.equals(clazz)) {
 			return classOverhead() + SIZEOF_INT;
+		} else if (StreamsCodecs.getId(clazz) >= 0) {
+			return classOverhead();
 		} else {
 			return classOverhead() + SIZEOF_INT;
 		}
@@ -1213,6 +1852,8 @@ public class Streams {
 	 *            the object to determine the size for
 	 * 
 	 * @return the size of an object presented as byte-array
+	 * 
+	 * @see #objectFootprint(Object)
 	 */
 	public static int objectSize(final Object o) {
 		if (o == null) {
@@ -1222,6 +1863,26 @@ public class Streams {
 		}
 	}
 
+	/**
+	 * Estimates the size in bytes of the specified object on the heap,
+	 * including all the objects reachable from it. In contrast to
+	 * {@link #objectSize(Object)}, the size is not the size of the
+	 * byte-representation, but the memory retained by the object (see
+	 * {@link HeapFootprint#deepSize(Object)}).
+	 * 
+	 * @param o
+	 *            the object to determine the size for
+	 * 
+	 * @return the estimated size of the object on the heap, {@code 0} if
+	 *         {@code null} is passed
+	 * 
+	 * @throws IllegalStateException
+	 *             if the size of a reachable object cannot be estimated
+	 */
+	public static long objectFootprint(final Object o) {
+		return FootprintHolder.FOOTPRINT.deepSize(o);
+	}
+
 	/**
 	 * Returns the size in bytes of the byte-representation of an object of the
 	 * specified {@code clazz}. If the value is negative, the size is dynamic
@@ -1252,6 +1913,12 @@ public class Streams {
 			return overhead + SIZEOF_LONG;
 		} else if (String.class.equals(clazz)) {
 			return -1 * overhead;
+		}
+
+		// check the size defined by the codec
+		final IStreamsCodec<?> codec = StreamsCodecs.getCodec(clazz);
+		if (codec != null && codec.getSize() >= 0) {
+			return overhead + codec.getSize();
 		} else {
 			return -1 * overhead;
 		}
@@ -1318,18 +1985,388 @@ public class Streams {
 	 * @return the result
 	 */
 	public static byte[] writeAllObjects(final Object... objects) {
-		byte[] result = new byte[] {};
+		if (objects == null) {
+			return new byte[] {};
+		}
+
+		final HeapByteBufferWriter writer = new HeapByteBufferWriter();
+		writeAllObjects(writer, objects);
+
+		return writer.toByteArray();
+	}
+
+	/**
+	 * Writes all the object to the specified {@code writer}.
+	 * 
+	 * @param writer
+	 *            the writer to write to
+	 * @param objects
+	 *            the objects to be written
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if an object cannot be serialized
+	 * 
+	 * @see #writeNextObject(IByteBufferWriter, Object)
+	 */
+	public static void writeAllObjects(final IByteBufferWriter writer,
+			final Object... objects) throws IllegalArgumentException {
+		if (objects != null) {
+			for (final Object object : objects) {
+				writeNextObject(writer, object);
+			}
+		}
+	}
+
+	/**
+	 * Writes all the object to the specified {@code writer} and marks the
+	 * position of each object within the {@code index}.
+	 * 
+	 * @param writer
+	 *            the writer to write to
+	 * @param index
+	 *            the index to mark the positions in
+	 * @param objects
+	 *            the objects to be written
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if an object cannot be serialized
+	 * 
+	 * @see StreamsIndex#mark(long)
+	 */
+	public static void writeAllObjects(final IByteBufferWriter writer,
+			final StreamsIndex index, final Object... objects)
+			throws IllegalArgumentException {
 		if (objects != null) {
-			byte[][] intermediateResults = new byte[objects.length][];
-			for (int i = 0; i < objects.length; i++) {
-				final Object object = objects[i];
-				intermediateResults[i] = objectToByte(object);
+			for (final Object object : objects) {
+				index.mark(writer.position());
+				writeNextObject(writer, object);
+			}
+		}
+	}
+
+	/**
+	 * Creates a {@code Stream} of the objects of the specified {@code file}.
+	 * The index of the file is read from the
+	 * {@link StreamsIndex#getIndexFile(File)}, if available. Otherwise the
+	 * file is scanned to create the index (see
+	 * {@link StreamsIndex#scan(File, int)}). The stream should be closed to
+	 * release the mapped parts of the file.
+	 * 
+	 * @param file
+	 *            the file to read the objects from
+	 * @param parallel
+	 *            {@code true} to create a parallel stream, otherwise
+	 *            {@code false}
+	 * 
+	 * @return the created {@code Stream}
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the file or its index cannot be read
+	 */
+	public static Stream<Object> stream(final File file, final boolean parallel)
+			throws IllegalArgumentException {
+		final File indexFile = StreamsIndex.getIndexFile(file);
+
+		final StreamsIndex index;
+		try {
+			if (indexFile.isFile()) {
+				index = StreamsIndex.read(indexFile);
+			} else {
+				index = StreamsIndex.scan(file, StreamsIndex.DEFAULT_INTERVAL);
+			}
+		} catch (final FileNotFoundException e) {
+			throw new IllegalArgumentException("Unable to read the file '"
+					+ file + "'.", e);
+		}
+
+		return stream(file, index, parallel);
+	}
+
+	/**
+	 * Creates a {@code Stream} of the objects of the specified {@code file}
+	 * using the specified {@code index} to split the file. The stream should
+	 * be closed to release the mapped parts of the file.
+	 * 
+	 * @param file
+	 *            the file to read the objects from
+	 * @param index
+	 *            the index of the objects of the file
+	 * @param parallel
+	 *            {@code true} to create a parallel stream, otherwise
+	 *            {@code false}
+	 * 
+	 * @return the created {@code Stream}
+	 * 
+	 * @see StreamsSpliterator
+	 */
+	public static Stream<Object> stream(final File file,
+			final StreamsIndex index, final boolean parallel) {
+		final StreamsSpliterator spliterator = new StreamsSpliterator(file,
+				index);
+
+		return StreamSupport.stream(spliterator, parallel).onClose(
+				new Runnable() {
+
+					@Override
+					public void run() {
+						spliterator.close();
+					}
+				});
+	}
+
+	/**
+	 * Writes all the objects so that those are represented within the result.
+	 * If {@code columnar} is {@code true} and the objects are all
+	 * {@code Long}, {@code Integer} or {@code Double} instances (i.e. a
+	 * homogeneous column without any {@code null} values), the objects are
+	 * written as a single primitive block (see
+	 * {@link #writeColumn(IByteBufferWriter, long[], boolean)}), which is
+	 * read back as primitive array by {@link #readColumn(byte[])}. Sorted
+	 * integral values are delta encoded. Otherwise the objects are written
+	 * one by one like {@link #writeAllObjects(Collection)} does.
+	 * 
+	 * @param objects
+	 *            the objects to be written
+	 * @param columnar
+	 *            {@code true} to write homogeneous primitive values as block,
+	 *            otherwise {@code false}
+	 * 
+	 * @return the result
+	 */
+	public static byte[] writeAllObjects(final Collection<?> objects,
+			final boolean columnar) {
+		if (objects == null) {
+			return new byte[] {};
+		}
+
+		final HeapByteBufferWriter writer = new HeapByteBufferWriter();
+		writeAllObjects(writer, objects, columnar);
+
+		return writer.toByteArray();
+	}
+
+	/**
+	 * Writes all the objects to the specified {@code writer}, see
+	 * {@link #writeAllObjects(Collection, boolean)}.
+	 * 
+	 * @param writer
+	 *            the writer to write to
+	 * @param objects
+	 *            the objects to be written
+	 * @param columnar
+	 *            {@code true} to write homogeneous primitive values as block,
+	 *            otherwise {@code false}
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if an object cannot be serialized
+	 */
+	public static void writeAllObjects(final IByteBufferWriter writer,
+			final Collection<?> objects, final boolean columnar)
+			throws IllegalArgumentException {
+		if (objects == null) {
+			return;
+		}
+
+		final Object column = columnar ? toColumn(objects) : null;
+		if (column instanceof long[]) {
+			final long[] values = (long[]) column;
+			writeColumn(writer, values, isSorted(values));
+		} else if (column instanceof int[]) {
+			final int[] values = (int[]) column;
+			writeColumn(writer, values, isSorted(values));
+		} else if (column instanceof double[]) {
+			writeColumn(writer, (double[]) column);
+		} else {
+			for (final Object object : objects) {
+				writeNextObject(writer, object);
+			}
+		}
+	}
+
+	/**
+	 * Converts the specified {@code objects} into a primitive array, if all
+	 * the objects are of the same type {@code Long}, {@code Integer} or
+	 * {@code Double}.
+	 * 
+	 * @param objects
+	 *            the objects to be converted
+	 * 
+	 * @return the {@code long[]}, {@code int[]} or {@code double[]}, or
+	 *         {@code null} if the objects cannot be represented as primitive
+	 *         array
+	 */
+	protected static Object toColumn(final Collection<?> objects) {
+		final Iterator<?> it = objects.iterator();
+		if (!it.hasNext()) {
+			return null;
+		}
+
+		final Object first = it.next();
+		final Class<?> clazz = first == null ? null : first.getClass();
+		final int size = objects.size();
+
+		final Object column;
+		if (Long.class.equals(clazz)) {
+			column = new long[size];
+		} else if (Integer.class.equals(clazz)) {
+			column = new int[size];
+		} else if (Double.class.equals(clazz)) {
+			column = new double[size];
+		} else {
+			return null;
+		}
+
+		int i = 0;
+		for (final Object object : objects) {
+			if (object == null || !clazz.equals(object.getClass())) {
+				return null;
+			} else if (column instanceof long[]) {
+				((long[]) column)[i++] = (Long) object;
+			} else if (column instanceof int[]) {
+				((int[]) column)[i++] = (Integer) object;
+			} else {
+				((double[]) column)[i++] = (Double) object;
 			}
+		}
 
-			result = Streams.combineBytes(intermediateResults);
+		return column;
+	}
+
+	private static boolean isSorted(final long[] values) {
+		for (int i = 1; i < values.length; i++) {
+			if (values[i - 1] > values[i]) {
+				return false;
+			}
 		}
+		return true;
+	}
 
-		return result;
+	private static boolean isSorted(final int[] values) {
+		for (int i = 1; i < values.length; i++) {
+			if (values[i - 1] > values[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the specified {@code values} as a single block, i.e. the type,
+	 * the length and the values copied in bulk. If {@code delta} is
+	 * {@code true}, the differences between consecutive values are written as
+	 * variable-length integers instead (see
+	 * {@link StreamsCodecs#DELTA_LONGARRAY_ID}), which is small for sorted
+	 * values like timestamps.
+	 * 
+	 * @param writer
+	 *            the writer to write to
+	 * @param values
+	 *            the values to be written
+	 * @param delta
+	 *            {@code true} to use the delta encoding, otherwise
+	 *            {@code false}
+	 * 
+	 * @see #readColumn(IByteBufferReader)
+	 */
+	public static void writeColumn(final IByteBufferWriter writer,
+			final long[] values, final boolean delta) {
+		final byte id = delta ? StreamsCodecs.DELTA_LONGARRAY_ID
+				: StreamsCodecs.LONGARRAY_ID;
+		writeColumn(writer, id, values);
+	}
+
+	/**
+	 * Writes the specified {@code values} as a single block, see
+	 * {@link #writeColumn(IByteBufferWriter, long[], boolean)}.
+	 * 
+	 * @param writer
+	 *            the writer to write to
+	 * @param values
+	 *            the values to be written
+	 * @param delta
+	 *            {@code true} to use the delta encoding, otherwise
+	 *            {@code false}
+	 * 
+	 * @see #readColumn(IByteBufferReader)
+	 */
+	public static void writeColumn(final IByteBufferWriter writer,
+			final int[] values, final boolean delta) {
+		final byte id = delta ? StreamsCodecs.DELTA_INTARRAY_ID
+				: StreamsCodecs.INTARRAY_ID;
+		writeColumn(writer, id, values);
+	}
+
+	/**
+	 * Writes the specified {@code values} as a single block, see
+	 * {@link #writeColumn(IByteBufferWriter, long[], boolean)}. There is no
+	 * delta encoding for floating-point values.
+	 * 
+	 * @param writer
+	 *            the writer to write to
+	 * @param values
+	 *            the values to be written
+	 * 
+	 * @see #readColumn(IByteBufferReader)
+	 */
+	public static void writeColumn(final IByteBufferWriter writer,
+			final double[] values) {
+		writeColumn(writer, StreamsCodecs.DOUBLEARRAY_ID, values);
+	}
+
+	private static <T> void writeColumn(final IByteBufferWriter writer,
+			final byte id, final T values) {
+		@SuppressWarnings("unchecked")
+		final IStreamsCodec<T> codec = (IStreamsCodec<T>) StreamsCodecs
+				.getCodec(id);
+
+		writer.put(id);
+		codec.write(writer, values);
+	}
+
+	/**
+	 * Reads a block written by
+	 * {@link #writeColumn(IByteBufferWriter, long[], boolean)} or
+	 * {@link #writeAllObjects(Collection, boolean)} from the specified
+	 * {@code bytes}.
+	 * 
+	 * @param bytes
+	 *            the bytes to read the block from
+	 * 
+	 * @return the {@code long[]}, {@code int[]} or {@code double[]} read
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the bytes do not start with a primitive block
+	 */
+	public static Object readColumn(final byte[] bytes)
+			throws IllegalArgumentException {
+		return readColumn(new WrappedByteBufferReader(ByteBuffer.wrap(bytes)));
+	}
+
+	/**
+	 * Reads a block written by
+	 * {@link #writeColumn(IByteBufferWriter, long[], boolean)} from the
+	 * specified {@code buffer}.
+	 * 
+	 * @param buffer
+	 *            the buffer to read the block from
+	 * 
+	 * @return the {@code long[]}, {@code int[]} or {@code double[]} read
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the next object is not a primitive block
+	 */
+	public static Object readColumn(final IByteBufferReader buffer)
+			throws IllegalArgumentException {
+		final Object column = readNextObject(buffer);
+
+		if (column instanceof long[] || column instanceof int[]
+				|| column instanceof double[]) {
+			return column;
+		} else {
+			throw new IllegalArgumentException("The buffer contains a '"
+					+ (column == null ? null : column.getClass().getName())
+					+ "' instead of a primitive block.");
+		}
 	}
 
 	/**
@@ -1453,10 +2490,14 @@ public class Streams {
 		final Class<?> clazz;
 		if (buffer.hasRemaining()) {
 			final byte pos = buffer.get();
-			if (pos < 0) {
+			if (pos < -1) {
+				return readCompactObject(buffer, getCompactByteType(pos));
+			} else if (pos < 0) {
 				return null;
+			} else if (pos >= BYTE_TYPES.length) {
+				return readCodecObject(buffer, pos);
 			} else {
-				clazz = BYTE_TYPES[pos];
+				clazz = getByteType(pos);
 			}
 		} else {
 			throw new IllegalArgumentException(
@@ -1466,6 +2507,40 @@ public class Streams {
 		return readNextObject(buffer, clazz);
 	}
 
+	/**
+	 * Reads an object using the codec registered with the specified
+	 * identifier. The codec is selected by the identifier and not by the
+	 * type, because several codecs may be available for a type (e.g.
+	 * {@link StreamsCodecs#DELTA_LONGARRAY_ID}).
+	 * 
+	 * @param buffer
+	 *            the buffer to read from
+	 * @param id
+	 *            the identifier of the codec
+	 * 
+	 * @return the object read
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if there is no codec with the identifier or if there is no
+	 *             valid object in the buffer
+	 */
+	protected static Object readCodecObject(final IByteBufferReader buffer,
+			final byte id) throws IllegalArgumentException {
+		final IStreamsCodec<?> codec = StreamsCodecs.getCodec(id);
+		if (codec == null) {
+			throw new IllegalArgumentException(
+					"There is no codec registered with the identifier '" + id
+							+ "'.");
+		}
+
+		try {
+			return codec.read(buffer);
+		} catch (final BufferUnderflowException e) {
+			throw new IllegalArgumentException(
+					"The buffer does not contain any valid object.", e);
+		}
+	}
+
 	/**
 	 * Reads the next object from the buffer, which is of the specified
 	 * {@code clazz}. It should be ensured that there is at least the
@@ -1494,44 +2569,43 @@ public class Streams {
 		}
 
 		try {
-			/*
-			 * determine the size of the object, so that we can read the bytes
-			 * needed
-			 */
-			final int objSize = objectSize(clazz);
-
-			// get the amount of bytes to be read for the object
-			final int readSize;
-			final int dynSize;
-
-			// we have a dynamic object-size
-			if (objSize < 0) {
-
-				// the size is encoded in the first bytes as integer
-				final byte[] sizeBytes = new byte[SIZEOF_INT];
-				buffer.get(sizeBytes);
-				readSize = Streams.byteToInt(sizeBytes);
-				dynSize = readSize;
+			final Object res;
+			final IStreamsCodec<? extends T> codec;
+
+			// the fixed sized types are read directly from the buffer
+			if (Byte.class.equals(clazz)) {
+				res = buffer.get();
+			} else if (Boolean.class.equals(clazz)) {
+				res = buffer.get() == (byte) 1;
+			} else if (Short.class.equals(clazz)) {
+				res = buffer.getShort();
+			} else if (Integer.class.equals(clazz)) {
+				res = buffer.getInt();
+			} else if (Long.class.equals(clazz)) {
+				res = buffer.getLong();
+			} else if (Double.class.equals(clazz)) {
+				res = buffer.getDouble();
 			}
-			// we have a static object-size
+			// types with a codec are read by the codec
+			else if ((codec = StreamsCodecs.getCodec(clazz)) != null) {
+				res = codec.read(buffer);
+			}
+			// the size of dynamic objects is encoded in the first bytes
 			else {
+				final byte[] bytes = new byte[buffer.getInt()];
+				buffer.get(bytes);
 
-				// get the size of the object
-				readSize = objectSize(clazz) - classOverhead();
-				dynSize = -1;
+				if (String.class.equals(clazz)) {
+					res = Streams.byteToString(bytes);
+				} else {
+					res = deserializeObject(bytes);
+				}
 			}
 
-			// get the bytes from the buffer
-			final byte[] bytes = new byte[readSize];
-			buffer.get(bytes);
-
-			// get the result and return the object
-			final ByteResult res = byteToObject(clazz, dynSize, bytes, 0);
-
 			@SuppressWarnings("unchecked")
-			final T typedObject = (T) res.object;
+			final T typedObject = (T) res;
 
-			return (T) typedObject;
+			return typedObject;
 		} catch (final BufferUnderflowException e) {
 			throw new IllegalArgumentException(
 					"The buffer does not contain any valid object.", e);
@@ -1569,7 +2643,43 @@ public class Streams {
 	 */
 	public static IByteBufferReader createByteBufferReader(final Object o,
 			final int arraySize) throws IllegalArgumentException {
-		if (o instanceof File) {
+		return createByteBufferReader(o, arraySize, false);
+	}
+
+	/**
+	 * Factory method used to create a {@code ByteBufferReader}. If
+	 * {@code mapped} is {@code true} a {@code File}, {@code FileChannel} or
+	 * {@code RandomAccessFile} is read using a {@link MappedByteBufferReader},
+	 * i.e. the {@code arraySize} is not used for those.
+	 * 
+	 * @param o
+	 *            the {@code Object} to create the {@code ByteBufferReader} for
+	 * @param arraySize
+	 *            the size of the backed-array
+	 * @param mapped
+	 *            {@code true} to read files using memory-mapping, otherwise
+	 *            {@code false}
+	 * 
+	 * @return the created instance
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the object-type is not supported or if creation failed
+	 */
+	public static IByteBufferReader createByteBufferReader(final Object o,
+			final int arraySize, final boolean mapped)
+			throws IllegalArgumentException {
+		if (mapped && o instanceof File) {
+			try {
+				return new MappedByteBufferReader((File) o);
+			} catch (final FileNotFoundException e) {
+				throw new IllegalArgumentException(
+						"Error creating the ByteBufferReader", e);
+			}
+		} else if (mapped && o instanceof FileChannel) {
+			return new MappedByteBufferReader((FileChannel) o);
+		} else if (mapped && o instanceof RandomAccessFile) {
+			return new MappedByteBufferReader((RandomAccessFile) o);
+		} else if (o instanceof File) {
 			try {
 				return new FileByteBufferReader((File) o, arraySize);
 			} catch (final FileNotFoundException e) {
@@ -1591,4 +2701,57 @@ public class Streams {
 					+ "' cannot be used by any ByteBufferReader.");
 		}
 	}
+
+	/**
+	 * Factory method used to create a {@code ByteBufferWriter}.
+	 * 
+	 * @param o
+	 *            the {@code Object} to create the {@code ByteBufferWriter} for
+	 * 
+	 * @return the created instance
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the object-type is not supported or if creation failed
+	 */
+	public static IByteBufferWriter createByteBufferWriter(final Object o)
+			throws IllegalArgumentException {
+		return createByteBufferWriter(o, 64 * 1024);
+	}
+
+	/**
+	 * Factory method used to create a {@code ByteBufferWriter}.
+	 * 
+	 * @param o
+	 *            the {@code Object} to create the {@code ByteBufferWriter} for
+	 * @param bufferSize
+	 *            the size of the buffer used to collect the bytes
+	 * 
+	 * @return the created instance
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the object-type is not supported or if creation failed
+	 */
+	public static IByteBufferWriter createByteBufferWriter(final Object o,
+			final int bufferSize) throws IllegalArgumentException {
+		if (o instanceof File) {
+			try {
+				return new FileByteBufferWriter((File) o, bufferSize);
+			} catch (final FileNotFoundException e) {
+				throw new IllegalArgumentException(
+						"Error creating the ByteBufferWriter", e);
+			}
+		} else if (o instanceof FileChannel) {
+			return new FileByteBufferWriter((FileChannel) o, bufferSize);
+		} else if (o instanceof RandomAccessFile) {
+			return new FileByteBufferWriter((RandomAccessFile) o, bufferSize);
+		} else if (o instanceof ByteBuffer) {
+			return new WrappedByteBufferWriter((ByteBuffer) o);
+		} else if (o instanceof OutputStream) {
+			return new WrappedOutputStreamWriter((OutputStream) o, bufferSize);
+		} else {
+			throw new IllegalArgumentException("The clazz '"
+					+ (o == null ? null : o.getClass())
+					+ "' cannot be used by any ByteBufferWriter.");
+		}
+	}
 }
@@ -0,0 +1,299 @@
+package net.meisen.general.genmisc.types;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.BufferUnderflowException;
+import java.util.Arrays;
+
+import net.meisen.general.genmisc.resources.FileByteBufferReader;
+import net.meisen.general.genmisc.resources.FileByteBufferWriter;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+import net.meisen.general.genmisc.resources.MappedByteBufferReader;
+import net.meisen.general.genmisc.types.codecs.IStreamsCodec;
+import net.meisen.general.genmisc.types.codecs.StreamsCodecs;
+
+/**
+ * A sparse index of the objects written using
+ * {@link Streams#writeNextObject(IByteBufferWriter, Object)}. The index
+ * contains the position of every {@code interval}-th object, i.e. the
+ * positions at which the reading of the objects can be started. The index is
+ * used to split the objects of a file into chunks, which can be read
+ * concurrently (see {@link StreamsSpliterator}).<br/>
+ * <br/>
+ * The index is typically created while writing the objects, i.e.
+ * {@link #mark(long)} is called with the position of the writer prior to
+ * writing each object, and stored aside of the file (see
+ * {@link #getIndexFile(File)}). For a file without an index, the index can
+ * be created using {@link #scan(File, int)}.
+ * 
+ * @author pmeisen
+ * 
+ * @see Streams#writeAllObjects(IByteBufferWriter, StreamsIndex, Object...)
+ */
+public class StreamsIndex {
+	/**
+	 * The default amount of objects between two positions of the index
+	 */
+	public static final int DEFAULT_INTERVAL = 1024;
+	/**
+	 * The extension of the file the index is stored in
+	 */
+	public static final String EXTENSION = ".idx";
+
+	private final int interval;
+
+	private long count;
+	private long[] offsets;
+	private int size;
+
+	/**
+	 * Creates an empty index using the {@link #DEFAULT_INTERVAL}.
+	 */
+	public StreamsIndex() {
+		this(DEFAULT_INTERVAL);
+	}
+
+	/**
+	 * Creates an empty index, which keeps the position of every
+	 * {@code interval}-th object.
+	 * 
+	 * @param interval
+	 *            the amount of objects between two positions of the index
+	 */
+	public StreamsIndex(final int interval) {
+		if (interval < 1) {
+			throw new IllegalArgumentException(
+					"The interval must be at least 1.");
+		}
+
+		this.interval = interval;
+		this.count = 0;
+		this.offsets = new long[16];
+		this.size = 0;
+	}
+
+	/**
+	 * Marks the start of the next object at the specified {@code offset}.
+	 * 
+	 * @param offset
+	 *            the position the next object is written at
+	 */
+	public void mark(final long offset) {
+		if (count % interval == 0) {
+			if (size == offsets.length) {
+				offsets = Arrays.copyOf(offsets, 2 * size);
+			}
+			offsets[size] = offset;
+			size++;
+		}
+
+		count++;
+	}
+
+	/**
+	 * Gets the amount of objects between two positions of the index.
+	 * 
+	 * @return the amount of objects between two positions
+	 */
+	public int getInterval() {
+		return interval;
+	}
+
+	/**
+	 * Gets the amount of objects marked.
+	 * 
+	 * @return the amount of objects marked
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets the amount of positions within the index.
+	 * 
+	 * @return the amount of positions
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the position of the {@code i}-th entry of the index, i.e. the
+	 * position of the {@code (i * interval)}-th object.
+	 * 
+	 * @param i
+	 *            the entry to get the position for
+	 * 
+	 * @return the position
+	 */
+	public long getOffset(final int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("The index has no entry " + i
+					+ ".");
+		}
+
+		return offsets[i];
+	}
+
+	/**
+	 * Writes the index to the specified {@code file}.
+	 * 
+	 * @param file
+	 *            the file to write the index to
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be created
+	 */
+	public void write(final File file) throws FileNotFoundException {
+		final FileByteBufferWriter writer = new FileByteBufferWriter(file);
+		try {
+			writer.putInt(interval);
+			writer.putLong(count);
+			writer.putInt(size);
+			writer.putLongs(offsets, 0, size);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Reads the index from the specified {@code file}.
+	 * 
+	 * @param file
+	 *            the file to read the index from
+	 * 
+	 * @return the read index
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file does not exist
+	 * @throws IllegalArgumentException
+	 *             if the file does not contain a valid index
+	 */
+	public static StreamsIndex read(final File file)
+			throws FileNotFoundException, IllegalArgumentException {
+		final FileByteBufferReader reader = new FileByteBufferReader(file);
+		try {
+			final StreamsIndex index = new StreamsIndex(reader.getInt());
+			index.count = reader.getLong();
+			index.size = reader.getInt();
+			index.offsets = new long[Math.max(1, index.size)];
+			reader.getLongs(index.offsets, 0, index.size);
+
+			return index;
+		} catch (final RuntimeException e) {
+			throw new IllegalArgumentException("The file '" + file
+					+ "' does not contain a valid index.", e);
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Creates the index of the objects within the specified {@code file} by
+	 * scanning it. The scan reads the type and the length of each object, but
+	 * does not decode the object (with the exception of objects handled by a
+	 * codec of dynamic size).
+	 * 
+	 * @param file
+	 *            the file to be scanned
+	 * @param interval
+	 *            the amount of objects between two positions of the index
+	 * 
+	 * @return the created index
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file does not exist
+	 * @throws IllegalArgumentException
+	 *             if the file contains invalid data
+	 */
+	public static StreamsIndex scan(final File file, final int interval)
+			throws FileNotFoundException, IllegalArgumentException {
+		final StreamsIndex index = new StreamsIndex(interval);
+
+		final MappedByteBufferReader reader = new MappedByteBufferReader(file);
+		try {
+			while (reader.hasRemaining()) {
+				index.mark(reader.position());
+				skipNextObject(reader);
+			}
+		} catch (final BufferUnderflowException e) {
+			throw new IllegalArgumentException("The file '" + file
+					+ "' ends within an object.", e);
+		} finally {
+			reader.close();
+		}
+
+		return index;
+	}
+
+	/**
+	 * Moves the {@code reader} behind the next object.
+	 * 
+	 * @param reader
+	 *            the reader to be moved
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the next object is invalid
+	 */
+	protected static void skipNextObject(final MappedByteBufferReader reader)
+			throws IllegalArgumentException {
+		final byte nr = reader.get();
+
+		final long skip;
+		if (nr < -1) {
+			final Class<?> clazz = Streams.getCompactByteType(nr);
+			if (String.class.equals(clazz) || Object.class.equals(clazz)) {
+				skip = Streams.readVarInt(reader);
+			} else {
+				Streams.readVarLong(reader);
+				skip = 0;
+			}
+		} else if (nr < 0) {
+			skip = 0;
+		} else if (nr >= Streams.BYTE_TYPES.length) {
+			final IStreamsCodec<?> codec = StreamsCodecs.getCodec(nr);
+			if (codec == null) {
+				throw new IllegalArgumentException(
+						"There is no codec registered with the identifier '"
+								+ nr + "'.");
+			} else if (codec.getSize() < 0) {
+				codec.read(reader);
+				skip = 0;
+			} else {
+				skip = codec.getSize();
+			}
+		} else {
+			final Class<?> clazz = Streams.BYTE_TYPES[nr];
+			final int size = Streams.objectSize(clazz);
+
+			skip = size < 0 ? reader.getInt() : size
+					- Streams.objectOverhead(clazz);
+		}
+
+		final long pos = reader.position() + skip;
+		if (pos > reader.size()) {
+			throw new IllegalArgumentException("The object at position '"
+					+ reader.position() + "' exceeds the file.");
+		}
+		reader.position(pos);
+	}
+
+	/**
+	 * Gets the file the index of the specified {@code file} is stored in by
+	 * default.
+	 * 
+	 * @param file
+	 *            the file containing the objects
+	 * 
+	 * @return the file of the index
+	 */
+	public static File getIndexFile(final File file) {
+		return new File(file.getPath() + EXTENSION);
+	}
+
+	@Override
+	public String toString() {
+		return count + " objects (" + size + " positions, interval "
+				+ interval + ")";
+	}
+}
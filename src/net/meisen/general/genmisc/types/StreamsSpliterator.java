@@ -0,0 +1,188 @@
+package net.meisen.general.genmisc.types;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import net.meisen.general.genmisc.resources.MappedByteBufferReader;
+
+/**
+ * A {@code Spliterator} of the objects of a file written by {@code Streams}.
+ * The file is split at the positions of a {@link StreamsIndex}, i.e. each
+ * part of the file is read by its own {@link MappedByteBufferReader}, so that
+ * the parts can be decoded concurrently, e.g. using
+ * {@link Streams#stream(File, boolean)}.<br/>
+ * <br/>
+ * The readers are closed when the part is read completely. Readers of parts,
+ * which are not read completely (e.g. if a stream is short-circuited) are
+ * closed when the {@code Spliterator}, which created the parts, is closed.
+ * The {@code Spliterator} must not be closed while parts are read.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class StreamsSpliterator implements Spliterator<Object>, Closeable {
+	private final File file;
+	private final StreamsIndex index;
+	private final Queue<MappedByteBufferReader> readers;
+
+	private int lo;
+	private final int hi;
+
+	private MappedByteBufferReader reader;
+	private boolean started;
+	private long remaining;
+
+	/**
+	 * Creates a {@code Spliterator} of all the objects of the specified
+	 * {@code file}.
+	 * 
+	 * @param file
+	 *            the file to read the objects from
+	 * @param index
+	 *            the index of the objects of the file
+	 */
+	public StreamsSpliterator(final File file, final StreamsIndex index) {
+		this(file, index, new ConcurrentLinkedQueue<MappedByteBufferReader>(),
+				0, index.size());
+	}
+
+	/**
+	 * Creates a {@code Spliterator} of the objects of the specified
+	 * {@code file} starting at the {@code lo}-th entry of the {@code index}
+	 * and ending prior to the {@code hi}-th entry.
+	 * 
+	 * @param file
+	 *            the file to read the objects from
+	 * @param index
+	 *            the index of the objects of the file
+	 * @param readers
+	 *            the readers opened by all the parts
+	 * @param lo
+	 *            the first entry of the index (inclusive)
+	 * @param hi
+	 *            the last entry of the index (exclusive)
+	 */
+	protected StreamsSpliterator(final File file, final StreamsIndex index,
+			final Queue<MappedByteBufferReader> readers, final int lo,
+			final int hi) {
+		this.file = file;
+		this.index = index;
+		this.readers = readers;
+		this.lo = lo;
+		this.hi = hi;
+
+		this.reader = null;
+		this.started = false;
+		this.remaining = count(lo, hi);
+	}
+
+	/**
+	 * Determines the amount of objects between the specified entries of the
+	 * index.
+	 * 
+	 * @param from
+	 *            the first entry (inclusive)
+	 * @param to
+	 *            the last entry (exclusive)
+	 * 
+	 * @return the amount of objects
+	 */
+	protected long count(final int from, final int to) {
+		final long interval = index.getInterval();
+		return Math.max(0, Math.min(index.getCount(), to * interval) - from
+				* interval);
+	}
+
+	@Override
+	public boolean tryAdvance(final Consumer<? super Object> action) {
+		if (remaining <= 0) {
+			closeReader();
+			return false;
+		}
+
+		// open the reader positioned at the first object of the part
+		if (reader == null) {
+			try {
+				reader = new MappedByteBufferReader(file);
+			} catch (final FileNotFoundException e) {
+				throw new IllegalStateException("Unable to open the file '"
+						+ file + "'.", e);
+			}
+			readers.add(reader);
+			reader.position(index.getOffset(lo));
+			started = true;
+		}
+
+		final Object object = Streams.readNextObject(reader);
+		remaining--;
+		if (remaining == 0) {
+			closeReader();
+		}
+
+		action.accept(object);
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(final Consumer<? super Object> action) {
+		try {
+			while (tryAdvance(action)) {
+				// nothing to do
+			}
+		} finally {
+			closeReader();
+		}
+	}
+
+	@Override
+	public Spliterator<Object> trySplit() {
+
+		// the part cannot be split after the reading started
+		if (started || hi - lo < 2) {
+			return null;
+		}
+
+		final int mid = (lo + hi) >>> 1;
+		final StreamsSpliterator prefix = new StreamsSpliterator(file, index,
+				readers, lo, mid);
+		lo = mid;
+		remaining = count(lo, hi);
+
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return remaining;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+	}
+
+	private void closeReader() {
+		if (reader != null) {
+			readers.remove(reader);
+			reader.close();
+			reader = null;
+		}
+	}
+
+	/**
+	 * Closes the readers of all the parts created by this
+	 * {@code Spliterator}, which are not closed so far.
+	 */
+	@Override
+	public void close() {
+		MappedByteBufferReader r;
+		while ((r = readers.poll()) != null) {
+			r.close();
+		}
+	}
+}
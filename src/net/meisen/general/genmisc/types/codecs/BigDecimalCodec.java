@@ -0,0 +1,49 @@
+package net.meisen.general.genmisc.types.codecs;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+
+/**
+ * The codec of a {@code BigDecimal}, which is represented by the scale, the
+ * length and the two's-complement representation of the unscaled value.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class BigDecimalCodec implements IStreamsCodec<BigDecimal> {
+
+	@Override
+	public Class<BigDecimal> getType() {
+		return BigDecimal.class;
+	}
+
+	@Override
+	public int getSize() {
+		return -1;
+	}
+
+	@Override
+	public void write(final IByteBufferWriter writer, final BigDecimal value) {
+		final byte[] bytes = value.unscaledValue().toByteArray();
+		writer.putInt(value.scale());
+		writer.putInt(bytes.length);
+		writer.put(bytes);
+	}
+
+	@Override
+	public BigDecimal read(final IByteBufferReader reader) {
+		final int scale = reader.getInt();
+		final byte[] bytes = new byte[reader.getInt()];
+		reader.get(bytes);
+
+		return new BigDecimal(new BigInteger(bytes), scale);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
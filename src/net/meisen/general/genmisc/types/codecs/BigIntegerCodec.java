@@ -0,0 +1,46 @@
+package net.meisen.general.genmisc.types.codecs;
+
+import java.math.BigInteger;
+
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+
+/**
+ * The codec of a {@code BigInteger}, which is represented by the length and the
+ * two's-complement representation of the value.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class BigIntegerCodec implements IStreamsCodec<BigInteger> {
+
+	@Override
+	public Class<BigInteger> getType() {
+		return BigInteger.class;
+	}
+
+	@Override
+	public int getSize() {
+		return -1;
+	}
+
+	@Override
+	public void write(final IByteBufferWriter writer, final BigInteger value) {
+		final byte[] bytes = value.toByteArray();
+		writer.putInt(bytes.length);
+		writer.put(bytes);
+	}
+
+	@Override
+	public BigInteger read(final IByteBufferReader reader) {
+		final byte[] bytes = new byte[reader.getInt()];
+		reader.get(bytes);
+
+		return new BigInteger(bytes);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,43 @@
+package net.meisen.general.genmisc.types.codecs;
+
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+
+/**
+ * The codec of a {@code byte[]}, which is represented by the length and the
+ * bytes of the array.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class ByteArrayCodec implements IStreamsCodec<byte[]> {
+
+	@Override
+	public Class<byte[]> getType() {
+		return byte[].class;
+	}
+
+	@Override
+	public int getSize() {
+		return -1;
+	}
+
+	@Override
+	public void write(final IByteBufferWriter writer, final byte[] value) {
+		writer.putInt(value.length);
+		writer.put(value);
+	}
+
+	@Override
+	public byte[] read(final IByteBufferReader reader) {
+		final byte[] value = new byte[reader.getInt()];
+		reader.get(value);
+
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,41 @@
+package net.meisen.general.genmisc.types.codecs;
+
+import java.util.Date;
+
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+
+/**
+ * The codec of a {@code Date}, which is represented by the milliseconds since
+ * 01.01.1970 00:00:00 UTC.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class DateCodec implements IStreamsCodec<Date> {
+
+	@Override
+	public Class<Date> getType() {
+		return Date.class;
+	}
+
+	@Override
+	public int getSize() {
+		return 8;
+	}
+
+	@Override
+	public void write(final IByteBufferWriter writer, final Date value) {
+		writer.putLong(value.getTime());
+	}
+
+	@Override
+	public Date read(final IByteBufferReader reader) {
+		return new Date(reader.getLong());
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,59 @@
+package net.meisen.general.genmisc.types.codecs;
+
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+import net.meisen.general.genmisc.types.Streams;
+
+/**
+ * The codec of an {@code int[]}, which is represented by the length and the
+ * differences between consecutive values, written as zigzag encoded
+ * variable-length integers. The representation is small for sorted values
+ * with small gaps, e.g. identifiers. The codec is not used by default for
+ * {@code int[]}, it is used by
+ * {@link Streams#writeColumn(IByteBufferWriter, int[], boolean)}.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class DeltaIntArrayCodec implements IStreamsCodec<int[]> {
+
+	@Override
+	public Class<int[]> getType() {
+		return int[].class;
+	}
+
+	@Override
+	public int getSize() {
+		return -1;
+	}
+
+	@Override
+	public void write(final IByteBufferWriter writer, final int[] value) {
+		writer.putInt(value.length);
+
+		// the difference of two integers may exceed the range of an integer
+		long last = 0;
+		for (final int v : value) {
+			Streams.writeVarLong(writer, Streams.zigZag(v - last));
+			last = v;
+		}
+	}
+
+	@Override
+	public int[] read(final IByteBufferReader reader) {
+		final int[] value = new int[reader.getInt()];
+
+		long last = 0;
+		for (int i = 0; i < value.length; i++) {
+			last += Streams.unZigZag(Streams.readVarLong(reader));
+			value[i] = (int) last;
+		}
+
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,58 @@
+package net.meisen.general.genmisc.types.codecs;
+
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+import net.meisen.general.genmisc.types.Streams;
+
+/**
+ * The codec of a {@code long[]}, which is represented by the length and the
+ * differences between consecutive values, written as zigzag encoded
+ * variable-length integers. The representation is small for sorted values
+ * with small gaps, e.g. timestamps. The codec is not used by default for
+ * {@code long[]}, it is used by
+ * {@link Streams#writeColumn(IByteBufferWriter, long[], boolean)}.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class DeltaLongArrayCodec implements IStreamsCodec<long[]> {
+
+	@Override
+	public Class<long[]> getType() {
+		return long[].class;
+	}
+
+	@Override
+	public int getSize() {
+		return -1;
+	}
+
+	@Override
+	public void write(final IByteBufferWriter writer, final long[] value) {
+		writer.putInt(value.length);
+
+		long last = 0;
+		for (final long v : value) {
+			Streams.writeVarLong(writer, Streams.zigZag(v - last));
+			last = v;
+		}
+	}
+
+	@Override
+	public long[] read(final IByteBufferReader reader) {
+		final long[] value = new long[reader.getInt()];
+
+		long last = 0;
+		for (int i = 0; i < value.length; i++) {
+			last += Streams.unZigZag(Streams.readVarLong(reader));
+			value[i] = last;
+		}
+
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,43 @@
+package net.meisen.general.genmisc.types.codecs;
+
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+
+/**
+ * The codec of a {@code double[]}, which is represented by the length and the
+ * values of the array.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class DoubleArrayCodec implements IStreamsCodec<double[]> {
+
+	@Override
+	public Class<double[]> getType() {
+		return double[].class;
+	}
+
+	@Override
+	public int getSize() {
+		return -1;
+	}
+
+	@Override
+	public void write(final IByteBufferWriter writer, final double[] value) {
+		writer.putInt(value.length);
+		writer.putDoubles(value, 0, value.length);
+	}
+
+	@Override
+	public double[] read(final IByteBufferReader reader) {
+		final double[] value = new double[reader.getInt()];
+		reader.getDoubles(value, 0, value.length);
+
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,57 @@
+package net.meisen.general.genmisc.types.codecs;
+
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+
+/**
+ * A codec defines the byte-representation of a specific type used by the
+ * {@link net.meisen.general.genmisc.types.Streams}. A codec is registered with
+ * a stable identifier using {@link StreamsCodecs#register(int, IStreamsCodec)}
+ * , the identifier is written instead of the type, followed by the bytes
+ * written by the codec. The representation must be self-delimiting, i.e. the
+ * codec must be able to read the value without knowing its size in advance.
+ * 
+ * @author pmeisen
+ * 
+ * @param <T>
+ *            the type handled by the codec
+ */
+public interface IStreamsCodec<T> {
+
+	/**
+	 * Gets the type handled by the codec. Only instances of exactly this type
+	 * are encoded using the codec, sub-classes are not.
+	 * 
+	 * @return the type handled by the codec
+	 */
+	public Class<T> getType();
+
+	/**
+	 * Gets the size (in bytes) of the representation of a value. If the size
+	 * is dynamic, i.e. depends on the value, a negative value is returned.
+	 * 
+	 * @return the size of the representation, or a negative value if the size
+	 *         is dynamic
+	 */
+	public int getSize();
+
+	/**
+	 * Writes the representation of the {@code value}.
+	 * 
+	 * @param writer
+	 *            the writer to write to
+	 * @param value
+	 *            the value to be written, never {@code null}
+	 */
+	public void write(final IByteBufferWriter writer, final T value);
+
+	/**
+	 * Reads a value written by {@link #write(IByteBufferWriter, Object)}.
+	 * 
+	 * @param reader
+	 *            the reader to read from
+	 * 
+	 * @return the read value
+	 */
+	public T read(final IByteBufferReader reader);
+}
@@ -0,0 +1,43 @@
+package net.meisen.general.genmisc.types.codecs;
+
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+
+/**
+ * The codec of an {@code int[]}, which is represented by the length and the
+ * values of the array.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class IntArrayCodec implements IStreamsCodec<int[]> {
+
+	@Override
+	public Class<int[]> getType() {
+		return int[].class;
+	}
+
+	@Override
+	public int getSize() {
+		return -1;
+	}
+
+	@Override
+	public void write(final IByteBufferWriter writer, final int[] value) {
+		writer.putInt(value.length);
+		writer.putInts(value, 0, value.length);
+	}
+
+	@Override
+	public int[] read(final IByteBufferReader reader) {
+		final int[] value = new int[reader.getInt()];
+		reader.getInts(value, 0, value.length);
+
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
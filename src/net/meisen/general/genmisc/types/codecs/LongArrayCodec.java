@@ -0,0 +1,43 @@
+package net.meisen.general.genmisc.types.codecs;
+
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+
+/**
+ * The codec of a {@code long[]}, which is represented by the length and the
+ * values of the array.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class LongArrayCodec implements IStreamsCodec<long[]> {
+
+	@Override
+	public Class<long[]> getType() {
+		return long[].class;
+	}
+
+	@Override
+	public int getSize() {
+		return -1;
+	}
+
+	@Override
+	public void write(final IByteBufferWriter writer, final long[] value) {
+		writer.putInt(value.length);
+		writer.putLongs(value, 0, value.length);
+	}
+
+	@Override
+	public long[] read(final IByteBufferReader reader) {
+		final long[] value = new long[reader.getInt()];
+		reader.getLongs(value, 0, value.length);
+
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,220 @@
+package net.meisen.general.genmisc.types.codecs;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The registry of the {@code StreamsCodecs} used by the
+ * {@link net.meisen.general.genmisc.types.Streams} to represent types, which
+ * are not one of the
+ * {@link net.meisen.general.genmisc.types.Streams#BYTE_TYPES}. A codec is
+ * registered with an identifier, which is written as type of the value and
+ * must therefore be stable, i.e. the same codec must be registered with the
+ * same identifier whenever data is read. The identifiers
+ * {@code [BYTE_TYPES.length, FIRST_CUSTOM_ID)} are reserved for the built-in
+ * codecs, applications can use the identifiers
+ * {@code [FIRST_CUSTOM_ID, MAX_ID]}. Some built-in codecs are alternatives for
+ * a type (e.g. {@link #DELTA_LONGARRAY_ID}), which are used to read the data
+ * written with them, but are never selected for a type automatically.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class StreamsCodecs {
+
+	/**
+	 * The identifier of the built-in codec for {@code Date}
+	 */
+	public static final byte DATE_ID = 8;
+	/**
+	 * The identifier of the built-in codec for {@code UUID}
+	 */
+	public static final byte UUID_ID = 9;
+	/**
+	 * The identifier of the built-in codec for {@code BigInteger}
+	 */
+	public static final byte BIGINTEGER_ID = 10;
+	/**
+	 * The identifier of the built-in codec for {@code BigDecimal}
+	 */
+	public static final byte BIGDECIMAL_ID = 11;
+	/**
+	 * The identifier of the built-in codec for {@code byte[]}
+	 */
+	public static final byte BYTEARRAY_ID = 12;
+	/**
+	 * The identifier of the built-in codec for {@code int[]}
+	 */
+	public static final byte INTARRAY_ID = 13;
+	/**
+	 * The identifier of the built-in codec for {@code long[]}
+	 */
+	public static final byte LONGARRAY_ID = 14;
+	/**
+	 * The identifier of the built-in codec for {@code double[]}
+	 */
+	public static final byte DOUBLEARRAY_ID = 15;
+	/**
+	 * The identifier of the built-in delta codec for {@code long[]}, which is
+	 * only used if explicitly requested
+	 */
+	public static final byte DELTA_LONGARRAY_ID = 16;
+	/**
+	 * The identifier of the built-in delta codec for {@code int[]}, which is
+	 * only used if explicitly requested
+	 */
+	public static final byte DELTA_INTARRAY_ID = 17;
+
+	/**
+	 * The first identifier which can be used by applications
+	 */
+	public static final int FIRST_CUSTOM_ID = 32;
+	/**
+	 * The last identifier which can be used
+	 */
+	public static final int MAX_ID = Byte.MAX_VALUE;
+
+	private static final AtomicReferenceArray<IStreamsCodec<?>> codecs = new AtomicReferenceArray<IStreamsCodec<?>>(
+			MAX_ID + 1);
+	private static final ConcurrentMap<Class<?>, Byte> ids = new ConcurrentHashMap<Class<?>, Byte>();
+
+	static {
+		register(DATE_ID, new DateCodec(), 0);
+		register(UUID_ID, new UuidCodec(), 0);
+		register(BIGINTEGER_ID, new BigIntegerCodec(), 0);
+		register(BIGDECIMAL_ID, new BigDecimalCodec(), 0);
+		register(BYTEARRAY_ID, new ByteArrayCodec(), 0);
+		register(INTARRAY_ID, new IntArrayCodec(), 0);
+		register(LONGARRAY_ID, new LongArrayCodec(), 0);
+		register(DOUBLEARRAY_ID, new DoubleArrayCodec(), 0);
+
+		// alternative codecs are only used when requested explicitly
+		codecs.set(DELTA_LONGARRAY_ID, new DeltaLongArrayCodec());
+		codecs.set(DELTA_INTARRAY_ID, new DeltaIntArrayCodec());
+	}
+
+	/**
+	 * Registers the {@code codec} with the specified identifier.
+	 * 
+	 * @param id
+	 *            the identifier of the codec, must be within
+	 *            {@code [FIRST_CUSTOM_ID, MAX_ID]}
+	 * @param codec
+	 *            the codec to be registered
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the identifier is invalid or if the identifier or the
+	 *             type of the codec is already registered
+	 */
+	public static void register(final int id, final IStreamsCodec<?> codec)
+			throws IllegalArgumentException {
+		register(id, codec, FIRST_CUSTOM_ID);
+	}
+
+	/**
+	 * Registers the {@code codec} with the specified identifier.
+	 * 
+	 * @param id
+	 *            the identifier of the codec
+	 * @param codec
+	 *            the codec to be registered
+	 * @param minId
+	 *            the minimal identifier allowed
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the identifier is invalid or if the identifier or the
+	 *             type of the codec is already registered
+	 */
+	private static synchronized void register(final int id,
+			final IStreamsCodec<?> codec, final int minId)
+			throws IllegalArgumentException {
+		if (codec == null || codec.getType() == null) {
+			throw new IllegalArgumentException(
+					"The codec and its type cannot be null.");
+		} else if (id < minId || id > MAX_ID) {
+			throw new IllegalArgumentException("The identifier '" + id
+					+ "' must be within [" + minId + ", " + MAX_ID + "].");
+		} else if (codecs.get(id) != null) {
+			throw new IllegalArgumentException("The identifier '" + id
+					+ "' is already used by the codec '" + codecs.get(id)
+					+ "'.");
+		} else if (ids.containsKey(codec.getType())) {
+			throw new IllegalArgumentException("The type '"
+					+ codec.getType().getName()
+					+ "' is already registered with the identifier '"
+					+ ids.get(codec.getType()) + "'.");
+		}
+
+		codecs.set(id, codec);
+		ids.put(codec.getType(), (byte) id);
+	}
+
+	/**
+	 * Removes the codec registered with the specified identifier, this is
+	 * also possible for the built-in codecs.
+	 * 
+	 * @param id
+	 *            the identifier of the codec to be removed
+	 * 
+	 * @return the removed codec, {@code null} if no codec was registered
+	 */
+	public static synchronized IStreamsCodec<?> unregister(final int id) {
+		if (id < 0 || id > MAX_ID) {
+			return null;
+		}
+
+		final IStreamsCodec<?> codec = codecs.getAndSet(id, null);
+		if (codec != null) {
+			ids.remove(codec.getType(), (byte) id);
+		}
+
+		return codec;
+	}
+
+	/**
+	 * Gets the identifier of the codec registered for the specified type.
+	 * 
+	 * @param clazz
+	 *            the type to get the identifier for
+	 * 
+	 * @return the identifier, or {@code -1} if no codec is registered for the
+	 *         type
+	 */
+	public static byte getId(final Class<?> clazz) {
+		final Byte id = clazz == null ? null : ids.get(clazz);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Gets the codec registered with the specified identifier.
+	 * 
+	 * @param id
+	 *            the identifier of the codec
+	 * 
+	 * @return the codec, or {@code null} if no codec is registered with the
+	 *         identifier
+	 */
+	public static IStreamsCodec<?> getCodec(final int id) {
+		if (id < 0 || id > MAX_ID) {
+			return null;
+		} else {
+			return codecs.get(id);
+		}
+	}
+
+	/**
+	 * Gets the codec registered for the specified type.
+	 * 
+	 * @param clazz
+	 *            the type to get the codec for
+	 * 
+	 * @return the codec, or {@code null} if no codec is registered for the
+	 *         type
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> IStreamsCodec<T> getCodec(final Class<T> clazz) {
+		final byte id = getId(clazz);
+		return id < 0 ? null : (IStreamsCodec<T>) codecs.get(id);
+	}
+}
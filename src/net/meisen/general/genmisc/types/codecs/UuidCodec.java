@@ -0,0 +1,45 @@
+package net.meisen.general.genmisc.types.codecs;
+
+import java.util.UUID;
+
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+
+/**
+ * The codec of an {@code UUID}, which is represented by the most and the least
+ * significant bits.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class UuidCodec implements IStreamsCodec<UUID> {
+
+	@Override
+	public Class<UUID> getType() {
+		return UUID.class;
+	}
+
+	@Override
+	public int getSize() {
+		return 16;
+	}
+
+	@Override
+	public void write(final IByteBufferWriter writer, final UUID value) {
+		writer.putLong(value.getMostSignificantBits());
+		writer.putLong(value.getLeastSignificantBits());
+	}
+
+	@Override
+	public UUID read(final IByteBufferReader reader) {
+		final long mostSigBits = reader.getLong();
+		final long leastSigBits = reader.getLong();
+
+		return new UUID(mostSigBits, leastSigBits);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
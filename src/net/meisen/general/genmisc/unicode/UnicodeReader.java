@@ -261,12 +261,12 @@ public class UnicodeReader extends Reader {
 	public static String readFile(final InputStream in) throws IOException {
 		final UnicodeReader u = new UnicodeReader(in);
 
-		String file = "";
+		final StringBuilder file = new StringBuilder();
 		String line = "";
 		while ((line = u.readLine()) != null) {
-			file += line;
+			file.append(line);
 		}
 
-		return new String(file.getBytes(), u.getEncoding());
+		return new String(file.toString().getBytes(), u.getEncoding());
 	}
 }
@@ -17,6 +17,11 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({ TestDates.class, TestClasses.class, TestStrings.class,
 		TestWrappedDataInputReader.class, TestFileByteBufferReader.class,
+		TestMappedByteBufferReader.class, TestDirectByteBufferPool.class,
+		TestByteBufferWriter.class,
+		TestStreamsCodecs.class, TestStreamsSpliterator.class,
+		TestRecordLog.class, TestBlockCompression.class,
+		TestEncodingValidator.class, TestHeapFootprint.class,
 		TestStreams.class, TestFiles.class, TestCollections.class,
 		TestResourceInfo.class, TestResource.class, TestMultiMap.class,
 		TestManifest.class, TestVersion.class, TestExceptionCatalog.class,
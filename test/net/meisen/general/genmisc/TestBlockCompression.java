@@ -0,0 +1,255 @@
+package net.meisen.general.genmisc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.meisen.general.genmisc.resources.BlockCompressedReader;
+import net.meisen.general.genmisc.resources.BlockCompressedWriter;
+import net.meisen.general.genmisc.resources.LZBlockCompressor;
+import net.meisen.general.genmisc.types.Streams;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code BlockCompressedWriter}, the
+ * {@code BlockCompressedReader} and the {@code LZBlockCompressor}.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class TestBlockCompression {
+	private File file = null;
+
+	/**
+	 * Creates the file used by the tests.
+	 */
+	@Before
+	public void create() {
+		file = new File(System.getProperty("java.io.tmpdir"), UUID
+				.randomUUID().toString());
+	}
+
+	/**
+	 * Compresses and decompresses the specified {@code data}.
+	 * 
+	 * @param data
+	 *            the data to be compressed
+	 * 
+	 * @return the size of the compressed data
+	 */
+	protected int assertRoundTrip(final byte[] data) {
+		final byte[] compressed = new byte[LZBlockCompressor
+				.maxCompressedLength(data.length)];
+		final int size = new LZBlockCompressor().compress(data, 0,
+				data.length, compressed, 0);
+
+		final byte[] decompressed = new byte[data.length];
+		assertEquals(data.length, LZBlockCompressor.decompress(compressed, 0,
+				size, decompressed, 0, decompressed.length));
+		assertArrayEquals(data, decompressed);
+
+		return size;
+	}
+
+	/**
+	 * Tests the compression and decompression of the
+	 * {@code LZBlockCompressor}.
+	 */
+	@Test
+	public void testCompressor() {
+		final Random rnd = new Random(4711);
+
+		// random data cannot be compressed
+		final byte[] random = new byte[10000];
+		rnd.nextBytes(random);
+		assertTrue(assertRoundTrip(random) >= random.length);
+
+		// repeated data is compressed, also overlapping matches
+		final byte[] repeated = new byte[10000];
+		Arrays.fill(repeated, (byte) 7);
+		assertTrue(assertRoundTrip(repeated) < 100);
+		final byte[] text = "The quick brown fox jumps over the lazy dog. "
+				.getBytes();
+		final byte[] sentences = new byte[50000];
+		for (int i = 0; i < sentences.length; i++) {
+			sentences[i] = text[i % text.length];
+		}
+		assertTrue(assertRoundTrip(sentences) < 1000);
+
+		// short and empty data
+		assertRoundTrip(new byte[0]);
+		assertRoundTrip(new byte[] { 1, 2, 3 });
+		assertRoundTrip("aaaaaaaaaaaaaaaaab".getBytes());
+
+		// mixed data with long literal runs
+		final byte[] mixed = new byte[100000];
+		for (int i = 0; i < mixed.length; i += 1000) {
+			if ((i / 1000) % 2 == 0) {
+				System.arraycopy(random, i % 5000, mixed, i, 1000);
+			} else {
+				System.arraycopy(sentences, i % 3000, mixed, i, 1000);
+			}
+		}
+		assertRoundTrip(mixed);
+
+		// invalid data
+		try {
+			LZBlockCompressor.decompress(new byte[] { (byte) 0xF0, 1 }, 0, 2,
+					new byte[100], 0, 100);
+			fail("Exception expected");
+		} catch (final IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Writes the specified amount of objects compressed to the test's file.
+	 * 
+	 * @param amount
+	 *            the amount of objects
+	 * @param blockSize
+	 *            the size of the blocks
+	 * 
+	 * @return the written objects
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be created
+	 */
+	protected List<Object> write(final int amount, final int blockSize)
+			throws IOException {
+		final List<Object> objects = new ArrayList<Object>();
+		final BlockCompressedWriter writer = new BlockCompressedWriter(file,
+				blockSize);
+		for (int i = 0; i < amount; i++) {
+			final Object o;
+			switch (i % 4) {
+			case 0:
+				o = i;
+				break;
+			case 1:
+				o = "Value " + (i % 100);
+				break;
+			case 2:
+				o = new Date(i * 1000l);
+				break;
+			default:
+				o = (long) i * i;
+			}
+			objects.add(o);
+			Streams.writeNextObject(writer, o);
+		}
+		writer.close();
+
+		return objects;
+	}
+
+	/**
+	 * Tests the writing and reading of objects using the sequential and the
+	 * parallel decompression.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be created
+	 */
+	@Test
+	public void testReadingAndWriting() throws IOException {
+		final List<Object> objects = write(50000, 4096);
+		assertTrue(file.length() < 50000 * 8);
+
+		// read sequential
+		BlockCompressedReader reader = new BlockCompressedReader(file);
+		assertTrue(reader.getBlockCount() > 10);
+		assertEquals(0, reader.getBlockOffset(0));
+		for (final Object o : objects) {
+			assertEquals(o, Streams.readNextObject(reader));
+		}
+		assertFalse(reader.hasRemaining());
+		reader.close();
+
+		// read with parallel decompression
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		reader = new BlockCompressedReader(file, 4, executor);
+		for (final Object o : objects) {
+			assertEquals(o, Streams.readNextObject(reader));
+		}
+		assertFalse(reader.hasRemaining());
+
+		// the blocks can be decompressed independently
+		final byte[] block = reader.decompressBlock(3);
+		assertEquals(reader.getBlockOffset(4) - reader.getBlockOffset(3),
+				block.length);
+		reader.close();
+		executor.shutdown();
+
+		// an empty file
+		write(0, 4096);
+		reader = new BlockCompressedReader(file);
+		assertEquals(0, reader.getBlockCount());
+		assertEquals(0, reader.size());
+		assertFalse(reader.hasRemaining());
+		reader.close();
+	}
+
+	/**
+	 * Tests the detection of corrupted blocks.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be created
+	 */
+	@Test
+	public void testCorruption() throws IOException {
+		write(1000, 1024);
+
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.seek(BlockCompressedWriter.HEADER_SIZE + 5);
+		final int b = raf.read();
+		raf.seek(BlockCompressedWriter.HEADER_SIZE + 5);
+		raf.write(b ^ 0x55);
+		raf.close();
+
+		try {
+			new BlockCompressedReader(file).close();
+			fail("Exception expected");
+		} catch (final IllegalStateException e) {
+			assertTrue(e.getCause() instanceof IOException);
+			assertTrue(e.getCause().getMessage().contains("block 0"));
+		}
+
+		// a file without an index
+		final RandomAccessFile truncate = new RandomAccessFile(file, "rw");
+		truncate.setLength(truncate.length() - 1);
+		truncate.close();
+		try {
+			new BlockCompressedReader(file);
+			fail("Exception expected");
+		} catch (final IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("index"));
+		}
+	}
+
+	/**
+	 * Removes the file created by a test.
+	 */
+	@After
+	public void cleanUp() {
+		if (file.exists()) {
+			assertTrue(file.delete());
+		}
+	}
+}
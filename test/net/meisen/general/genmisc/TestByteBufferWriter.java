@@ -0,0 +1,262 @@
+package net.meisen.general.genmisc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import net.meisen.general.genmisc.resources.FileByteBufferWriter;
+import net.meisen.general.genmisc.resources.HeapByteBufferWriter;
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+import net.meisen.general.genmisc.resources.WrappedByteBufferWriter;
+import net.meisen.general.genmisc.resources.WrappedOutputStreamWriter;
+import net.meisen.general.genmisc.types.Streams;
+
+import org.junit.Test;
+
+/**
+ * Tests the implementations of the {@code ByteBufferWriter}.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class TestByteBufferWriter {
+
+	/**
+	 * Creates a list of objects of all the supported types.
+	 * 
+	 * @return the created objects
+	 */
+	protected List<Object> createObjects() {
+		final List<Object> objects = new ArrayList<Object>();
+		for (int i = 0; i < 500; i++) {
+			objects.add((byte) i);
+			objects.add((short) (i * 7));
+			objects.add(i * -1000003);
+			objects.add(i * 10000000019l);
+			objects.add(i % 2 == 0);
+			objects.add(i / 3.0);
+			objects.add("Value " + i);
+			objects.add("ä€😀 " + i);
+			objects.add(null);
+			objects.add(new Date(i * 1000l));
+		}
+
+		return objects;
+	}
+
+	/**
+	 * Creates the expected representation of the {@code objects} using
+	 * {@link Streams#objectToByte(Object)}.
+	 * 
+	 * @param objects
+	 *            the objects to create the representation for
+	 * 
+	 * @return the expected bytes
+	 */
+	protected byte[] expected(final List<Object> objects) {
+		final byte[][] bytes = new byte[objects.size()][];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = Streams.objectToByte(objects.get(i));
+		}
+
+		return Streams.combineBytes(bytes);
+	}
+
+	/**
+	 * Tests the {@code HeapByteBufferWriter}, which has to grow.
+	 */
+	@Test
+	public void testHeapWriter() {
+		final List<Object> objects = createObjects();
+
+		final HeapByteBufferWriter writer = new HeapByteBufferWriter(1);
+		Streams.writeAllObjects(writer, objects.toArray());
+
+		final byte[] expected = expected(objects);
+		assertEquals(expected.length, writer.position());
+		assertArrayEquals(expected, writer.toByteArray());
+
+		// reuse the writer
+		writer.reset();
+		assertEquals(0, writer.position());
+		Streams.writeNextObject(writer, 5);
+		assertArrayEquals(Streams.objectToByte(5), writer.toByteArray());
+	}
+
+	/**
+	 * Tests the {@code WrappedByteBufferWriter} using a heap and a direct
+	 * {@code ByteBuffer}.
+	 */
+	@Test
+	public void testWrappedWriter() {
+		final List<Object> objects = createObjects();
+		final byte[] expected = expected(objects);
+
+		for (final ByteBuffer buffer : new ByteBuffer[] {
+				ByteBuffer.allocate(expected.length),
+				ByteBuffer.allocateDirect(expected.length) }) {
+			final IByteBufferWriter writer = Streams
+					.createByteBufferWriter(buffer);
+			assertTrue(writer instanceof WrappedByteBufferWriter);
+			Streams.writeAllObjects(writer, objects.toArray());
+			assertEquals(expected.length, writer.position());
+
+			buffer.flip();
+			final IByteBufferReader reader = Streams
+					.createByteBufferReader(buffer);
+			for (final Object o : objects) {
+				assertEquals(o, Streams.readNextObject(reader));
+			}
+			assertFalse(reader.hasRemaining());
+
+			// the buffer is full
+			try {
+				writer.putInt(1);
+				fail("Exception expected");
+			} catch (final BufferOverflowException e) {
+				// expected
+			}
+		}
+	}
+
+	/**
+	 * Tests the {@code WrappedOutputStreamWriter}.
+	 */
+	@Test
+	public void testOutputStreamWriter() {
+		final List<Object> objects = createObjects();
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final IByteBufferWriter writer = new WrappedOutputStreamWriter(out, 10);
+		Streams.writeAllObjects(writer, objects.toArray());
+		writer.close();
+
+		assertArrayEquals(expected(objects), out.toByteArray());
+	}
+
+	/**
+	 * Tests the {@code FileByteBufferWriter} together with the
+	 * {@code FileByteBufferReader}.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be handled
+	 */
+	@Test
+	public void testFileWriter() throws IOException {
+		final List<Object> objects = createObjects();
+		final File file = new File(System.getProperty("java.io.tmpdir"), UUID
+				.randomUUID().toString());
+
+		final IByteBufferWriter writer = new FileByteBufferWriter(file, 100);
+		Streams.writeAllObjects(writer, objects.toArray());
+		writer.close();
+
+		final FileInputStream fis = new FileInputStream(file);
+		assertArrayEquals(expected(objects), Streams.copyStreamToByteArray(fis));
+		fis.close();
+
+		final IByteBufferReader reader = Streams.createByteBufferReader(file);
+		for (final Object o : objects) {
+			assertEquals(o, Streams.readNextObject(reader));
+		}
+		assertFalse(reader.hasRemaining());
+		reader.close();
+
+		assertTrue(file.delete());
+	}
+
+	/**
+	 * Tests the encoding of strings, which must be equal to the encoding of
+	 * {@code String#getBytes(String)} using UTF-8.
+	 */
+	@Test
+	public void testStringEncoding() {
+		final String[] strings = new String[] { "", "Hello World",
+				"üßé", "€中", "😀",
+				"lone \ud83d high", "lone \ude00 low", "end \ud83d" };
+
+		for (final String s : strings) {
+			final HeapByteBufferWriter writer = new HeapByteBufferWriter();
+			Streams.writeNextObject(writer, s);
+
+			final byte[] bytes = Streams.stringToByte(s);
+			final byte[] res = writer.toByteArray();
+			assertEquals(s, 5 + bytes.length, res.length);
+			assertEquals(s, bytes.length, Streams.byteToInt(res, 1));
+			for (int i = 0; i < bytes.length; i++) {
+				assertEquals(s, bytes[i], res[5 + i]);
+			}
+		}
+	}
+
+	/**
+	 * Tests the handling of objects which cannot be serialized.
+	 */
+	@Test
+	public void testNotSerializable() {
+		final HeapByteBufferWriter writer = new HeapByteBufferWriter();
+		try {
+			Streams.writeNextObject(writer, new Object());
+			fail("Exception expected");
+		} catch (final IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("cannot be serialized"));
+		}
+
+		// nothing was written
+		assertEquals(0, writer.position());
+		assertNull(Streams.objectToByte(new Object()));
+	}
+
+	/**
+	 * Tests the bulk writing of primitive values, which exceed the size of
+	 * the buffer.
+	 */
+	@Test
+	public void testBulkPrimitives() {
+		final long[] longs = new long[1000];
+		final int[] ints = new int[1000];
+		final double[] doubles = new double[1000];
+		for (int i = 0; i < 1000; i++) {
+			longs[i] = i * 10000000019l;
+			ints[i] = i * -1000003;
+			doubles[i] = i / 3.0;
+		}
+
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		final IByteBufferWriter writer = new WrappedOutputStreamWriter(
+				output, 13);
+		writer.put((byte) 1);
+		writer.putLongs(longs, 0, 1000);
+		writer.putInts(ints, 1, 999);
+		writer.putDoubles(doubles, 0, 1000);
+		writer.close();
+
+		final ByteBuffer buffer = ByteBuffer.wrap(output.toByteArray());
+		assertEquals(1 + 8 * 1000 + 4 * 999 + 8 * 1000, buffer.remaining());
+		assertEquals(1, buffer.get());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(longs[i], buffer.getLong());
+		}
+		for (int i = 1; i < 1000; i++) {
+			assertEquals(ints[i], buffer.getInt());
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(doubles[i], buffer.getDouble(), 0.0);
+		}
+	}
+}
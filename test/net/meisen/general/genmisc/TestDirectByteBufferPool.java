@@ -0,0 +1,159 @@
+package net.meisen.general.genmisc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import net.meisen.general.genmisc.resources.DirectByteBufferPool;
+import net.meisen.general.genmisc.resources.WrappedDataInputReader;
+import net.meisen.general.genmisc.resources.WrappedInputStreamReader;
+
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code DirectByteBufferPool}.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class TestDirectByteBufferPool {
+	private static final DirectByteBufferPool pool = new DirectByteBufferPool(
+			64 * 1024);
+
+	/**
+	 * Helper class to use the test's pool.
+	 * 
+	 * @author pmeisen
+	 * 
+	 */
+	private static class PooledInputStreamReader extends
+			WrappedInputStreamReader {
+
+		public PooledInputStreamReader(final InputStream input,
+				final int arraySize, final int prefetchDepth) {
+			super(input, arraySize, -1, prefetchDepth);
+		}
+
+		@Override
+		protected DirectByteBufferPool getBufferPool() {
+			return pool;
+		}
+	}
+
+	/**
+	 * Creates bytes numbered from 0 - {@code Byte.MAX_VALUE}.
+	 * 
+	 * @param size
+	 *            the amount of bytes
+	 * 
+	 * @return the created bytes
+	 */
+	protected byte[] createBytes(final int size) {
+		final byte[] bytes = new byte[size];
+		for (int i = 0; i < size; i++) {
+			bytes[i] = (byte) (i % Byte.MAX_VALUE);
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Tests the acquiring and releasing of buffers.
+	 */
+	@Test
+	public void testAcquireAndRelease() {
+		final DirectByteBufferPool pool = new DirectByteBufferPool(8192);
+
+		// the capacity is rounded
+		final ByteBuffer buffer = pool.acquire(3000);
+		assertTrue(buffer.isDirect());
+		assertEquals(4096, buffer.capacity());
+		assertEquals(1024, pool.acquire(1).capacity());
+		assertEquals(4096, pool.acquire(4096).capacity());
+
+		// a released buffer is reused and cleared
+		buffer.put((byte) 5);
+		pool.release(buffer);
+		assertEquals(4096, pool.getPooledBytes());
+		final ByteBuffer reused = pool.acquire(2049);
+		assertSame(buffer, reused);
+		assertEquals(0, reused.position());
+		assertEquals(4096, reused.limit());
+		assertEquals(0, pool.getPooledBytes());
+
+		// the pool is bounded
+		final ByteBuffer second = pool.acquire(4096);
+		final ByteBuffer third = pool.acquire(4096);
+		pool.release(reused);
+		pool.release(second);
+		pool.release(third);
+		assertEquals(8192, pool.getPooledBytes());
+
+		// foreign buffers are ignored
+		pool.release(ByteBuffer.allocate(1024));
+		pool.release(ByteBuffer.allocateDirect(1000));
+		assertEquals(8192, pool.getPooledBytes());
+
+		pool.clear();
+		assertEquals(0, pool.getPooledBytes());
+		assertNotSame(buffer, pool.acquire(4096));
+	}
+
+	/**
+	 * Tests that the readers give the buffers back when closed.
+	 */
+	@Test
+	public void testReaders() {
+		pool.clear();
+
+		for (final int depth : new int[] { 0, 2 }) {
+			for (int i = 0; i < 100; i++) {
+				final PooledInputStreamReader reader = new PooledInputStreamReader(
+						new ByteArrayInputStream(createBytes(5000)), 100, depth);
+
+				int k = 0;
+				while (reader.hasRemaining()) {
+					assertEquals(k % Byte.MAX_VALUE, reader.get());
+					k++;
+				}
+				assertEquals(5000, k);
+				reader.close();
+			}
+		}
+
+		// the pool keeps the buffers for reuse but never exceeds the limit
+		assertTrue(pool.getPooledBytes() > 0);
+		assertTrue(pool.getPooledBytes() <= pool.getMaxPooledBytes());
+		pool.clear();
+	}
+
+	/**
+	 * Tests the {@code WrappedDataInputReader} with a buffer taken from the
+	 * pool.
+	 */
+	@Test
+	public void testDataInputReader() {
+		final DataInput input = new DataInputStream(new ByteArrayInputStream(
+				createBytes(3000)));
+		final WrappedDataInputReader reader = new WrappedDataInputReader(input,
+				10);
+
+		int k = 0;
+		while (reader.hasRemaining()) {
+			assertEquals(k % Byte.MAX_VALUE, reader.get());
+			k++;
+		}
+		assertEquals(3000, k);
+
+		reader.close();
+		assertFalse(reader.hasRemaining());
+	}
+}
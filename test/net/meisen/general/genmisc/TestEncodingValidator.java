@@ -0,0 +1,168 @@
+package net.meisen.general.genmisc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+
+import net.meisen.general.genmisc.types.EncodingValidator;
+import net.meisen.general.genmisc.types.Streams;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code EncodingValidator}.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class TestEncodingValidator {
+	private File file = null;
+
+	/**
+	 * Creates the file used by the tests.
+	 */
+	@Before
+	public void create() {
+		file = new File(System.getProperty("java.io.tmpdir"), UUID
+				.randomUUID().toString());
+	}
+
+	private boolean decodes(final byte[] content) {
+		try {
+			StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(content));
+			return true;
+		} catch (final CharacterCodingException e) {
+			return false;
+		}
+	}
+
+	private byte[] bytes(final int... values) {
+		final byte[] bytes = new byte[values.length];
+		for (int i = 0; i < values.length; i++) {
+			bytes[i] = (byte) values[i];
+		}
+		return bytes;
+	}
+
+	/**
+	 * Tests the validation of US-ASCII content.
+	 */
+	@Test
+	public void testAscii() {
+		final byte[] content = "This is a plain ASCII text, which is long."
+				.getBytes(StandardCharsets.US_ASCII);
+		assertTrue(EncodingValidator.isAscii(content));
+		assertTrue(EncodingValidator.isAscii(new byte[0]));
+
+		// a non-ASCII byte at every position
+		for (int i = 0; i < content.length; i++) {
+			final byte[] invalid = content.clone();
+			invalid[i] = (byte) 0xE4;
+			assertFalse(EncodingValidator.isAscii(invalid));
+			assertTrue(EncodingValidator.isAscii(invalid, 0, i));
+			assertTrue(EncodingValidator.isAscii(invalid, i + 1,
+					invalid.length - i - 1));
+		}
+
+		// a direct buffer
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+		buffer.put(content);
+		buffer.flip();
+		assertTrue(EncodingValidator.isAscii(buffer));
+		assertEquals(0, buffer.position());
+	}
+
+	/**
+	 * Tests the validation of UTF-8 content, especially of sequences the
+	 * decoder of the JVM rejects.
+	 */
+	@Test
+	public void testUtf8() {
+		assertTrue(EncodingValidator.isUtf8(new byte[0]));
+		assertTrue(EncodingValidator.isUtf8("plain ASCII text"
+				.getBytes(StandardCharsets.UTF_8)));
+		assertTrue(EncodingValidator.isUtf8("\u00e4\u00f6\u00fc \u20ac text"
+				.getBytes(StandardCharsets.UTF_8)));
+
+		// supplementary characters
+		final byte[] smiley = "a smiley \ud83d\ude00 and text"
+				.getBytes(StandardCharsets.UTF_8);
+		assertTrue(EncodingValidator.isUtf8(smiley));
+
+		// overlong, surrogate, out of range and missing continuation bytes
+		assertFalse(EncodingValidator.isUtf8(bytes(0xC0, 0x80)));
+		assertFalse(EncodingValidator.isUtf8(bytes(0xE0, 0x80, 0x80)));
+		assertFalse(EncodingValidator.isUtf8(bytes(0xF0, 0x80, 0x80, 0x80)));
+		assertFalse(EncodingValidator.isUtf8(bytes(0xED, 0xA0, 0x80)));
+		assertFalse(EncodingValidator.isUtf8(bytes(0xF4, 0x90, 0x80, 0x80)));
+		assertFalse(EncodingValidator.isUtf8(bytes(0xF8, 0x80, 0x80, 0x80)));
+		assertFalse(EncodingValidator.isUtf8(bytes(0x80)));
+		assertFalse(EncodingValidator.isUtf8(bytes(0xC3, 0x41)));
+
+		// incomplete characters at the end of the input
+		final int pos = 10;
+		assertFalse(EncodingValidator.isUtf8(smiley, 0, pos + 2, true));
+		assertTrue(EncodingValidator.isUtf8(smiley, 0, pos + 2, false));
+		assertFalse(EncodingValidator.isUtf8(bytes(0xC3, 0x41), 0, 2, false));
+
+		// compare random content with the decoder of the JVM
+		final Random rnd = new Random(47);
+		for (int i = 0; i < 5000; i++) {
+			final byte[] content = new byte[rnd.nextInt(24)];
+			for (int k = 0; k < content.length; k++) {
+				final int r = rnd.nextInt(4);
+				content[k] = (byte) (r == 0 ? rnd.nextInt(0x80) : r == 1 ? 0x80
+						+ rnd.nextInt(0x40) : rnd.nextInt(256));
+			}
+			assertEquals(decodes(content), EncodingValidator.isUtf8(content));
+		}
+	}
+
+	/**
+	 * Tests the validation of a file.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	@Test
+	public void testFile() throws IOException {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			sb.append("line ").append(i).append(" \u00e4 \ud83d\ude00\n");
+		}
+		final byte[] content = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+		FileOutputStream out = new FileOutputStream(file);
+		out.write(content);
+		Streams.closeIO(out);
+		assertTrue(EncodingValidator.isUtf8(file));
+		assertFalse(EncodingValidator.isAscii(file));
+
+		// cut the last character
+		out = new FileOutputStream(file);
+		out.write(content, 0, content.length - 2);
+		Streams.closeIO(out);
+		assertFalse(EncodingValidator.isUtf8(file));
+	}
+
+	/**
+	 * Removes the file created by the tests.
+	 */
+	@After
+	public void cleanUp() {
+		if (file.exists()) {
+			assertTrue(file.delete());
+		}
+	}
+}
@@ -6,15 +6,22 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.util.Set;
 import java.util.UUID;
 
+import net.meisen.general.genmisc.resources.BaseByteBufferReader;
 import net.meisen.general.genmisc.resources.FileByteBufferReader;
+import net.meisen.general.genmisc.resources.WrappedInputStreamReader;
 import net.meisen.general.genmisc.types.Streams;
 
 import org.junit.After;
@@ -28,7 +35,7 @@ import org.junit.Test;
  */
 public class TestFileByteBufferReader {
 
-	private FileByteBufferReader reader = null;
+	private BaseByteBufferReader reader = null;
 	private File file = null;
 
 	/**
@@ -236,6 +243,255 @@ public class TestFileByteBufferReader {
 		assertFalse(reader.hasRemaining());
 	}
 
+	/**
+	 * Tests the bulk reading of bytes across the boundaries of the array and
+	 * the buffer.
+	 */
+	@Test
+	public void testBulkReading() {
+		setReader(10000, 7, true);
+
+		final byte[] dst = new byte[1000];
+		for (int i = 0; i < 10; i++) {
+			reader.get(dst);
+
+			for (int k = 0; k < dst.length; k++) {
+				assertEquals((i * dst.length + k) % Byte.MAX_VALUE, dst[k]);
+			}
+		}
+		assertFalse(reader.hasRemaining());
+
+		try {
+			reader.get(dst, 0, 1);
+			fail("Exception expected");
+		} catch (final BufferUnderflowException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Tests the reading of primitive values spanning the boundaries of the
+	 * array.
+	 */
+	@Test
+	public void testReadingPrimitives() {
+		file = new File(System.getProperty("java.io.tmpdir"), UUID
+				.randomUUID().toString());
+
+		DataOutputStream output = null;
+		try {
+			output = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(file)));
+			for (int i = 0; i < 500; i++) {
+				output.writeByte(i);
+				output.writeShort(i * 3);
+				output.writeInt(i * -70001);
+				output.writeLong(i * 5000000011l);
+				output.writeDouble(i / 7.0);
+			}
+			output.flush();
+		} catch (final IOException e) {
+			fail(e.getMessage());
+		} finally {
+			Streams.closeIO(output);
+		}
+
+		try {
+			reader = new FileByteBufferReader(file, 5);
+		} catch (final FileNotFoundException e) {
+			fail(e.getMessage());
+		}
+
+		for (int i = 0; i < 500; i++) {
+			assertEquals((byte) i, reader.get());
+			assertEquals((short) (i * 3), reader.getShort());
+			assertEquals(i * -70001, reader.getInt());
+			assertEquals(i * 5000000011l, reader.getLong());
+			assertEquals(i / 7.0, reader.getDouble(), 0.0);
+		}
+		assertFalse(reader.hasRemaining());
+	}
+
+	/**
+	 * Tests the bulk reading of primitive values spanning the boundaries of
+	 * the array and the buffer.
+	 */
+	@Test
+	public void testBulkReadingPrimitives() {
+		file = new File(System.getProperty("java.io.tmpdir"), UUID
+				.randomUUID().toString());
+
+		DataOutputStream output = null;
+		try {
+			output = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(file)));
+			output.writeByte(1);
+			for (int i = 0; i < 500; i++) {
+				output.writeLong(i * 5000000011l);
+			}
+			for (int i = 0; i < 500; i++) {
+				output.writeInt(i * -70001);
+			}
+			for (int i = 0; i < 500; i++) {
+				output.writeDouble(i / 7.0);
+			}
+			output.flush();
+		} catch (final IOException e) {
+			fail(e.getMessage());
+		} finally {
+			Streams.closeIO(output);
+		}
+
+		for (final int arraySize : new int[] { 3, 8, 13, 100, 20000 }) {
+			try {
+				reader = new FileByteBufferReader(file, arraySize, 29, 0);
+			} catch (final FileNotFoundException e) {
+				fail(e.getMessage());
+			}
+			assertEquals(1, reader.get());
+
+			final long[] longs = new long[501];
+			reader.getLongs(longs, 1, 500);
+			final int[] ints = new int[500];
+			reader.getInts(ints, 0, 500);
+			final double[] doubles = new double[500];
+			reader.getDoubles(doubles, 0, 500);
+			assertFalse(reader.hasRemaining());
+
+			for (int i = 0; i < 500; i++) {
+				assertEquals(i * 5000000011l, longs[i + 1]);
+				assertEquals(i * -70001, ints[i]);
+				assertEquals(i / 7.0, doubles[i], 0.0);
+			}
+
+			try {
+				reader.getInts(ints, 0, 1);
+				fail("Exception expected");
+			} catch (final BufferUnderflowException e) {
+				// expected
+			}
+			reader.close();
+		}
+	}
+
+	/**
+	 * Tests the reading of a file, which is read in advance by a background
+	 * thread.
+	 */
+	@Test
+	public void testPrefetching() {
+		file = createFile(100000, true);
+		try {
+			reader = new FileByteBufferReader(file, 7, 100, 3);
+		} catch (final FileNotFoundException e) {
+			fail(e.getMessage());
+		}
+		assertEquals(3, reader.getPrefetchDepth());
+		assertEquals(100, reader.getBufferSize());
+
+		int i = 0;
+		while (reader.hasRemaining()) {
+			assertEquals(i % Byte.MAX_VALUE, reader.get());
+			i++;
+		}
+		assertEquals(100000, i);
+
+		// a reader can be closed prior to reading all the data
+		reader.close();
+		try {
+			reader = new FileByteBufferReader(file, 10, 10, 2);
+		} catch (final FileNotFoundException e) {
+			fail(e.getMessage());
+		}
+		assertEquals(0, reader.get());
+		reader.close();
+
+		// no background thread is needed if the array covers the file
+		try {
+			reader = new FileByteBufferReader(file, 100000, 10, 2);
+		} catch (final FileNotFoundException e) {
+			fail(e.getMessage());
+		}
+		assertEquals(0, reader.getPrefetchDepth());
+	}
+
+	/**
+	 * Tests the reading of an {@code InputStream} in advance, which fails
+	 * while reading.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	@Test
+	public void testPrefetchingFailure() throws IOException {
+		file = createFile(1000, true);
+
+		final FilterInputStream input = new FilterInputStream(
+				new FileInputStream(file)) {
+			private int readBytes = 0;
+
+			@Override
+			public int read(final byte[] b) throws IOException {
+				if (readBytes >= 500) {
+					throw new IOException("Failed to read.");
+				}
+
+				final int res = super.read(b, 0, Math.min(b.length, 100));
+				readBytes += res;
+				return res;
+			}
+		};
+		reader = new WrappedInputStreamReader(input, 10, 100, 2);
+
+		// the data read prior to the failure is available
+		int i = 0;
+		try {
+			for (; i < 1000; i++) {
+				assertEquals(i % Byte.MAX_VALUE, reader.get());
+			}
+			fail("Exception expected");
+		} catch (final IllegalStateException e) {
+			assertEquals("Failed to read.", e.getCause().getMessage());
+		}
+		assertEquals(500, i);
+	}
+
+	private Thread createAbandonedReader() throws FileNotFoundException {
+		final Set<Thread> threads = Thread.getAllStackTraces().keySet();
+		final BaseByteBufferReader abandoned = new FileByteBufferReader(file,
+				10, 100, 2);
+		assertEquals(0, abandoned.get());
+
+		for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (!threads.contains(thread)
+					&& thread.getName().startsWith("Prefetcher-")) {
+				return thread;
+			}
+		}
+
+		fail("Unable to find the background thread.");
+		return null;
+	}
+
+	/**
+	 * Tests that the background thread of a reader, which is not closed but
+	 * garbage collected, is stopped.
+	 * 
+	 * @throws Exception
+	 *             if the test fails
+	 */
+	@Test
+	public void testPrefetchingAbandoned() throws Exception {
+		file = createFile(100000, true);
+
+		final Thread thread = createAbandonedReader();
+		for (int i = 0; i < 100 && thread.isAlive(); i++) {
+			System.gc();
+			thread.join(100);
+		}
+		assertFalse(thread.isAlive());
+	}
+
 	/**
 	 * Close the reader and remove the file.
 	 */
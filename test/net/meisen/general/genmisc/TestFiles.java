@@ -1,17 +1,42 @@
 package net.meisen.general.genmisc;
 
+import net.meisen.general.genmisc.types.CopyEngine;
+import net.meisen.general.genmisc.types.CopyResult;
+import net.meisen.general.genmisc.types.CopyTreeResult;
 import net.meisen.general.genmisc.types.Files;
+import net.meisen.general.genmisc.types.LineSpliterator;
 import net.meisen.general.genmisc.types.Misc;
+import net.meisen.general.genmisc.types.ParallelZip;
 import net.meisen.general.genmisc.types.Streams;
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
-
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -477,6 +502,149 @@ public class TestFiles {
         assertTrue(zippedFile.delete());
     }
 
+    /**
+     * Tests the parallel zipping and unzipping of a directory.
+     *
+     * @throws IOException if the directory cannot be accessed
+     */
+    @Test
+    public void testParallelZip() throws IOException {
+        final File tmpTestDir = Util
+                .testUnzipHelper("net/meisen/general/genmisc/zipArchives/filesAndDirs.zip");
+        final File zippedFile = new File(tmpDir, UUID.randomUUID().toString() + ".zip");
+
+        try {
+            // zip everything in parallel and unzip it sequentially
+            Files.zipDirectory(tmpTestDir, zippedFile, 4, 9);
+            assertTrue(Files.deleteDir(tmpTestDir));
+            Files.unzip(zippedFile, tmpTestDir);
+            Util.validateUnzippedFilesAndDir(tmpTestDir);
+
+            // unzip it in parallel
+            assertTrue(Files.deleteDir(tmpTestDir));
+            final CopyResult result = Files.unzip(zippedFile, tmpTestDir, 3);
+            assertTrue(result.getFiles() > 10);
+            Util.validateUnzippedFilesAndDir(tmpTestDir);
+
+            // store without compression
+            Files.zipDirectory(tmpTestDir, zippedFile, 1, 0);
+            assertTrue(Files.deleteDir(tmpTestDir));
+            Files.unzip(zippedFile, tmpTestDir, 2);
+            Util.validateUnzippedFilesAndDir(tmpTestDir);
+        } finally {
+            assertTrue(Files.deleteDir(tmpTestDir));
+            assertTrue(zippedFile.delete());
+        }
+    }
+
+    private byte[] readBytes(final File file) throws IOException {
+        final InputStream in = new FileInputStream(file);
+        try {
+            return Streams.copyStreamToByteArray(in);
+        } finally {
+            Streams.closeIO(in);
+        }
+    }
+
+    private List<String> getEntryNames(final File zipFile) throws IOException {
+        final List<String> names = new ArrayList<String>();
+        final ZipFile zip = new ZipFile(zipFile);
+        try {
+            final Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                names.add(entries.nextElement().getName());
+            }
+        } finally {
+            zip.close();
+        }
+
+        return names;
+    }
+
+    /**
+     * Tests that the sequential and the parallel zipping create the same
+     * entries.
+     *
+     * @throws IOException if the directory cannot be accessed
+     */
+    @Test
+    public void testZipEntryNames() throws IOException {
+        final File tmpTestDir = Util
+                .testUnzipHelper("net/meisen/general/genmisc/zipArchives/filesAndDirs.zip");
+        final File seqFile = new File(tmpDir, UUID.randomUUID().toString() + ".zip");
+        final File parFile = new File(tmpDir, UUID.randomUUID().toString() + ".zip");
+
+        try {
+            Files.zipDirectory(tmpTestDir, seqFile);
+            Files.zipDirectory(tmpTestDir, parFile, 3, 5);
+
+            final List<String> names = getEntryNames(seqFile);
+            assertEquals(names, getEntryNames(parFile));
+            for (final String name : names) {
+                assertFalse(name, name.startsWith("/"));
+                assertFalse(name, name.contains("\\"));
+                assertFalse(name, name.contains("//"));
+            }
+        } finally {
+            assertTrue(Files.deleteDir(tmpTestDir));
+            assertTrue(seqFile.delete());
+            assertTrue(parFile.delete());
+        }
+    }
+
+    /**
+     * Tests the parallel zipping of files exceeding the buffered bytes, i.e.
+     * of files deflated while written.
+     *
+     * @throws IOException if the directory cannot be accessed
+     */
+    @Test
+    public void testParallelZipLargeEntries() throws IOException {
+        final File tmpTestDir = new File(tmpDir, UUID.randomUUID().toString());
+        final File zippedFile = new File(tmpDir, UUID.randomUUID().toString() + ".zip");
+        final File unzippedDir = new File(tmpDir, UUID.randomUUID().toString());
+        assertTrue(new File(tmpTestDir, "sub").mkdirs());
+
+        try {
+            final byte[] content = new byte[300 * 1024];
+            for (int i = 0; i < content.length; i++) {
+                content[i] = (byte) (i % 97 + i / 4096);
+            }
+            for (int i = 0; i < 5; i++) {
+                final File file = new File(tmpTestDir, i % 2 == 0 ? "large" + i
+                        : "sub/small" + i);
+                final OutputStream out = new FileOutputStream(file);
+                out.write(content, 0, i % 2 == 0 ? content.length - i : 100 + i);
+                Streams.closeIO(out);
+            }
+
+            // only the small files are buffered
+            ParallelZip.zip(tmpTestDir, zippedFile, 2, 6, 4096);
+            assertEquals(new HashSet<String>(Arrays.asList("large0", "large2",
+                    "large4", "sub/", "sub/small1", "sub/small3")),
+                    new HashSet<String>(getEntryNames(zippedFile)));
+
+            // read it with both implementations
+            Files.unzip(zippedFile, unzippedDir);
+            for (final File file : Files.getDirectoryContent(tmpTestDir)) {
+                final File unzipped = new File(unzippedDir, tmpTestDir.toPath()
+                        .relativize(file.toPath()).toString());
+                assertTrue(unzipped.exists());
+                if (file.isFile()) {
+                    assertArrayEquals(readBytes(file), readBytes(unzipped));
+                }
+            }
+            assertTrue(Files.deleteDir(unzippedDir));
+            Files.unzip(zippedFile, unzippedDir, 2);
+            assertArrayEquals(readBytes(new File(tmpTestDir, "large2")),
+                    readBytes(new File(unzippedDir, "large2")));
+        } finally {
+            assertTrue(Files.deleteDir(tmpTestDir));
+            assertTrue(Files.deleteDir(unzippedDir));
+            assertTrue(zippedFile.delete());
+        }
+    }
+
     /**
      * Tests the implementation of
      * {@code Files#writeProperties(File, Properties)}.
@@ -512,4 +680,293 @@ public class TestFiles {
             Files.deleteDir(tmpDir);
         }
     }
+
+    /**
+     * Reads the content of the specified {@code file}.
+     *
+     * @param file the file to be read
+     * @return the content of the file
+     * @throws IOException if the file cannot be read
+     */
+    protected byte[] read(final File file) throws IOException {
+        final InputStream in = new FileInputStream(file);
+        try {
+            return Streams.copyStreamToByteArray(in);
+        } finally {
+            Streams.closeIO(in);
+        }
+    }
+
+    /**
+     * Tests the copying of files, directories and streams and the reported
+     * results.
+     *
+     * @throws IOException if an IO-error occurred
+     */
+    @Test
+    public void testCopying() throws IOException {
+        final byte[] content = new byte[300 * 1024 + 17];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i % 251);
+        }
+
+        final File tmpTestDir = new File(tmpDir, UUID.randomUUID().toString());
+        final File srcDir = new File(tmpTestDir, "src");
+        final File subDir = new File(srcDir, "sub");
+        assertTrue(subDir.mkdirs());
+
+        try {
+            // copy a stream to a file
+            final File srcFile = new File(srcDir, "content.bin");
+            CopyResult result = CopyEngine.copy(new ByteArrayInputStream(content), srcFile);
+            assertEquals(content.length, result.getBytes());
+            assertEquals(1, result.getFiles());
+            assertEquals(content.length, srcFile.length());
+
+            // copy a file
+            final File copy = new File(subDir, "copy.bin");
+            result = CopyEngine.copy(srcFile, copy);
+            assertEquals(content.length, result.getBytes());
+            assertArrayEquals(content, read(copy));
+
+            // copy a partially read file stream
+            final FileInputStream fis = new FileInputStream(srcFile);
+            assertEquals(100, fis.skip(100));
+            final File rest = new File(tmpTestDir, "rest.bin");
+            result = CopyEngine.copy(fis, rest);
+            Streams.closeIO(fis);
+            assertEquals(content.length - 100, result.getBytes());
+            assertArrayEquals(Arrays.copyOfRange(content, 100, content.length),
+                    read(rest));
+
+            // copy the whole directory
+            final File destDir = new File(tmpTestDir, "dest");
+            result = CopyEngine.copyDirectory(srcDir, destDir);
+            assertEquals(2, result.getFiles());
+            assertEquals(2l * content.length, result.getBytes());
+            assertArrayEquals(content, read(new File(destDir, "sub/copy.bin")));
+
+            // copy streams
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            result = CopyEngine.copy(new ByteArrayInputStream(content), out);
+            assertEquals(content.length, result.getBytes());
+            assertArrayEquals(content, out.toByteArray());
+            assertArrayEquals(content, Streams.copyStreamToByteArray(new ByteArrayInputStream(content)));
+            assertArrayEquals(content, Streams.copyStreamToByteArray(new ByteArrayInputStream(content), 7));
+
+            // the void methods copy as well
+            final File voidCopy = new File(tmpTestDir, "void.bin");
+            Files.copyFile(srcFile, voidCopy);
+            assertArrayEquals(content, read(voidCopy));
+        } finally {
+            assertTrue(Files.deleteDir(tmpTestDir));
+        }
+    }
+
+    /**
+     * Tests the copying of a file stream, which does not report its size
+     * (i.e. a {@code /proc} file).
+     *
+     * @throws IOException if an IO-error occurred
+     */
+    @Test
+    public void testCopyingUnknownSize() throws IOException {
+        final File proc = new File("/proc/self/status");
+        Assume.assumeTrue(proc.canRead() && proc.length() == 0);
+
+        final File tmpTestDir = new File(tmpDir, UUID.randomUUID().toString());
+        assertTrue(tmpTestDir.mkdirs());
+
+        try {
+            final File dest = new File(tmpTestDir, "status");
+            final FileInputStream fis = new FileInputStream(proc);
+            final CopyResult result;
+            try {
+                result = CopyEngine.copy(fis, dest);
+            } finally {
+                Streams.closeIO(fis);
+            }
+
+            assertTrue(result.getBytes() > 0);
+            assertEquals(result.getBytes(), dest.length());
+            assertTrue(Files.readFromFile(dest).contains("Name:"));
+        } finally {
+            assertTrue(Files.deleteDir(tmpTestDir));
+        }
+    }
+
+    /**
+     * Tests the parallel copying of a directory tree.
+     *
+     * @throws IOException if an IO-error occurred
+     */
+    @Test
+    public void testParallelCopying() throws IOException {
+        final File tmpTestDir = new File(tmpDir, UUID.randomUUID().toString());
+        final File srcDir = new File(tmpTestDir, "src");
+        final File destDir = new File(tmpTestDir, "dest");
+
+        try {
+            // create a tree of 5 directories with 20 files each
+            long size = 0;
+            for (int d = 0; d < 5; d++) {
+                final File dir = new File(srcDir, "dir" + d + File.separator + "sub");
+                assertTrue(dir.mkdirs());
+                for (int f = 0; f < 20; f++) {
+                    final byte[] content = new byte[d * 1000 + f];
+                    Arrays.fill(content, (byte) f);
+                    Files.copyStreamToFile(new ByteArrayInputStream(content), new File(dir, f + ".bin"));
+                    size += content.length;
+                }
+            }
+            final File modified = new File(srcDir, "dir3/sub/7.bin");
+            assertTrue(modified.setLastModified(1000000000000l));
+
+            // a directory blocks one of the files
+            assertTrue(new File(destDir, "dir2/sub/5.bin").mkdirs());
+
+            final CopyTreeResult result = Files.copyDirectory(srcDir, destDir, 4, true);
+            assertEquals(99, result.getFiles());
+            assertEquals(size - 2005, result.getBytes());
+            assertEquals(11, result.getDirectories());
+            assertFalse(result.isSuccessful());
+            assertEquals(1, result.getErrors().size());
+            assertTrue(result.getErrors().containsKey(new File(srcDir, "dir2/sub/5.bin")));
+
+            // check the copied files
+            final File copied = new File(destDir, "dir3/sub/7.bin");
+            assertEquals(1000000000000l, copied.lastModified());
+            final byte[] expected = new byte[3007];
+            Arrays.fill(expected, (byte) 7);
+            assertArrayEquals(expected, read(copied));
+            assertEquals(4019, new File(destDir, "dir4/sub/19.bin").length());
+        } finally {
+            assertTrue(Files.deleteDir(tmpTestDir));
+        }
+    }
+
+    /**
+     * Tests the lazy walking of a directory tree.
+     *
+     * @throws IOException if an IO-error occurred
+     */
+    @Test
+    public void testWalking() throws IOException {
+        final File tmpTestDir = new File(tmpDir, UUID.randomUUID().toString());
+
+        try {
+            // create a tree with 3 levels and 4 files in each directory
+            for (int a = 0; a < 3; a++) {
+                for (int b = 0; b < 3; b++) {
+                    final File dir = new File(tmpTestDir, "a" + a + File.separator + "b" + b);
+                    assertTrue(dir.mkdirs());
+                    for (int f = 0; f < 4; f++) {
+                        Files.copyStreamToFile(new ByteArrayInputStream(new byte[f]),
+                                new File(dir, "file" + f + (f % 2 == 0 ? ".xml" : ".txt")));
+                    }
+                }
+                Files.copyStreamToFile(new ByteArrayInputStream(new byte[1]),
+                        new File(tmpTestDir, "a" + a + File.separator + "top.xml"));
+            }
+
+            // all entries, sequential and parallel
+            Stream<Path> stream = Files.walk(tmpTestDir, Integer.MAX_VALUE, (BiPredicate<Path, BasicFileAttributes>) null, false);
+            assertEquals(3 + 9 + 36 + 3, stream.count());
+            stream.close();
+            stream = Files.walk(tmpTestDir, Integer.MAX_VALUE, (BiPredicate<Path, BasicFileAttributes>) null, true);
+            assertEquals(3 + 9 + 36 + 3, stream.collect(Collectors.toSet()).size());
+            stream.close();
+
+            // limited depth
+            stream = Files.walk(tmpTestDir, 2, (BiPredicate<Path, BasicFileAttributes>) null, false);
+            assertEquals(3 + 9 + 3, stream.count());
+            stream.close();
+
+            // filters using the read attributes, a glob or a pattern
+            stream = Files.walk(tmpTestDir, Integer.MAX_VALUE, new BiPredicate<Path, BasicFileAttributes>() {
+
+                @Override
+                public boolean test(final Path path, final BasicFileAttributes attrs) {
+                    return attrs.isRegularFile() && attrs.size() > 1;
+                }
+            }, true);
+            assertEquals(18, stream.count());
+            stream.close();
+            stream = Files.walk(tmpTestDir, Integer.MAX_VALUE, "*/*/*.xml", false);
+            assertEquals(18, stream.count());
+            stream.close();
+            stream = Files.walk(tmpTestDir, Integer.MAX_VALUE, Pattern.compile(".*\\.xml"), true);
+            assertEquals(21, stream.count());
+            stream.close();
+
+            // a short-circuited stream
+            stream = Files.walk(tmpTestDir, Integer.MAX_VALUE, "**.txt", false);
+            assertTrue(stream.findFirst().get().toString().endsWith(".txt"));
+            stream.close();
+
+            // the list based implementations use the walker
+            assertEquals(39, Files.getFilelist(tmpTestDir, null).size());
+            final List<File> xmlFiles = Files.getFilelist(tmpTestDir, null, Pattern.compile(".*b1.*\\.xml"));
+            assertEquals(6, xmlFiles.size());
+            assertTrue(xmlFiles.get(0).isFile());
+        } finally {
+            assertTrue(Files.deleteDir(tmpTestDir));
+        }
+    }
+
+    /**
+     * Tests the chunk-parallel processing of the lines of a file.
+     *
+     * @throws IOException if an IO-error occurred
+     */
+    @Test
+    public void testLines() throws IOException {
+        final File file = new File(tmpDir, UUID.randomUUID().toString());
+
+        try {
+            // create lines with different line breaks and without a final one
+            final List<String> expected = new ArrayList<>();
+            final StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 5000; i++) {
+                final String line = i % 7 == 0 ? "" : "line " + i + " \u00e4\u00f6\u00fc";
+                expected.add(line);
+                sb.append(line);
+                if (i < 4999) {
+                    sb.append(i % 2 == 0 ? "\n" : "\r\n");
+                }
+            }
+            Files.copyStreamToFile(new ByteArrayInputStream(sb.toString().getBytes("UTF-8")), file);
+
+            // sequential and parallel with small chunks
+            Stream<String> lines = Files.lines(file, null, false);
+            assertEquals(expected, lines.collect(Collectors.toList()));
+            lines.close();
+            final LineSpliterator spliterator = new LineSpliterator(file, null, 64);
+            assertEquals("UTF-8", spliterator.getCharset().name());
+            lines = StreamSupport.stream(spliterator, true);
+            assertEquals(expected, lines.collect(Collectors.toList()));
+            lines.close();
+
+            // ordered and unordered collectors
+            assertEquals(expected, Files.processLines(file, null, Collectors.toList()));
+            assertEquals(new HashSet<>(expected), Files.processLines(file, null, Collectors.toSet()));
+
+            // a file with a BOM and two byte characters
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(new byte[]{(byte) 0xFF, (byte) 0xFE});
+            out.write(sb.toString().getBytes("UTF-16LE"));
+            Files.copyStreamToFile(new ByteArrayInputStream(out.toByteArray()), file);
+            lines = StreamSupport.stream(new LineSpliterator(file, null, 64), true);
+            assertEquals(expected, lines.collect(Collectors.toList()));
+            lines.close();
+
+            // an empty file
+            Files.copyStreamToFile(new ByteArrayInputStream(new byte[0]), file);
+            lines = Files.lines(file, null, true);
+            assertEquals(0, lines.count());
+            lines.close();
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
 }
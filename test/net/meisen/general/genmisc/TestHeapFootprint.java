@@ -0,0 +1,167 @@
+package net.meisen.general.genmisc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import net.meisen.general.genmisc.types.HeapFootprint;
+import net.meisen.general.genmisc.types.Streams;
+
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code HeapFootprint}.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class TestHeapFootprint {
+	private final HeapFootprint footprint = new HeapFootprint();
+
+	/**
+	 * A node of a graph used to test the deep size.
+	 */
+	@SuppressWarnings("unused")
+	private static class Node {
+		private long value;
+		private Node next;
+		private Object data;
+	}
+
+	private long align(final long size) {
+		final int alignment = footprint.getAlignment();
+		return (size + alignment - 1) / alignment * alignment;
+	}
+
+	/**
+	 * Tests the determination of the shallow sizes.
+	 */
+	@Test
+	public void testShallowSize() {
+		final int header = footprint.getObjectHeaderSize();
+		final int ref = footprint.getReferenceSize();
+		assertTrue(ref == 4 || ref == 8);
+		assertEquals(ref == 4, footprint.isCompressedOops());
+
+		assertEquals(0, footprint.shallowSize((Object) null));
+		assertEquals(align(header), footprint.shallowSize(new Object()));
+		assertEquals(align(header + 4), footprint.shallowSize(Integer.valueOf(5)));
+
+		// the fields of the superclasses are considered
+		final long nodeSize = footprint.shallowSize(Node.class);
+		assertTrue(nodeSize >= header + 8 + 2 * ref);
+		assertEquals(0, nodeSize % footprint.getAlignment());
+
+		// arrays
+		final long empty = footprint.arraySize(long[].class, 0);
+		assertTrue(empty >= header + 4);
+		assertEquals(align(empty + 80), footprint.arraySize(long[].class, 10));
+		assertEquals(footprint.arraySize(Object[].class, 7),
+				footprint.shallowSize(new String[7]));
+		assertEquals(align(footprint.getArrayHeaderSize() + 7 * ref),
+				footprint.shallowSize(new Object[7]));
+	}
+
+	/**
+	 * Tests the determination of the deep sizes.
+	 */
+	@Test
+	public void testDeepSize() {
+		final long nodeSize = footprint.shallowSize(Node.class);
+
+		// shared and cyclic references are counted once
+		final Node a = new Node();
+		final Node b = new Node();
+		a.next = b;
+		b.next = a;
+		a.data = b;
+		assertEquals(2 * nodeSize, footprint.deepSize(a));
+
+		// arrays, classes and enums
+		b.data = new int[10];
+		assertEquals(2 * nodeSize + footprint.arraySize(int[].class, 10),
+				footprint.deepSize(a));
+		b.data = TimeUnit.DAYS;
+		a.data = Node.class;
+		assertEquals(2 * nodeSize, footprint.deepSize(a));
+
+		// a large array is sampled
+		final Node[] nodes = new Node[100000];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new Node();
+		}
+		final long exact = footprint.arraySize(Node[].class, nodes.length)
+				+ nodes.length * nodeSize;
+		assertEquals(exact, new HeapFootprint(Integer.MAX_VALUE, 1)
+				.deepSize(nodes));
+		assertEquals(exact, footprint.deepSize(nodes));
+
+		// collections are traversed
+		final List<Node> list = new ArrayList<Node>();
+		list.add(a);
+		assertTrue(Streams.objectFootprint(list) >= 2 * nodeSize
+				+ footprint.shallowSize(list));
+		assertEquals(0, Streams.objectFootprint(null));
+	}
+
+	/**
+	 * Tests that the payload of strings, arrays, collections and maps is
+	 * part of the deep size.
+	 */
+	@Test
+	public void testDeepSizeOfPayload() {
+		final char[] chars = new char[10000];
+		Arrays.fill(chars, 'x');
+		final String large = new String(chars);
+		final byte[] bytes = new byte[100000];
+
+		assertTrue(footprint.deepSize(large) >= footprint.shallowSize(large)
+				+ large.length());
+
+		final List<Object> list = new ArrayList<Object>();
+		list.add(large);
+		list.add(bytes);
+		final long listSize = footprint.deepSize(list);
+		assertTrue(listSize >= footprint.shallowSize(list) + bytes.length
+				+ large.length());
+		assertTrue(listSize < 2 * (bytes.length + 2 * large.length()));
+
+		final Map<String, Object> map = new HashMap<String, Object>();
+		map.put("list", list);
+		map.put("bytes", new byte[50000]);
+		assertTrue(footprint.deepSize(map) >= listSize + 50000);
+
+		final BigInteger big = BigInteger.ONE.shiftLeft(8000);
+		assertTrue(footprint.deepSize(big) >= footprint.shallowSize(big) + 1000);
+	}
+
+	/**
+	 * Tests the deep size of other classes of the JDK, whose fields cannot be
+	 * accessed since Java 9.
+	 */
+	@Test
+	public void testDeepSizeOfJdkClasses() {
+		final Date date = new Date();
+		assertEquals(footprint.shallowSize(date), footprint.deepSize(date));
+		assertEquals(footprint.shallowSize(date), Streams.objectFootprint(date));
+
+		final Node node = new Node();
+		node.data = date;
+		assertEquals(footprint.shallowSize(node) + footprint.shallowSize(date),
+				footprint.deepSize(node));
+
+		final List<Date> dates = new ArrayList<Date>();
+		dates.add(date);
+		dates.add(new Date(0l));
+		assertTrue(footprint.deepSize(dates) >= footprint.shallowSize(dates)
+				+ 2 * footprint.shallowSize(date));
+	}
+}
@@ -0,0 +1,350 @@
+package net.meisen.general.genmisc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.util.UUID;
+
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.MappedByteBufferReader;
+import net.meisen.general.genmisc.types.Streams;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code MappedByteBufferReader}.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class TestMappedByteBufferReader {
+
+	private IByteBufferReader reader = null;
+	private File file = null;
+
+	/**
+	 * Helper method to create a binary test file, with bytes numbered from 0
+	 * - {@code Byte.MAX_VALUE}.
+	 * 
+	 * @param sizeInBytes
+	 *            the amount of bytes to be added
+	 * 
+	 * @return the created file
+	 */
+	protected File createFile(final long sizeInBytes) {
+		final File file = new File(System.getProperty("java.io.tmpdir"), UUID
+				.randomUUID().toString());
+
+		OutputStream output = null;
+		try {
+			output = new BufferedOutputStream(new FileOutputStream(file));
+			for (long p = 0; p < sizeInBytes; p++) {
+				output.write((byte) (p % Byte.MAX_VALUE));
+			}
+			output.flush();
+		} catch (final IOException e) {
+			fail(e.getMessage());
+		} finally {
+			Streams.closeIO(output);
+		}
+		assertTrue(file.exists());
+
+		return file;
+	}
+
+	/**
+	 * Creates a reader for a file of the specified size.
+	 * 
+	 * @param fileSizeInBytes
+	 *            the size of the file in bytes
+	 * @param segmentSizeInBytes
+	 *            the size of the segments to be mapped
+	 * 
+	 * @return the created reader
+	 */
+	protected MappedByteBufferReader setReader(final long fileSizeInBytes,
+			final int segmentSizeInBytes) {
+		file = createFile(fileSizeInBytes);
+		try {
+			final MappedByteBufferReader mappedReader = new MappedByteBufferReader(
+					file, segmentSizeInBytes);
+			reader = mappedReader;
+			return mappedReader;
+		} catch (final FileNotFoundException e) {
+			fail(e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Tests the reading of the bytes across several segments.
+	 */
+	@Test
+	public void testReadingSegments() {
+		final MappedByteBufferReader mappedReader = setReader(1000, 7);
+		assertEquals(143, mappedReader.getSegmentCount());
+		assertEquals(1000, mappedReader.size());
+
+		int i = 0;
+		while (reader.hasRemaining()) {
+			assertEquals(i % Byte.MAX_VALUE, reader.get());
+			i++;
+		}
+		assertEquals(1000, i);
+		assertEquals(0, mappedReader.remaining());
+
+		try {
+			reader.get();
+			fail("Exception expected");
+		} catch (final BufferUnderflowException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Tests the bulk reading across several segments.
+	 */
+	@Test
+	public void testBulkReading() {
+		setReader(10000, 333);
+
+		final byte[] dst = new byte[1000];
+		for (int i = 0; i < 10; i++) {
+			reader.get(dst);
+
+			for (int k = 0; k < dst.length; k++) {
+				assertEquals((i * dst.length + k) % Byte.MAX_VALUE, dst[k]);
+			}
+		}
+		assertFalse(reader.hasRemaining());
+	}
+
+	/**
+	 * Tests the positioning within the file.
+	 */
+	@Test
+	public void testPositioning() {
+		final MappedByteBufferReader mappedReader = setReader(1000, 10);
+
+		mappedReader.position(555);
+		assertEquals(555, mappedReader.position());
+		assertEquals(555 % Byte.MAX_VALUE, reader.get());
+		assertEquals(556, mappedReader.position());
+
+		// the boundary of a segment
+		mappedReader.position(990);
+		assertEquals(990 % Byte.MAX_VALUE, reader.get());
+
+		// the end of the file
+		mappedReader.position(1000);
+		assertFalse(reader.hasRemaining());
+
+		// scan the file again
+		mappedReader.position(0);
+		int i = 0;
+		while (reader.hasRemaining()) {
+			assertEquals(i % Byte.MAX_VALUE, reader.get());
+			i++;
+		}
+		assertEquals(1000, i);
+
+		try {
+			mappedReader.position(1001);
+			fail("Exception expected");
+		} catch (final IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Tests the reading of primitive values spanning the boundaries of the
+	 * segments.
+	 */
+	@Test
+	public void testReadingPrimitives() {
+		file = new File(System.getProperty("java.io.tmpdir"), UUID
+				.randomUUID().toString());
+
+		DataOutputStream output = null;
+		try {
+			output = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(file)));
+			for (int i = 0; i < 500; i++) {
+				output.writeByte(i);
+				output.writeShort(i * 3);
+				output.writeInt(i * -70001);
+				output.writeLong(i * 5000000011l);
+				output.writeDouble(i / 7.0);
+			}
+			output.flush();
+		} catch (final IOException e) {
+			fail(e.getMessage());
+		} finally {
+			Streams.closeIO(output);
+		}
+
+		reader = Streams.createByteBufferReader(file, 1024, true);
+		assertTrue(reader instanceof MappedByteBufferReader);
+
+		for (int i = 0; i < 500; i++) {
+			assertEquals((byte) i, reader.get());
+			assertEquals((short) (i * 3), reader.getShort());
+			assertEquals(i * -70001, reader.getInt());
+			assertEquals(i * 5000000011l, reader.getLong());
+			assertEquals(i / 7.0, reader.getDouble(), 0.0);
+		}
+		assertFalse(reader.hasRemaining());
+	}
+
+	/**
+	 * Tests the bulk reading of primitive values spanning the boundaries of
+	 * the segments.
+	 */
+	@Test
+	public void testBulkReadingPrimitives() {
+		file = new File(System.getProperty("java.io.tmpdir"), UUID
+				.randomUUID().toString());
+
+		DataOutputStream output = null;
+		try {
+			output = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(file)));
+			output.writeByte(1);
+			for (int i = 0; i < 500; i++) {
+				output.writeLong(i * 5000000011l);
+			}
+			for (int i = 0; i < 500; i++) {
+				output.writeInt(i * -70001);
+			}
+			for (int i = 0; i < 500; i++) {
+				output.writeDouble(i / 7.0);
+			}
+			output.flush();
+		} catch (final IOException e) {
+			fail(e.getMessage());
+		} finally {
+			Streams.closeIO(output);
+		}
+
+		reader = Streams.createByteBufferReader(file, 100, true);
+		assertEquals(1, reader.get());
+
+		final long[] longs = new long[501];
+		reader.getLongs(longs, 1, 500);
+		final int[] ints = new int[500];
+		reader.getInts(ints, 0, 500);
+		final double[] doubles = new double[500];
+		reader.getDoubles(doubles, 0, 500);
+		assertFalse(reader.hasRemaining());
+
+		for (int i = 0; i < 500; i++) {
+			assertEquals(i * 5000000011l, longs[i + 1]);
+			assertEquals(i * -70001, ints[i]);
+			assertEquals(i / 7.0, doubles[i], 0.0);
+		}
+	}
+
+	/**
+	 * Tests the reading of objects written by {@code Streams}.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	@Test
+	public void testReadingObjects() throws IOException {
+		file = new File(System.getProperty("java.io.tmpdir"), UUID
+				.randomUUID().toString());
+		final FileOutputStream fos = new FileOutputStream(file);
+		for (int i = 0; i < 1000; i++) {
+			fos.write(Streams.objectToByte(i));
+			fos.write(Streams.objectToByte("Value " + i));
+		}
+		fos.close();
+
+		reader = new MappedByteBufferReader(file, 13);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i, Streams.readNextObject(reader));
+			assertEquals("Value " + i, Streams.readNextObject(reader));
+		}
+		assertFalse(reader.hasRemaining());
+	}
+
+	/**
+	 * Tests the reading of data appended after the creation of the reader.
+	 * 
+	 * @throws IOException
+	 *             if the data cannot be appended
+	 */
+	@Test
+	public void testRefresh() throws IOException {
+		final MappedByteBufferReader mappedReader = setReader(0, 300);
+		assertEquals(0, mappedReader.refresh());
+
+		// grow an incomplete, a complete and an empty last segment
+		long size = 0;
+		for (final int appended : new int[] { 1000, 200, 1, 299, 650 }) {
+			final FileOutputStream fos = new FileOutputStream(file, true);
+			try {
+				for (long p = size; p < size + appended; p++) {
+					fos.write((byte) (p % Byte.MAX_VALUE));
+				}
+			} finally {
+				Streams.closeIO(fos);
+			}
+
+			// data is not read before the refresh
+			assertEquals(size, mappedReader.size());
+			assertFalse(reader.hasRemaining());
+
+			assertEquals(size + appended, mappedReader.refresh());
+			assertEquals(size, mappedReader.position());
+			assertEquals((size + appended + 299) / 300,
+					mappedReader.getSegmentCount());
+			for (long p = size; p < size + appended; p++) {
+				assertEquals(p % Byte.MAX_VALUE, reader.get());
+			}
+			assertFalse(reader.hasRemaining());
+			size += appended;
+
+			// all the data can be read again
+			mappedReader.position(0);
+			for (long p = 0; p < size; p++) {
+				assertEquals(p % Byte.MAX_VALUE, reader.get());
+			}
+		}
+		assertEquals(size, mappedReader.refresh());
+	}
+
+	/**
+	 * Tests the reading of an empty file.
+	 */
+	@Test
+	public void testReadingEmptyFile() {
+		final MappedByteBufferReader mappedReader = setReader(0, 10);
+
+		assertEquals(0, mappedReader.getSegmentCount());
+		assertFalse(reader.hasRemaining());
+	}
+
+	/**
+	 * Close the reader and remove the file.
+	 */
+	@After
+	public void cleanUp() {
+		Streams.closeIO(reader);
+
+		// important the file must be deleteable
+		assertTrue("Unable to delete " + file, file.delete());
+	}
+}
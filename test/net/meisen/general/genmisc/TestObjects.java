@@ -1,11 +1,35 @@
 package net.meisen.general.genmisc;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+import net.meisen.general.genmisc.types.DeepCopier;
 import net.meisen.general.genmisc.types.Objects;
 
 import org.junit.Test;
@@ -148,4 +172,266 @@ public class TestObjects {
 		}
 
 	}
+
+	/**
+	 * A node of a graph used to test the copy, which is not
+	 * {@code Serializable} and has no default constructor.
+	 */
+	private static class Node {
+		private final String name;
+		private final int value;
+		private Node next;
+		private Object[] refs;
+		private final List<Node> children = new ArrayList<Node>();
+
+		public Node(final String name, final int value) {
+			this.name = name;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Tests the implementation of {@link Objects#copy(Object)} and the
+	 * {@link DeepCopier}.
+	 * 
+	 * @throws IOException
+	 *             if the copy fails
+	 */
+	@Test
+	public void testCopy() throws IOException {
+		assertNull(Objects.copy(null));
+
+		// immutables are not copied, arrays are
+		final String s = "value";
+		assertSame(s, Objects.copy(s));
+		assertSame(TimeUnit.DAYS, Objects.copy(TimeUnit.DAYS));
+		final int[] ints = new int[] { 1, 2, 3 };
+		final int[] copiedInts = Objects.copy(ints);
+		assertNotSame(ints, copiedInts);
+		assertArrayEquals(ints, copiedInts);
+
+		// a cyclic graph with shared instances
+		final Node a = new Node("a", 1);
+		final Node b = new Node("b", 2);
+		a.next = b;
+		b.next = a;
+		a.refs = new Object[] { b, b, a, "text", 5 };
+		a.children.add(b);
+		a.children.add(b);
+
+		final Node copy = Objects.copy(a);
+		assertNotSame(a, copy);
+		assertEquals("a", copy.name);
+		assertEquals(1, copy.value);
+		assertNotSame(b, copy.next);
+		assertEquals(2, copy.next.value);
+		assertSame(copy, copy.next.next);
+		assertSame(copy.next, copy.refs[0]);
+		assertSame(copy.next, copy.refs[1]);
+		assertSame(copy, copy.refs[2]);
+		assertEquals(5, copy.refs[4]);
+		assertNotSame(a.children, copy.children);
+		assertSame(copy.next, copy.children.get(0));
+		assertSame(copy.next, copy.children.get(1));
+
+		// hashed collections are re-hashed, comparators are kept
+		final Map<Node, String> map = new HashMap<Node, String>();
+		map.put(a, "a");
+		map.put(b, "b");
+		final Map<Node, String> copiedMap = Objects.copy(map);
+		assertEquals(2, copiedMap.size());
+		for (final Node key : copiedMap.keySet()) {
+			assertEquals(key.name, copiedMap.get(key));
+		}
+		final TreeSet<String> set = new TreeSet<String>(
+				Collections.reverseOrder());
+		set.addAll(Arrays.asList("a", "c", "b"));
+		final TreeSet<String> copiedSet = Objects.copy(set);
+		assertEquals("c", copiedSet.first());
+		assertSame(set.comparator(), copiedSet.comparator());
+
+		// a large array copied concurrently
+		final DeepCopier copier = new DeepCopier(100, new ForkJoinPool(4));
+		final Node[] nodes = new Node[50000];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = i % 2 == 0 ? new Node("n" + i, i) : nodes[i - 1];
+		}
+		final Node[] copiedNodes = copier.copy(nodes);
+		for (int i = 0; i < nodes.length; i++) {
+			assertNotSame(nodes[i], copiedNodes[i]);
+			assertEquals(i - i % 2, copiedNodes[i].value);
+			if (i % 2 == 1) {
+				assertSame(copiedNodes[i - 1], copiedNodes[i]);
+			}
+		}
+	}
+
+	/**
+	 * Tests the copying of the internal classes of the JDK, i.e. of instances
+	 * which cannot be accessed by reflection since Java 9.
+	 * 
+	 * @throws IOException
+	 *             if the copy fails
+	 */
+	@Test
+	public void testCopyJdkClasses() throws IOException {
+
+		// dates are cloned
+		final Date date = new Date(1000l);
+		final Date copiedDate = Objects.copy(date);
+		assertNotSame(date, copiedDate);
+		assertEquals(date, copiedDate);
+		final Timestamp timestamp = new Timestamp(2000l);
+		timestamp.setNanos(123456789);
+		final Timestamp copiedTimestamp = Objects.copy(timestamp);
+		assertNotSame(timestamp, copiedTimestamp);
+		assertEquals(timestamp, copiedTimestamp);
+
+		// the wrappers keep the elements and the identity of the graph
+		final Node a = new Node("a", 1);
+		final List<Node> list = Arrays.asList(a, a);
+		final List<Node> copiedList = Objects.copy(list);
+		assertEquals(Arrays.class, copiedList.getClass().getEnclosingClass());
+		assertEquals(2, copiedList.size());
+		assertNotSame(a, copiedList.get(0));
+		assertEquals("a", copiedList.get(0).name);
+		assertSame(copiedList.get(0), copiedList.get(1));
+
+		final Object[] wrapped = new Object[] {
+				Collections.unmodifiableList(new ArrayList<Node>(list)),
+				Collections.unmodifiableMap(Collections.singletonMap("a", a)),
+				Collections.unmodifiableSet(new TreeSet<String>(Arrays.asList(
+						"x", "y"))), a };
+		final Object[] copiedWrapped = Objects.copy(wrapped);
+		final Node copiedA = (Node) copiedWrapped[3];
+		assertNotSame(a, copiedA);
+		assertEquals(wrapped[0].getClass(), copiedWrapped[0].getClass());
+		assertSame(copiedA, ((List<?>) copiedWrapped[0]).get(0));
+		assertSame(copiedA, ((List<?>) copiedWrapped[0]).get(1));
+		assertSame(copiedA, ((Map<?, ?>) copiedWrapped[1]).get("a"));
+		assertEquals(wrapped[2], copiedWrapped[2]);
+		try {
+			((List<?>) copiedWrapped[0]).clear();
+			fail("Exception expected");
+		} catch (final UnsupportedOperationException e) {
+			// expected
+		}
+
+		// the enum collections keep the type of the key
+		final EnumMap<TimeUnit, Node> enumMap = new EnumMap<TimeUnit, Node>(
+				TimeUnit.class);
+		enumMap.put(TimeUnit.DAYS, a);
+		final EnumMap<TimeUnit, Node> copiedEnumMap = Objects.copy(enumMap);
+		assertEquals(1, copiedEnumMap.size());
+		assertNotSame(a, copiedEnumMap.get(TimeUnit.DAYS));
+		assertEquals("a", copiedEnumMap.get(TimeUnit.DAYS).name);
+		copiedEnumMap.put(TimeUnit.HOURS, a);
+		final EnumSet<TimeUnit> enumSet = EnumSet.of(TimeUnit.DAYS,
+				TimeUnit.SECONDS);
+		final EnumSet<TimeUnit> copiedEnumSet = Objects.copy(enumSet);
+		assertNotSame(enumSet, copiedEnumSet);
+		assertEquals(enumSet, copiedEnumSet);
+
+		// the order of the accesses is kept
+		final LinkedHashMap<String, Integer> lru = new LinkedHashMap<String, Integer>(
+				16, 0.75f, true);
+		lru.put("a", 1);
+		lru.put("b", 2);
+		lru.get("a");
+		final LinkedHashMap<String, Integer> copiedLru = Objects.copy(lru);
+		assertEquals(Arrays.asList("b", "a"),
+				new ArrayList<String>(copiedLru.keySet()));
+		copiedLru.get("b");
+		assertEquals(Arrays.asList("a", "b"),
+				new ArrayList<String>(copiedLru.keySet()));
+
+		// the state of other collections is kept
+		final Properties defaults = new Properties();
+		defaults.setProperty("a", "1");
+		final Properties props = new Properties(defaults);
+		props.setProperty("b", "2");
+		final Properties copiedProps = Objects.copy(props);
+		assertNotSame(props, copiedProps);
+		assertEquals("1", copiedProps.getProperty("a"));
+		assertEquals("2", copiedProps.getProperty("b"));
+		defaults.setProperty("a", "3");
+		assertEquals("1", copiedProps.getProperty("a"));
+
+		final LinkedBlockingQueue<String> queue = new LinkedBlockingQueue<String>(
+				2);
+		queue.add("a");
+		final LinkedBlockingQueue<String> copiedQueue = Objects.copy(queue);
+		assertEquals("a", copiedQueue.peek());
+		assertEquals(1, copiedQueue.remainingCapacity());
+	}
+
+	/**
+	 * A key of a hashed collection, the hash depends on the name, which is
+	 * copied after the payload.
+	 */
+	private static class Key {
+		private final long[] payload = new long[10000];
+		private final String name;
+
+		public Key(final String name) {
+			this.name = name;
+		}
+
+		@Override
+		public int hashCode() {
+			return name.hashCode();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			return obj instanceof Key && ((Key) obj).name.equals(name);
+		}
+	}
+
+	/**
+	 * Tests the concurrent copy of hashed collections sharing their keys, i.e.
+	 * a key copied by one thread is used by the others.
+	 */
+	@Test
+	public void testCopyConcurrently() {
+		final Key[] keys = new Key[100];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = new Key("k" + i);
+		}
+
+		final Object[] sets = new Object[50000];
+		for (int i = 0; i < sets.length; i++) {
+			sets[i] = new HashSet<Key>(Arrays.asList(keys[i % keys.length],
+					keys[(i * 7) % keys.length]));
+		}
+
+		final DeepCopier copier = new DeepCopier(100, new ForkJoinPool(4));
+		for (int run = 0; run < 5; run++) {
+			final Object[] copiedSets = copier.copy(sets);
+			for (int i = 0; i < copiedSets.length; i++) {
+				@SuppressWarnings("unchecked")
+				final Set<Key> set = (Set<Key>) copiedSets[i];
+				assertTrue(set.contains(keys[i % keys.length]));
+				assertTrue(set.contains(keys[(i * 7) % keys.length]));
+			}
+		}
+
+		// cycles between the instances copied by different threads
+		final Node[] nodes = new Node[50000];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new Node("n" + i, i);
+		}
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i].next = nodes[(i + nodes.length / 2) % nodes.length];
+			nodes[i].children.add(nodes[nodes.length - i - 1]);
+		}
+		final Node[] copiedNodes = copier.copy(nodes);
+		for (int i = 0; i < nodes.length; i++) {
+			assertEquals(i, copiedNodes[i].value);
+			assertSame(copiedNodes[(i + nodes.length / 2) % nodes.length],
+					copiedNodes[i].next);
+			assertSame(copiedNodes[nodes.length - i - 1],
+					copiedNodes[i].children.get(0));
+		}
+	}
 }
@@ -0,0 +1,236 @@
+package net.meisen.general.genmisc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import net.meisen.general.genmisc.resources.RecordLog;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code RecordLog}.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class TestRecordLog {
+	private File file = null;
+	private RecordLog log = null;
+
+	/**
+	 * Creates the file of the log.
+	 */
+	@Before
+	public void create() {
+		file = new File(System.getProperty("java.io.tmpdir"), UUID
+				.randomUUID().toString());
+	}
+
+	/**
+	 * Creates the object of the specified record.
+	 * 
+	 * @param nr
+	 *            the number of the record
+	 * 
+	 * @return the object of the record
+	 */
+	protected Object createObject(final long nr) {
+		switch ((int) (nr % 4)) {
+		case 0:
+			return nr;
+		case 1:
+			return "Record " + nr;
+		case 2:
+			return new Date(nr);
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Tests the appending and reading of records.
+	 * 
+	 * @throws IOException
+	 *             if the log cannot be opened
+	 */
+	@Test
+	public void testAppendAndRead() throws IOException {
+		log = new RecordLog(file, 10, 0);
+		for (long i = 0; i < 1000; i++) {
+			assertEquals(i, log.append(createObject(i)));
+
+			// read records not flushed so far
+			if (i % 97 == 0) {
+				assertEquals(createObject(i / 2), log.get(i / 2));
+				assertEquals(createObject(i), log.get(i));
+			}
+		}
+		assertEquals(1000, log.size());
+		assertEquals(0, log.getCommitted());
+		log.commit();
+		assertEquals(1000, log.getCommitted());
+
+		// random reads
+		for (final long nr : new long[] { 0, 9, 10, 11, 555, 999 }) {
+			assertEquals(createObject(nr), log.get(nr));
+		}
+
+		// range scans
+		final List<Object> range = log.get(95, 305);
+		assertEquals(210, range.size());
+		for (int i = 0; i < range.size(); i++) {
+			assertEquals(createObject(95 + i), range.get(i));
+		}
+		assertEquals(0, log.get(1000, 1000).size());
+
+		final Iterator<Object> it = log.iterator(998, 1000);
+		log.append("Appended");
+		assertEquals(createObject(998), it.next());
+		assertEquals(createObject(999), it.next());
+		assertFalse(it.hasNext());
+
+		// invalid records
+		try {
+			log.get(1001);
+			fail("Exception expected");
+		} catch (final IndexOutOfBoundsException e) {
+			assertTrue(e.getMessage().contains("1001"));
+		}
+
+		// reopen the log
+		log.close();
+		log = new RecordLog(file, 10, 0);
+		assertEquals(1001, log.size());
+		assertEquals("Appended", log.get(1000));
+		assertEquals(createObject(123), log.get(123));
+	}
+
+	/**
+	 * Tests the recovery of a log with a partially written record.
+	 * 
+	 * @throws IOException
+	 *             if the log cannot be opened
+	 */
+	@Test
+	public void testRecovery() throws IOException {
+		log = new RecordLog(file, 16, 100);
+		for (long i = 0; i < 500; i++) {
+			log.append(createObject(i));
+		}
+		log.close();
+		final long length = file.length();
+
+		// corrupt the last record and add some garbage
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		raf.seek(length - 1);
+		raf.write(0x7F);
+		raf.write(new byte[] { 0, 0, 0, 5, 1, 2 });
+		raf.close();
+
+		log = new RecordLog(file, 16, 100);
+		assertEquals(499, log.size());
+		assertTrue(file.length() < length);
+		assertEquals(createObject(498), log.get(498));
+
+		// the log can be continued
+		assertEquals(499, log.append("Continued"));
+		log.close();
+
+		// the index is rebuilt if missing
+		assertTrue(RecordLog.getIndexFile(file).delete());
+		log = new RecordLog(file, 16, 100);
+		assertEquals(500, log.size());
+		assertEquals("Continued", log.get(499));
+		assertEquals(createObject(250), log.get(250));
+		assertTrue(RecordLog.getIndexFile(file).length() > 0);
+	}
+
+	/**
+	 * Tests the concurrent appending and committing.
+	 * 
+	 * @throws Exception
+	 *             if the log cannot be opened or a thread fails
+	 */
+	@Test
+	public void testConcurrentCommits() throws Exception {
+		log = new RecordLog(file);
+
+		final List<Thread> threads = new ArrayList<Thread>();
+		final List<Throwable> failures = new ArrayList<Throwable>();
+		for (int t = 0; t < 4; t++) {
+			final int nr = t;
+			threads.add(new Thread() {
+
+				@Override
+				public void run() {
+					try {
+						for (int i = 0; i < 250; i++) {
+							log.append(nr * 1000 + i);
+							if (i % 10 == 0) {
+								log.commit();
+							}
+						}
+						log.commit();
+					} catch (final Throwable e) {
+						synchronized (failures) {
+							failures.add(e);
+						}
+					}
+				}
+			});
+		}
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue(failures.toString(), failures.isEmpty());
+
+		assertEquals(1000, log.size());
+		assertEquals(1000, log.getCommitted());
+		final Set<Object> values = new HashSet<Object>(log.get(0, 1000));
+		assertEquals(1000, values.size());
+		assertTrue(values.contains(3249));
+
+		// a closed log cannot be used
+		log.close();
+		try {
+			log.append(5);
+			fail("Exception expected");
+		} catch (final IllegalStateException e) {
+			assertTrue(e.getMessage().contains("closed"));
+		}
+	}
+
+	/**
+	 * Closes the log and removes the files.
+	 */
+	@After
+	public void cleanUp() {
+		if (log != null) {
+			log.close();
+		}
+
+		final File indexFile = RecordLog.getIndexFile(file);
+		if (indexFile.exists()) {
+			assertTrue(indexFile.delete());
+		}
+		assertTrue(file.delete());
+	}
+}
@@ -1,15 +1,20 @@
 package net.meisen.general.genmisc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
@@ -17,8 +22,11 @@ import java.util.List;
 import java.util.Random;
 import java.util.UUID;
 
+import net.meisen.general.genmisc.resources.HeapByteBufferWriter;
 import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
 import net.meisen.general.genmisc.resources.WrappedByteBufferReader;
+import net.meisen.general.genmisc.types.DetectedEncoding;
 import net.meisen.general.genmisc.types.Numbers;
 import net.meisen.general.genmisc.types.Streams;
 import net.meisen.general.genmisc.types.Streams.ByteResult;
@@ -94,6 +102,93 @@ public class TestStreams {
 		assertEquals("UTF-16LE", enc);
 	}
 
+	/**
+	 * Tests the guessing of the encoding of content, which contains non-ASCII
+	 * characters only after the sample used to detect the encoding.
+	 * 
+	 * @throws IOException
+	 *             if the stream cannot be read
+	 */
+	@Test
+	public void testGuessEncodingAfterSample() throws IOException {
+		final byte[] ascii = new byte[Streams.DEFAULT_ENCODING_SAMPLE + 10];
+		Arrays.fill(ascii, (byte) 'a');
+		final byte[] content = Streams.combineBytes(ascii,
+				"\u00e4 \u20ac".getBytes("UTF-8"));
+
+		assertEquals("UTF-8", Streams.guessEncoding(new ByteArrayInputStream(
+				content), "ISO-8859-1"));
+
+		final DetectedEncoding detected = Streams.detectEncoding(
+				new ByteArrayInputStream(content), "ISO-8859-1");
+		assertTrue(read(detected.getReader(true)).endsWith("a\u00e4 \u20ac"));
+	}
+
+	/**
+	 * Tests the implementation of
+	 * {@link Streams#detectEncoding(InputStream, String, int)}.
+	 * 
+	 * @throws IOException
+	 *             if the stream cannot be read
+	 */
+	@Test
+	public void testDetectEncoding() throws IOException {
+		DetectedEncoding detected;
+
+		// the sample is ASCII, the content afterwards is read as UTF-8
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append("ASCII ");
+		}
+		final byte[] ascii = sb.toString().getBytes("US-ASCII");
+		final byte[] content = Streams.combineBytes(ascii,
+				"\u00e4\u00f6\u00fc".getBytes("UTF-8"));
+		detected = Streams.detectEncoding(new ByteArrayInputStream(content),
+				null, 64);
+		assertEquals("UTF-8", detected.getEncoding());
+		assertTrue(Arrays.equals(content,
+				Streams.copyStreamToByteArray(detected.getStream())));
+
+		// a strict reader decodes the content after the sample
+		detected = Streams.detectEncoding(new ByteArrayInputStream(content),
+				null, 64);
+		assertEquals(sb.toString() + "\u00e4\u00f6\u00fc",
+				read(detected.getReader(true)));
+
+		// a completely read ASCII stream is ASCII
+		detected = Streams.detectEncoding(new ByteArrayInputStream(ascii),
+				"ISO-8859-1", ascii.length + 1);
+		assertEquals("US-ASCII", detected.getEncoding());
+		Streams.closeIO(detected.getStream());
+
+		// the sample ends within a character
+		final byte[] utf8 = "a\u00e4\u00f6\u00fc".getBytes("UTF-8");
+		detected = Streams.detectEncoding(new ByteArrayInputStream(utf8),
+				"US-ASCII", 4);
+		assertEquals("UTF-8", detected.getEncoding());
+		assertEquals("a\u00e4\u00f6\u00fc",
+				read(detected.getReader(true)));
+
+		// the BOM is used if available
+		detected = Streams.detectEncoding(
+				getClass().getResourceAsStream("encodedFiles/UTF8_BOM.txt"),
+				null);
+		assertEquals("UTF-8", detected.getEncoding());
+		Streams.closeIO(detected.getStream());
+	}
+
+	private String read(final Reader reader) throws IOException {
+		final StringBuilder sb = new StringBuilder();
+		final char[] buffer = new char[16];
+		int len;
+		while ((len = reader.read(buffer)) != -1) {
+			sb.append(buffer, 0, len);
+		}
+		reader.close();
+
+		return sb.toString();
+	}
+
 	/**
 	 * Tests the implementation of {@link Streams#combineBytes(byte[][])}.
 	 */
@@ -307,14 +402,20 @@ public class TestStreams {
 		value = Streams.byteToObject(byteArray);
 		assertEquals(org, value.object);
 		assertEquals(byteArray.length, value.nextPos);
-		assertEquals(Streams.serializeObject(org).length + 1
-				+ Streams.SIZEOF_INT, byteArray.length);
+		assertEquals(1 + Streams.SIZEOF_LONG, byteArray.length);
 
 		org = UUID.randomUUID();
 		byteArray = Streams.objectToByte(org);
 		value = Streams.byteToObject(byteArray);
 		assertEquals(org, value.object);
 		assertEquals(byteArray.length, value.nextPos);
+		assertEquals(1 + 2 * Streams.SIZEOF_LONG, byteArray.length);
+
+		org = new StringBuilder("Serialized");
+		byteArray = Streams.objectToByte(org);
+		value = Streams.byteToObject(byteArray);
+		assertEquals(org.toString(), value.object.toString());
+		assertEquals(byteArray.length, value.nextPos);
 		assertEquals(Streams.serializeObject(org).length + 1
 				+ Streams.SIZEOF_INT, byteArray.length);
 
@@ -487,4 +588,113 @@ public class TestStreams {
 
 		assertTrue(tmpFile.delete());
 	}
+
+	/**
+	 * Tests the reading of all the different types from a file using a small
+	 * array, so that the values span the boundaries of the array.
+	 * 
+	 * @throws IOException
+	 *             if the file cannot be created
+	 */
+	@Test
+	public void testMixedTypesWithByteBufferReader() throws IOException {
+		final List<Object> objects = new ArrayList<Object>();
+		for (int i = 0; i < 1000; i++) {
+			objects.add((byte) i);
+			objects.add((short) (i * 7));
+			objects.add(i * -1000003);
+			objects.add(i * 10000000019l);
+			objects.add(i % 2 == 0);
+			objects.add(i / 3.0);
+			objects.add("Value " + i);
+			objects.add(null);
+			objects.add(new Date(i * 1000l));
+		}
+
+		final File tmpFile = new File(System.getProperty("java.io.tmpdir"),
+				UUID.randomUUID().toString());
+		final FileOutputStream fos = new FileOutputStream(tmpFile);
+		for (final Object o : objects) {
+			fos.write(Streams.objectToByte(o));
+		}
+		fos.flush();
+		fos.close();
+
+		final IByteBufferReader reader = Streams.createByteBufferReader(
+				tmpFile, 3);
+		for (final Object o : objects) {
+			assertEquals(o, Streams.readNextObject(reader));
+		}
+		assertFalse(reader.hasRemaining());
+		reader.close();
+
+		assertTrue(tmpFile.delete());
+	}
+
+	/**
+	 * Tests the compact representation of
+	 * {@link Streams#writeNextObject(IByteBufferWriter, Object, boolean)}.
+	 */
+	@Test
+	public void testCompactRepresentation() {
+
+		// check the sizes
+		assertEquals(2, Streams.objectToByte(5, true).length);
+		assertEquals(2, Streams.objectToByte(-1, true).length);
+		assertEquals(2, Streams.objectToByte((short) 63, true).length);
+		assertEquals(3, Streams.objectToByte((short) -200, true).length);
+		assertEquals(6, Streams.objectToByte(Integer.MIN_VALUE, true).length);
+		assertEquals(2, Streams.objectToByte(0l, true).length);
+		assertEquals(11, Streams.objectToByte(Long.MIN_VALUE, true).length);
+		assertEquals(5, Streams.objectToByte("abc", true).length);
+		assertEquals(Streams.objectToByte(2.5).length,
+				Streams.objectToByte(2.5, true).length);
+		assertEquals(1, Streams.objectToByte(null, true).length);
+
+		// check the values mixing both representations
+		final Object[] objects = new Object[] { 0, 1, -1, 63, -64, 64,
+				Integer.MAX_VALUE, Integer.MIN_VALUE, (short) 0,
+				Short.MIN_VALUE, Short.MAX_VALUE, 0l, Long.MAX_VALUE,
+				Long.MIN_VALUE, -300000000000l, "", "Hello äöü €",
+				Strings.repeat('A', 300), null, (byte) -5, true, 1.5,
+				new Date(), UUID.randomUUID(), new StringBuilder("sb") };
+
+		final HeapByteBufferWriter writer = new HeapByteBufferWriter();
+		for (int i = 0; i < objects.length; i++) {
+			Streams.writeNextObject(writer, objects[i], true);
+			Streams.writeNextObject(writer, objects[i], false);
+		}
+		final byte[] bytes = writer.toByteArray();
+
+		final IByteBufferReader reader = Streams
+				.createByteBufferReader(ByteBuffer.wrap(bytes));
+		final List<Object> all = Streams.readAllObjects(bytes);
+		for (int i = 0; i < objects.length; i++) {
+			final Object expected = objects[i] instanceof StringBuilder ? objects[i]
+					.toString() : objects[i];
+
+			for (int k = 0; k < 2; k++) {
+				final Object read = Streams.readNextObject(reader);
+				final Object readAll = all.get(2 * i + k);
+
+				assertEquals(expected, read instanceof StringBuilder ? read
+						.toString() : read);
+				assertEquals(expected,
+						readAll instanceof StringBuilder ? readAll.toString()
+								: readAll);
+			}
+		}
+		assertFalse(reader.hasRemaining());
+		assertEquals(2 * objects.length, all.size());
+
+		// invalid variable-length integers are detected
+		try {
+			Streams.readNextObject(new WrappedByteBufferReader(ByteBuffer
+					.wrap(new byte[] { Streams.getCompactByteTypeNr((byte) 3),
+							-1, -1, -1, -1, -1, -1 })));
+			fail("Exception expected");
+		} catch (final IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("too long"));
+		}
+	}
 }
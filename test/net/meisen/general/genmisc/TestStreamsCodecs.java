@@ -0,0 +1,307 @@
+package net.meisen.general.genmisc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import net.meisen.general.genmisc.resources.HeapByteBufferWriter;
+import net.meisen.general.genmisc.resources.IByteBufferReader;
+import net.meisen.general.genmisc.resources.IByteBufferWriter;
+import net.meisen.general.genmisc.types.Streams;
+import net.meisen.general.genmisc.types.codecs.IStreamsCodec;
+import net.meisen.general.genmisc.types.codecs.StreamsCodecs;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code StreamsCodecs}.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class TestStreamsCodecs {
+
+	/**
+	 * A value class used to test a custom codec.
+	 */
+	public static class Point {
+		private final int x;
+		private final int y;
+
+		/**
+		 * Constructor to create a point.
+		 * 
+		 * @param x
+		 *            the x-coordinate
+		 * @param y
+		 *            the y-coordinate
+		 */
+		public Point(final int x, final int y) {
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (obj instanceof Point) {
+				final Point p = (Point) obj;
+				return p.x == x && p.y == y;
+			} else {
+				return false;
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * x + y;
+		}
+	}
+
+	/**
+	 * The codec of a {@code Point}.
+	 */
+	public static class PointCodec implements IStreamsCodec<Point> {
+
+		@Override
+		public Class<Point> getType() {
+			return Point.class;
+		}
+
+		@Override
+		public int getSize() {
+			return 2 * Streams.SIZEOF_INT;
+		}
+
+		@Override
+		public void write(final IByteBufferWriter writer, final Point value) {
+			writer.putInt(value.x);
+			writer.putInt(value.y);
+		}
+
+		@Override
+		public Point read(final IByteBufferReader reader) {
+			final int x = reader.getInt();
+			final int y = reader.getInt();
+
+			return new Point(x, y);
+		}
+	}
+
+	/**
+	 * Removes the custom codec registered by a test.
+	 */
+	@After
+	public void cleanUp() {
+		StreamsCodecs.unregister(StreamsCodecs.FIRST_CUSTOM_ID);
+	}
+
+	/**
+	 * Tests the sizes of the built-in codecs.
+	 */
+	@Test
+	public void testBuiltInSizes() {
+		assertEquals(9, Streams.objectToByte(new Date()).length);
+		assertEquals(9, Streams.objectSize(Date.class));
+		assertEquals(17, Streams.objectToByte(UUID.randomUUID()).length);
+		assertEquals(17, Streams.objectSize(UUID.class));
+		assertEquals(1 + 4 + 3, Streams.objectToByte(new byte[3]).length);
+		assertEquals(1 + 4 + 3 * 8, Streams.objectToByte(new long[3]).length);
+		assertTrue(Streams.objectSize(BigDecimal.class) < 0);
+
+		assertEquals(StreamsCodecs.DATE_ID, Streams.getByteTypeNr(Date.class));
+		assertEquals(Date.class, Streams.getByteType(StreamsCodecs.DATE_ID));
+
+		// sub-classes are not handled by the codec of the super-class
+		assertEquals(0, Streams.getByteTypeNr(Timestamp.class));
+	}
+
+	/**
+	 * Tests the writing and reading of values handled by the built-in codecs.
+	 */
+	@Test
+	public void testBuiltInRoundTrip() {
+		final Timestamp timestamp = new Timestamp(5000l);
+		timestamp.setNanos(123456789);
+
+		final Object[] objects = new Object[] { new Date(4711l),
+				UUID.randomUUID(), new BigInteger("-123456789012345678901234"),
+				new BigDecimal("12345.678900"), BigDecimal.ZERO, timestamp,
+				"Hello", 5 };
+		final byte[] bytes = Streams.writeAllObjects(objects);
+
+		// read using the array
+		final List<Object> res = Streams.readAllObjects(bytes);
+		assertEquals(objects.length, res.size());
+		for (int i = 0; i < objects.length; i++) {
+			assertEquals(objects[i], res.get(i));
+		}
+
+		// read using a reader
+		final IByteBufferReader reader = Streams
+				.createByteBufferReader(ByteBuffer.wrap(bytes));
+		for (final Object o : objects) {
+			assertEquals(o, Streams.readNextObject(reader));
+		}
+		assertFalse(reader.hasRemaining());
+
+		// the scale must be kept
+		assertEquals(6, ((BigDecimal) res.get(3)).scale());
+	}
+
+	/**
+	 * Tests the writing and reading of arrays handled by the built-in codecs.
+	 */
+	@Test
+	public void testArrays() {
+		final byte[] b = new byte[] { 1, -2, 3 };
+		final int[] i = new int[] { Integer.MIN_VALUE, 0, Integer.MAX_VALUE };
+		final long[] l = new long[] { Long.MIN_VALUE, 5l, Long.MAX_VALUE };
+		final double[] d = new double[] { Double.NaN, -0.0, 1.5 };
+
+		final List<Object> res = Streams.readAllObjects(Streams
+				.writeAllObjects(b, i, l, d, new int[0]));
+		assertArrayEquals(b, (byte[]) res.get(0));
+		assertArrayEquals(i, (int[]) res.get(1));
+		assertArrayEquals(l, (long[]) res.get(2));
+		assertArrayEquals(d, (double[]) res.get(3), 0.0);
+		assertArrayEquals(new int[0], (int[]) res.get(4));
+	}
+
+	/**
+	 * Tests the registration of a custom codec.
+	 */
+	@Test
+	public void testCustomCodec() {
+		final Point point = new Point(3, -4);
+
+		// without a codec the point cannot be serialized
+		assertNull(Streams.objectToByte(point));
+
+		StreamsCodecs.register(StreamsCodecs.FIRST_CUSTOM_ID, new PointCodec());
+		final byte[] bytes = Streams.objectToByte(point);
+		assertEquals(9, bytes.length);
+		assertEquals(StreamsCodecs.FIRST_CUSTOM_ID, bytes[0]);
+		assertEquals(9, Streams.objectSize(point));
+		assertEquals(point, Streams.byteToObject(bytes).object);
+		assertEquals(point, Streams.readNextObject(
+				Streams.createByteBufferReader(ByteBuffer.wrap(bytes, 1, 8)),
+				Point.class));
+
+		// the identifier and the type can only be registered once
+		try {
+			StreamsCodecs.register(StreamsCodecs.FIRST_CUSTOM_ID,
+					new PointCodec());
+			fail("Exception expected");
+		} catch (final IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("already used"));
+		}
+		try {
+			StreamsCodecs.register(StreamsCodecs.FIRST_CUSTOM_ID + 1,
+					new PointCodec());
+			fail("Exception expected");
+		} catch (final IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("already registered"));
+		}
+
+		// unknown identifiers cannot be read
+		StreamsCodecs.unregister(StreamsCodecs.FIRST_CUSTOM_ID);
+		try {
+			Streams.byteToObject(bytes);
+			fail("Exception expected");
+		} catch (final IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("no codec registered"));
+		}
+	}
+
+	/**
+	 * Tests the registration using reserved identifiers.
+	 */
+	@Test
+	public void testReservedIdentifiers() {
+		for (final int id : new int[] { -1, 0, StreamsCodecs.DATE_ID,
+				StreamsCodecs.FIRST_CUSTOM_ID - 1, StreamsCodecs.MAX_ID + 1 }) {
+			try {
+				StreamsCodecs.register(id, new PointCodec());
+				fail("Exception expected for " + id);
+			} catch (final IllegalArgumentException e) {
+				assertTrue(e.getMessage().contains("must be within"));
+			}
+		}
+	}
+
+	/**
+	 * Tests the writing of homogeneous values as primitive blocks.
+	 */
+	@Test
+	public void testColumns() {
+		final List<Object> timestamps = new ArrayList<Object>();
+		final List<Object> ints = new ArrayList<Object>();
+		final List<Object> doubles = new ArrayList<Object>();
+		for (int i = 0; i < 1000; i++) {
+			timestamps.add(1400000000000l + i * 1000l);
+			ints.add(i % 2 == 0 ? i : -i);
+			doubles.add(i / 3.0);
+		}
+
+		// sorted values are delta encoded
+		final byte[] l = Streams.writeAllObjects(timestamps, true);
+		assertEquals(StreamsCodecs.DELTA_LONGARRAY_ID, l[0]);
+		assertTrue(l.length < 1 + 4 + 3 * 1000);
+		final long[] lRes = (long[]) Streams.readColumn(l);
+		assertEquals(1000, lRes.length);
+		for (int i = 0; i < lRes.length; i++) {
+			assertEquals(timestamps.get(i), lRes[i]);
+		}
+
+		// unsorted values are copied
+		final byte[] i = Streams.writeAllObjects(ints, true);
+		assertEquals(StreamsCodecs.INTARRAY_ID, i[0]);
+		assertEquals(1 + 4 + 4 * 1000, i.length);
+		assertEquals(ints.get(999), ((int[]) Streams.readColumn(i))[999]);
+
+		final byte[] d = Streams.writeAllObjects(doubles, true);
+		assertEquals(1 + 4 + 8 * 1000, d.length);
+		final double[] dRes = (double[]) Streams.readAllObjects(d).get(0);
+		assertEquals((Double) doubles.get(500), dRes[500], 0.0);
+
+		// the delta encoding handles overflows
+		final int[] extremes = new int[] { Integer.MIN_VALUE, -1, 0,
+				Integer.MAX_VALUE };
+		final HeapByteBufferWriter heap = new HeapByteBufferWriter();
+		Streams.writeColumn(heap, extremes, true);
+		Streams.writeColumn(heap, new long[] { Long.MAX_VALUE,
+				Long.MIN_VALUE }, true);
+		final List<Object> res = Streams.readAllObjects(heap.toByteArray());
+		assertArrayEquals(extremes, (int[]) res.get(0));
+		assertArrayEquals(new long[] { Long.MAX_VALUE, Long.MIN_VALUE },
+				(long[]) res.get(1));
+
+		// mixed values and null values are written one by one
+		final List<Object> mixed = Arrays.<Object> asList(1l, 2, 3.0);
+		assertArrayEquals(Streams.writeAllObjects(mixed),
+				Streams.writeAllObjects(mixed, true));
+		final List<Object> nulls = Arrays.<Object> asList(1l, null);
+		assertArrayEquals(Streams.writeAllObjects(nulls),
+				Streams.writeAllObjects(nulls, true));
+		try {
+			Streams.readColumn(Streams.writeAllObjects(mixed, true));
+			fail("Exception expected");
+		} catch (final IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("primitive block"));
+		}
+	}
+}
@@ -0,0 +1,257 @@
+package net.meisen.general.genmisc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import net.meisen.general.genmisc.resources.FileByteBufferWriter;
+import net.meisen.general.genmisc.types.Streams;
+import net.meisen.general.genmisc.types.StreamsIndex;
+import net.meisen.general.genmisc.types.StreamsSpliterator;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the {@code StreamsSpliterator}.
+ * 
+ * @author pmeisen
+ * 
+ */
+public class TestStreamsSpliterator {
+	private File file = null;
+
+	/**
+	 * Creates a list of objects of the different supported types.
+	 * 
+	 * @param amount
+	 *            the amount of objects to be created
+	 * 
+	 * @return the created objects
+	 */
+	protected List<Object> createObjects(final int amount) {
+		final List<Object> objects = new ArrayList<Object>();
+		for (int i = 0; i < amount; i++) {
+			switch (i % 8) {
+			case 0:
+				objects.add(i);
+				break;
+			case 1:
+				objects.add("Value " + i);
+				break;
+			case 2:
+				objects.add(new Date(i * 1000l));
+				break;
+			case 3:
+				objects.add(null);
+				break;
+			case 4:
+				objects.add(new BigDecimal(i + ".5"));
+				break;
+			case 5:
+				objects.add(new long[] { i, -i });
+				break;
+			case 6:
+				objects.add(i % 2 == 0);
+				break;
+			default:
+				objects.add(new Timestamp(i * 1000l));
+			}
+		}
+
+		return objects;
+	}
+
+	/**
+	 * Writes the objects to the test's file.
+	 * 
+	 * @param objects
+	 *            the objects to be written
+	 * @param compact
+	 *            {@code true} to use the compact representation
+	 * @param interval
+	 *            the interval of the index
+	 * 
+	 * @return the index of the objects
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be created
+	 */
+	protected StreamsIndex write(final List<Object> objects,
+			final boolean compact, final int interval)
+			throws FileNotFoundException {
+		file = new File(System.getProperty("java.io.tmpdir"), UUID
+				.randomUUID().toString());
+
+		final StreamsIndex index = new StreamsIndex(interval);
+		final FileByteBufferWriter writer = new FileByteBufferWriter(file);
+		for (final Object o : objects) {
+			index.mark(writer.position());
+			Streams.writeNextObject(writer, o, compact);
+		}
+		writer.close();
+
+		return index;
+	}
+
+	/**
+	 * Tests the sequential and parallel reading using an index.
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be created
+	 */
+	@Test
+	public void testIndexedReading() throws FileNotFoundException {
+		final List<Object> objects = createObjects(10000);
+		final StreamsIndex index = write(objects, false, 100);
+		assertEquals(10000, index.getCount());
+		assertEquals(100, index.size());
+
+		// store the index aside of the file
+		index.write(StreamsIndex.getIndexFile(file));
+
+		final Stream<Object> sequential = Streams.stream(file, false);
+		final List<Object> res = sequential.collect(Collectors.toList());
+		sequential.close();
+		assertObjects(objects, res);
+
+		final Stream<Object> parallel = Streams.stream(file, true);
+		assertTrue(parallel.isParallel());
+		assertObjects(objects, parallel.collect(Collectors.toList()));
+		parallel.close();
+
+		// a short-circuited stream
+		final Stream<Object> shortCircuit = Streams.stream(file, index, true);
+		assertEquals(0, shortCircuit.filter(new Predicate<Object>() {
+
+			@Override
+			public boolean test(final Object o) {
+				return o instanceof Integer;
+			}
+		}).findFirst().get());
+		shortCircuit.close();
+	}
+
+	/**
+	 * Tests the splitting of the {@code StreamsSpliterator}.
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be created
+	 */
+	@Test
+	public void testSplitting() throws FileNotFoundException {
+		final List<Object> objects = createObjects(1050);
+		final StreamsIndex index = write(objects, true, 100);
+
+		final StreamsSpliterator spliterator = new StreamsSpliterator(file,
+				index);
+		assertEquals(1050, spliterator.estimateSize());
+		assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+
+		final Spliterator<Object> prefix = spliterator.trySplit();
+		assertEquals(500, prefix.estimateSize());
+		assertEquals(550, spliterator.estimateSize());
+
+		// the parts are read independently
+		final List<Object> res = new ArrayList<Object>();
+		final Consumer<Object> consumer = new Consumer<Object>() {
+
+			@Override
+			public void accept(final Object o) {
+				res.add(o);
+			}
+		};
+		spliterator.tryAdvance(consumer);
+		assertEquals(objects.get(500), res.get(0));
+		assertNull(spliterator.trySplit());
+		prefix.forEachRemaining(consumer);
+		assertEquals(501, res.size());
+		assertEquals(objects.get(499), res.get(500));
+
+		spliterator.close();
+	}
+
+	/**
+	 * Tests the creation of an index by scanning the file.
+	 * 
+	 * @throws FileNotFoundException
+	 *             if the file cannot be created
+	 */
+	@Test
+	public void testScanning() throws FileNotFoundException {
+		for (final boolean compact : new boolean[] { false, true }) {
+			final List<Object> objects = createObjects(3333);
+			final StreamsIndex index = write(objects, compact, 50);
+
+			final StreamsIndex scanned = StreamsIndex.scan(file, 50);
+			assertEquals(index.getCount(), scanned.getCount());
+			assertEquals(index.size(), scanned.size());
+			for (int i = 0; i < index.size(); i++) {
+				assertEquals(index.getOffset(i), scanned.getOffset(i));
+			}
+
+			// without an index the file is scanned
+			final Stream<Object> stream = Streams.stream(file, true);
+			assertObjects(objects, stream.collect(Collectors.toList()));
+			stream.close();
+
+			assertTrue(file.delete());
+		}
+		file = null;
+
+		// an empty file
+		final StreamsIndex empty = write(new ArrayList<Object>(), false, 10);
+		assertEquals(0, Streams.stream(file, empty, true).count());
+		assertEquals(0, StreamsIndex.scan(file, 10).getCount());
+	}
+
+	/**
+	 * Compares the expected and the read objects.
+	 * 
+	 * @param expected
+	 *            the expected objects
+	 * @param actual
+	 *            the read objects
+	 */
+	protected void assertObjects(final List<Object> expected,
+			final List<Object> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			final Object o = expected.get(i);
+			if (o instanceof long[]) {
+				assertArrayEquals((long[]) o, (long[]) actual.get(i));
+			} else {
+				assertEquals(o, actual.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Removes the files created by a test.
+	 */
+	@After
+	public void cleanUp() {
+		if (file != null) {
+			final File indexFile = StreamsIndex.getIndexFile(file);
+			if (indexFile.exists()) {
+				assertTrue(indexFile.delete());
+			}
+			assertTrue(file.delete());
+		}
+	}
+}
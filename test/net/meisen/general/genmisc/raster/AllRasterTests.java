@@ -14,12 +14,15 @@ import net.meisen.general.genmisc.raster.definition.impl.TestRasterBucket;
 import net.meisen.general.genmisc.raster.definition.impl.date.TestDateFormatter;
 import net.meisen.general.genmisc.raster.definition.impl.date.TestDateRaster;
 import net.meisen.general.genmisc.raster.definition.impl.date.TestDateRasterLogic;
+import net.meisen.general.genmisc.raster.definition.impl.date.TestZonedDateRasterLogic;
 import net.meisen.general.genmisc.raster.function.impl.TestBucketLabel;
 import net.meisen.general.genmisc.raster.function.impl.TestConst;
 import net.meisen.general.genmisc.raster.function.impl.TestCount;
 import net.meisen.general.genmisc.raster.function.impl.TestGroup;
 import net.meisen.general.genmisc.raster.function.impl.TestIntervalSum;
 import net.meisen.general.genmisc.raster.function.impl.TestValue;
+import net.meisen.general.genmisc.raster.metrics.impl.TestBaseRasterMetrics;
+import net.meisen.general.genmisc.raster.tracking.impl.TestBaseRasterDirtyTracker;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -43,7 +46,7 @@ import org.junit.runners.Suite;
 		TestRasterBucket.class,
 		TestBaseRasterModelEntry.class,
 		TestBaseRasterModel.class,
-		TestDateRasterLogic.class,
+		TestDateRasterLogic.class, TestZonedDateRasterLogic.class,
 
 		// Functions
 		TestDateFormatter.class, TestConst.class, TestValue.class,
@@ -58,7 +61,13 @@ import org.junit.runners.Suite;
 		TestBaseRasterModelGroupCollection.class,
 
 		// Raster
-		TestDateRaster.class })
+		TestDateRaster.class,
+
+		// Metrics
+		TestBaseRasterMetrics.class,
+
+		// Tracking
+		TestBaseRasterDirtyTracker.class })
 public class AllRasterTests {
 	private static Locale oldLocale;
 
@@ -1,8 +1,16 @@
 package net.meisen.general.genmisc.raster.data.impl.date;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import net.meisen.general.genmisc.FileManager;
 
 import net.meisen.general.genmisc.raster.configuration.IRasterConfiguration;
 import net.meisen.general.genmisc.raster.configuration.impl.BaseRasterConfiguration;
@@ -152,4 +160,107 @@ public class TestBaseRasterModelGroupCollection {
 			}
 		}
 	}
+
+	/**
+	 * Tests the spilling of groups using
+	 * {@link BaseRasterModelGroupCollection#setSpilling(int, FileManager, File)}
+	 * 
+	 * @throws IOException
+	 *             if the spill-directory cannot be created
+	 */
+	@Test
+	public void testSpilling() throws IOException {
+		final String[] paramStart = { "START" };
+		final String[] paramEnd = { "END" };
+		final String[] names = { "Philipp Meisen", "Christian Kohlschein",
+				"Tobias Meisen" };
+
+		final IRasterConfiguration<Date> configuration = DateRasterUtilities
+				.createDateRasterConfiguration(DateGranularity.MINUTES, 1, null);
+		final BaseRasterConfiguration<Date> dateConfiguration = (BaseRasterConfiguration<Date>) configuration;
+		final BaseRasterModel model = (BaseRasterModel) RasterUtilities
+				.createRasterModel(paramStart[0], paramEnd[0], new Value(),
+						new Value(), paramStart, paramEnd);
+		model.addEntry(new BaseRasterModelEntry("TESTVALUE1",
+				RasterModelEntryType.GROUP, new Value(), "VALUE"));
+		model.addEntry(new BaseRasterModelEntry("TESTVALUE2",
+				RasterModelEntryType.VALUE, new Count(), "VALUE"));
+		model.addEntry(new BaseRasterModelEntry("TESTVALUE3",
+				RasterModelEntryType.VALUE, new Value(), "VALUE"));
+		dateConfiguration.addModel("MODEL", model);
+
+		// create the group collection which keeps one group in memory
+		final FileManager fileManager = new FileManager();
+		final File spillDir = fileManager.createDir(System
+				.getProperty("java.io.tmpdir"));
+		final BaseRasterModelGroupCollection<Date> groupCollection = new BaseRasterModelGroupCollection<Date>(
+				dateConfiguration, "MODEL");
+		groupCollection.setSpilling(1, fileManager, spillDir);
+
+		// add the first name once, the second twice and the third three times
+		final BaseRasterModelData md = new BaseRasterModelData();
+		md.setValue(paramStart[0],
+				GeneralUtilities.getDate("01.01.2010 00:00:00"));
+		md.setValue(paramEnd[0],
+				GeneralUtilities.getDate("01.01.2010 24:00:00"));
+		for (int i = 0; i < names.length; i++) {
+			for (int k = i; k < names.length; k++) {
+				md.setValue("VALUE", names[k]);
+				groupCollection.addModelData(md);
+			}
+		}
+
+		// check the groups
+		assertEquals(6, groupCollection.volume());
+		assertEquals(1, groupCollection.getResidentGroups());
+		assertEquals(2, groupCollection.getSpilledGroups());
+		assertEquals(2, spillDir.listFiles().length);
+
+		// check the values
+		assertEquals(4320, groupCollection.getAll().size());
+		for (final IRasterModelData data : groupCollection.getAll()) {
+			final Object name = data.getValue("TESTVALUE3");
+			for (int i = 0; i < names.length; i++) {
+				if (names[i].equals(name)) {
+					assertEquals(i + 1, data.getValue("TESTVALUE2"));
+				}
+			}
+		}
+
+		// the spilled groups are read once
+		final List<IRasterModelData> all = new ArrayList<IRasterModelData>(
+				groupCollection.getAll());
+		final Iterator<? extends IRasterModelData> it = groupCollection
+				.getAll().iterator();
+		for (final IRasterModelData data : all) {
+			assertSame(data, it.next());
+		}
+
+		// modifying a spilled group restores it, the data is read again
+		md.setValue("VALUE", names[0]);
+		groupCollection.addModelData(md);
+		assertEquals(2, groupCollection.getSpilledGroups());
+		for (final IRasterModelData data : groupCollection.getAll()) {
+			if (names[0].equals(data.getValue("TESTVALUE3"))) {
+				assertEquals(2, data.getValue("TESTVALUE2"));
+			}
+		}
+
+		// disable the spilling, everything should be in memory again
+		groupCollection.setSpilling(-1, null, null);
+		assertEquals(3, groupCollection.getResidentGroups());
+		assertEquals(0, groupCollection.getSpilledGroups());
+		assertEquals(0, spillDir.listFiles().length);
+		assertEquals(4320, groupCollection.getAll().size());
+
+		// spill again and reset
+		groupCollection.setSpilling(2, fileManager, spillDir);
+		assertEquals(2, groupCollection.getResidentGroups());
+		assertEquals(1, spillDir.listFiles().length);
+		groupCollection.reset();
+		assertEquals(0, groupCollection.volume());
+		assertEquals(0, spillDir.listFiles().length);
+
+		fileManager.cleanUp();
+	}
 }
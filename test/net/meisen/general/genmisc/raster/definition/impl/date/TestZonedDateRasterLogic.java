@@ -0,0 +1,265 @@
+package net.meisen.general.genmisc.raster.definition.impl.date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import net.meisen.general.genmisc.raster.configuration.impl.BaseRasterConfiguration;
+
+import org.junit.Test;
+
+/**
+ * Tests the <code>ZonedDateRasterLogic</code>
+ *
+ * @author pmeisen
+ *
+ */
+public class TestZonedDateRasterLogic {
+	private static final String[] ZONES = { "UTC", "Europe/Berlin",
+			"America/New_York", "Asia/Kolkata", "Australia/Lord_Howe" };
+
+	/**
+	 * The calendar based <code>DateRasterLogic</code> within a specific
+	 * <code>TimeZone</code>, used as reference.
+	 */
+	private static class CalendarLogic extends DateRasterLogic {
+		private final TimeZone timeZone;
+
+		public CalendarLogic(final DateRasterGranularity granularity,
+				final TimeZone timeZone) {
+			super(granularity);
+
+			this.timeZone = timeZone;
+		}
+
+		@Override
+		public Integer getRelativeValue(final Date date) {
+
+			// the minutes are the minutes of the wall-clock
+			if (DateGranularity.MINUTES.equals(enumGranularity)) {
+				final Calendar cal = createCalendar();
+				cal.setTime(date);
+
+				return cal.get(Calendar.HOUR_OF_DAY) * 60
+						+ cal.get(Calendar.MINUTE);
+			} else {
+				return super.getRelativeValue(date);
+			}
+		}
+
+		@Override
+		public Date getAbsoluteBucketStart(final Date valueDate) {
+
+			/*
+			 * the Calendar resolves an ambiguous local time to the standard
+			 * time when setting a field, so stay in UTC for the minutes
+			 */
+			if (DateGranularity.MINUTES.equals(enumGranularity)) {
+				final int diff = getBucket(valueDate).getBucketNumber()
+						- getRelativeValue(valueDate);
+				final long local = valueDate.getTime()
+						+ timeZone.getOffset(valueDate.getTime());
+				final long minute = valueDate.getTime()
+						- Math.floorMod(local, 60000l);
+
+				return new Date(minute + diff * 60000l);
+			} else {
+				return super.getAbsoluteBucketStart(valueDate);
+			}
+		}
+
+		@Override
+		protected Calendar createCalendar() {
+			return Calendar.getInstance(timeZone, Locale.US);
+		}
+
+		@Override
+		protected Date truncate(final Date date) {
+			final Calendar cal = createCalendar();
+			cal.setTime(date);
+			cal.set(Calendar.HOUR_OF_DAY, 0);
+			cal.set(Calendar.MINUTE, 0);
+			cal.set(Calendar.SECOND, 0);
+			cal.set(Calendar.MILLISECOND, 0);
+
+			return cal.getTime();
+		}
+	}
+
+	private ZonedDateRasterLogic createLogic(
+			final DateRasterGranularity granularity, final TimeZone timeZone,
+			final Locale locale) {
+		return new ZonedDateRasterLogic(granularity, timeZone, locale);
+	}
+
+	private Date date(final int year, final int month, final int day,
+			final int hour, final int minute, final String zone) {
+		final Calendar cal = Calendar.getInstance(TimeZone.getTimeZone(zone));
+		cal.clear();
+		cal.set(year, month - 1, day, hour, minute);
+
+		return cal.getTime();
+	}
+
+	/**
+	 * Tests the results of the <code>ZonedDateRasterLogic</code> against the
+	 * results of the <code>Calendar</code> based calculation within several
+	 * <code>TimeZones</code>.
+	 */
+	@Test
+	public void testCalendarEquivalence() {
+		final Random rnd = new Random(4711l);
+		final long start = date(1990, 1, 1, 0, 0, "UTC").getTime();
+		final long range = date(2030, 1, 1, 0, 0, "UTC").getTime() - start;
+
+		for (final String zone : ZONES) {
+			final TimeZone timeZone = TimeZone.getTimeZone(zone);
+
+			for (final DateGranularity granularity : DateGranularity.values()) {
+				for (final int size : new int[] { 1, 2, 15 }) {
+					final DateRasterGranularity rasterGranularity = new DateRasterGranularity(
+							granularity, size);
+					final ZonedDateRasterLogic logic = createLogic(
+							rasterGranularity, timeZone, Locale.US);
+					final CalendarLogic reference = new CalendarLogic(
+							rasterGranularity, timeZone);
+
+					for (int i = 0; i < 500; i++) {
+						final Date value = new Date(start
+								+ (long) (rnd.nextDouble() * range) / 60000l
+								* 60000l);
+						final String msg = zone + ", " + granularity + ", "
+								+ size + ", " + value.getTime();
+
+						assertEquals(msg, reference.getRelativeValue(value),
+								logic.getRelativeValue(value));
+						assertEquals(msg,
+								reference.getAbsoluteBucketStart(value),
+								logic.getAbsoluteBucketStart(value));
+						assertEquals(msg,
+								reference.getAbsoluteBucketEnd(value),
+								logic.getAbsoluteBucketEnd(value));
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests the bucketing on a day the daylight saving time starts.
+	 */
+	@Test
+	public void testDaylightSavingTime() {
+		final TimeZone berlin = TimeZone.getTimeZone("Europe/Berlin");
+		final ZonedDateRasterLogic logic = createLogic(
+				new DateRasterGranularity(DateGranularity.MINUTES, 60), berlin,
+				null);
+
+		// 01:30 UTC is 03:30 CEST on the 30.03.2014
+		final Date value = date(2014, 3, 30, 1, 30, "UTC");
+		assertEquals(210, logic.getRelativeValue(value).intValue());
+		assertEquals(180, logic.getBucket(value).getBucketNumber().intValue());
+		assertEquals(date(2014, 3, 30, 1, 0, "UTC"),
+				logic.getAbsoluteBucketStart(value));
+		assertEquals(date(2014, 3, 29, 23, 0, "UTC"), logic.truncate(value));
+
+		// the same instant is 21:30 in New York
+		final ZonedDateRasterLogic nyLogic = createLogic(
+				new DateRasterGranularity(DateGranularity.MINUTES, 60),
+				TimeZone.getTimeZone("America/New_York"), null);
+		assertEquals(1290, nyLogic.getRelativeValue(value).intValue());
+	}
+
+	/**
+	 * Tests the flooring of the minutes within a <code>TimeZone</code>
+	 * having an offset with seconds.
+	 */
+	@Test
+	public void testMinutesWithSecondsOffset() {
+		final TimeZone monrovia = TimeZone.getTimeZone("Africa/Monrovia");
+		final ZonedDateRasterLogic logic = createLogic(
+				new DateRasterGranularity(DateGranularity.MINUTES, 1),
+				monrovia, null);
+
+		// 01.06.1930 12:00 UTC is 11:15:30 (-00:44:30) in Monrovia
+		final Date value = date(1930, 6, 1, 12, 0, "UTC");
+		assertEquals(675, logic.getRelativeValue(value).intValue());
+		assertEquals(new Date(value.getTime() - 30000l),
+				logic.getAbsoluteBucketStart(value));
+	}
+
+	/**
+	 * Tests the conversion of local times within gaps and overlaps.
+	 */
+	@Test
+	public void testTransitions() {
+		final TimeZoneTransitions transitions = TimeZoneTransitions
+				.of(TimeZone.getTimeZone("Europe/Berlin"));
+		final long hour = 60l * 60l * 1000l;
+
+		// 30.03.2014 02:30 does not exist and is moved to 03:30 CEST
+		final long gap = date(2014, 3, 30, 2, 30, "UTC").getTime();
+		assertEquals(date(2014, 3, 30, 1, 30, "UTC").getTime(),
+				transitions.toUtc(gap));
+
+		// 26.10.2014 02:30 exists twice, the earlier one is used
+		final long overlap = date(2014, 10, 26, 2, 30, "UTC").getTime();
+		assertEquals(date(2014, 10, 26, 0, 30, "UTC").getTime(),
+				transitions.toUtc(overlap));
+
+		// check the offsets and the round-trip
+		assertEquals(hour, transitions.getOffset(date(2014, 1, 1, 0, 0, "UTC")
+				.getTime()));
+		assertEquals(2 * hour,
+				transitions.getOffset(date(2014, 7, 1, 0, 0, "UTC").getTime()));
+		final long utc = date(2014, 7, 1, 12, 0, "UTC").getTime();
+		assertEquals(utc, transitions.toUtc(transitions.toLocal(utc)));
+
+		// the transitions are shared
+		assertEquals(transitions,
+				TimeZoneTransitions.of(TimeZone.getTimeZone("Europe/Berlin")));
+	}
+
+	/**
+	 * Tests the <code>TimeZone</code> provided by the
+	 * <code>RasterConfiguration</code>.
+	 */
+	@Test
+	public void testConfiguration() {
+		final DateRasterGranularity granularity = new DateRasterGranularity(
+				DateGranularity.MINUTES, 1);
+
+		final ZonedDateRasterLogic logic = new ZonedDateRasterLogic(
+				granularity, TimeZone.getTimeZone("Asia/Tokyo"), null);
+		final BaseRasterConfiguration<Date> zoned = new BaseRasterConfiguration<Date>(
+				logic);
+		assertEquals("Asia/Tokyo", zoned.getTimeZone().getID());
+		assertSame(logic, zoned.getLogic());
+
+		// a configuration of another TimeZone uses its own logic
+		final BaseRasterConfiguration<Date> berlin = new BaseRasterConfiguration<Date>(
+				logic, TimeZone.getTimeZone("Europe/Berlin"));
+		assertEquals("Europe/Berlin", berlin.getTimeZone().getID());
+		assertEquals("Europe/Berlin", ((ZonedDateRasterLogic) berlin
+				.getLogic()).getTimeZone().getID());
+		assertEquals("Asia/Tokyo", logic.getTimeZone().getID());
+		assertSame(logic, zoned.getLogic());
+
+		// changing the TimeZone does not modify the shared logic
+		zoned.setTimeZone(TimeZone.getTimeZone("America/New_York"));
+		assertEquals("America/New_York", ((ZonedDateRasterLogic) zoned
+				.getLogic()).getTimeZone().getID());
+		assertEquals("Asia/Tokyo", logic.getTimeZone().getID());
+		assertEquals("Europe/Berlin", ((ZonedDateRasterLogic) berlin
+				.getLogic()).getTimeZone().getID());
+
+		final BaseRasterConfiguration<Date> unzoned = new BaseRasterConfiguration<Date>(
+				new DateRasterLogic(granularity));
+		assertEquals(TimeZone.getDefault(), unzoned.getTimeZone());
+	}
+}
@@ -4,8 +4,10 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 
+import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.TimeZone;
 
 import net.meisen.general.genmisc.raster.configuration.IRasterConfiguration;
 import net.meisen.general.genmisc.raster.definition.IRasterLogic;
@@ -105,6 +107,49 @@ public class TestBucketLabel {
 		assertEquals(value, "00:30 - 01:00");
 	}
 
+	/**
+	 * Tests the default format of the <code>BucketLabel</code>, which is
+	 * applied to the <code>Dates</code> (and not to <code>Calendars</code>)
+	 */
+	@Test
+	public void testLabelWithDefaultFormat() {
+		final IRasterModelEntry entry = new BaseRasterModelEntry("LABEL",
+				RasterModelEntryType.VALUE, new BucketLabel());
+
+		final Date start = GeneralUtilities.getDate("01.01.2012 00:00:00");
+		final Date end = GeneralUtilities.getDate("01.01.2012 00:30:00");
+		assertEquals(
+				String.format(new Locale("de"), "%1$s - %2s", start, end),
+				entry.execute("MODEL", configMock, start,
+						GeneralUtilities.getDate("01.01.2012 00:10:00")));
+	}
+
+	/**
+	 * Tests the <code>BucketLabel</code> to be formatted within the
+	 * <code>TimeZone</code> of the <code>RasterConfiguration</code>
+	 */
+	@Test
+	public void testLabelWithTimeZone() {
+		when(configMock.getTimeZone()).thenReturn(
+				TimeZone.getTimeZone("Asia/Tokyo"));
+
+		final IRasterModelEntry entry = new BaseRasterModelEntry("LABEL",
+				RasterModelEntryType.VALUE, new BucketLabel(),
+				"%1$tH:%1$tM - %2$tH:%2$tM");
+
+		// the bucket of the 01.01.2012 00:30 UTC is 09:30 in Tokyo
+		final Calendar cal = Calendar.getInstance(TimeZone
+				.getTimeZone("UTC"));
+		cal.clear();
+		cal.set(2012, 0, 1, 0, 30);
+		final Date start = cal.getTime();
+		cal.add(Calendar.MINUTE, 10);
+		final Date end = cal.getTime();
+
+		assertEquals("09:30 - 10:00",
+				entry.execute("MODEL", configMock, start, end));
+	}
+
 	/**
 	 * Tests the <code>BucketLabel</code> functionality with an
 	 * <code>IFormatter</code>
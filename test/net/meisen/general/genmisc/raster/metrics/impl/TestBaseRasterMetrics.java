@@ -0,0 +1,191 @@
+package net.meisen.general.genmisc.raster.metrics.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.meisen.general.genmisc.raster.condition.IRasterModelCondition;
+import net.meisen.general.genmisc.raster.data.IModelData;
+import net.meisen.general.genmisc.raster.data.impl.BaseModelData;
+import net.meisen.general.genmisc.raster.definition.IRaster;
+import net.meisen.general.genmisc.raster.definition.IRasterModel;
+import net.meisen.general.genmisc.raster.definition.RasterModelEntryType;
+import net.meisen.general.genmisc.raster.definition.impl.BaseRasterModel;
+import net.meisen.general.genmisc.raster.definition.impl.BaseRasterModelEntry;
+import net.meisen.general.genmisc.raster.definition.impl.date.DateGranularity;
+import net.meisen.general.genmisc.raster.function.impl.Count;
+import net.meisen.general.genmisc.raster.function.impl.Value;
+import net.meisen.general.genmisc.raster.metrics.RasterMetricsSnapshot;
+import net.meisen.general.genmisc.raster.metrics.RasterMetricsSnapshot.ModelMetrics;
+import net.meisen.general.genmisc.raster.utilities.DateRasterUtilities;
+import net.meisen.general.genmisc.raster.utilities.GeneralUtilities;
+import net.meisen.general.genmisc.raster.utilities.RasterUtilities;
+
+import org.junit.Test;
+
+/**
+ * Tests the implementation of the <code>BaseRasterMetrics</code>
+ * 
+ * @author pmeisen
+ * 
+ */
+public class TestBaseRasterMetrics {
+
+	/**
+	 * Creates a <code>Raster</code> with two <code>RasterModels</code>, one
+	 * grouping by <code>GROUP</code> and one accepting only data with a
+	 * <code>FILTER</code> value.
+	 * 
+	 * @return the created <code>Raster</code>
+	 */
+	protected IRaster<Date> createRaster() {
+		final Map<String, IRasterModel> models = new HashMap<String, IRasterModel>();
+
+		final BaseRasterModel grouped = (BaseRasterModel) RasterUtilities
+				.createRasterModel("START", "END", new Value(), new Value(),
+						new Object[] { "START" }, new Object[] { "END" });
+		grouped.addEntry(new BaseRasterModelEntry("GROUPER",
+				RasterModelEntryType.GROUP, new Value(), "GROUP"));
+		grouped.addEntry(new BaseRasterModelEntry("COUNT",
+				RasterModelEntryType.VALUE, new Count()));
+		models.put("GROUPED", grouped);
+
+		final BaseRasterModel filtered = (BaseRasterModel) RasterUtilities
+				.createRasterModel("START", "END", new Value(), new Value(),
+						new Object[] { "START" }, new Object[] { "END" });
+		filtered.addEntry(new BaseRasterModelEntry("COUNT",
+				RasterModelEntryType.VALUE, new Count()));
+		filtered.setCondition(new IRasterModelCondition() {
+
+			@Override
+			public boolean checkCondition(final IModelData data) {
+				return data != null && data.getValue("FILTER") != null;
+			}
+		});
+		models.put("FILTERED", filtered);
+
+		return DateRasterUtilities.createDateRaster(DateGranularity.MINUTES,
+				30, null, models);
+	}
+
+	/**
+	 * Helper method to create <code>ModelData</code>
+	 * 
+	 * @param start
+	 *            the start of the interval
+	 * @param end
+	 *            the end of the interval
+	 * @param group
+	 *            the group
+	 * @param filter
+	 *            the filter value
+	 * 
+	 * @return the created <code>ModelData</code>
+	 */
+	protected IModelData createData(final String start, final String end,
+			final String group, final Object filter) {
+		final BaseModelData md = new BaseModelData();
+		md.setValue("START", start == null ? null : GeneralUtilities
+				.getDate(start));
+		md.setValue("END", end == null ? null : GeneralUtilities.getDate(end));
+		md.setValue("GROUP", group);
+		md.setValue("FILTER", filter);
+
+		return md;
+	}
+
+	/**
+	 * Tests that nothing is collected if no <code>RasterMetrics</code> is
+	 * set.
+	 */
+	@Test
+	public void testDisabled() {
+		final IRaster<Date> raster = createRaster();
+		assertNull(raster.getMetrics());
+
+		raster.addModelData(createData("20.01.1981 00:00:00",
+				"20.01.1981 01:00:00", "A", null));
+		assertNull(raster.getMetrics());
+	}
+
+	/**
+	 * Tests the counting of accepted and rejected data, touched buckets and
+	 * created groups.
+	 */
+	@Test
+	public void testCounting() {
+		final BaseRasterMetrics metrics = new BaseRasterMetrics();
+		final IRaster<Date> raster = createRaster();
+		raster.setMetrics(metrics);
+		assertSame(metrics, raster.getMetrics());
+
+		// an interval of three buckets
+		raster.addModelData(createData("20.01.1981 00:00:00",
+				"20.01.1981 01:15:00", "A", null));
+		// an interval of one bucket
+		raster.addModelData(createData("20.01.1981 00:05:00",
+				"20.01.1981 00:10:00", "B", 1));
+		// an interval of two buckets in an already known group
+		raster.addModelData(createData("20.01.1981 00:20:00",
+				"20.01.1981 00:40:00", "A", 1));
+		// an invalid interval
+		raster.addModelData(createData(null, "20.01.1981 00:40:00", "A", 1));
+
+		final RasterMetricsSnapshot snapshot = metrics.snapshot();
+		assertEquals(2, snapshot.getModelIds().size());
+		assertTrue(snapshot.getElapsedNanos() > 0);
+
+		final ModelMetrics grouped = snapshot.getModel("GROUPED");
+		assertEquals(3, grouped.getAccepted());
+		assertEquals(0, grouped.getRejectedByCondition());
+		assertEquals(1, grouped.getRejectedByInterval());
+		assertEquals(6, grouped.getTouchedBuckets());
+		assertEquals(2.0, grouped.getTouchedBucketsPerRecord(), 0.0);
+		assertEquals(2, grouped.getGroupsCreated());
+		assertTrue(grouped.getWalkNanos() >= grouped.getFunctionNanos());
+		assertTrue(grouped.getFunctionNanos() > 0);
+
+		final ModelMetrics filtered = snapshot.getModel("FILTERED");
+		assertEquals(2, filtered.getAccepted());
+		assertEquals(1, filtered.getRejectedByCondition());
+		assertEquals(1, filtered.getRejectedByInterval());
+		assertEquals(2, filtered.getRejected());
+		assertEquals(3, filtered.getTouchedBuckets());
+		// the model without groups creates one group for all the data
+		assertEquals(1, filtered.getGroupsCreated());
+
+		// the snapshot is not modified anymore
+		raster.addModelData(createData("20.01.1981 00:00:00",
+				"20.01.1981 00:10:00", "C", 1));
+		assertEquals(3, grouped.getAccepted());
+		assertEquals(4, metrics.snapshot().getModel("GROUPED").getAccepted());
+
+		// reset the metrics
+		metrics.reset();
+		assertEquals(0, metrics.snapshot().getModelIds().size());
+	}
+
+	/**
+	 * Tests that the collection can be disabled again.
+	 */
+	@Test
+	public void testDisabling() {
+		final BaseRasterMetrics metrics = new BaseRasterMetrics();
+		final IRaster<Date> raster = createRaster();
+
+		raster.setMetrics(metrics);
+		raster.addModelData(createData("20.01.1981 00:00:00",
+				"20.01.1981 00:10:00", "A", 1));
+		raster.setMetrics(null);
+		raster.addModelData(createData("20.01.1981 00:00:00",
+				"20.01.1981 00:10:00", "A", 1));
+
+		assertEquals(1, metrics.snapshot().getModel("GROUPED").getAccepted());
+		assertEquals(1, metrics.snapshot().getModel("FILTERED").getAccepted());
+	}
+}
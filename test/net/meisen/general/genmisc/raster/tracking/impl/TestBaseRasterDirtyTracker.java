@@ -0,0 +1,389 @@
+package net.meisen.general.genmisc.raster.tracking.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import net.meisen.general.genmisc.FileManager;
+import net.meisen.general.genmisc.raster.configuration.IRasterConfiguration;
+import net.meisen.general.genmisc.raster.data.IModelData;
+import net.meisen.general.genmisc.raster.data.IRasterModelData;
+import net.meisen.general.genmisc.raster.data.impl.BaseModelData;
+import net.meisen.general.genmisc.raster.definition.IRaster;
+import net.meisen.general.genmisc.raster.definition.IRasterModel;
+import net.meisen.general.genmisc.raster.definition.IRasterModelEntry;
+import net.meisen.general.genmisc.raster.definition.RasterBucket;
+import net.meisen.general.genmisc.raster.definition.RasterModelEntryType;
+import net.meisen.general.genmisc.raster.definition.impl.BaseRasterModel;
+import net.meisen.general.genmisc.raster.definition.impl.BaseRasterModelEntry;
+import net.meisen.general.genmisc.raster.definition.impl.date.DateGranularity;
+import net.meisen.general.genmisc.raster.function.IsAggregatable;
+import net.meisen.general.genmisc.raster.function.impl.Count;
+import net.meisen.general.genmisc.raster.function.impl.IntervalSum;
+import net.meisen.general.genmisc.raster.function.impl.Value;
+import net.meisen.general.genmisc.raster.utilities.DateRasterUtilities;
+import net.meisen.general.genmisc.raster.utilities.GeneralUtilities;
+import net.meisen.general.genmisc.raster.utilities.RasterUtilities;
+
+import org.junit.Test;
+
+/**
+ * Tests the removal of <code>ModelData</code> from a <code>Raster</code> and
+ * the tracking of the modified <code>RasterBuckets</code> using the
+ * <code>BaseRasterDirtyTracker</code>
+ * 
+ * @author pmeisen
+ * 
+ */
+public class TestBaseRasterDirtyTracker {
+
+	/**
+	 * A none invertible <code>RasterFunction</code>, which keeps the maximal
+	 * group value
+	 */
+	private static class Max implements IsAggregatable {
+
+		@Override
+		public Object getInitialValue() {
+			return null;
+		}
+
+		@Override
+		public Object execute(final String modelId,
+				final IRasterConfiguration<?> configuration,
+				final IRasterModelEntry entry, final IModelData modelData,
+				final IRasterModelData rasterModelData,
+				final Object intervalStart, final Object intervalEnd) {
+			final String cur = (String) rasterModelData.get(entry.getName());
+			final String value = (String) modelData.get("GROUP");
+
+			return cur == null || cur.compareTo(value) < 0 ? value : cur;
+		}
+	}
+
+	/**
+	 * Creates a <code>Raster</code> with a <code>RasterModel</code> counting
+	 * and summing up the intervals.
+	 * 
+	 * @param grouped
+	 *            <code>true</code> if the <code>RasterModel</code> should be
+	 *            grouped by <code>GROUP</code>
+	 * @param invertible
+	 *            <code>false</code> if a none invertible
+	 *            <code>RasterFunction</code> should be added
+	 * 
+	 * @return the created <code>Raster</code>
+	 */
+	protected IRaster<Date> createRaster(final boolean grouped,
+			final boolean invertible) {
+		final Map<String, IRasterModel> models = new HashMap<String, IRasterModel>();
+
+		final BaseRasterModel model = (BaseRasterModel) RasterUtilities
+				.createRasterModel("START", "END", new Value(), new Value(),
+						new Object[] { "START" }, new Object[] { "END" });
+		if (grouped) {
+			model.addEntry(new BaseRasterModelEntry("GROUPER",
+					RasterModelEntryType.GROUP, new Value(), "GROUP"));
+		}
+		model.addEntry(new BaseRasterModelEntry("COUNT",
+				RasterModelEntryType.VALUE, new Count()));
+		model.addEntry(new BaseRasterModelEntry("SUM",
+				RasterModelEntryType.VALUE, new IntervalSum()));
+		if (!invertible) {
+			model.addEntry(new BaseRasterModelEntry("MAX",
+					RasterModelEntryType.VALUE, new Max()));
+		}
+		models.put("MODEL", model);
+
+		return DateRasterUtilities.createDateRaster(DateGranularity.MINUTES,
+				30, null, models);
+	}
+
+	/**
+	 * Helper method to create <code>ModelData</code>
+	 * 
+	 * @param start
+	 *            the start of the interval
+	 * @param end
+	 *            the end of the interval
+	 * @param group
+	 *            the group
+	 * 
+	 * @return the created <code>ModelData</code>
+	 */
+	protected IModelData createData(final String start, final String end,
+			final String group) {
+		final BaseModelData md = new BaseModelData();
+		md.setValue("START", GeneralUtilities.getDate(start));
+		md.setValue("END", GeneralUtilities.getDate(end));
+		md.setValue("GROUP", group);
+
+		return md;
+	}
+
+	/**
+	 * Gets the values of the specified entry of all the
+	 * <code>RasterModelData</code> of the <code>Raster</code>.
+	 * 
+	 * @param raster
+	 *            the <code>Raster</code> to get the values from
+	 * @param name
+	 *            the name of the entry
+	 * 
+	 * @return the values
+	 */
+	protected List<Object> getValues(final IRaster<Date> raster,
+			final String name) {
+		final List<Object> values = new ArrayList<Object>();
+		for (final IRasterModelData data : raster.getAll()) {
+			values.add(data.getValue(name));
+		}
+
+		return values;
+	}
+
+	/**
+	 * Tests that removing data leads to the same result as never adding it.
+	 */
+	@Test
+	public void testRemove() {
+		final IModelData a = createData("20.01.1981 00:00:00",
+				"20.01.1981 01:15:00", "A");
+		final IModelData b = createData("20.01.1981 00:30:00",
+				"20.01.1981 02:00:00", "A");
+
+		final IRaster<Date> raster = createRaster(false, true);
+		raster.addModelData(a);
+		raster.addModelData(b);
+		assertTrue(raster.removeModelData(a));
+
+		final IRaster<Date> expected = createRaster(false, true);
+		expected.addModelData(b);
+
+		assertEquals(getValues(expected, "COUNT"), getValues(raster, "COUNT"));
+		assertEquals(getValues(expected, "SUM"), getValues(raster, "SUM"));
+	}
+
+	/**
+	 * Tests that data which was never added (or was removed already) is not
+	 * removed, if the added data is tracked.
+	 */
+	@Test
+	public void testRemoveUnknown() {
+		final IModelData a = createData("20.01.1981 00:00:00",
+				"20.01.1981 01:15:00", "A");
+		final IModelData unknown = createData("20.01.1981 00:15:00",
+				"20.01.1981 01:00:00", "A");
+
+		final IRaster<Date> raster = createRaster(false, true);
+		raster.setDirtyTracker(new BaseRasterDirtyTracker());
+		raster.addModelData(a);
+		final List<Object> counts = getValues(raster, "COUNT");
+		final List<Object> sums = getValues(raster, "SUM");
+
+		assertFalse(raster.removeModelData(unknown));
+		assertEquals(counts, getValues(raster, "COUNT"));
+		assertEquals(sums, getValues(raster, "SUM"));
+
+		// the same interval with other values is another record
+		assertFalse(raster.removeModelData(createData("20.01.1981 00:00:00",
+				"20.01.1981 01:15:00", "B")));
+		assertFalse(raster.replaceModelData(unknown, a));
+		assertEquals(counts, getValues(raster, "COUNT"));
+
+		// the data can be removed only once, equal data can be removed
+		assertTrue(raster.removeModelData(createData("20.01.1981 00:00:00",
+				"20.01.1981 01:15:00", "A")));
+		assertFalse(raster.removeModelData(a));
+
+		final IRaster<Date> expected = createRaster(false, true);
+		assertEquals(getValues(expected, "COUNT"), getValues(raster, "COUNT"));
+		assertEquals(getValues(expected, "SUM"), getValues(raster, "SUM"));
+	}
+
+	/**
+	 * Tests the removal of data added before the data was tracked.
+	 */
+	@Test
+	public void testRemoveUntracked() {
+		final IModelData a = createData("20.01.1981 00:00:00",
+				"20.01.1981 01:15:00", "A");
+		final IModelData b = createData("20.01.1981 00:30:00",
+				"20.01.1981 02:00:00", "A");
+
+		final IRaster<Date> raster = createRaster(false, true);
+		raster.addModelData(a);
+		raster.setDirtyTracker(new BaseRasterDirtyTracker());
+		raster.addModelData(b);
+
+		// the untracked data is removed on the caller's responsibility
+		assertTrue(raster.removeModelData(a));
+		assertFalse(raster.removeModelData(a));
+		assertTrue(raster.removeModelData(b));
+		assertFalse(raster.removeModelData(b));
+
+		final IRaster<Date> expected = createRaster(false, true);
+		assertEquals(getValues(expected, "COUNT"), getValues(raster, "COUNT"));
+	}
+
+	/**
+	 * Tests that the tracked data of spilled groups is kept.
+	 */
+	@Test
+	public void testRemoveSpilled() throws IOException {
+		final FileManager fileManager = new FileManager();
+		final File spillDir = fileManager.createDir(System
+				.getProperty("java.io.tmpdir"));
+
+		try {
+			final IRaster<Date> raster = createRaster(true, true);
+			raster.setDirtyTracker(new BaseRasterDirtyTracker());
+			raster.setSpilling(1, fileManager, spillDir);
+
+			final IModelData a = createData("20.01.1981 00:00:00",
+					"20.01.1981 01:15:00", "A");
+			final IModelData b = createData("20.01.1981 00:30:00",
+					"20.01.1981 02:00:00", "B");
+			raster.addModelData(a);
+			raster.addModelData(b);
+
+			// the group of a is spilled and restored
+			assertFalse(raster.removeModelData(createData(
+					"20.01.1981 00:00:00", "20.01.1981 01:00:00", "A")));
+			raster.addModelData(b);
+			assertTrue(raster.removeModelData(a));
+			assertFalse(raster.removeModelData(a));
+
+			final IRaster<Date> expected = createRaster(true, true);
+			expected.setDirtyTracker(new BaseRasterDirtyTracker());
+			expected.addModelData(a);
+			expected.addModelData(b);
+			expected.addModelData(b);
+			assertTrue(expected.removeModelData(a));
+			assertEquals(getValues(expected, "COUNT"),
+					getValues(raster, "COUNT"));
+		} finally {
+			fileManager.cleanUp();
+		}
+	}
+
+	/**
+	 * Tests the replacement of data within a grouped <code>Raster</code>.
+	 */
+	@Test
+	public void testReplace() {
+		final IModelData a = createData("20.01.1981 00:00:00",
+				"20.01.1981 01:15:00", "A");
+		final IModelData b = createData("20.01.1981 00:30:00",
+				"20.01.1981 02:00:00", "A");
+		final IModelData corrected = createData("20.01.1981 00:30:00",
+				"20.01.1981 00:45:00", "A");
+
+		final IRaster<Date> raster = createRaster(true, true);
+		raster.addModelData(a);
+		raster.addModelData(b);
+		assertTrue(raster.replaceModelData(b, corrected));
+
+		final IRaster<Date> expected = createRaster(true, true);
+		expected.addModelData(a);
+		expected.addModelData(corrected);
+
+		assertEquals(getValues(expected, "COUNT"), getValues(raster, "COUNT"));
+		assertEquals(getValues(expected, "SUM"), getValues(raster, "SUM"));
+
+		// data of an unknown group cannot be removed
+		assertFalse(raster.removeModelData(createData("20.01.1981 00:00:00",
+				"20.01.1981 01:15:00", "B")));
+	}
+
+	/**
+	 * Tests that data cannot be removed if a <code>RasterFunction</code> is
+	 * not invertible.
+	 */
+	@Test
+	public void testNotInvertible() {
+		final IModelData a = createData("20.01.1981 00:00:00",
+				"20.01.1981 01:15:00", "A");
+
+		final IRaster<Date> raster = createRaster(false, false);
+		raster.addModelData(a);
+		final List<Object> counts = getValues(raster, "COUNT");
+
+		try {
+			raster.removeModelData(a);
+			fail("Exception expected");
+		} catch (final IllegalStateException e) {
+			assertTrue(e.getMessage().contains("MAX"));
+		}
+
+		// nothing should be modified
+		assertEquals(counts, getValues(raster, "COUNT"));
+	}
+
+	/**
+	 * Tests the tracking of the modified <code>RasterBuckets</code>.
+	 */
+	@Test
+	public void testTracking() {
+		final BaseRasterDirtyTracker tracker = new BaseRasterDirtyTracker();
+		final IRaster<Date> raster = createRaster(true, true);
+		assertNull(raster.getDirtyTracker());
+		raster.setDirtyTracker(tracker);
+		assertSame(tracker, raster.getDirtyTracker());
+		assertFalse(tracker.isDirty());
+
+		final IModelData a = createData("20.01.1981 00:00:00",
+				"20.01.1981 01:15:00", "A");
+		final IModelData b = createData("20.01.1981 12:00:00",
+				"20.01.1981 12:10:00", "B");
+		raster.addModelData(a);
+
+		// check the marked buckets
+		assertTrue(tracker.isDirty());
+		assertEquals(Arrays.asList("MODEL"),
+				new ArrayList<String>(tracker.getDirtyModels()));
+		assertEquals(buckets(0, 30, 60), tracker.getDirtyBuckets("MODEL"));
+
+		// drain the buckets
+		final Map<String, Set<RasterBucket>> drained = tracker.drain();
+		assertEquals(buckets(0, 30, 60), drained.get("MODEL"));
+		assertFalse(tracker.isDirty());
+		assertTrue(tracker.getDirtyBuckets("MODEL").isEmpty());
+
+		// a correction only marks the touched buckets
+		raster.addModelData(b);
+		tracker.clear();
+		raster.replaceModelData(b, createData("20.01.1981 12:00:00",
+				"20.01.1981 12:40:00", "B"));
+		assertEquals(buckets(720, 750), tracker.getDirtyBuckets("MODEL"));
+
+		// disable the tracking
+		tracker.clear();
+		raster.setDirtyTracker(null);
+		raster.removeModelData(a);
+		assertFalse(tracker.isDirty());
+	}
+
+	private Set<RasterBucket> buckets(final int... numbers) {
+		final Set<RasterBucket> buckets = new TreeSet<RasterBucket>();
+		for (final int nr : numbers) {
+			buckets.add(new RasterBucket(nr));
+		}
+
+		return buckets;
+	}
+}